@@ -2,6 +2,7 @@ package org.jellyfin.androidtv
 
 import android.app.Application
 import android.content.Context
+import android.graphics.Bitmap
 import androidx.lifecycle.ProcessLifecycleOwner
 import androidx.lifecycle.lifecycleScope
 import androidx.work.BackoffPolicy
@@ -15,12 +16,21 @@ import kotlinx.coroutines.Dispatchers
 import kotlinx.coroutines.launch
 import kotlinx.coroutines.withContext
 import org.acra.ACRA
+import org.jellyfin.androidtv.auth.repository.SessionRepository
 import org.jellyfin.androidtv.data.eventhandling.SocketHandler
+import org.jellyfin.androidtv.data.repository.ItemQueryCache
 import org.jellyfin.androidtv.data.repository.NotificationsRepository
+import org.jellyfin.androidtv.data.service.PlaybackReporter
 import org.jellyfin.androidtv.integration.LeanbackChannelWorker
 import org.jellyfin.androidtv.telemetry.TelemetryService
+import org.jellyfin.androidtv.ui.BlurHashCache
+import org.jellyfin.androidtv.ui.itemdetail.DetailPrefetcher
+import org.jellyfin.androidtv.ui.playback.StreamInfoCache
+import org.jellyfin.androidtv.ui.search.SearchEngine
 import org.jellyfin.androidtv.util.AutoBitrate
+import org.jellyfin.sdk.model.api.SearchHint
 import org.koin.android.ext.android.inject
+import java.util.UUID
 import java.util.concurrent.TimeUnit
 
 @Suppress("unused")
@@ -40,6 +50,28 @@ class JellyfinApplication : Application() {
 
 		val notificationsRepository by inject<NotificationsRepository>()
 		notificationsRepository.addDefaultNotifications()
+
+		// Forget the data cached for a user after logging out or switching to another user
+		val sessionRepository by inject<SessionRepository>()
+		ProcessLifecycleOwner.get().lifecycleScope.launch {
+			var userId: UUID? = null
+			sessionRepository.currentSession.collect { session ->
+				if (userId != null && session?.userId != userId) onSessionEnd()
+				userId = session?.userId
+			}
+		}
+	}
+
+	private fun onSessionEnd() {
+		val streamInfoCache by inject<StreamInfoCache>()
+		val searchEngine by inject<SearchEngine<SearchHint>>()
+		val itemQueryCache by inject<ItemQueryCache>()
+		val detailPrefetcher by inject<DetailPrefetcher>()
+
+		streamInfoCache.clear()
+		searchEngine.clear()
+		itemQueryCache.clearAsync()
+		detailPrefetcher.clear()
 	}
 
 
@@ -50,6 +82,7 @@ class JellyfinApplication : Application() {
 		val workManager by inject<WorkManager>()
 		val autoBitrate by inject<AutoBitrate>()
 		val socketListener by inject<SocketHandler>()
+		val playbackReporter by inject<PlaybackReporter>()
 
 		// Update background worker
 		launch {
@@ -69,6 +102,9 @@ class JellyfinApplication : Application() {
 		// Update WebSockets
 		launch { socketListener.updateSession() }
 
+		// Send the playback reports that failed before
+		playbackReporter.retryNow()
+
 		// Detect auto bitrate
 		// running in a different scope to prevent slow startups
 		ProcessLifecycleOwner.get().lifecycleScope.launch {
@@ -81,6 +117,8 @@ class JellyfinApplication : Application() {
 		super.onLowMemory()
 
 		BlurHash.clearCache()
+		val blurHashCache by inject<BlurHashCache<Bitmap>>()
+		blurHashCache.clear()
 		Glide.with(this).onLowMemory()
 	}
 
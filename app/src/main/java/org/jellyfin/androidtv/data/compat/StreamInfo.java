@@ -173,6 +173,29 @@ public class StreamInfo {
         PlaySessionId = value;
     }
 
+    /**
+     * Create a copy for another playback of the same negotiation, the media source is shared.
+     */
+    public final StreamInfo copy() {
+        StreamInfo copy = new StreamInfo();
+        copy.ItemId = ItemId;
+        copy.MediaUrl = MediaUrl;
+        copy.PlayMethod = PlayMethod;
+        copy.Context = Context;
+        copy.MediaType = MediaType;
+        copy.Container = Container;
+        copy.StartPositionTicks = StartPositionTicks;
+        copy.AudioCodecs = AudioCodecs;
+        copy.DeviceProfile = DeviceProfile;
+        copy.DeviceId = DeviceId;
+        copy.RunTimeTicks = RunTimeTicks;
+        copy.TranscodeSeekInfo = TranscodeSeekInfo;
+        copy.MediaSource = MediaSource;
+        copy.SubtitleDeliveryMethod = SubtitleDeliveryMethod;
+        copy.PlaySessionId = PlaySessionId;
+        return copy;
+    }
+
     public final String getMediaSourceId() {
         return getMediaSource() == null ? null : getMediaSource().getId();
     }
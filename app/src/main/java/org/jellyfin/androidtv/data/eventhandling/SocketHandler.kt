@@ -7,6 +7,7 @@ import kotlinx.coroutines.Dispatchers
 import kotlinx.coroutines.launch
 import kotlinx.coroutines.runBlocking
 import org.jellyfin.androidtv.data.model.DataRefreshService
+import org.jellyfin.androidtv.data.model.LibraryChange
 import org.jellyfin.androidtv.ui.playback.MediaManager
 import org.jellyfin.androidtv.ui.playback.PlaybackControllerContainer
 import org.jellyfin.androidtv.util.apiclient.PlaybackHelper
@@ -95,10 +96,19 @@ class SocketHandler(
 			appendLine("Updated ${info.itemsUpdated.size} items")
 		})
 
-		if (info.itemsAdded.any() || info.itemsRemoved.any())
-			dataRefreshService.lastLibraryChange = System.currentTimeMillis()
+		if (info.itemsAdded.none() && info.itemsRemoved.none() && info.itemsUpdated.none()) return
+
+		dataRefreshService.addLibraryChange(LibraryChange(
+			timestamp = System.currentTimeMillis(),
+			itemsAdded = info.itemsAdded.toIdSet(),
+			itemsRemoved = info.itemsRemoved.toIdSet(),
+			itemsUpdated = info.itemsUpdated.toIdSet(),
+			folders = (info.foldersAddedTo + info.foldersRemovedFrom + info.collectionFolders).toIdSet(),
+		))
 	}
 
+	private fun List<String>.toIdSet() = mapTo(HashSet()) { LibraryChange.normalizeId(it) }
+
 	private fun onPlayMessage(message: PlayMessage) {
 		val itemId = message.request.itemIds?.firstOrNull() ?: return
 
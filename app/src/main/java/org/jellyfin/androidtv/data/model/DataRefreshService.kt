@@ -2,7 +2,33 @@ package org.jellyfin.androidtv.data.model
 
 import org.jellyfin.sdk.model.api.BaseItemDto
 
+/**
+ * Items changed by a single library update. Ids are normalized using [normalizeId], [folders]
+ * contains the parent folders and libraries of the changed items.
+ */
+data class LibraryChange(
+	val timestamp: Long,
+	val itemsAdded: Set<String>,
+	val itemsRemoved: Set<String>,
+	val itemsUpdated: Set<String>,
+	val folders: Set<String>,
+) {
+	companion object {
+		@JvmStatic
+		fun normalizeId(id: String) = id.replace("-", "").lowercase()
+	}
+
+	/**
+	 * Check if items were added to the folder [parentId], or anywhere if it's null.
+	 */
+	fun isAddedTo(parentId: String?) = itemsAdded.isNotEmpty() && (parentId == null || normalizeId(parentId) in folders)
+}
+
 class DataRefreshService {
+	companion object {
+		const val MAX_LIBRARY_CHANGES = 50
+	}
+
 	var lastDeletedItemId: String? = null
 	var lastPlayback: Long = 0
 	var lastMoviePlayback: Long = 0
@@ -12,4 +38,25 @@ class DataRefreshService {
 	var lastVideoQueueChange: Long = 0
 	var lastFavoriteUpdate: Long = 0
 	var lastPlayedItem: BaseItemDto? = null
+
+	private val libraryChanges = ArrayDeque<LibraryChange>()
+	// changes up to this time were dropped from the history
+	private var libraryChangesDroppedUntil: Long = 0
+
+	@Synchronized
+	fun addLibraryChange(change: LibraryChange) {
+		libraryChanges.addLast(change)
+		if (libraryChanges.size > MAX_LIBRARY_CHANGES) libraryChangesDroppedUntil = libraryChanges.removeFirst().timestamp
+		lastLibraryChange = change.timestamp
+	}
+
+	/**
+	 * Get the library changes after [time], null if some of them were dropped and everything
+	 * loaded before [time] needs to be reloaded.
+	 */
+	@Synchronized
+	fun getLibraryChangesSince(time: Long): List<LibraryChange>? {
+		if (time < libraryChangesDroppedUntil) return null
+		return libraryChanges.filter { it.timestamp > time }
+	}
 }
@@ -0,0 +1,186 @@
+package org.jellyfin.androidtv.data.repository
+
+import android.content.Context
+import androidx.annotation.WorkerThread
+import com.google.gson.JsonArray
+import com.google.gson.JsonElement
+import com.google.gson.JsonObject
+import com.google.gson.JsonParseException
+import com.google.gson.JsonParser
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.SupervisorJob
+import kotlinx.coroutines.launch
+import kotlinx.coroutines.withContext
+import org.jellyfin.apiclient.interaction.Response
+import org.jellyfin.apiclient.serialization.GsonJsonSerializer
+import timber.log.Timber
+import java.io.File
+import java.io.IOException
+import java.security.MessageDigest
+import java.util.concurrent.TimeUnit
+
+/**
+ * On-disk cache of browse row query results, keyed by a fingerprint of the query.
+ *
+ * Rows render the cached result right away and replace it once the server responded, so the
+ * first rows on a cold start only wait for local storage. Entries older than [maxAge] are
+ * ignored, the least recently written entries are dropped above [maxEntries].
+ */
+class ItemQueryCache(
+	private val directory: File,
+	private val serializer: GsonJsonSerializer,
+	private val maxEntries: Int = DEFAULT_MAX_ENTRIES,
+	private val maxAge: Long = MAX_AGE,
+	private val clock: () -> Long = System::currentTimeMillis,
+) {
+	constructor(context: Context, serializer: GsonJsonSerializer) : this(context.cacheDir.resolve("item_query_cache"), serializer)
+
+	companion object {
+		const val DEFAULT_MAX_ENTRIES = 100
+		val MAX_AGE = TimeUnit.DAYS.toMillis(7)
+		private const val STORE_VERSION = 1
+	}
+
+	private val scope = CoroutineScope(SupervisorJob() + Dispatchers.IO)
+
+	/**
+	 * Get the cache key for [query] of [type] loaded by [userId]. The query parameters are
+	 * normalized, so equal queries always get the same key.
+	 */
+	fun fingerprint(type: String, userId: String?, query: Any): String {
+		val parameters = try {
+			JsonParser.parseString(serializer.SerializeToString(query)).normalized().toString()
+		} catch (e: JsonParseException) {
+			serializer.SerializeToString(query)
+		}
+
+		val digest = MessageDigest.getInstance("SHA-256")
+			.digest("$STORE_VERSION|$type|$userId|$parameters".toByteArray(Charsets.UTF_8))
+		return digest.joinToString("") { "%02x".format(it) }
+	}
+
+	// Sort object keys and drop nulls
+	private fun JsonElement.normalized(): JsonElement = when (this) {
+		is JsonObject -> JsonObject().also { normalized ->
+			entrySet()
+				.filterNot { it.value.isJsonNull }
+				.sortedBy { it.key }
+				.forEach { normalized.add(it.key, it.value.normalized()) }
+		}
+		is JsonArray -> JsonArray().also { normalized -> forEach { normalized.add(it.normalized()) } }
+		else -> this
+	}
+
+	private fun fileOf(key: String) = directory.resolve("$key.json")
+
+	/**
+	 * Get the cached result for [key], null if missing or expired.
+	 */
+	@WorkerThread
+	fun <T> get(key: String, type: Class<T>): T? {
+		val file = fileOf(key)
+		if (!file.exists()) return null
+		if (clock() - file.lastModified() > maxAge) {
+			file.delete()
+			return null
+		}
+
+		val text = try {
+			file.readText()
+		} catch (e: IOException) {
+			Timber.w(e, "Unable to read cached query result")
+			return null
+		}
+
+		val result = try {
+			serializer.DeserializeFromString(text, type)
+		} catch (e: Exception) {
+			Timber.w(e, "Unable to parse cached query result")
+			null
+		}
+		// corrupt or from an incompatible version
+		if (result == null) file.delete()
+		return result
+	}
+
+	/**
+	 * Get the cached result for [key] in the background, [response] is called on the main thread.
+	 */
+	fun <T> getAsync(key: String, type: Class<T>, response: Response<T?>) {
+		scope.launch {
+			val result = get(key, type)
+			withContext(Dispatchers.Main) { response.onResponse(result) }
+		}
+	}
+
+	/**
+	 * Store the result for [key].
+	 */
+	@WorkerThread
+	fun put(key: String, result: Any) = write(key, serializer.SerializeToString(result))
+
+	/**
+	 * Store the result for [key] in the background. The result is serialized right away, on the
+	 * thread that may still modify its items, and only the text is written in the background.
+	 */
+	fun putAsync(key: String, result: Any) {
+		val text = serializer.SerializeToString(result)
+		scope.launch { write(key, text) }
+	}
+
+	@WorkerThread
+	@Synchronized
+	private fun write(key: String, text: String) {
+		try {
+			directory.mkdirs()
+			val temp = directory.resolve("$key.tmp")
+			temp.writeText(text)
+			if (!temp.renameTo(fileOf(key))) temp.delete()
+			trim()
+		} catch (e: IOException) {
+			Timber.w(e, "Unable to write cached query result")
+		}
+	}
+
+	/**
+	 * Remove the result for [key].
+	 */
+	@WorkerThread
+	@Synchronized
+	fun remove(key: String) {
+		fileOf(key).delete()
+	}
+
+	/**
+	 * Remove the result for [key] in the background.
+	 */
+	fun removeAsync(key: String) {
+		scope.launch { remove(key) }
+	}
+
+	private fun trim() {
+		val files = directory.listFiles { file -> file.name.endsWith(".json") } ?: return
+		if (files.size <= maxEntries) return
+
+		files.sortedBy { it.lastModified() }
+			.take(files.size - maxEntries)
+			.forEach { it.delete() }
+	}
+
+	/**
+	 * Remove all cached results, e.g. after the user changed.
+	 */
+	@WorkerThread
+	@Synchronized
+	fun clear() {
+		directory.listFiles()?.forEach { it.delete() }
+	}
+
+	/**
+	 * Remove all cached results in the background.
+	 */
+	fun clearAsync() {
+		scope.launch { clear() }
+	}
+}
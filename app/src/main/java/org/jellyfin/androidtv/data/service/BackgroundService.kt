@@ -2,6 +2,8 @@ package org.jellyfin.androidtv.data.service
 
 import android.animation.ValueAnimator
 import android.content.Context
+import android.graphics.Bitmap
+import android.graphics.Canvas
 import android.graphics.Color
 import android.graphics.drawable.ColorDrawable
 import android.graphics.drawable.Drawable
@@ -13,13 +15,13 @@ import androidx.core.animation.doOnEnd
 import androidx.core.content.ContextCompat
 import androidx.core.graphics.BlendModeColorFilterCompat
 import androidx.core.graphics.BlendModeCompat
-import androidx.core.graphics.drawable.toBitmap
 import androidx.core.graphics.drawable.toDrawable
 import androidx.fragment.app.FragmentActivity
 import androidx.fragment.app.add
 import androidx.window.layout.WindowMetricsCalculator
 import com.bumptech.glide.Glide
 import com.bumptech.glide.Priority
+import com.bumptech.glide.request.FutureTarget
 import kotlinx.coroutines.*
 import org.jellyfin.androidtv.R
 import org.jellyfin.androidtv.auth.model.Server
@@ -62,12 +64,21 @@ class BackgroundService(
 	private var updateBackgroundTimerJob: Job? = null
 	private var lastBackgroundUpdate = 0L
 
-	// All background drawables currently showing
-	internal val backgrounds = mutableListOf<Drawable>()
+	// All background urls currently showing
+	internal val backgrounds = mutableListOf<String>()
 
 	// Current background index
 	private var currentIndex = 0
 
+	// Decoded backgrounds, only the current and next slideshow frame are kept
+	private class Frame(val target: FutureTarget<Drawable>, val drawable: Drawable)
+	private val frames = mutableMapOf<String, Frame>()
+	private val unusedFrames = mutableListOf<Frame>()
+
+	// Two reused screen sized bitmaps, one can be showing while the other takes the next snapshot
+	private val snapshotBitmaps = arrayOfNulls<Bitmap>(2)
+	private var snapshotIndex = 0
+
 	// Preferred display size, set when calling [attach].
 	private var windowSize = Size(0, 0)
 	private var windowBackground: Drawable = ColorDrawable(Color.BLACK)
@@ -100,6 +111,7 @@ class BackgroundService(
 			backgroundDrawable.setDrawableByLayerId(R.id.background_current, drawable)
 			backgroundDrawable.setDrawableByLayerId(R.id.background_next, ColorDrawable(Color.TRANSPARENT))
 			backgroundDrawable.invalidateSelf()
+			releaseUnusedFrames()
 		}
 	}
 
@@ -243,44 +255,17 @@ class BackgroundService(
 
 	private fun loadBackgrounds(backdropUrls: Set<String>) {
 		if (backdropUrls.isEmpty()) return clearBackgrounds()
+		if (backgrounds == backdropUrls.toList()) return
 
-		// Cancel current loading job
+		// Stop decoding the backgrounds of the previous item
 		loadBackgroundsJob?.cancel()
-		loadBackgroundsJob = scope.launch(Dispatchers.IO) {
-			val backdropDrawables = backdropUrls
-				.map { url ->
-					Glide.with(context)
-						.load(url)
-						.override(windowSize.width, windowSize.height)
-						.priority(Priority.LOW)
-						.centerCrop()
-						.submit()
-				}
-				.map { future ->
-					async {
-						try {
-							withContext(Dispatchers.IO) {
-								future.get()
-							}
-						} catch (ex: ExecutionException) {
-							Timber.e(ex, "There was an error fetching the background image.")
-							null
-						}
-					}
-				}
-				.awaitAll()
-				.filterNotNull()
-				.onEach { it.colorFilter = colorFilter }
-
-			backgrounds.clear()
-			backgrounds.addAll(backdropDrawables)
-
-			withContext(Dispatchers.Main) {
-				// Go to first background
-				currentIndex = 0
-				update()
-			}
-		}
+
+		backgrounds.clear()
+		backgrounds.addAll(backdropUrls)
+
+		// Go to first background
+		currentIndex = 0
+		update()
 	}
 
 	fun clearBackgrounds() {
@@ -300,23 +285,46 @@ class BackgroundService(
 
 		lastBackgroundUpdate = now
 
+		// Get next background to show
+		if (currentIndex >= backgrounds.size) currentIndex = 0
+		val url = backgrounds.getOrNull(currentIndex)
+
+		loadBackgroundsJob?.cancel()
+		if (url == null) {
+			retainFrames(emptySet())
+			return show(null)
+		}
+
+		loadBackgroundsJob = scope.launch {
+			val frame = decodeFrame(url)
+			if (frame == null) {
+				// Skip backgrounds that fail to load
+				backgrounds.remove(url)
+				lastBackgroundUpdate = 0
+				return@launch update()
+			}
+
+			show(frame.drawable)
+
+			// Decode the next slideshow frame ahead of time
+			val nextUrl = backgrounds.getOrNull((currentIndex + 1) % backgrounds.size)?.takeIf { it != url }
+			retainFrames(setOfNotNull(url, nextUrl))
+			if (nextUrl != null) decodeFrame(nextUrl)
+		}
+	}
+
+	@MainThread
+	private fun show(drawable: Drawable?) {
 		// Snapshot the current state if an animation is running and draw the new
 		// background on top.
 		if (backgroundAnimator.isRunning) {
-			val current = backgroundDrawable
-				.toBitmap(windowSize.width, windowSize.height)
-				.toDrawable(context.resources)
+			val current = snapshot()
 			backgroundAnimator.end()
-			backgroundDrawable.setDrawableByLayerId(R.id.background_current, current)
+			if (current != null) backgroundDrawable.setDrawableByLayerId(R.id.background_current, current)
 		}
 
-		// Get next background to show
-		if (currentIndex >= backgrounds.size) currentIndex = 0
-
-		backgroundDrawable.setDrawableByLayerId(
-			R.id.background_next,
-			backgrounds.getOrElse(currentIndex) { windowBackground.copy() }
-		)
+		backgroundDrawable.setDrawableByLayerId(R.id.background_next, drawable ?: windowBackground.copy())
+		releaseUnusedFrames()
 
 		// Animate
 		backgroundAnimator.start()
@@ -326,6 +334,72 @@ class BackgroundService(
 		else updateBackgroundTimerJob?.cancel()
 	}
 
+	private fun snapshot(): Drawable? {
+		if (windowSize.width <= 0 || windowSize.height <= 0) return null
+
+		snapshotIndex = (snapshotIndex + 1) % snapshotBitmaps.size
+		val bitmap = snapshotBitmaps[snapshotIndex]
+			?.takeIf { it.width == windowSize.width && it.height == windowSize.height }
+			?: Bitmap.createBitmap(windowSize.width, windowSize.height, Bitmap.Config.ARGB_8888)
+				.also { snapshotBitmaps[snapshotIndex] = it }
+
+		bitmap.eraseColor(Color.TRANSPARENT)
+		val bounds = backgroundDrawable.copyBounds()
+		backgroundDrawable.setBounds(0, 0, windowSize.width, windowSize.height)
+		backgroundDrawable.draw(Canvas(bitmap))
+		backgroundDrawable.bounds = bounds
+
+		return bitmap.toDrawable(context.resources)
+	}
+
+	private suspend fun decodeFrame(url: String): Frame? {
+		frames[url]?.let { return it }
+
+		val target = Glide.with(context)
+			.load(url)
+			.override(windowSize.width, windowSize.height)
+			.priority(Priority.LOW)
+			.centerCrop()
+			.submit()
+
+		return try {
+			val drawable = runInterruptible(Dispatchers.IO) { target.get() }
+			drawable.colorFilter = colorFilter
+			Frame(target, drawable).also { frames[url] = it }
+		} catch (ex: ExecutionException) {
+			Timber.e(ex, "There was an error fetching the background image.")
+			Glide.with(context).clear(target)
+			null
+		} catch (ex: CancellationException) {
+			// The user moved on, stop decoding
+			target.cancel(true)
+			throw ex
+		}
+	}
+
+	// Drop all decoded frames except [urls]
+	private fun retainFrames(urls: Set<String>) {
+		val iterator = frames.iterator()
+		while (iterator.hasNext()) {
+			val (url, frame) = iterator.next()
+			if (url in urls) continue
+			iterator.remove()
+			unusedFrames.add(frame)
+		}
+		releaseUnusedFrames()
+	}
+
+	// Return the bitmaps of frames to the Glide pool once they are no longer drawn
+	private fun releaseUnusedFrames() {
+		val current = backgroundDrawable.findDrawableByLayerId(R.id.background_current)
+		val next = backgroundDrawable.findDrawableByLayerId(R.id.background_next)
+		unusedFrames.removeAll { frame ->
+			if (frame.drawable === current || frame.drawable === next) return@removeAll false
+			Glide.with(context).clear(frame.target)
+			true
+		}
+	}
+
 	private fun setTimer(updateDelay: Long = SLIDESHOW_DURATION, increaseIndex: Boolean = true) {
 		updateBackgroundTimerJob?.cancel()
 		updateBackgroundTimerJob = scope.launch {
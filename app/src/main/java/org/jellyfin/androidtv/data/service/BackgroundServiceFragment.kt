@@ -1,6 +1,5 @@
 package org.jellyfin.androidtv.data.service
 
-import android.graphics.drawable.Drawable
 import androidx.fragment.app.Fragment
 import org.koin.android.ext.android.inject
 import timber.log.Timber
@@ -10,7 +9,7 @@ import timber.log.Timber
  */
 internal class BackgroundServiceFragment : Fragment() {
 	private val backgroundService by inject<BackgroundService>()
-	private var backgrounds: Array<Drawable>? = null
+	private var backgrounds: Array<String>? = null
 
 	override fun onResume() {
 		super.onResume()
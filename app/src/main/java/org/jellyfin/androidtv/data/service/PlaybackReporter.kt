@@ -0,0 +1,348 @@
+package org.jellyfin.androidtv.data.service
+
+import kotlinx.coroutines.CancellationException
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.Job
+import kotlinx.coroutines.SupervisorJob
+import kotlinx.coroutines.channels.Channel
+import kotlinx.coroutines.isActive
+import kotlinx.coroutines.launch
+import kotlinx.coroutines.withTimeout
+import kotlinx.coroutines.withTimeoutOrNull
+import org.jellyfin.androidtv.util.apiclient.callApiCancellable
+import org.jellyfin.androidtv.util.apiclient.callApiEmptyCancellable
+import org.jellyfin.apiclient.interaction.ApiClient
+import org.jellyfin.apiclient.model.dto.UserItemDataDto
+import org.jellyfin.apiclient.model.net.HttpException
+import org.jellyfin.apiclient.model.session.PlaybackProgressInfo
+import org.jellyfin.apiclient.model.session.PlaybackStartInfo
+import org.jellyfin.apiclient.model.session.PlaybackStopInfo
+import org.jellyfin.apiclient.serialization.GsonJsonSerializer
+import timber.log.Timber
+import java.io.File
+import java.io.IOException
+import java.util.concurrent.TimeUnit
+import kotlin.math.abs
+
+/**
+ * Sends the playback reports of all players to the server, one at a time and in order.
+ *
+ * Progress is coalesced per play session: a new tick replaces the one waiting to be sent, and
+ * ticks are only sent every [progressInterval] unless the pause state, the selected tracks or the
+ * position (seeking) changed. Stop and mark played reports are stored in [file] until the server
+ * accepted them, failed attempts are retried with exponential back-off per report. A report waiting
+ * for its retry only holds up the later stored reports of the same item, reports the server
+ * rejected for good are dropped.
+ */
+class PlaybackReporter(
+	private val transport: Transport,
+	private val file: File,
+	private val serializer: GsonJsonSerializer,
+	private val currentUserId: () -> String?,
+	private val scope: CoroutineScope = CoroutineScope(SupervisorJob() + Dispatchers.IO),
+	private val progressInterval: Long = PROGRESS_INTERVAL,
+	private val initialBackoff: Long = INITIAL_BACKOFF,
+	private val clock: () -> Long = System::currentTimeMillis,
+) {
+	companion object {
+		val PROGRESS_INTERVAL = TimeUnit.SECONDS.toMillis(10)
+		val INITIAL_BACKOFF = TimeUnit.SECONDS.toMillis(5)
+		val MAX_BACKOFF = TimeUnit.MINUTES.toMillis(5)
+		val REQUEST_TIMEOUT = TimeUnit.SECONDS.toMillis(30)
+		val MAX_AGE = TimeUnit.DAYS.toMillis(7)
+		val START_MAX_AGE = TimeUnit.MINUTES.toMillis(1)
+		const val MAX_STORED = 100
+		const val MAX_ATTEMPTS = 30
+
+		// A position off by more than this from the expected one is a seek
+		private val SEEK_THRESHOLD_TICKS = TimeUnit.SECONDS.toMillis(5) * 10_000
+
+		// Client errors besides these will fail again on every retry
+		private val TRANSIENT_CLIENT_ERRORS = setOf(401, 408, 429)
+
+		fun isPermanentStatus(statusCode: Int) = statusCode in 400..499 && statusCode !in TRANSIENT_CLIENT_ERRORS
+	}
+
+	interface Transport {
+		suspend fun start(info: PlaybackStartInfo)
+		suspend fun progress(info: PlaybackProgressInfo)
+		suspend fun stop(info: PlaybackStopInfo)
+		suspend fun markPlayed(userId: String, itemId: String)
+
+		/**
+		 * Whether [error] means the server rejected the report and retrying it is pointless.
+		 */
+		fun isPermanent(error: Exception): Boolean = false
+	}
+
+	class ApiClientTransport(private val apiClient: ApiClient) : Transport {
+		override suspend fun start(info: PlaybackStartInfo) = callApiEmptyCancellable { apiClient.ReportPlaybackStartAsync(info, it) }
+		override suspend fun progress(info: PlaybackProgressInfo) = callApiEmptyCancellable { apiClient.ReportPlaybackProgressAsync(info, it) }
+		override suspend fun stop(info: PlaybackStopInfo) = callApiEmptyCancellable { apiClient.ReportPlaybackStoppedAsync(info, it) }
+		override suspend fun markPlayed(userId: String, itemId: String) {
+			callApiCancellable<UserItemDataDto> { apiClient.MarkPlayedAsync(itemId, userId, null, it) }
+		}
+
+		override fun isPermanent(error: Exception) =
+			(error as? HttpException)?.statusCode?.let(::isPermanentStatus) ?: false
+	}
+
+	enum class ReportType(val stored: Boolean) {
+		START(false),
+		PROGRESS(false),
+		STOP(true),
+		MARK_PLAYED(true),
+	}
+
+	class Report(
+		val type: ReportType,
+		val userId: String,
+		val itemId: String,
+		val queuedAt: Long,
+		val startInfo: PlaybackStartInfo? = null,
+		val progressInfo: PlaybackProgressInfo? = null,
+		val stopInfo: PlaybackStopInfo? = null,
+	) {
+		@Transient
+		var attempts = 0
+
+		@Transient
+		var dueAt = 0L
+	}
+
+	private class SentProgress(
+		val info: PlaybackProgressInfo,
+		val at: Long,
+	)
+
+	private val lock = Any()
+	private val reports = ArrayDeque<Report>()
+	private val progress = LinkedHashMap<String, Report>()
+	private val lastProgress = HashMap<String, SentProgress>()
+	private val wakeUp = Channel<Unit>(Channel.CONFLATED)
+	private var storedVersion = 0
+	private var writtenVersion = 0
+
+	// Stores wait for this, so they never overwrite the file before it was read
+	private val loading: Job = scope.launch { load() }
+
+	var sent = 0
+		private set
+	var coalesced = 0
+		private set
+	var failed = 0
+		private set
+
+	init {
+		scope.launch {
+			loading.join()
+			run()
+		}
+	}
+
+	private fun sessionKey(info: PlaybackProgressInfo) = "${info.itemId}|${info.playSessionId}"
+
+	fun reportStart(userId: String, info: PlaybackStartInfo) =
+		enqueue(Report(ReportType.START, userId, info.itemId, clock(), startInfo = info))
+
+	fun reportStopped(userId: String, info: PlaybackStopInfo) {
+		synchronized(lock) {
+			// The stop report supersedes all progress of the item
+			progress.values.removeAll { it.itemId == info.itemId }
+			lastProgress.keys.removeAll { it.startsWith("${info.itemId}|") }
+		}
+		enqueue(Report(ReportType.STOP, userId, info.itemId, clock(), stopInfo = info))
+	}
+
+	fun markPlayed(userId: String, itemId: String) =
+		enqueue(Report(ReportType.MARK_PLAYED, userId, itemId, clock()))
+
+	fun reportProgress(userId: String, info: PlaybackProgressInfo) {
+		val now = clock()
+		val report = Report(ReportType.PROGRESS, userId, info.itemId, now, progressInfo = info)
+
+		synchronized(lock) {
+			val key = sessionKey(info)
+			val last = lastProgress[key]
+			report.dueAt = if (last == null || isStateChange(last, info, now)) now else last.at + progressInterval
+
+			val pending = progress.remove(key)
+			if (pending != null) {
+				coalesced++
+				report.dueAt = minOf(report.dueAt, pending.dueAt)
+			}
+			progress[key] = report
+		}
+
+		wakeUp.trySend(Unit)
+	}
+
+	private fun isStateChange(last: SentProgress, info: PlaybackProgressInfo, now: Long): Boolean {
+		if (last.info.isPaused != info.isPaused) return true
+		if (last.info.audioStreamIndex != info.audioStreamIndex) return true
+		if (last.info.subtitleStreamIndex != info.subtitleStreamIndex) return true
+
+		val lastPosition = last.info.positionTicks ?: return false
+		val position = info.positionTicks ?: return false
+		val expected = if (info.isPaused) lastPosition else lastPosition + (now - last.at) * 10_000
+		return abs(position - expected) > SEEK_THRESHOLD_TICKS
+	}
+
+	/**
+	 * Retry failed reports right away, for example after the session changed.
+	 */
+	fun retryNow() {
+		synchronized(lock) { reports.forEach { it.dueAt = 0 } }
+		wakeUp.trySend(Unit)
+	}
+
+	private fun enqueue(report: Report) {
+		synchronized(lock) {
+			reports.addLast(report)
+			if (report.type.stored) storedVersion++
+		}
+		if (report.type.stored) scheduleStore()
+		wakeUp.trySend(Unit)
+	}
+
+	private suspend fun run() {
+		while (scope.isActive) {
+			val now = clock()
+			val userId = currentUserId()
+			val report = synchronized(lock) { next(userId, now) }
+
+			if (report == null) {
+				val wait = synchronized(lock) { nextDueAt(userId, now) }
+				if (wait == null) wakeUp.receive()
+				else withTimeoutOrNull(maxOf(wait - now, 0L)) { wakeUp.receive() }
+				continue
+			}
+
+			val error = try {
+				withTimeout(REQUEST_TIMEOUT) { send(report) }
+				null
+			} catch (err: Exception) {
+				if (err is CancellationException && !scope.isActive) throw err
+				Timber.w(err, "Unable to send %s report for %s", report.type, report.itemId)
+				err
+			}
+
+			onSent(report, error)
+		}
+	}
+
+	// Reports of other users wait until they are signed in again
+	private fun next(userId: String?, now: Long): Report? {
+		// A start report the server did not get in time is of no use anymore
+		reports.removeAll { it.type == ReportType.START && now - it.queuedAt > START_MAX_AGE }
+
+		// Stored reports of an item keep their order, a report waiting for its retry only holds
+		// up the ones of the same item
+		val waiting = HashSet<String>()
+		for (report in reports) {
+			if (report.userId != userId) continue
+			if (report.itemId in waiting) continue
+			if (report.dueAt <= now) return report
+			if (report.type.stored) waiting.add(report.itemId)
+		}
+
+		val report = progress.values
+			.filter { it.userId == userId && it.dueAt <= now }
+			.minByOrNull { it.dueAt }
+			?: return null
+		progress.remove(sessionKey(report.progressInfo!!))
+		return report
+	}
+
+	private fun nextDueAt(userId: String?, now: Long): Long? {
+		// Due reports left over are waiting behind a retry of their item
+		val retry = reports.filter { it.userId == userId && it.dueAt > now }.minOfOrNull { it.dueAt }
+		val tick = progress.values.filter { it.userId == userId }.minOfOrNull { it.dueAt }
+		return listOfNotNull(retry, tick).minOrNull()
+	}
+
+	private fun backoffFor(attempts: Int) =
+		minOf(initialBackoff * (1L shl minOf(attempts - 1, 16)), MAX_BACKOFF)
+
+	private suspend fun send(report: Report) = when (report.type) {
+		ReportType.START -> transport.start(report.startInfo!!)
+		ReportType.PROGRESS -> transport.progress(report.progressInfo!!)
+		ReportType.STOP -> transport.stop(report.stopInfo!!)
+		ReportType.MARK_PLAYED -> transport.markPlayed(report.userId, report.itemId)
+	}
+
+	private fun onSent(report: Report, error: Exception?) {
+		val success = error == null
+		val permanent = error != null && transport.isPermanent(error)
+		var changed = false
+		synchronized(lock) {
+			if (success) sent++ else failed++
+			report.attempts++
+
+			when {
+				report.type == ReportType.PROGRESS -> {
+					val info = report.progressInfo!!
+					if (success) lastProgress[sessionKey(info)] = SentProgress(info, clock())
+				}
+				// Start reports are only useful right away
+				!report.type.stored -> reports.remove(report)
+				success || permanent || report.attempts >= MAX_ATTEMPTS -> {
+					if (permanent) Timber.w("Dropping %s report for %s rejected by the server", report.type, report.itemId)
+					else if (!success) Timber.w("Dropping %s report for %s after %d attempts", report.type, report.itemId, report.attempts)
+					reports.remove(report)
+					storedVersion++
+					changed = true
+				}
+				else -> report.dueAt = clock() + backoffFor(report.attempts)
+			}
+		}
+		if (changed) scheduleStore()
+	}
+
+	private fun scheduleStore() = scope.launch {
+		loading.join()
+		store()
+	}
+
+	private fun load() {
+		if (!file.exists()) return
+
+		val stored = try {
+			serializer.DeserializeFromString(file.readText(), Array<Report>::class.java)
+		} catch (err: Exception) {
+			Timber.w(err, "Unable to read stored playback reports")
+			null
+		}.orEmpty()
+
+		val now = clock()
+		synchronized(lock) {
+			// Keep the stored reports in front of everything reported since
+			reports.addAll(0, stored.filter { it.type.stored && now - it.queuedAt <= MAX_AGE })
+		}
+		Timber.i("Loaded %d stored playback reports", stored.size)
+	}
+
+	@Synchronized
+	private fun store() {
+		val (version, stored) = synchronized(lock) {
+			storedVersion to reports.filter { it.type.stored }.takeLast(MAX_STORED)
+		}
+		// A newer state was already written
+		if (version <= writtenVersion) return
+
+		try {
+			if (stored.isEmpty()) {
+				file.delete()
+			} else {
+				file.parentFile?.mkdirs()
+				val temp = File(file.path + ".tmp")
+				temp.writeText(serializer.SerializeToString(stored.toTypedArray()))
+				if (!temp.renameTo(file)) temp.delete()
+			}
+			writtenVersion = version
+		} catch (err: IOException) {
+			Timber.w(err, "Unable to store playback reports")
+		}
+	}
+}
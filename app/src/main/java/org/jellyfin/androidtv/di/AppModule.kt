@@ -1,24 +1,37 @@
 package org.jellyfin.androidtv.di
 
+import android.graphics.Bitmap
+import com.bumptech.glide.Glide
+import com.vanniktech.blurhash.BlurHash
 import org.jellyfin.androidtv.BuildConfig
 import org.jellyfin.androidtv.auth.repository.ServerRepository
 import org.jellyfin.androidtv.auth.repository.UserRepository
 import org.jellyfin.androidtv.auth.repository.UserRepositoryImpl
 import org.jellyfin.androidtv.data.eventhandling.SocketHandler
 import org.jellyfin.androidtv.data.model.DataRefreshService
+import org.jellyfin.androidtv.data.repository.ItemQueryCache
 import org.jellyfin.androidtv.data.repository.NotificationsRepository
 import org.jellyfin.androidtv.data.repository.NotificationsRepositoryImpl
 import org.jellyfin.androidtv.data.repository.UserViewsRepository
 import org.jellyfin.androidtv.data.repository.UserViewsRepositoryImpl
 import org.jellyfin.androidtv.data.service.BackgroundService
+import org.jellyfin.androidtv.data.service.PlaybackReporter
+import org.jellyfin.androidtv.preference.UserPreferences
+import org.jellyfin.androidtv.ui.BlurHashCache
+import org.jellyfin.androidtv.ui.itemdetail.DetailPrefetcher
+import org.jellyfin.androidtv.ui.itemdetail.FullDetailsActivity
+import org.jellyfin.androidtv.ui.itemhandling.SortNameIndexCache
 import org.jellyfin.androidtv.ui.picture.PictureViewerViewModel
 import org.jellyfin.androidtv.ui.playback.MediaManager
 import org.jellyfin.androidtv.ui.playback.PlaybackControllerContainer
 import org.jellyfin.androidtv.ui.playback.nextup.NextUpViewModel
+import org.jellyfin.androidtv.ui.search.SearchEngine
 import org.jellyfin.androidtv.ui.startup.ServerAddViewModel
 import org.jellyfin.androidtv.ui.startup.StartupViewModel
 import org.jellyfin.androidtv.ui.startup.UserLoginViewModel
+import org.jellyfin.androidtv.util.ImageHelper
 import org.jellyfin.androidtv.util.MarkdownRenderer
+import org.jellyfin.androidtv.util.apiclient.callApiCancellable
 import org.jellyfin.androidtv.util.sdk.legacy
 import org.jellyfin.apiclient.AppInfo
 import org.jellyfin.apiclient.android
@@ -26,15 +39,19 @@ import org.jellyfin.apiclient.logging.AndroidLogger
 import org.jellyfin.apiclient.serialization.GsonJsonSerializer
 import org.jellyfin.sdk.android.androidDevice
 import org.jellyfin.sdk.api.client.ApiClient
+import org.jellyfin.sdk.api.client.extensions.searchApi
 import org.jellyfin.sdk.createJellyfin
 import org.jellyfin.sdk.model.ClientInfo
 import org.jellyfin.sdk.model.DeviceInfo
+import org.jellyfin.sdk.model.api.SearchHint
 import org.koin.android.ext.koin.androidApplication
 import org.koin.android.ext.koin.androidContext
 import org.koin.androidx.viewmodel.dsl.viewModel
 import org.koin.core.qualifier.named
 import org.koin.dsl.module
 import org.jellyfin.apiclient.Jellyfin as JellyfinApiClient
+import org.jellyfin.apiclient.interaction.ApiClient as LegacyApiClient
+import org.jellyfin.apiclient.model.dto.BaseItemDto as LegacyBaseItemDto
 import org.jellyfin.sdk.Jellyfin as JellyfinSdk
 
 val defaultDeviceInfo = named("defaultDeviceInfo")
@@ -90,6 +107,17 @@ val appModule = module {
 	single<UserRepository> { UserRepositoryImpl() }
 	single<UserViewsRepository> { UserViewsRepositoryImpl(get()) }
 	single<NotificationsRepository> { NotificationsRepositoryImpl(get(), get()) }
+	single { ItemQueryCache(androidContext(), get()) }
+	single { SortNameIndexCache() }
+	single {
+		val userRepository = get<UserRepository>()
+		PlaybackReporter(
+			transport = PlaybackReporter.ApiClientTransport(get()),
+			file = androidContext().filesDir.resolve("playback_reports.json"),
+			serializer = get(),
+			currentUserId = { userRepository.currentUser.value?.id?.toString() },
+		)
+	}
 
 	viewModel { StartupViewModel(get(), get(), get(), get()) }
 	viewModel { UserLoginViewModel(get(), get(), get(), get(defaultDeviceInfo)) }
@@ -98,6 +126,55 @@ val appModule = module {
 	viewModel { PictureViewerViewModel(get()) }
 
 	single { BackgroundService(get(), get(), get(), get(), get()) }
+	single {
+		BlurHashCache(BlurHashCache.DEFAULT_MAX_SIZE, Bitmap::getByteCount) { hash, width, height ->
+			BlurHash.decode(hash, width, height)
+		}
+	}
 
 	single { MarkdownRenderer(get()) }
+
+	single {
+		val apiClient = get<LegacyApiClient>()
+		val userRepository = get<UserRepository>()
+		val userPreferences = get<UserPreferences>()
+		val context = androidContext()
+		DetailPrefetcher(
+			fetcher = { itemId ->
+				val userId = requireNotNull(userRepository.currentUser.value).id.toString()
+				val item = callApiCancellable<LegacyBaseItemDto> { apiClient.GetItemAsync(itemId, userId, it) }
+				val localTrailers = if ((item.localTrailerCount ?: 0) > 0) {
+					callApiCancellable<Array<LegacyBaseItemDto>> { apiClient.GetLocalTrailersAsync(userId, itemId, it) }
+				} else null
+
+				FullDetailsActivity.getOverviewImageUrl(context, item)?.let { url ->
+					Glide.with(context).load(ImageHelper.checkImageUrl(url)).preload()
+				}
+
+				DetailPrefetcher.Details(item, localTrailers)
+			},
+			dwell = { userPreferences[UserPreferences.detailPrefetchDelay].toLong() },
+		)
+	}
+
+	single {
+		val api = get<ApiClient>()
+		val userRepository = get<UserRepository>()
+		SearchEngine<SearchHint>(
+			fetcher = { term, kinds, limit ->
+				val result by api.searchApi.get(
+					searchTerm = term,
+					includeItemTypes = kinds,
+					limit = limit,
+					userId = userRepository.currentUser.value?.id,
+				)
+				SearchEngine.Page(result.searchHints, result.totalRecordCount)
+			},
+			matcher = { hint, term ->
+				listOf(hint.name, hint.matchedTerm, hint.series, hint.album, hint.albumArtist)
+					.any { it?.contains(term, ignoreCase = true) == true }
+			},
+			currentUserId = { userRepository.currentUser.value?.id?.toString() },
+		)
+	}
 }
@@ -5,13 +5,23 @@ import org.jellyfin.androidtv.preference.UserPreferences
 import org.jellyfin.androidtv.ui.playback.GarbagePlaybackLauncher
 import org.jellyfin.androidtv.ui.playback.PlaybackManager
 import org.jellyfin.androidtv.ui.playback.RewritePlaybackLauncher
+import org.jellyfin.androidtv.ui.playback.StreamInfoCache
+import org.jellyfin.androidtv.ui.playback.TmdbLanguageCache
+import org.jellyfin.androidtv.ui.playback.ZidooApiClient
+import org.jellyfin.androidtv.ui.playback.ZidooMountService
+import org.koin.android.ext.koin.androidContext
 import org.koin.dsl.module
 
 val playbackModule = module {
+	single { StreamInfoCache(get()) }
 	single {
-		PlaybackManager(get())
+		PlaybackManager(get(), get())
 	}
 
+	single { ZidooApiClient() }
+	single { ZidooMountService(androidContext()) }
+	single { TmdbLanguageCache(androidContext()) }
+
 	factory {
 		val preferences = get<UserPreferences>()
 		val useRewrite = preferences[UserPreferences.playbackRewriteEnabled] && BuildConfig.DEVELOPMENT
@@ -170,6 +170,11 @@ class UserPreferences(context: Context) : SharedPreferenceStore(
 		 */
 		var hideParentalRatings = booleanPreference("pref_hide_parental_ratings", false)
 
+		/**
+		 * Milliseconds a card needs to keep the focus before its details are prefetched, 0 disables prefetching
+		 */
+		var detailPrefetchDelay = intPreference("pref_detail_prefetch_delay", 700)
+
 /* Card Styles */
 		/**
 		 * Set when watched indicators should show on MyImageCardViews
@@ -1,5 +1,12 @@
 package org.jellyfin.androidtv.preference.store
 
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.SupervisorJob
+import kotlinx.coroutines.delay
+import kotlinx.coroutines.launch
+import kotlinx.coroutines.sync.Mutex
+import kotlinx.coroutines.sync.withLock
 import org.jellyfin.preference.Preference
 import org.jellyfin.preference.PreferenceEnum
 import org.jellyfin.preference.migration.MigrationContext
@@ -18,38 +25,76 @@ abstract class DisplayPreferencesStore(
 	protected var app: String = "jellyfin-androidtv",
 	private val api: ApiClient,
 ) : AsyncPreferenceStore<Unit, Unit>() {
+	@Volatile
 	private var displayPreferencesDto: DisplayPreferencesDto? = null
+	// Changed under the lock of the store, possibly from a background commit, read through [get]
 	private var cachedPreferences: MutableMap<String, String?> = mutableMapOf()
+	// Keys changed since the last commit
+	private val dirtyKeys = mutableSetOf<String>()
+	private val commitMutex = Mutex()
+	private val commitScope = CoroutineScope(SupervisorJob() + Dispatchers.IO)
+	private var commitScheduled = false
+
 	override val shouldUpdate: Boolean
 		get() = displayPreferencesDto == null
 
 	override suspend fun commit(): Boolean {
-		if (displayPreferencesDto == null) return false
+		commitMutex.withLock {
+			val (dto, customPrefs, changedKeys) = synchronized(this) {
+				val dto = displayPreferencesDto ?: return false
+				// Nothing changed since the last commit
+				if (dirtyKeys.isEmpty()) return true
+
+				val changedKeys = dirtyKeys.toSet()
+				dirtyKeys.clear()
+				Triple(dto, cachedPreferences.toMap(), changedKeys)
+			}
 
-		try {
-			api.displayPreferencesApi.updateDisplayPreferences(
-				displayPreferencesId = displayPreferencesId,
-				client = app,
-				data = displayPreferencesDto!!.copy(
-					customPrefs = cachedPreferences
+			try {
+				api.displayPreferencesApi.updateDisplayPreferences(
+					displayPreferencesId = displayPreferencesId,
+					client = app,
+					data = dto.copy(
+						customPrefs = customPrefs
+					)
 				)
-			)
-		} catch (err: ApiClientException) {
-			Timber.e(err, "Unable to save displaypreferences. (displayPreferencesId=$displayPreferencesId, app=$app)")
-			return false
+			} catch (err: ApiClientException) {
+				Timber.e(err, "Unable to save displaypreferences. (displayPreferencesId=$displayPreferencesId, app=$app)")
+				synchronized(this) { dirtyKeys.addAll(changedKeys) }
+				return false
+			}
+
+			return true
 		}
+	}
 
-		return true
+	/**
+	 * [commit] after [COMMIT_DELAY_MS] in the background, changes made in the meantime are sent in
+	 * the same request.
+	 */
+	fun commitLater() {
+		synchronized(this) {
+			if (commitScheduled) return
+
+			commitScheduled = true
+			commitScope.launch {
+				delay(COMMIT_DELAY_MS)
+				synchronized(this@DisplayPreferencesStore) { commitScheduled = false }
+				commit()
+			}
+		}
 	}
 
 	/**
 	 * Clear local copy of display preferences and require an update for new modifications.
 	 */
+	@Synchronized
 	fun clearCache(): Boolean {
 		if (displayPreferencesDto == null) return false
 
 		displayPreferencesDto = null
 		cachedPreferences.clear()
+		dirtyKeys.clear()
 
 		return true
 	}
@@ -60,56 +105,65 @@ abstract class DisplayPreferencesStore(
 				displayPreferencesId = displayPreferencesId,
 				client = app
 			)
-			displayPreferencesDto = result
-			cachedPreferences = result.customPrefs.toMutableMap()
+			synchronized(this) {
+				// Keep changes that were not committed yet
+				val changes = dirtyKeys.associateWith { cachedPreferences[it] }
+				displayPreferencesDto = result
+				cachedPreferences = result.customPrefs.toMutableMap()
+				changes.forEach { (key, value) ->
+					if (value == null) cachedPreferences.remove(key)
+					else cachedPreferences[key] = value
+				}
+			}
 
 			return true
 		} catch (err: ApiClientException) {
 			Timber.e(err, "Unable to retrieve displaypreferences. (displayPreferencesId=$displayPreferencesId, app=$app)")
 
-			if (displayPreferencesDto == null) {
-				Timber.i("Creating an empty DisplayPreferencesDto for next commit.")
-				displayPreferencesDto = DisplayPreferencesDto.empty()
+			synchronized(this) {
+				if (displayPreferencesDto == null) {
+					Timber.i("Creating an empty DisplayPreferencesDto for next commit.")
+					displayPreferencesDto = DisplayPreferencesDto.empty()
+				}
 			}
 
 			return false
 		}
 	}
 
+	@Synchronized
+	private fun get(key: String): String? = cachedPreferences[key]
+
 	override fun getInt(key: String, defaultValue: Int) =
-		cachedPreferences[key]?.toIntOrNull() ?: defaultValue
+		get(key)?.toIntOrNull() ?: defaultValue
 
 	override fun getLong(key: String, defaultValue: Long) =
-		cachedPreferences[key]?.toLongOrNull() ?: defaultValue
+		get(key)?.toLongOrNull() ?: defaultValue
 
 	override fun getBool(key: String, defaultValue: Boolean) =
-		cachedPreferences[key]?.toBooleanStrictOrNull() ?: defaultValue
+		get(key)?.toBooleanStrictOrNull() ?: defaultValue
 
 	override fun getString(key: String, defaultValue: String) =
-		cachedPreferences[key] ?: defaultValue
+		get(key) ?: defaultValue
 
-	override fun setInt(key: String, value: Int) {
-		cachedPreferences[key] = value.toString()
-	}
+	@Synchronized
+	private fun put(key: String, value: String?) {
+		if (cachedPreferences[key] == value && (value != null || !cachedPreferences.containsKey(key))) return
 
-	override fun setLong(key: String, value: Long) {
-		cachedPreferences[key] = value.toString()
+		if (value == null) cachedPreferences.remove(key)
+		else cachedPreferences[key] = value
+		dirtyKeys.add(key)
 	}
 
-	override fun setBool(key: String, value: Boolean) {
-		cachedPreferences[key] = value.toString()
-	}
-
-	override fun setString(key: String, value: String) {
-		cachedPreferences[key] = value
-	}
+	override fun setInt(key: String, value: Int) = put(key, value.toString())
+	override fun setLong(key: String, value: Long) = put(key, value.toString())
+	override fun setBool(key: String, value: Boolean) = put(key, value.toString())
+	override fun setString(key: String, value: String) = put(key, value)
 
-	override fun <T : Any> delete(preference: Preference<T>) {
-		cachedPreferences.remove(preference.key)
-	}
+	override fun <T : Any> delete(preference: Preference<T>) = put(preference.key, null)
 
 	override fun <T : Enum<T>> getEnum(preference: Preference<T>): T {
-		val stringValue = cachedPreferences[preference.key]
+		val stringValue = get(preference.key)
 		return if (stringValue.isNullOrBlank()) preference.defaultValue
 		else preference.type.java.enumConstants?.find {
 			(it is PreferenceEnum && it.serializedName == stringValue) || it.name == stringValue
@@ -128,6 +182,13 @@ abstract class DisplayPreferencesStore(
 		TODO("The DisplayPreferencesStore does not support migrations")
 	}
 
+	companion object {
+		/**
+		 * Time to collect changes before [commitLater] sends them.
+		 */
+		const val COMMIT_DELAY_MS = 1000L
+	}
+
 	/**
 	 * Create an empty [DisplayPreferencesDto] with default values.
 	 */
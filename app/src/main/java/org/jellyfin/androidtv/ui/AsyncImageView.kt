@@ -1,7 +1,7 @@
 package org.jellyfin.androidtv.ui
 
 import android.content.Context
-import android.graphics.drawable.BitmapDrawable
+import android.graphics.Bitmap
 import android.graphics.drawable.Drawable
 import android.util.AttributeSet
 import android.widget.ImageView
@@ -12,17 +12,18 @@ import androidx.lifecycle.findViewTreeLifecycleOwner
 import androidx.lifecycle.lifecycleScope
 import com.bumptech.glide.Glide
 import com.bumptech.glide.RequestBuilder
+import com.bumptech.glide.RequestManager
 import com.bumptech.glide.load.resource.bitmap.DownsampleStrategy
 import com.bumptech.glide.request.target.CustomViewTarget
 import com.bumptech.glide.request.transition.Transition
-import com.vanniktech.blurhash.BlurHash
 import kotlinx.coroutines.*
 import me.carleslc.kotlinextensions.standard.*
 import org.jellyfin.androidtv.R
 import org.jellyfin.androidtv.ui.AsyncImageView.CropTypeGlide.Companion.applyCropOption
 import org.jellyfin.androidtv.util.ImageHelper
 import org.jellyfin.androidtv.util.ImageUtils.*
-import kotlin.math.round
+import org.koin.core.component.KoinComponent
+import org.koin.core.component.inject
 import kotlin.time.Duration.Companion.milliseconds
 
 /**
@@ -34,8 +35,10 @@ class AsyncImageView @JvmOverloads constructor(
 	context: Context,
 	attrs: AttributeSet? = null,
 	defStyleAttr: Int = 0,
-) : AppCompatImageView(context, attrs, defStyleAttr) {
+) : AppCompatImageView(context, attrs, defStyleAttr), KoinComponent {
 	private val lifeCycleOwner get() = findViewTreeLifecycleOwner()
+	private val blurHashCache by inject<BlurHashCache<Bitmap>>()
+	private var blurJob: Job? = null
 	private val styledAttributes = context.obtainStyledAttributes(attrs, R.styleable.AsyncImageView, defStyleAttr, 0)
 
 	/**
@@ -51,6 +54,33 @@ class AsyncImageView @JvmOverloads constructor(
 
 	var cropTypeGlide = CropTypeGlide.from(styledAttributes.getInt(R.styleable.AsyncImageView_cropTypeGlide, CropTypeGlide.NONE.value))
 
+	/**
+	 * The width Glide loads images with, 0 before the view was laid out.
+	 */
+	val requestWidth get() = (width - paddingLeft - paddingRight).coerceAtLeast(0)
+
+	/**
+	 * The height Glide loads images with, 0 before the view was laid out.
+	 */
+	val requestHeight get() = (height - paddingTop - paddingBottom).coerceAtLeast(0)
+
+	companion object {
+		/**
+		 * Create the request [load] starts for [url], preloads built with the same options and the
+		 * [requestWidth] and [requestHeight] of a view share its memory cache entries.
+		 */
+		@JvmStatic
+		fun createRequest(
+			requestManager: RequestManager,
+			url: String?,
+			scaleType: ScaleTypeGlide,
+			cropType: CropTypeGlide,
+		): RequestBuilder<Drawable> = requestManager
+			.load(ImageHelper.checkImageUrl(url))
+			.downsample(scaleType.toDownsampleStrategy())
+			.applyCropOption(cropType)
+	}
+
 	/**
 	 * Load an image from the network using [url]. When the [url] is null or returns a bad response
 	 * the [placeholder] is shown. A [blurHash] is shown while loading the image. An aspect ratio is
@@ -70,33 +100,39 @@ class AsyncImageView @JvmOverloads constructor(
 		}
 		doOnAttach {
 			lifeCycleOwner?.lifecycleScope?.launch {
-			val checkedUrl = ImageHelper.checkImageUrl(url)
+			blurJob?.cancel()
+			// decoded blurhashes are shared, only a cache miss is decoded in the background
+			val cachedBlur = blurHash?.let { blurHashCache.get(it, blurResolution, blurAspectRatio) }
 
 //			Timber.d("Url: $checkedUrl")
 //			Timber.d("GlideLoad m<$measuredHeight:$measuredWidth> : <$height:$width>)")
 				// Start loading image or placeholder
-				Glide.with(this@AsyncImageView)
-					.load(checkedUrl)
-					.downsample(scaleTypeGlide.toDownsampleStrategy())
-					.applyCropOption(cropTypeGlide)
+				createRequest(Glide.with(this@AsyncImageView), url, scaleTypeGlide, cropTypeGlide)
 					.into(object : CustomViewTarget<AsyncImageView, Drawable>(this@AsyncImageView) {
 						override fun onLoadFailed(errorDrawable: Drawable?) {
+							blurJob?.cancel()
 							this@AsyncImageView.setImageDrawable(errorDrawable)
 						}
 
 						override fun onResourceReady(newImage: Drawable, transition: Transition<in Drawable>?) {
+							blurJob?.cancel()
 							this@AsyncImageView.setImageDrawable(newImage)
 						}
 
 						override fun onResourceCleared(placeholder: Drawable?) {
+							blurJob?.cancel()
 							this@AsyncImageView.setImageDrawable(placeholder)
 						}
 
 						override fun onResourceLoading(placeholder: Drawable?) {
-							blurHash?.let {
-								generateBlurImage(it, blurAspectRatio, blurResolution)
-							}?.let {
-								this@AsyncImageView.setImageDrawable(it)
+							if (cachedBlur != null) {
+								this@AsyncImageView.setImageDrawable(cachedBlur.toDrawable(resources))
+							} else if (blurHash != null) {
+								blurJob = launch {
+									blurHashCache.decode(blurHash, blurResolution, blurAspectRatio)?.let {
+										this@AsyncImageView.setImageDrawable(it.toDrawable(resources))
+									}
+								}
 							}
 						}
 					}).waitForLayout()
@@ -107,18 +143,6 @@ class AsyncImageView @JvmOverloads constructor(
 		}
 	}
 
-	private fun generateBlurImage(
-		blurHash: String,
-		blurAspectRatio: Double = 1.0,
-		blurResolution: Int = 32,
-	): BitmapDrawable? {
-		return BlurHash.decode(
-			blurHash,
-			if (blurAspectRatio > 1) round(blurResolution * blurAspectRatio).toInt() else blurResolution,
-			if (blurAspectRatio >= 1) blurResolution else round(blurResolution / blurAspectRatio).toInt(),
-		)?.toDrawable(resources)
-	}
-
 	enum class ScaleTypeGlide (val value: Int) {
 		NONE(0),
 		DEFAULT(1),
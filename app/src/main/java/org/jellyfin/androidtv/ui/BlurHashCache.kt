@@ -0,0 +1,100 @@
+package org.jellyfin.androidtv.ui
+
+import androidx.annotation.WorkerThread
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.withContext
+import kotlin.math.round
+
+/**
+ * Bounded LRU of decoded blurhash placeholders, shared by all [AsyncImageView]s so a recycled
+ * card does not decode the same blurhash again.
+ *
+ * Entries are keyed by the hash and the decoded size, which follows from the resolution and aspect
+ * ratio. The cache holds at most [maxSize] as measured by [sizeOf].
+ */
+class BlurHashCache<T : Any>(
+	private val maxSize: Int,
+	private val sizeOf: (T) -> Int,
+	private val decoder: (hash: String, width: Int, height: Int) -> T?,
+) {
+	companion object {
+		// bytes of decoded bitmaps, ~1000 poster placeholders
+		const val DEFAULT_MAX_SIZE = 4 * 1024 * 1024
+
+		/**
+		 * Get the decoded width and height of a blurhash with [resolution] pixels on the short side.
+		 */
+		fun blurSize(resolution: Int, aspectRatio: Double): Pair<Int, Int> = Pair(
+			if (aspectRatio > 1) round(resolution * aspectRatio).toInt() else resolution,
+			if (aspectRatio >= 1) resolution else round(resolution / aspectRatio).toInt(),
+		)
+	}
+
+	private data class Key(
+		val hash: String,
+		val width: Int,
+		val height: Int,
+	)
+
+	// access ordered for LRU eviction
+	private val entries = LinkedHashMap<Key, T>(64, 0.75f, true)
+
+	var size = 0
+		@Synchronized get
+		private set
+
+	var decodeCount = 0
+		@Synchronized get
+		private set
+
+	/**
+	 * Get the decoded blurhash if it is cached.
+	 */
+	@Synchronized
+	fun get(hash: String, resolution: Int, aspectRatio: Double): T? {
+		val (width, height) = blurSize(resolution, aspectRatio)
+		return entries[Key(hash, width, height)]
+	}
+
+	/**
+	 * Get the decoded blurhash, decoding it on the calling thread when not cached.
+	 */
+	@WorkerThread
+	fun getOrDecode(hash: String, resolution: Int, aspectRatio: Double): T? {
+		val (width, height) = blurSize(resolution, aspectRatio)
+		val key = Key(hash, width, height)
+		synchronized(this) { entries[key] }?.let { return it }
+
+		// decode without holding the lock, a concurrent decode of the same key is harmless
+		val decoded = decoder(hash, width, height) ?: return null
+		synchronized(this) {
+			decodeCount++
+			entries.put(key, decoded)?.let { size -= sizeOf(it) }
+			size += sizeOf(decoded)
+			trim()
+		}
+		return decoded
+	}
+
+	/**
+	 * Get the decoded blurhash, decoding it in the background when not cached.
+	 */
+	suspend fun decode(hash: String, resolution: Int, aspectRatio: Double): T? =
+		get(hash, resolution, aspectRatio) ?: withContext(Dispatchers.Default) {
+			getOrDecode(hash, resolution, aspectRatio)
+		}
+
+	private fun trim() {
+		val iterator = entries.values.iterator()
+		while (size > maxSize && iterator.hasNext()) {
+			size -= sizeOf(iterator.next())
+			iterator.remove()
+		}
+	}
+
+	@Synchronized
+	fun clear() {
+		entries.clear()
+		size = 0
+	}
+}
@@ -34,7 +34,6 @@ public class GuideChannelHeader extends RelativeLayout {
 
     private void initComponent(Context context, LiveTvGuide tvGuide, ChannelInfoDto channel) {
         mContext = context;
-        mChannel = channel;
         mTvGuide = tvGuide;
         LayoutInflater inflater = LayoutInflater.from(context);
         View v = inflater.inflate(R.layout.channel_header, this, false);
@@ -45,13 +44,19 @@ public class GuideChannelHeader extends RelativeLayout {
         ));
         this.addView(v);
         this.setFocusable(true);
-        ((TextView) findViewById(R.id.channelName)).setText(channel.getName());
-        ((TextView) findViewById(R.id.channelNumber)).setText(channel.getNumber());
         mChannelImage = findViewById(R.id.channelImage);
         mFavImage = findViewById(R.id.favImage);
+        setChannel(channel);
+    }
 
-        if (mChannel.getUserData() != null && mChannel.getUserData().getIsFavorite())
-            mFavImage.setVisibility(View.VISIBLE);
+    /**
+     * Bind the header to a channel, used when the guide recycles headers.
+     */
+    public void setChannel(ChannelInfoDto channel) {
+        mChannel = channel;
+        ((TextView) findViewById(R.id.channelName)).setText(channel.getName());
+        ((TextView) findViewById(R.id.channelNumber)).setText(channel.getNumber());
+        refreshFavorite();
     }
 
     public void loadImage() {
@@ -41,13 +41,14 @@ public class ProgramGridCell extends RelativeLayout implements RecordingIndicato
 
     public ProgramGridCell(Context context, LiveTvGuide activity, BaseItemDto program, boolean keyListen) {
         super(context);
-        initComponent((Activity) context, activity, program, keyListen);
+        initComponent(activity, keyListen);
+        setProgram(program);
     }
 
-    private void initComponent(Activity context, LiveTvGuide activity, BaseItemDto program, boolean keyListen) {
+    private void initComponent(LiveTvGuide activity, boolean keyListen) {
         mActivity = activity;
 
-        LayoutInflater inflater = LayoutInflater.from(context);
+        LayoutInflater inflater = LayoutInflater.from(getContext());
         View v = inflater.inflate(R.layout.program_grid_cell, this, false);
         this.addView(v);
 
@@ -55,20 +56,42 @@ public class ProgramGridCell extends RelativeLayout implements RecordingIndicato
 
         mProgramName = findViewById(R.id.programName);
         mInfoRow = findViewById(R.id.infoRow);
-        mProgramName.setText(program.getName());
-        mProgram = program;
         mRecIndicator = findViewById(R.id.recIndicator);
 
+        if (keyListen) {
+            setOnClickListener(new OnClickListener() {
+                @Override
+                public void onClick(View v) {
+                    mActivity.showProgramOptions();
+                }
+            });
+        }
+    }
+
+    /**
+     * Bind the cell to a program, used when the guide recycles cells.
+     */
+    public void setProgram(BaseItemDto program) {
+        Activity context = (Activity) getContext();
+        mProgram = program;
+        isFirst = false;
+        isLast = false;
+        mProgramName.setText(program.getName());
+        mInfoRow.removeAllViews();
+        mRecIndicator.setImageDrawable(null);
+
+        mBackgroundColor = 0;
         setCellBackground();
+        if (!isFocused()) setBackgroundColor(mBackgroundColor);
 
         if (program.getStartDate() != null && program.getEndDate() != null) {
             Date localStart = TimeUtils.convertToLocalDate(program.getStartDate());
-            if (localStart.getTime() + 60000 < activity.getCurrentLocalStartDate()) {
+            if (localStart.getTime() + 60000 < mActivity.getCurrentLocalStartDate()) {
                 mProgramName.setText("<< "+mProgramName.getText());
                 TextView time = new TextView(context);
                 time.setTypeface(Typeface.create("sans-serif-light", Typeface.NORMAL));
                 time.setTextSize(12);
-                time.setText(android.text.format.DateFormat.getTimeFormat(getContext()).format(TimeUtils.convertToLocalDate(program.getStartDate())));
+                time.setText(android.text.format.DateFormat.getTimeFormat(getContext()).format(localStart));
                 mInfoRow.addView(time);
             }
         }
@@ -102,17 +125,6 @@ public class ProgramGridCell extends RelativeLayout implements RecordingIndicato
         } else if (program.getTimerId() != null) {
             mRecIndicator.setImageResource(R.drawable.ic_record_red);
         }
-
-
-        if (keyListen) {
-            setOnClickListener(new OnClickListener() {
-                @Override
-                public void onClick(View v) {
-                    mActivity.showProgramOptions();
-                }
-            });
-        }
-
     }
 
     public void setCellBackground() {
@@ -29,6 +29,8 @@ import androidx.leanback.widget.RowPresenter;
 import androidx.leanback.widget.VerticalGridPresenter;
 import androidx.leanback.widget.VerticalGridView;
 
+import com.bumptech.glide.Glide;
+
 import org.jellyfin.androidtv.R;
 import org.jellyfin.androidtv.auth.repository.UserRepository;
 import org.jellyfin.androidtv.constant.CardInfoType;
@@ -49,21 +51,23 @@ import org.jellyfin.androidtv.preference.LibraryPreferences;
 import org.jellyfin.androidtv.preference.PreferencesRepository;
 import org.jellyfin.androidtv.preference.UserPreferences;
 import org.jellyfin.androidtv.ui.AlphaPickerView;
+import org.jellyfin.androidtv.ui.itemdetail.DetailPrefetcher;
 import org.jellyfin.androidtv.ui.itemhandling.BaseRowItem;
 import org.jellyfin.androidtv.ui.itemhandling.ItemLauncher;
 import org.jellyfin.androidtv.ui.itemhandling.ItemRowAdapter;
 import org.jellyfin.androidtv.ui.playback.MediaManager;
 import org.jellyfin.androidtv.ui.preference.PreferencesActivity;
+import org.jellyfin.androidtv.ui.presentation.CardImagePrefetcher;
 import org.jellyfin.androidtv.ui.presentation.CardPresenter;
 import org.jellyfin.androidtv.ui.presentation.HorizontalGridPresenter;
 import org.jellyfin.androidtv.ui.shared.BaseActivity;
 import org.jellyfin.androidtv.ui.shared.KeyListener;
 import org.jellyfin.androidtv.ui.shared.MessageListener;
-import org.jellyfin.androidtv.util.CoroutineUtils;
 import org.jellyfin.androidtv.util.KeyProcessor;
 import org.jellyfin.androidtv.util.LayoutHelper;
 import org.jellyfin.androidtv.util.Utils;
 import org.jellyfin.apiclient.interaction.EmptyResponse;
+import org.jellyfin.apiclient.interaction.Response;
 import org.jellyfin.apiclient.model.dto.BaseItemType;
 import org.jellyfin.apiclient.model.querying.ArtistsQuery;
 import org.jellyfin.apiclient.model.querying.ItemFields;
@@ -97,6 +101,7 @@ public class BrowseGridFragment extends Fragment {
     private final Handler mHandler = new Handler();
     private BrowseRowDef mRowDef;
     private CardPresenter mCardPresenter;
+    private CardImagePrefetcher mImagePrefetcher;
 
     private boolean justLoaded = true;
     private int mGridSize = 8;
@@ -121,6 +126,7 @@ public class BrowseGridFragment extends Fragment {
     private final Lazy<PreferencesRepository> preferencesRepository = inject(PreferencesRepository.class);
     private final Lazy<UserViewsRepository> userViewsRepository = inject(UserViewsRepository.class);
     private final Lazy<UserRepository> userRepository = inject(UserRepository.class);
+    private final Lazy<DetailPrefetcher> detailPrefetcher = inject(DetailPrefetcher.class);
 
     private boolean mDirty = true; // RowDef or GridSize changed
     private int mLibrarySettingsUiHash = -1;
@@ -198,6 +204,7 @@ public class BrowseGridFragment extends Fragment {
     public void onDestroyView() {
         super.onDestroyView();
         mGridView = null;
+        detailPrefetcher.getValue().onFocused(null);
     }
 
     private void createGrid() {
@@ -477,6 +484,11 @@ public class BrowseGridFragment extends Fragment {
         mCardPresenter.setRatingDisplay(libraryPreferences.get(LibraryPreferences.Companion.getRatingType()));
         mCardPresenter.setAllowBackdropFallback(true);
         mCardPresenter.setSquareAspect(isSquareCard());
+        if (mImagePrefetcher != null)
+            mImagePrefetcher.cancel();
+        // prefetch two lines of cards
+        mImagePrefetcher = new CardImagePrefetcher(requireContext(), Glide.with(this), mCardPresenter, mGridSize * 2);
+        mCardPresenter.setImagePrefetcher(mImagePrefetcher);
     }
 
     private void buildAdapter() {
@@ -549,7 +561,7 @@ public class BrowseGridFragment extends Fragment {
         libraryPreferences.set(LibraryPreferences.Companion.getFilterUnwatchedOnly(), mAdapter.getFilters().isUnwatchedOnly());
         libraryPreferences.set(LibraryPreferences.Companion.getSortBy(), mAdapter.getSortBy());
         libraryPreferences.set(LibraryPreferences.Companion.getSortOrder(), getSortOption(mAdapter.getSortBy()).order);
-        CoroutineUtils.runBlocking((coroutineScope, continuation) -> libraryPreferences.commit(continuation));
+        libraryPreferences.commitLater();
     }
 
     private void addTools() {
@@ -656,9 +668,8 @@ public class BrowseGridFragment extends Fragment {
 
             alphaPicker = new AlphaPickerView(requireContext(), null);
             alphaPicker.setOnAlphaSelected(letter -> {
-                mAdapter.setStartLetter(letter.toString());
-                loadGrid();
                 dismiss();
+                jumpToLetter(letter.toString());
                 return null;
             });
 
@@ -679,6 +690,29 @@ public class BrowseGridFragment extends Fragment {
         }
     }
 
+    private void jumpToLetter(final String letter) {
+        boolean seeking = mAdapter.seekToLetter(letter, new Response<Integer>() {
+            @Override
+            public void onResponse(Integer position) {
+                if (mGridView == null) return;
+                mGridView.setSelectedPosition(position);
+                mGridView.requestFocus();
+            }
+
+            @Override
+            public void onError(Exception exception) {
+                startWithLetter(letter);
+            }
+        });
+        if (!seeking) startWithLetter(letter);
+    }
+
+    private void startWithLetter(String letter) {
+        if (mAdapter == null) return;
+        mAdapter.setStartLetter(letter);
+        loadGrid();
+    }
+
     private void setupEventListeners() {
         mClickedListener.registerListener(new ItemViewClickedListener());
         mSelectedListener.registerListener(new ItemViewSelectedListener());
@@ -690,7 +724,7 @@ public class BrowseGridFragment extends Fragment {
                     if (!binding.rowsFragment.hasFocus()) {
                         return false;
                     }
-                    if (key == KeyEvent.KEYCODE_MEDIA_PLAY || key == KeyEvent.KEYCODE_MEDIA_PLAY_PAUSE) {
+                    if (mCurrentItem != null && (key == KeyEvent.KEYCODE_MEDIA_PLAY || key == KeyEvent.KEYCODE_MEDIA_PLAY_PAUSE)) {
                         mediaManager.getValue().setCurrentMediaAdapter(mAdapter);
                         mediaManager.getValue().setCurrentMediaPosition(mCurrentItem.getIndex());
                         mediaManager.getValue().setCurrentMediaTitle(mFolder.getName());
@@ -768,19 +802,25 @@ public class BrowseGridFragment extends Fragment {
         public void onItemSelected(Presenter.ViewHolder itemViewHolder, Object item,
                                    RowPresenter.ViewHolder rowViewHolder, Row row) {
             mHandler.removeCallbacks(mDelayedSetItem);
+            detailPrefetcher.getValue().onFocused(item instanceof BaseRowItem ? ItemLauncher.getDetailsItemId((BaseRowItem) item) : null);
             if (!(item instanceof BaseRowItem)) {
                 mCurrentItem = null;
                 binding.title.setText(mainTitle);
                 //fill in default background
                 backgroundService.getValue().clearBackgrounds();
+                if (item == ItemRowAdapter.PLACEHOLDER && mGridView != null)
+                    mAdapter.loadMoreItemsIfNeeded(mGridView.getSelectedPosition());
             } else {
                 mCurrentItem = (BaseRowItem) item;
                 binding.title.setText(mCurrentItem.getName(requireContext()));
                 binding.infoRow.removeAllViews();
                 mHandler.postDelayed(mDelayedSetItem, VIEW_SELECT_UPDATE_DELAY);
 
-                if (!determiningPosterSize)
+                if (!determiningPosterSize) {
                     mAdapter.loadMoreItemsIfNeeded(mCurrentItem.getIndex());
+                    if (mGridView != null)
+                        mImagePrefetcher.onSelected(mAdapter, mGridView.getSelectedPosition(), mGridView.getChildCount());
+                }
             }
         }
     }
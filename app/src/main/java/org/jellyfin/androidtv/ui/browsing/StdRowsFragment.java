@@ -10,20 +10,26 @@ import androidx.leanback.app.RowsSupportFragment;
 import androidx.leanback.widget.ArrayObjectAdapter;
 import androidx.leanback.widget.ClassPresenterSelector;
 import androidx.leanback.widget.HeaderItem;
+import androidx.leanback.widget.HorizontalGridView;
 import androidx.leanback.widget.ListRow;
+import androidx.leanback.widget.ListRowPresenter;
 import androidx.leanback.widget.OnItemViewClickedListener;
 import androidx.leanback.widget.OnItemViewSelectedListener;
 import androidx.leanback.widget.Presenter;
 import androidx.leanback.widget.Row;
 import androidx.leanback.widget.RowPresenter;
 
+import com.bumptech.glide.Glide;
+
 import org.jellyfin.androidtv.constant.CustomMessage;
 import org.jellyfin.androidtv.data.model.DataRefreshService;
 import org.jellyfin.androidtv.data.service.BackgroundService;
 import org.jellyfin.androidtv.preference.UserPreferences;
+import org.jellyfin.androidtv.ui.itemdetail.DetailPrefetcher;
 import org.jellyfin.androidtv.ui.itemhandling.BaseRowItem;
 import org.jellyfin.androidtv.ui.itemhandling.ItemLauncher;
 import org.jellyfin.androidtv.ui.itemhandling.ItemRowAdapter;
+import org.jellyfin.androidtv.ui.presentation.CardImagePrefetcher;
 import org.jellyfin.androidtv.ui.presentation.CardPresenter;
 import org.jellyfin.androidtv.ui.shared.BaseActivity;
 import org.jellyfin.androidtv.ui.shared.KeyListener;
@@ -53,12 +59,14 @@ public class StdRowsFragment extends RowsSupportFragment implements RowLoader {
     protected ArrayObjectAdapter mRowsAdapter;
     protected ArrayList<BrowseRowDef> mRows = new ArrayList<>();
     protected CardPresenter mCardPresenter;
+    protected CardImagePrefetcher mImagePrefetcher;
     protected boolean justLoaded = true;
 
     protected Set<BaseRowItem> mLoadCache = new HashSet<>(50);
 
     private Lazy<BackgroundService> backgroundService = inject(BackgroundService.class);
     private Lazy<UserPreferences> userPreferences = inject(UserPreferences.class);
+    private Lazy<DetailPrefetcher> detailPrefetcher = inject(DetailPrefetcher.class);
 
     @Override
     public void onCreate(Bundle savedInstanceState) {
@@ -101,6 +109,12 @@ public class StdRowsFragment extends RowsSupportFragment implements RowLoader {
         }
     }
 
+    @Override
+    public void onDestroyView() {
+        super.onDestroyView();
+        detailPrefetcher.getValue().onFocused(null);
+    }
+
     protected void refreshRows() {
         new Handler().postDelayed(new Runnable() {
             @Override
@@ -121,6 +135,8 @@ public class StdRowsFragment extends RowsSupportFragment implements RowLoader {
         ClassPresenterSelector rowPS = LayoutHelper.INSTANCE.buildDefaultRowPresenterSelector(null, 0);
         mRowsAdapter = new ArrayObjectAdapter(rowPS);
         mCardPresenter = new CardPresenter();
+        mImagePrefetcher = new CardImagePrefetcher(requireContext(), Glide.with(this), mCardPresenter);
+        mCardPresenter.setImagePrefetcher(mImagePrefetcher);
 
         for (BrowseRowDef def : rows) {
             HeaderItem header = new HeaderItem(def.getHeaderText());
@@ -203,6 +219,7 @@ public class StdRowsFragment extends RowsSupportFragment implements RowLoader {
         public void onItemSelected(Presenter.ViewHolder itemViewHolder, Object item,
                                    RowPresenter.ViewHolder rowViewHolder, Row row) {
 
+            detailPrefetcher.getValue().onFocused(item instanceof BaseRowItem ? ItemLauncher.getDetailsItemId((BaseRowItem) item) : null);
             if (!(item instanceof BaseRowItem rowItem)) {
                 mCurrentItem = null;
                 backgroundService.getValue().clearBackgrounds();
@@ -214,6 +231,10 @@ public class StdRowsFragment extends RowsSupportFragment implements RowLoader {
             mCurrentRow = (ListRow) row;
             if (((ListRow) row).getAdapter() instanceof ItemRowAdapter adapter) {
                 adapter.loadMoreItemsIfNeeded(rowItem.getIndex());
+                if (mImagePrefetcher != null && rowViewHolder instanceof ListRowPresenter.ViewHolder listRowViewHolder) {
+                    HorizontalGridView gridView = listRowViewHolder.getGridView();
+                    mImagePrefetcher.onSelected(adapter, gridView.getSelectedPosition(), gridView.getChildCount());
+                }
 //                preLoadRowBackdrops(mCurrentRow, rowItem.getIndex(), 3); // TODO needs more work
             }
             backgroundService.getValue().setBackground(rowItem.getBaseItem());
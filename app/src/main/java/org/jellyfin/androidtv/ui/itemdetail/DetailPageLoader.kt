@@ -0,0 +1,214 @@
+package org.jellyfin.androidtv.ui.itemdetail
+
+import androidx.lifecycle.Lifecycle
+import androidx.lifecycle.coroutineScope
+import kotlinx.coroutines.CancellationException
+import kotlinx.coroutines.CompletableDeferred
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.Deferred
+import kotlinx.coroutines.async
+import kotlinx.coroutines.isActive
+import kotlinx.coroutines.launch
+import kotlinx.coroutines.suspendCancellableCoroutine
+import kotlinx.coroutines.withTimeoutOrNull
+import org.jellyfin.androidtv.util.apiclient.callApiCancellable
+import org.jellyfin.apiclient.interaction.ApiClient
+import org.jellyfin.apiclient.interaction.Response
+import org.jellyfin.apiclient.model.dto.BaseItemDto
+import org.jellyfin.apiclient.model.dto.BaseItemType
+import org.jellyfin.apiclient.model.livetv.ChannelInfoDto
+import org.jellyfin.apiclient.model.livetv.SeriesTimerInfoDto
+import org.jellyfin.apiclient.model.querying.EpisodeQuery
+import org.jellyfin.apiclient.model.querying.ItemsResult
+import org.jellyfin.apiclient.model.querying.NextUpQuery
+import timber.log.Timber
+import java.util.PriorityQueue
+import java.util.concurrent.TimeUnit
+import kotlin.coroutines.resume
+
+/**
+ * Loads everything shown on a detail page within [scope], so all of it is cancelled when the page
+ * is left.
+ *
+ * Once the base item is known, [start] fans out the requests that only depend on it concurrently.
+ * Rows are retrieved by priority: at most [maxConcurrentRows] rows load at once and the next one
+ * starts as soon as one of them finishes, so the top of the page fills in first.
+ *
+ * Must be used from the main thread.
+ */
+class DetailPageLoader(
+	private val scope: CoroutineScope,
+	private val apiClient: ApiClient,
+	private val userId: String,
+	private val prefetcher: DetailPrefetcher? = null,
+	private val maxConcurrentRows: Int = MAX_CONCURRENT_ROWS,
+	private val rowTimeout: Long = ROW_TIMEOUT,
+) {
+	companion object {
+		const val MAX_CONCURRENT_ROWS = 3
+		val ROW_TIMEOUT = TimeUnit.SECONDS.toMillis(3)
+	}
+
+	constructor(
+		lifecycle: Lifecycle,
+		apiClient: ApiClient,
+		userId: String,
+		prefetcher: DetailPrefetcher,
+	) : this(lifecycle.coroutineScope, apiClient, userId, prefetcher)
+
+	/**
+	 * Retrieves a row and runs `done` once the row finished loading, successful or not.
+	 */
+	fun interface RowRetriever {
+		fun retrieve(done: Runnable)
+	}
+
+	private class PendingRow(
+		val priority: Int,
+		val sequence: Int,
+		val retriever: RowRetriever,
+	)
+
+	private val pendingRows = PriorityQueue(compareBy<PendingRow>({ it.priority }, { it.sequence }))
+	private var sequence = 0
+	var runningRows = 0
+		private set
+
+	private var adjacentEpisodes: Deferred<ItemsResult>? = null
+	private var localTrailers: Deferred<Array<BaseItemDto>>? = null
+	private var nextUp: Deferred<ItemsResult>? = null
+	private var prefetched: DetailPrefetcher.Details? = null
+
+	/**
+	 * Start the requests that only depend on [item], their results are picked up later by the
+	 * buttons of the page.
+	 */
+	fun start(item: BaseItemDto) {
+		val prefetchedTrailers = prefetched?.takeIf { it.item.id == item.id }?.localTrailers
+		prefetched = null
+		adjacentEpisodes = null
+		localTrailers = null
+		nextUp = null
+
+		if (item.baseItemType == BaseItemType.Episode && item.seriesId != null) adjacentEpisodes = loadAdjacentEpisodes(item)
+		if ((item.localTrailerCount ?: 0) > 0) localTrailers = prefetchedTrailers?.let { CompletableDeferred(it) } ?: loadLocalTrailers(item)
+		if (item.baseItemType == BaseItemType.Series) nextUp = loadNextUp(item)
+	}
+
+	/**
+	 * Queue a row, rows with a lower [priority] are retrieved first.
+	 */
+	fun addRow(priority: Int, retriever: RowRetriever) {
+		pendingRows.add(PendingRow(priority, sequence++, retriever))
+		startRows()
+	}
+
+	/**
+	 * Drop the rows that did not start retrieving yet.
+	 */
+	fun clearRows() = pendingRows.clear()
+
+	private fun startRows() {
+		while (runningRows < maxConcurrentRows && scope.isActive) {
+			val row = pendingRows.poll() ?: break
+			runningRows++
+			scope.launch {
+				try {
+					// A row that never reports back should not hold up the rows below it
+					withTimeoutOrNull(rowTimeout) {
+						suspendCancellableCoroutine { continuation ->
+							row.retriever.retrieve { if (continuation.isActive) continuation.resume(Unit) }
+						}
+					}
+				} finally {
+					runningRows--
+					startRows()
+				}
+			}
+		}
+	}
+
+	/**
+	 * Get the item to open the page with, using the details the [prefetcher] loaded ahead if any.
+	 */
+	fun loadItem(itemId: String, response: Response<BaseItemDto>) = deliver(response) {
+		val details = prefetcher?.take(itemId)
+		prefetched = details
+		details?.item ?: callApiCancellable { apiClient.GetItemAsync(itemId, userId, it) }
+	}
+
+	fun getItem(itemId: String, response: Response<BaseItemDto>) = deliver(response) {
+		callApiCancellable { apiClient.GetItemAsync(itemId, userId, it) }
+	}
+
+	fun getChannel(channelId: String, response: Response<ChannelInfoDto>) = deliver(response) {
+		callApiCancellable { apiClient.GetLiveTvChannelAsync(channelId, userId, it) }
+	}
+
+	fun getSeriesTimer(timerId: String, response: Response<SeriesTimerInfoDto>) = deliver(response) {
+		callApiCancellable { apiClient.GetLiveTvSeriesTimerAsync(timerId, it) }
+	}
+
+	fun getAdjacentEpisodes(item: BaseItemDto, response: Response<ItemsResult>) {
+		val request = adjacentEpisodes ?: loadAdjacentEpisodes(item).also { adjacentEpisodes = it }
+		deliver(response) { request.await() }
+	}
+
+	fun getLocalTrailers(item: BaseItemDto, response: Response<Array<BaseItemDto>>) {
+		val request = localTrailers ?: loadLocalTrailers(item).also { localTrailers = it }
+		deliver(response) { request.await() }
+	}
+
+	fun getNextUp(item: BaseItemDto, response: Response<ItemsResult>) {
+		// Next up changes with every playback, only use the early result once
+		val request = nextUp ?: loadNextUp(item)
+		nextUp = null
+		deliver(response) { request.await() }
+	}
+
+	private fun loadAdjacentEpisodes(item: BaseItemDto) = load {
+		callApiCancellable<ItemsResult> {
+			apiClient.GetEpisodesAsync(EpisodeQuery().apply {
+				userId = this@DetailPageLoader.userId
+				seriesId = item.seriesId
+				adjacentTo = item.id
+			}, it)
+		}
+	}
+
+	private fun loadLocalTrailers(item: BaseItemDto) = load {
+		callApiCancellable<Array<BaseItemDto>> { apiClient.GetLocalTrailersAsync(userId, item.id, it) }
+	}
+
+	private fun loadNextUp(item: BaseItemDto) = load {
+		callApiCancellable<ItemsResult> {
+			apiClient.GetNextUpEpisodesAsync(NextUpQuery().apply {
+				userId = this@DetailPageLoader.userId
+				seriesId = item.id
+			}, it)
+		}
+	}
+
+	// Failures are reported when the result is used
+	private fun <T> load(block: suspend () -> T): Deferred<T> = scope.async {
+		block()
+	}.also { deferred ->
+		deferred.invokeOnCompletion { err ->
+			if (err != null && err !is CancellationException) Timber.w(err, "Detail page request failed")
+		}
+	}
+
+	private fun <T> deliver(response: Response<T>, block: suspend () -> T) {
+		scope.launch {
+			val result = try {
+				block()
+			} catch (err: CancellationException) {
+				throw err
+			} catch (err: Exception) {
+				response.onError(err)
+				return@launch
+			}
+			response.onResponse(result)
+		}
+	}
+}
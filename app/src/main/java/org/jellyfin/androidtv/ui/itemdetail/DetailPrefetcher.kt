@@ -0,0 +1,136 @@
+package org.jellyfin.androidtv.ui.itemdetail
+
+import androidx.annotation.MainThread
+import kotlinx.coroutines.CancellationException
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.Deferred
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.Job
+import kotlinx.coroutines.SupervisorJob
+import kotlinx.coroutines.async
+import kotlinx.coroutines.currentCoroutineContext
+import kotlinx.coroutines.delay
+import kotlinx.coroutines.ensureActive
+import kotlinx.coroutines.launch
+import kotlinx.coroutines.sync.Semaphore
+import org.jellyfin.apiclient.model.dto.BaseItemDto
+import timber.log.Timber
+import java.util.concurrent.TimeUnit
+
+/**
+ * Speculatively loads the details of a card once it held the focus for [dwell] milliseconds, so
+ * opening it shows the detail page right away.
+ *
+ * Focus changes cancel the dwell and prefetches still waiting for one of the [maxConcurrent]
+ * slots. Started prefetches finish into a small cache of [maxEntries] results, which are used
+ * once and only within [maxAge].
+ */
+class DetailPrefetcher(
+	private val fetcher: suspend (itemId: String) -> Details,
+	private val dwell: () -> Long,
+	private val scope: CoroutineScope = CoroutineScope(SupervisorJob() + Dispatchers.Main),
+	private val maxConcurrent: Int = MAX_CONCURRENT,
+	private val maxEntries: Int = MAX_ENTRIES,
+	private val maxAge: Long = MAX_AGE,
+	private val clock: () -> Long = System::currentTimeMillis,
+) {
+	companion object {
+		const val MAX_CONCURRENT = 2
+		const val MAX_ENTRIES = 10
+		val MAX_AGE = TimeUnit.SECONDS.toMillis(30)
+	}
+
+	class Details(
+		val item: BaseItemDto,
+		val localTrailers: Array<BaseItemDto>?,
+	)
+
+	private class Entry(
+		val request: Deferred<Details>,
+		val timestamp: Long,
+	)
+
+	// insertion ordered, the oldest prefetch is dropped first
+	private val entries = object : LinkedHashMap<String, Entry>() {
+		override fun removeEldestEntry(eldest: MutableMap.MutableEntry<String, Entry>?) = size > maxEntries
+	}
+	private val slots = Semaphore(maxConcurrent)
+
+	private var focusedId: String? = null
+	private var focusedJob: Job? = null
+
+	var prefetched = 0
+		private set
+	var hits = 0
+		private set
+
+	/**
+	 * Call when the card of [itemId] got the focus, null when the focus moved to something else.
+	 */
+	@MainThread
+	fun onFocused(itemId: String?) {
+		if (itemId == focusedId) return
+
+		focusedJob?.cancel()
+		focusedJob = null
+		focusedId = itemId
+
+		val dwellTime = dwell()
+		if (itemId == null || dwellTime <= 0 || isFresh(itemId)) return
+
+		focusedJob = scope.launch {
+			delay(dwellTime)
+			slots.acquire()
+
+			// Not cancelled by focus changes anymore, the result is cached either way
+			val request = scope.async {
+				try {
+					fetcher(itemId)
+				} finally {
+					slots.release()
+				}
+			}
+			request.invokeOnCompletion { err ->
+				if (err != null && err !is CancellationException) Timber.w(err, "Unable to prefetch details of %s", itemId)
+			}
+			prefetched++
+			entries[itemId] = Entry(request, clock())
+		}
+	}
+
+	private fun isFresh(itemId: String): Boolean {
+		val entry = entries[itemId] ?: return false
+		if (clock() - entry.timestamp <= maxAge && !entry.request.isCancelled) return true
+
+		entries.remove(itemId)
+		return false
+	}
+
+	/**
+	 * Get the prefetched details of [itemId], waiting for a running prefetch. Returns null when
+	 * nothing usable was prefetched.
+	 */
+	@MainThread
+	suspend fun take(itemId: String): Details? {
+		if (!isFresh(itemId)) return null
+		val entry = entries.remove(itemId) ?: return null
+
+		return try {
+			entry.request.await().also { hits++ }
+		} catch (err: CancellationException) {
+			currentCoroutineContext().ensureActive()
+			null
+		} catch (err: Exception) {
+			null
+		}
+	}
+
+	@MainThread
+	fun clear() {
+		focusedJob?.cancel()
+		focusedJob = null
+		focusedId = null
+		entries.values.forEach { it.request.cancel() }
+		entries.clear()
+	}
+}
@@ -6,6 +6,7 @@ import static org.koin.java.KoinJavaComponent.inject;
 import android.app.Activity;
 import android.app.AlertDialog;
 import android.content.ActivityNotFoundException;
+import android.content.Context;
 import android.content.DialogInterface;
 import android.content.Intent;
 import android.graphics.Point;
@@ -89,7 +90,6 @@ import org.jellyfin.apiclient.model.entities.MediaStream;
 import org.jellyfin.apiclient.model.livetv.ChannelInfoDto;
 import org.jellyfin.apiclient.model.livetv.SeriesTimerInfoDto;
 import org.jellyfin.apiclient.model.livetv.TimerQuery;
-import org.jellyfin.apiclient.model.querying.EpisodeQuery;
 import org.jellyfin.apiclient.model.querying.ItemFields;
 import org.jellyfin.apiclient.model.querying.ItemQuery;
 import org.jellyfin.apiclient.model.querying.ItemsResult;
@@ -149,6 +149,7 @@ public class FullDetailsActivity extends BaseActivity implements RecordingIndica
     private Runnable mClockLoop;
 
     private BaseItemDto mBaseItem;
+    private DetailPageLoader mPageLoader;
 
     private ArrayList<MediaSourceInfo> versions;
     private int selectedVersionPopupIndex = 0;
@@ -172,6 +173,8 @@ public class FullDetailsActivity extends BaseActivity implements RecordingIndica
             return;
         }
 
+        mPageLoader = new DetailPageLoader(getLifecycle(), apiClient.getValue(), KoinJavaComponent.<UserRepository>get(UserRepository.class).getCurrentUser().getValue().getId().toString(), KoinJavaComponent.<DetailPrefetcher>get(DetailPrefetcher.class));
+
         ActivityFullDetailsBinding binding = ActivityFullDetailsBinding.inflate(getLayoutInflater());
         setContentView(binding.getRoot());
 
@@ -206,7 +209,7 @@ public class FullDetailsActivity extends BaseActivity implements RecordingIndica
             public void onMessageReceived(CustomMessage message) {
                 if (message == CustomMessage.ActionComplete && mSeriesTimerInfo != null && mBaseItem.getBaseItemType() == BaseItemType.SeriesTimer) {
                     //update info
-                    apiClient.getValue().GetLiveTvSeriesTimerAsync(mSeriesTimerInfo.getId(), new Response<SeriesTimerInfoDto>() {
+                    mPageLoader.getSeriesTimer(mSeriesTimerInfo.getId(), new Response<SeriesTimerInfoDto>() {
                         @Override
                         public void onResponse(SeriesTimerInfoDto response) {
                             mSeriesTimerInfo = response;
@@ -215,6 +218,7 @@ public class FullDetailsActivity extends BaseActivity implements RecordingIndica
                         }
                     });
 
+                    mPageLoader.clearRows();
                     mRowsAdapter.removeItems(1, mRowsAdapter.size()-1); // delete all but detail row
                     //re-retrieve the schedule after giving it a second to rebuild
                     new Handler().postDelayed(new Runnable() {
@@ -268,7 +272,7 @@ public class FullDetailsActivity extends BaseActivity implements RecordingIndica
                         dataRefreshService.getValue().setLastPlayedItem(null); //blank this out so a detail screen we back up to doesn't also do this
                     } else {
                         Timber.d("Updating info after playback");
-                        apiClient.getValue().GetItemAsync(mBaseItem.getId(), KoinJavaComponent.<UserRepository>get(UserRepository.class).getCurrentUser().getValue().getId().toString(), new Response<BaseItemDto>() {
+                        mPageLoader.getItem(mBaseItem.getId(), new Response<BaseItemDto>() {
                             @Override
                             public void onResponse(BaseItemDto response) {
                                 if (!isFinishing()) {
@@ -372,12 +376,12 @@ public class FullDetailsActivity extends BaseActivity implements RecordingIndica
         if (mChannelId != null && mProgramInfo == null) {
             // if we are displaying a live tv channel - we want to get whatever is showing now on that channel
             final FullDetailsActivity us = this;
-            apiClient.getValue().GetLiveTvChannelAsync(mChannelId, KoinJavaComponent.<UserRepository>get(UserRepository.class).getCurrentUser().getValue().getId().toString(), new Response<ChannelInfoDto>() {
+            mPageLoader.getChannel(mChannelId, new Response<ChannelInfoDto>() {
                 @Override
                 public void onResponse(ChannelInfoDto response) {
                     mProgramInfo = response.getCurrentProgram();
                     mItemId = mProgramInfo.getId();
-                    apiClient.getValue().GetItemAsync(mItemId, KoinJavaComponent.<UserRepository>get(UserRepository.class).getCurrentUser().getValue().getId().toString(), new Response<BaseItemDto>() {
+                    mPageLoader.getItem(mItemId, new Response<BaseItemDto>() {
                         @Override
                         public void onResponse(BaseItemDto response) {
                             setBaseItem(response);
@@ -397,7 +401,7 @@ public class FullDetailsActivity extends BaseActivity implements RecordingIndica
 
             setBaseItem(item);
         } else {
-            apiClient.getValue().GetItemAsync(id, KoinJavaComponent.<UserRepository>get(UserRepository.class).getCurrentUser().getValue().getId().toString(), new Response<BaseItemDto>() {
+            mPageLoader.loadItem(id, new Response<BaseItemDto>() {
                 @Override
                 public void onResponse(BaseItemDto response) {
                     setBaseItem(response);
@@ -422,18 +426,26 @@ public class FullDetailsActivity extends BaseActivity implements RecordingIndica
 
     }
 
-    private MyDetailsOverviewRow buildOverviewRow(@NonNull BaseItemDto item) {
-
+    // also used to prefetch the image before the page is opened
+    @Nullable
+    public static String getOverviewImageUrl(@NonNull Context context, @NonNull BaseItemDto item) {
         // Figure image size
         Double aspect = ImageUtils.getImageAspectRatio(item);
-        int posterHeight = aspect > 1 ? Utils.convertDpToPixel(mActivity, 160) : Utils.convertDpToPixel(mActivity, item.getBaseItemType() == BaseItemType.Person || item.getBaseItemType() == BaseItemType.MusicArtist ? 300 : 200);
-        mDetailsOverviewRow = new MyDetailsOverviewRow(ModelCompat.asSdk(item));
-        mDetailsOverviewRow.MediaSourceIndex = selectedVersionPopupIndex;
+        int posterHeight = aspect > 1 ? Utils.convertDpToPixel(context, 160) : Utils.convertDpToPixel(context, item.getBaseItemType() == BaseItemType.Person || item.getBaseItemType() == BaseItemType.MusicArtist ? 300 : 200);
 
-        String imageUrl = KoinJavaComponent.<ImageHelper>get(ImageHelper.class).getImageUrl(ModelCompat.asSdk(mBaseItem), ImageType.LOGO, true, null, 600, true, false, false);
+        String imageUrl = KoinJavaComponent.<ImageHelper>get(ImageHelper.class).getImageUrl(ModelCompat.asSdk(item), ImageType.LOGO, true, null, 600, true, false, false);
         if (imageUrl == null) {
-            imageUrl = ImageUtils.getPrimaryImageUrl(mBaseItem, posterHeight);
+            imageUrl = ImageUtils.getPrimaryImageUrl(item, posterHeight);
         }
+        return imageUrl;
+    }
+
+    private MyDetailsOverviewRow buildOverviewRow(@NonNull BaseItemDto item) {
+
+        mDetailsOverviewRow = new MyDetailsOverviewRow(ModelCompat.asSdk(item));
+        mDetailsOverviewRow.MediaSourceIndex = selectedVersionPopupIndex;
+
+        String imageUrl = getOverviewImageUrl(mActivity, mBaseItem);
         if (item.getRunTimeTicks() != null && item.getRunTimeTicks() > 0 && item.getUserData() != null && item.getUserData().getPlaybackPositionTicks() > 0)
             mDetailsOverviewRow.setProgress(((int) (item.getUserData().getPlaybackPositionTicks() * 100.0 / item.getRunTimeTicks())));
 
@@ -518,6 +530,8 @@ public class FullDetailsActivity extends BaseActivity implements RecordingIndica
                 mBaseItem.setEndDate(mProgramInfo.getEndDate());
                 mBaseItem.setRunTimeTicks(mProgramInfo.getRunTimeTicks());
             }
+            // fan out everything that only depends on the item before the header is built
+            mPageLoader.start(mBaseItem);
             createOverviewLayout(buildOverviewRow(item));
         }
     }
@@ -527,7 +541,7 @@ public class FullDetailsActivity extends BaseActivity implements RecordingIndica
         ListRow listRow = new ListRow(header, row);
         parent.add(listRow);
         row.setRow(listRow);
-        row.Retrieve();
+        retrieveRow(row, parent.size() - 1);
     }
 
     protected void addItemRow(ArrayObjectAdapter parent, ItemRowAdapter row, int index, String headerText, Class<? extends ListRow> rowClass) {
@@ -542,7 +556,25 @@ public class FullDetailsActivity extends BaseActivity implements RecordingIndica
 
         parent.add(listRow);
         row.setRow(listRow);
-        row.Retrieve();
+        retrieveRow(row, parent.size() - 1);
+    }
+
+    // rows further down the page are retrieved after the ones above them
+    private void retrieveRow(ItemRowAdapter row, int position) {
+        mPageLoader.addRow(position, done -> {
+            row.setRetrieveFinishedListener(new EmptyResponse() {
+                @Override
+                public void onResponse() {
+                    done.run();
+                }
+
+                @Override
+                public void onError(Exception exception) {
+                    done.run();
+                }
+            });
+            row.Retrieve();
+        });
     }
 
     protected void addAdditionalRows(ArrayObjectAdapter adapter) {
@@ -812,7 +844,7 @@ public class FullDetailsActivity extends BaseActivity implements RecordingIndica
         }
 
         // Local trailer
-        apiClient.getValue().GetLocalTrailersAsync(KoinJavaComponent.<UserRepository>get(UserRepository.class).getCurrentUser().getValue().getId().toString(), mBaseItem.getId(), new Response<BaseItemDto[]>() {
+        mPageLoader.getLocalTrailers(mBaseItem, new Response<BaseItemDto[]>() {
             @Override
             public void onResponse(BaseItemDto[] response) {
                 play(response, 0, false);
@@ -925,10 +957,7 @@ public class FullDetailsActivity extends BaseActivity implements RecordingIndica
             public void onClick(View v) {
                 if (mBaseItem.getBaseItemType() == BaseItemType.Series) {
                     //play next up
-                    NextUpQuery nextUpQuery = new NextUpQuery();
-                    nextUpQuery.setUserId(KoinJavaComponent.<UserRepository>get(UserRepository.class).getCurrentUser().getValue().getId().toString());
-                    nextUpQuery.setSeriesId(mBaseItem.getId());
-                    apiClient.getValue().GetNextUpEpisodesAsync(nextUpQuery, new Response<ItemsResult>() {
+                    mPageLoader.getNextUp(mBaseItem, new Response<ItemsResult>() {
                         @Override
                         public void onResponse(ItemsResult response) {
                             if (response.getItems().length > 0) {
@@ -1240,12 +1269,8 @@ public class FullDetailsActivity extends BaseActivity implements RecordingIndica
 
             mDetailsOverviewRow.addAction(mPrevButton);
 
-            //now go get our prev episode id
-            EpisodeQuery adjacent = new EpisodeQuery();
-            adjacent.setUserId(KoinJavaComponent.<UserRepository>get(UserRepository.class).getCurrentUser().getValue().getId().toString());
-            adjacent.setSeriesId(mBaseItem.getSeriesId());
-            adjacent.setAdjacentTo(mBaseItem.getId());
-            apiClient.getValue().GetEpisodesAsync(adjacent, new Response<ItemsResult>() {
+            //now go get our prev episode id, already requested together with the item
+            mPageLoader.getAdjacentEpisodes(mBaseItem, new Response<ItemsResult>() {
                 @Override
                 public void onResponse(ItemsResult response) {
                     if (response.getTotalRecordCount() > 0) {
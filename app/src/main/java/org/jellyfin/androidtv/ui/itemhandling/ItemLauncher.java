@@ -4,6 +4,7 @@ import android.app.Activity;
 import android.content.Context;
 import android.content.Intent;
 
+import androidx.annotation.Nullable;
 import androidx.core.util.Consumer;
 
 import org.jellyfin.androidtv.R;
@@ -92,6 +93,38 @@ public class ItemLauncher {
         });
     }
 
+    /**
+     * Get the id of the item {@link #launch} opens in the {@link FullDetailsActivity}, null when it opens something else.
+     */
+    @Nullable
+    public static String getDetailsItemId(BaseRowItem rowItem) {
+        switch (rowItem.getItemType()) {
+            case BaseItem:
+                BaseItemDto baseItem = rowItem.getBaseItem();
+                if (baseItem == null || baseItem.getBaseItemType() == null) return null;
+                switch (baseItem.getBaseItemType()) {
+                    case Series:
+                    case MusicArtist:
+                        return baseItem.getId();
+                    case UserView:
+                    case CollectionFolder:
+                    case MusicAlbum:
+                    case Playlist:
+                    case Audio:
+                    case Season:
+                    case BoxSet:
+                    case Photo:
+                        return null;
+                }
+                if (baseItem.getIsFolderItem() || rowItem.getSelectAction() != BaseRowItem.SelectAction.ShowDetails) return null;
+                return baseItem.getId();
+            case Person:
+                return rowItem.getPerson().getId().toString();
+            default:
+                return null;
+        }
+    }
+
     public static void launch(final BaseRowItem rowItem, ItemRowAdapter adapter, int pos, final Activity activity, final boolean noHistory) {
         KoinJavaComponent.<MediaManager>get(MediaManager.class).setCurrentMediaAdapter(adapter);
 
@@ -7,6 +7,7 @@ import android.content.Context;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.leanback.widget.ArrayObjectAdapter;
+import androidx.leanback.widget.DiffCallback;
 import androidx.leanback.widget.HeaderItem;
 import androidx.leanback.widget.ListRow;
 import androidx.leanback.widget.Presenter;
@@ -21,17 +22,18 @@ import org.jellyfin.androidtv.constant.QueryType;
 import org.jellyfin.androidtv.data.model.ChapterItemInfo;
 import org.jellyfin.androidtv.data.model.DataRefreshService;
 import org.jellyfin.androidtv.data.model.FilterOptions;
+import org.jellyfin.androidtv.data.model.LibraryChange;
 import org.jellyfin.androidtv.data.querying.AdditionalPartsQuery;
 import org.jellyfin.androidtv.data.querying.SpecialsQuery;
 import org.jellyfin.androidtv.data.querying.StdItemQuery;
 import org.jellyfin.androidtv.data.querying.TrailersQuery;
 import org.jellyfin.androidtv.data.querying.ViewQuery;
+import org.jellyfin.androidtv.data.repository.ItemQueryCache;
 import org.jellyfin.androidtv.data.repository.UserViewsRepository;
 import org.jellyfin.androidtv.ui.GridButton;
 import org.jellyfin.androidtv.ui.browsing.BrowseGridFragment;
 import org.jellyfin.androidtv.ui.browsing.BrowseRowDef;
 import org.jellyfin.androidtv.ui.browsing.EnhancedBrowseFragment;
-import org.jellyfin.androidtv.ui.browsing.GenericGridActivity;
 import org.jellyfin.androidtv.ui.livetv.TvManager;
 import org.jellyfin.androidtv.ui.presentation.PositionableListRowPresenter;
 import org.jellyfin.androidtv.ui.presentation.TextItemPresenter;
@@ -50,6 +52,7 @@ import org.jellyfin.apiclient.model.livetv.RecordingQuery;
 import org.jellyfin.apiclient.model.livetv.SeriesTimerInfoDto;
 import org.jellyfin.apiclient.model.livetv.SeriesTimerQuery;
 import org.jellyfin.apiclient.model.querying.ArtistsQuery;
+import org.jellyfin.apiclient.model.querying.ItemFields;
 import org.jellyfin.apiclient.model.querying.ItemQuery;
 import org.jellyfin.apiclient.model.querying.ItemsResult;
 import org.jellyfin.apiclient.model.querying.LatestItemsQuery;
@@ -72,14 +75,45 @@ import org.koin.java.KoinJavaComponent;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Calendar;
+import java.util.Collections;
 import java.util.GregorianCalendar;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
 import java.util.TimeZone;
 
 import kotlin.Lazy;
 import timber.log.Timber;
 
 public class ItemRowAdapter extends ArrayObjectAdapter {
+    // Position of an item that is not loaded yet, see seekToLetter
+    public static final Object PLACEHOLDER = new Object();
+
+    // Items with the same id keep their views, only changed items are rebound
+    private static final DiffCallback<Object> ROW_ITEM_DIFF = new DiffCallback<Object>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Object oldItem, @NonNull Object newItem) {
+            if (!(oldItem instanceof BaseRowItem) || !(newItem instanceof BaseRowItem)) return oldItem == newItem;
+            String oldId = ((BaseRowItem) oldItem).getItemId();
+            return oldId != null && oldId.equals(((BaseRowItem) newItem).getItemId());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Object oldItem, @NonNull Object newItem) {
+            if (!(oldItem instanceof BaseRowItem) || !(newItem instanceof BaseRowItem)) return oldItem == newItem;
+            BaseItemDto oldBaseItem = ((BaseRowItem) oldItem).getBaseItem();
+            BaseItemDto newBaseItem = ((BaseRowItem) newItem).getBaseItem();
+            if (oldBaseItem == null || newBaseItem == null) return false;
+            if (!Objects.equals(oldBaseItem.getName(), newBaseItem.getName()) || !Objects.equals(oldBaseItem.getImageTags(), newBaseItem.getImageTags())) return false;
+            if (oldBaseItem.getUserData() == null || newBaseItem.getUserData() == null) return oldBaseItem.getUserData() == newBaseItem.getUserData();
+            return Objects.equals(oldBaseItem.getUserData().getPlayed(), newBaseItem.getUserData().getPlayed())
+                    && Objects.equals(oldBaseItem.getUserData().getIsFavorite(), newBaseItem.getUserData().getIsFavorite())
+                    && Objects.equals(oldBaseItem.getUserData().getPlaybackPositionTicks(), newBaseItem.getUserData().getPlaybackPositionTicks())
+                    && Objects.equals(oldBaseItem.getUserData().getUnplayedItemCount(), newBaseItem.getUserData().getUnplayedItemCount());
+        }
+    };
+
     private ItemQuery mQuery;
     private NextUpQuery mNextUpQuery;
     private SeasonQuery mSeasonQuery;
@@ -121,9 +155,20 @@ public class ItemRowAdapter extends ArrayObjectAdapter {
 
     private final Object currentlyRetrievingSemaphore = new Object();
     private boolean currentlyRetrieving = false;
+    private final ItemRowPager mPager = new ItemRowPager();
+    // a grid that jumped past the loaded items holds all positions, unloaded ones as PLACEHOLDER
+    private boolean mSparse = false;
+    private final Set<Integer> mSparsePages = new HashSet<>();
+    private int mSparseGeneration = 0;
+    // cache key of the running full retrieve and of the result shown
+    private String mPendingCacheKey;
+    private String mShownCacheKey;
+    private long lastLibraryPatch = 0;
 
     private final Lazy<ApiClient> apiClient = inject(ApiClient.class);
     private final Lazy<UserViewsRepository> userViewsRepository = inject(UserViewsRepository.class);
+    private final Lazy<ItemQueryCache> itemQueryCache = inject(ItemQueryCache.class);
+    private final Lazy<SortNameIndexCache> sortNameIndexCache = inject(SortNameIndexCache.class);
     private Context context;
 
     public boolean isCurrentlyRetrieving() {
@@ -485,6 +530,131 @@ public class ItemRowAdapter extends ArrayObjectAdapter {
         }
     }
 
+    /**
+     * Move to the first item starting with [letter] or greater by position, keeping the items
+     * before it. The positions up to the item are filled with [PLACEHOLDER] and only the page of
+     * the item is loaded, the others load once scrolled to.
+     * @return false if the row can not seek, use setStartLetter and retrieve instead
+     */
+    public boolean seekToLetter(@NonNull String letter, @NonNull Response<Integer> response) {
+        if (!canSeek()) return false;
+
+        final String cacheKey = itemQueryCache.getValue().fingerprint("SortNameIndex", mQuery.getUserId(), mQuery);
+        SortNameIndex index = sortNameIndexCache.getValue().get(cacheKey);
+        if (index != null && index.getTotalCount() == totalItems) {
+            response.onResponse(seekTo(index.positionOf(letter)));
+            return true;
+        }
+
+        // only the sort names of all items, without images and user data
+        final int generation = mSparseGeneration;
+        Integer savedIdx = mQuery.getStartIndex();
+        Integer savedLimit = mQuery.getLimit();
+        ItemFields[] savedFields = mQuery.getFields();
+        Boolean savedEnableImages = mQuery.getEnableImages();
+        Boolean savedEnableUserData = mQuery.getEnableUserData();
+        Boolean savedEnableTotalRecordCount = mQuery.getEnableTotalRecordCount();
+        mQuery.setStartIndex(null);
+        mQuery.setLimit(null);
+        mQuery.setFields(new ItemFields[]{ItemFields.SortName});
+        mQuery.setEnableImages(false);
+        mQuery.setEnableUserData(false);
+        mQuery.setEnableTotalRecordCount(false);
+        apiClient.getValue().GetItemsAsync(mQuery, new Response<ItemsResult>() {
+            @Override
+            public void onResponse(ItemsResult result) {
+                List<String> sortNames = new ArrayList<>();
+                if (result.getItems() != null) {
+                    for (BaseItemDto item : result.getItems()) {
+                        sortNames.add(item.getSortName() != null ? item.getSortName() : item.getName());
+                    }
+                }
+                SortNameIndex built = SortNameIndex.build(sortNames);
+                sortNameIndexCache.getValue().set(cacheKey, built);
+                Timber.d("Built sort name index of %s items", sortNames.size());
+
+                // retrieved again meanwhile
+                if (generation != mSparseGeneration || !canSeek()) return;
+                response.onResponse(seekTo(built.positionOf(letter)));
+            }
+
+            @Override
+            public void onError(Exception exception) {
+                Timber.e(exception, "Error retrieving sort name index");
+                response.onError(exception);
+            }
+        });
+        mQuery.setStartIndex(savedIdx); // is reused so reset
+        mQuery.setLimit(savedLimit);
+        mQuery.setFields(savedFields);
+        mQuery.setEnableImages(savedEnableImages);
+        mQuery.setEnableUserData(savedEnableUserData);
+        mQuery.setEnableTotalRecordCount(savedEnableTotalRecordCount);
+        return true;
+    }
+
+    private boolean canSeek() {
+        // positions are server positions, items filtered on the client would shift them
+        return queryType == QueryType.Items && mQuery != null && chunkSize > 0 && totalItems > 0
+                && ItemSortBy.SortName.equals(mSortBy) && sortOrder == SortOrder.ASCENDING
+                && getStartLetter() == null && (mFilters == null || !mFilters.isNoneEmptyOnly())
+                && !isCurrentlyRetrieving();
+    }
+
+    private int seekTo(int position) {
+        position = Math.max(0, Math.min(position, totalItems - 1));
+        if (position < itemsLoaded) return position;
+
+        if (!mSparse) {
+            mSparse = true;
+            // pages in flight are dropped, all positions load by page from now on
+            mPager.reset(chunkSize);
+            for (int start = 0; start < itemsLoaded; start += chunkSize) mSparsePages.add(start);
+            if (size() < totalItems) addAll(size(), Collections.nCopies(totalItems - size(), PLACEHOLDER));
+        }
+        loadSparsePage(position / chunkSize * chunkSize);
+        return position;
+    }
+
+    private void loadSparsePages(int pos, int lookahead) {
+        // also a bit behind, the grid is scrolled back after a jump
+        int first = Math.max(0, pos - chunkSize / 2) / chunkSize;
+        int last = Math.min(totalItems - 1, pos + lookahead) / chunkSize;
+        for (int page = first; page <= last; page++) {
+            loadSparsePage(page * chunkSize);
+        }
+    }
+
+    private void loadSparsePage(final int startIndex) {
+        if (startIndex >= totalItems || !mSparsePages.add(startIndex)) return;
+
+        final int generation = mSparseGeneration;
+        Integer savedIdx = mQuery.getStartIndex();
+        mQuery.setStartIndex(startIndex);
+        apiClient.getValue().GetItemsAsync(mQuery, new Response<ItemsResult>() {
+            @Override
+            public void onResponse(ItemsResult response) {
+                if (generation != mSparseGeneration || response.getItems() == null) return;
+
+                BaseItemDto[] items = response.getItems();
+                // the library changed if the items don't fit anymore, a retrieve fixes that up
+                for (int i = 0; i < items.length && startIndex + i < size(); i++) {
+                    int position = startIndex + i;
+                    if (get(position) == PLACEHOLDER) replace(position, new BaseRowItem(position, items[i]));
+                }
+                Timber.d("Loaded %s items at <%s> from total <%s>", items.length, startIndex, totalItems);
+            }
+
+            @Override
+            public void onError(Exception exception) {
+                Timber.e(exception, "Error retrieving items at <%s>", startIndex);
+                // requested again on the next focus change
+                if (generation == mSparseGeneration) mSparsePages.remove(startIndex);
+            }
+        });
+        mQuery.setStartIndex(savedIdx); // is reused so reset
+    }
+
     public void removeRow() {
         if (mParent == null) {
             // just clear us
@@ -504,6 +674,11 @@ public class ItemRowAdapter extends ArrayObjectAdapter {
     }
 
     public void loadMoreItemsIfNeeded(long pos) {
+        int lookahead = mPager.onPosition(pos);
+        if (mSparse) {
+            loadSparsePages((int) pos, lookahead);
+            return;
+        }
         if (fullyLoaded) {
             //context.getLogger().Debug("Row is fully loaded");
             return;
@@ -512,78 +687,75 @@ public class ItemRowAdapter extends ArrayObjectAdapter {
             Timber.d("Not loading more because currently retrieving");
             return;
         }
-        // This needs tobe based on the actual estimated cards on screen via type of presenter and WindowAlignmentOffsetPercent
-        if (chunkSize > 0 && context instanceof GenericGridActivity) {
-            // we can use chunkSize as indicator on when to load
-            if (pos >= (itemsLoaded - (chunkSize / 1.7))) {
-                Timber.d("Loading more items trigger pos <%s> itemsLoaded <%s> from total <%s> with chunkSize <%s>", pos, itemsLoaded, totalItems, chunkSize);
-                retrieveNext();
-            }
-        } else if (pos >= itemsLoaded - 20) {
-            Timber.d("Loading more items trigger pos <%s> itemsLoaded <%s> from total <%s>", pos, itemsLoaded, totalItems);
-            retrieveNext();
+        // request pages until the predicted scroll distance is covered, pages already in flight count as loaded
+        ItemRowPager.Page page;
+        while ((page = mPager.nextPage(pos, lookahead, itemsLoaded)) != null) {
+            Timber.d("Loading more items at <%s> trigger pos <%s> itemsLoaded <%s> from total <%s> with lookahead <%s> latency <%s>", page.getStartIndex(), pos, itemsLoaded, totalItems, lookahead, mPager.getAverageLatencyMs());
+            if (!retrieveNext(page)) break;
         }
     }
 
-    private void retrieveNext() {
-        if (fullyLoaded || isCurrentlyRetrieving()) {
-            return;
-        }
-
+    /**
+     * Request {@code page}, returns false if the row has no query to load it with.
+     */
+    private boolean retrieveNext(ItemRowPager.Page page) {
         Integer savedIdx = null;
         switch (queryType) {
             case Persons:
                 if (mPersonsQuery == null) {
-                    return;
+                    return releasePage(page);
                 }
-                notifyRetrieveStarted();
 
                 savedIdx = mPersonsQuery.getStartIndex();
                 //set the query to go get the next chunk
-                mPersonsQuery.setStartIndex(itemsLoaded);
-                retrieve(mPersonsQuery);
+                mPersonsQuery.setStartIndex(page.getStartIndex());
+                retrieve(mPersonsQuery, page);
                 mPersonsQuery.setStartIndex(savedIdx); // is reused so reset
                 break;
 
             case LiveTvChannel:
                 if (mTvChannelQuery == null) {
-                    return;
+                    return releasePage(page);
                 }
-                notifyRetrieveStarted();
 
                 savedIdx = mTvChannelQuery.getStartIndex();
                 //set the query to go get the next chunk
-                mTvChannelQuery.setStartIndex(itemsLoaded);
-                retrieve(mTvChannelQuery);
+                mTvChannelQuery.setStartIndex(page.getStartIndex());
+                retrieve(mTvChannelQuery, page);
                 mTvChannelQuery.setStartIndex(savedIdx); // is reused so reset
                 break;
 
             case AlbumArtists:
                 if (mArtistsQuery == null) {
-                    return;
+                    return releasePage(page);
                 }
-                notifyRetrieveStarted();
 
                 savedIdx = mArtistsQuery.getStartIndex();
                 //set the query to go get the next chunk
-                mArtistsQuery.setStartIndex(itemsLoaded);
-                retrieve(mArtistsQuery);
+                mArtistsQuery.setStartIndex(page.getStartIndex());
+                retrieve(mArtistsQuery, page);
                 mArtistsQuery.setStartIndex(savedIdx); // is reused so reset
                 break;
 
             default:
                 if (mQuery == null) {
-                    return;
+                    return releasePage(page);
                 }
-                notifyRetrieveStarted();
 
                 savedIdx = mQuery.getStartIndex();
                 //set the query to go get the next chunk
-                mQuery.setStartIndex(itemsLoaded);
-                retrieve(mQuery);
+                mQuery.setStartIndex(page.getStartIndex());
+                retrieve(mQuery, page);
                 mQuery.setStartIndex(savedIdx); // is reused so reset
                 break;
         }
+        return true;
+    }
+
+    // Without a query the page is never delivered, release it so it can be requested again
+    private boolean releasePage(ItemRowPager.Page page) {
+        mPager.fail(page);
+        return false;
     }
 
     public boolean ReRetrieveIfNeeded() {
@@ -592,10 +764,11 @@ public class ItemRowAdapter extends ArrayObjectAdapter {
         }
 
         boolean retrieve = false;
+        boolean libraryUpdated = false;
         DataRefreshService dataRefreshService = KoinJavaComponent.get(DataRefreshService.class);
         for (ChangeTriggerType trigger : reRetrieveTriggers) {
             switch (trigger) {
-                case LibraryUpdated -> retrieve |= lastFullRetrieve.getTimeInMillis() < dataRefreshService.getLastLibraryChange();
+                case LibraryUpdated -> libraryUpdated = true;
                 case MoviePlayback -> retrieve |= lastFullRetrieve.getTimeInMillis() < dataRefreshService.getLastMoviePlayback();
                 case TvPlayback -> retrieve |= lastFullRetrieve.getTimeInMillis() < dataRefreshService.getLastTvPlayback();
                 case MusicPlayback -> retrieve |= lastFullRetrieve.getTimeInMillis() < dataRefreshService.getLastMusicPlayback();
@@ -610,6 +783,8 @@ public class ItemRowAdapter extends ArrayObjectAdapter {
                 case Always -> retrieve = true;
             }
         }
+        // only patch the library changes if nothing else needs a full retrieve
+        if (!retrieve && libraryUpdated) retrieve = applyLibraryChanges(dataRefreshService);
 
         if (retrieve) {
             Timber.i("Re-retrieving row of type %s", queryType.toString());
@@ -619,11 +794,122 @@ public class ItemRowAdapter extends ArrayObjectAdapter {
         return retrieve;
     }
 
+    /**
+     * Patch the library changes since the last retrieve into the row. Removed items are dropped and
+     * updated items are reloaded in place.
+     * @return true if items were added to the folder of the row and it needs a full retrieve
+     */
+    private boolean applyLibraryChanges(DataRefreshService dataRefreshService) {
+        long since = Math.max(lastFullRetrieve.getTimeInMillis(), lastLibraryPatch);
+        List<LibraryChange> changes = dataRefreshService.getLibraryChangesSince(since);
+        if (changes == null) return true;
+        if (changes.isEmpty()) return false;
+        lastLibraryPatch = changes.get(changes.size() - 1).getTimestamp();
+
+        String parentId = getParentId();
+        Set<String> removed = new HashSet<>();
+        Set<String> updated = new HashSet<>();
+        for (LibraryChange change : changes) {
+            if (change.isAddedTo(parentId)) return true;
+            removed.addAll(change.getItemsRemoved());
+            updated.addAll(change.getItemsUpdated());
+        }
+
+        List<String> updatedIds = new ArrayList<>();
+        for (int i = size() - 1; i >= 0; i--) {
+            if (!(get(i) instanceof BaseRowItem) || ((BaseRowItem) get(i)).getBaseItem() == null) continue;
+            String itemId = ((BaseRowItem) get(i)).getItemId();
+            if (itemId == null) continue;
+
+            String id = LibraryChange.normalizeId(itemId);
+            if (removed.contains(id)) {
+                // server offsets of the next pages would shift
+                if (!fullyLoaded) return true;
+                removeItems(i, 1);
+                itemsLoaded--;
+                totalItems--;
+            } else if (updated.contains(id)) {
+                updatedIds.add(itemId);
+            }
+        }
+
+        Timber.d("Patched library changes into row of type %s, reloading %s items", queryType, updatedIds.size());
+        if (!updatedIds.isEmpty()) refreshItems(updatedIds);
+        else updateCachedItems();
+        if (size() == 0) removeRow();
+        return false;
+    }
+
+    // Write a patched row back to the cache, so the next cold start doesn't show removed or stale items
+    private void updateCachedItems() {
+        // a running retrieve stores its own result
+        String cacheKey = mShownCacheKey;
+        if (cacheKey == null || isCurrentlyRetrieving()) return;
+
+        BaseItemDto[] items = new BaseItemDto[size()];
+        for (int i = 0; i < size(); i++) {
+            if (!(get(i) instanceof BaseRowItem) || ((BaseRowItem) get(i)).getBaseItem() == null) {
+                // placeholders can't be stored, drop the outdated result instead
+                itemQueryCache.getValue().removeAsync(cacheKey);
+                return;
+            }
+            items[i] = ((BaseRowItem) get(i)).getBaseItem();
+        }
+
+        ItemsResult result = new ItemsResult();
+        result.setItems(items);
+        result.setTotalRecordCount(totalItems);
+        itemQueryCache.getValue().putAsync(cacheKey, result);
+    }
+
+    @Nullable
+    private String getParentId() {
+        return switch (queryType) {
+            case NextUp -> mNextUpQuery.getParentId();
+            case LatestItems -> mLatestQuery.getParentId();
+            default -> mQuery != null ? mQuery.getParentId() : null;
+        };
+    }
+
+    // Reload the items [itemIds] and replace them in the row
+    private void refreshItems(List<String> itemIds) {
+        StdItemQuery query = new StdItemQuery(mQuery != null ? mQuery.getFields() : null);
+        query.setIds(itemIds.toArray(new String[0]));
+        apiClient.getValue().GetItemsAsync(query, new Response<ItemsResult>() {
+            @Override
+            public void onResponse(ItemsResult response) {
+                if (response.getItems() == null) return;
+
+                for (BaseItemDto item : response.getItems()) {
+                    for (int i = 0; i < size(); i++) {
+                        if (!(get(i) instanceof BaseRowItem)) continue;
+                        BaseRowItem rowItem = (BaseRowItem) get(i);
+                        if (rowItem.getBaseItem() != null && item.getId().equals(rowItem.getItemId())) {
+                            replace(i, new BaseRowItem(rowItem.getIndex(), item, rowItem.getSelectAction()));
+                            break;
+                        }
+                    }
+                }
+                updateCachedItems();
+            }
+
+            @Override
+            public void onError(Exception exception) {
+                Timber.e(exception, "Error refreshing updated items");
+            }
+        });
+    }
+
     public void Retrieve() {
         notifyRetrieveStarted();
 
         lastFullRetrieve = Calendar.getInstance();
         itemsLoaded = 0;
+        mPager.reset(chunkSize);
+        mSparse = false;
+        mSparsePages.clear();
+        mSparseGeneration++;
+        mPendingCacheKey = null;
         switch (queryType) {
             case Items:
                 if (mSortBy != null && mSortBy.contains(ItemSortBy.DateLastContentAdded) && Arrays.asList(mQuery.getIncludeItemTypes()).contains("Series")) {
@@ -635,13 +921,17 @@ public class ItemRowAdapter extends ArrayObjectAdapter {
                     retrieve(mQuery);
                     setFilters(mFilters);
                 } else {
+                    showCachedItems(mQuery.getUserId(), mQuery);
                     retrieve(mQuery);
                 }
                 break;
             case NextUp:
+                // single series next up also loads the rest of the season
+                if (mNextUpQuery.getSeriesId() == null) showCachedItems(mNextUpQuery.getUserId(), mNextUpQuery);
                 retrieve(mNextUpQuery);
                 break;
             case LatestItems:
+                showCachedItems(mLatestQuery.getUserId(), mLatestQuery);
                 retrieve(mLatestQuery);
                 break;
             case Upcoming:
@@ -837,12 +1127,73 @@ public class ItemRowAdapter extends ArrayObjectAdapter {
 
     }
 
+    /**
+     * Show search results that were retrieved outside of the adapter, unchanged items keep their views.
+     */
+    public void setSearchHints(List<org.jellyfin.sdk.model.api.SearchHint> hints) {
+        List<BaseRowItem> rowItems = new ArrayList<>(hints.size());
+        for (org.jellyfin.sdk.model.api.SearchHint hint : hints) {
+            if (userViewsRepository.getValue().isSupported(hint.getType())) {
+                rowItems.add(new BaseRowItem(hint));
+            }
+        }
+        setItems(rowItems, ROW_ITEM_DIFF);
+        totalItems = rowItems.size();
+        setItemsLoaded(rowItems.size());
+    }
+
     public void addToParentIfResultsReceived() {
         if (itemsLoaded > 0 && mParent != null) {
             mParent.add(mRow);
         }
     }
 
+    /**
+     * Show the cached result of [query] until the server responds, the response is diffed into it.
+     */
+    private void showCachedItems(String userId, Object query) {
+        final String cacheKey = itemQueryCache.getValue().fingerprint(queryType.name(), userId, query);
+        mPendingCacheKey = cacheKey;
+        // already showing a result of this query
+        if (cacheKey.equals(mShownCacheKey) && size() > 0) return;
+
+        itemQueryCache.getValue().getAsync(cacheKey, ItemsResult.class, new Response<ItemsResult>() {
+            @Override
+            public void onResponse(ItemsResult response) {
+                // the server responded first or another retrieve started
+                if (response == null || response.getItems() == null || !cacheKey.equals(mPendingCacheKey)) return;
+
+                List<BaseItemDto> items = List.of(response.getItems());
+                if (queryType != QueryType.NextUp && mFilters != null) {
+                    if (mFilters.isUnwatchedOnly()) items = filterPlayed(items);
+                    if (mFilters.isNoneEmptyOnly()) items = filterEmpty(items);
+                }
+                if (items.isEmpty()) return;
+
+                Timber.d("Showing %s cached items for %s row", items.size(), queryType);
+                List<BaseRowItem> rowItems = new ArrayList<>(items.size());
+                int i = 0;
+                for (BaseItemDto item : items) {
+                    rowItems.add(new BaseRowItem(i++, item));
+                }
+                setItems(rowItems, ROW_ITEM_DIFF);
+                mShownCacheKey = cacheKey;
+            }
+        });
+    }
+
+    // Store the server result of a full retrieve and mark it as shown
+    private void onRetrieved(@Nullable String cacheKey, ItemsResult response) {
+        if (cacheKey != null) itemQueryCache.getValue().putAsync(cacheKey, response);
+        if (cacheKey != null && cacheKey.equals(mPendingCacheKey)) mPendingCacheKey = null;
+        mShownCacheKey = cacheKey;
+    }
+
+    // Keep rows showing cached or earlier results when the server can't be reached
+    private boolean isShowingResult(@Nullable String cacheKey) {
+        return cacheKey != null && cacheKey.equals(mShownCacheKey) && size() > 0;
+    }
+
     private List<BaseItemDto> filterPlayed(@NonNull List<BaseItemDto> items) {
         ArrayList<BaseItemDto> outList = new ArrayList<>(items.size());
         for (BaseItemDto x : items) {
@@ -975,9 +1326,17 @@ public class ItemRowAdapter extends ArrayObjectAdapter {
     }
 
     private void retrieve(final ItemQuery query) {
+        retrieve(query, null);
+    }
+
+    private void retrieve(final ItemQuery query, @Nullable final ItemRowPager.Page page) {
+        final String cacheKey = page == null ? mPendingCacheKey : null;
         apiClient.getValue().GetItemsAsync(query, new Response<ItemsResult>() {
             @Override
             public void onResponse(ItemsResult response) {
+                if (page != null && !mPager.deliver(page, () -> onResponse(response))) return;
+                mPager.setTotal(response.getTotalRecordCount());
+                if (page == null) onRetrieved(cacheKey, response);
                 if (response.getItems() != null && response.getItems().length > 0) {
                     int totalItems = query.getEnableTotalRecordCount() ? response.getTotalRecordCount() : response.getItems().length;
                     List<BaseItemDto> items = List.of(response.getItems());
@@ -993,17 +1352,21 @@ public class ItemRowAdapter extends ArrayObjectAdapter {
                     }
                     setTotalItems(totalItems);
                     int i = getItemsLoaded();
-                    int prevItems = i == 0 && size() > 0 ? size() : 0;
+                    boolean reRetrieved = i == 0 && size() > 0;
+                    List<BaseRowItem> rowItems = new ArrayList<>(items.size());
                     for (BaseItemDto item : items) {
-                        add(new BaseRowItem(i++, item));
+                        rowItems.add(new BaseRowItem(i++, item));
+                    }
+                    if (reRetrieved) {
+                        // diff the previous items as we re-retrieved
+                        // this is done this way instead of clearing the adapter to avoid bugs in the framework elements
+                        setItems(rowItems, ROW_ITEM_DIFF);
+                    } else {
+                        addAll(size(), rowItems);
                     }
                     setItemsLoaded(i);
                     if (i == 0) {
                         removeRow();
-                    } else if (prevItems > 0) {
-                        // remove previous items as we re-retrieved
-                        // this is done this way instead of clearing the adapter to avoid bugs in the framework elements
-                        removeItems(0, prevItems);
                     }
                 } else {
                     // no results - don't show us
@@ -1018,7 +1381,8 @@ public class ItemRowAdapter extends ArrayObjectAdapter {
             @Override
             public void onError(Exception exception) {
                 Timber.e(exception, "Error retrieving items");
-                removeRow();
+                if (page != null) mPager.fail(page);
+                else if (!isShowingResult(cacheKey)) removeRow();
                 notifyRetrieveFinished(exception);
             }
         });
@@ -1033,9 +1397,15 @@ public class ItemRowAdapter extends ArrayObjectAdapter {
     }
 
     private void retrieve(ArtistsQuery query) {
+        retrieve(query, null);
+    }
+
+    private void retrieve(ArtistsQuery query, @Nullable final ItemRowPager.Page page) {
         apiClient.getValue().GetAlbumArtistsAsync(query, new Response<ItemsResult>() {
             @Override
             public void onResponse(ItemsResult response) {
+                if (page != null && !mPager.deliver(page, () -> onResponse(response))) return;
+                mPager.setTotal(response.getTotalRecordCount());
                 if (response.getItems() != null && response.getItems().length > 0) {
                     setTotalItems(response.getTotalRecordCount());
                     int i = getItemsLoaded();
@@ -1051,7 +1421,7 @@ public class ItemRowAdapter extends ArrayObjectAdapter {
                         // this is done this way instead of clearing the adapter to avoid bugs in the framework elements
                         removeItems(0, prevItems);
                     }
-                } else {
+                } else if (page == null) {
                     // no results - don't show us
                     setTotalItems(0);
                     removeRow();
@@ -1059,13 +1429,27 @@ public class ItemRowAdapter extends ArrayObjectAdapter {
 
                 notifyRetrieveFinished();
             }
+
+            @Override
+            public void onError(Exception exception) {
+                Timber.e(exception, "Error retrieving artists");
+                if (page != null) mPager.fail(page);
+                notifyRetrieveFinished(exception);
+            }
         });
     }
 
     private void retrieve(LatestItemsQuery query) {
+        final String cacheKey = mPendingCacheKey;
         apiClient.getValue().GetLatestItems(query, new Response<BaseItemDto[]>() {
             @Override
             public void onResponse(BaseItemDto[] response) {
+                if (response != null) {
+                    ItemsResult result = new ItemsResult();
+                    result.setItems(response);
+                    result.setTotalRecordCount(response.length);
+                    onRetrieved(cacheKey, result);
+                }
                 if (response != null && response.length > 0) {
                     List<BaseItemDto> items = List.of(response);
                     if (mFilters != null && mFilters.isUnwatchedOnly()) {
@@ -1076,17 +1460,21 @@ public class ItemRowAdapter extends ArrayObjectAdapter {
                     }
                     setTotalItems(items.size());
                     int i = getItemsLoaded();
-                    int prevItems = i == 0 && size() > 0 ? size() : 0;
+                    boolean reRetrieved = i == 0 && size() > 0;
+                    List<BaseRowItem> rowItems = new ArrayList<>(items.size());
                     for (BaseItemDto item : items) {
-                        add(new BaseRowItem(i++, item));
+                        rowItems.add(new BaseRowItem(i++, item));
+                    }
+                    if (reRetrieved) {
+                        // diff the previous items as we re-retrieved
+                        // this is done this way instead of clearing the adapter to avoid bugs in the framework elements
+                        setItems(rowItems, ROW_ITEM_DIFF);
+                    } else {
+                        addAll(size(), rowItems);
                     }
                     setItemsLoaded(i);
                     if (i == 0) {
                         removeRow();
-                    } else if (prevItems > 0) {
-                        // remove previous items as we re-retrieved
-                        // this is done this way instead of clearing the adapter to avoid bugs in the framework elements
-                        removeItems(0, prevItems);
                     }
                 } else {
                     // no results - don't show us
@@ -1096,6 +1484,13 @@ public class ItemRowAdapter extends ArrayObjectAdapter {
 
                 notifyRetrieveFinished();
             }
+
+            @Override
+            public void onError(Exception exception) {
+                Timber.e(exception, "Error retrieving latest items");
+                if (!isShowingResult(cacheKey)) removeRow();
+                notifyRetrieveFinished(exception);
+            }
         });
     }
 
@@ -1178,17 +1573,18 @@ public class ItemRowAdapter extends ArrayObjectAdapter {
 
     private void retrieve(final NextUpQuery query) {
         final ItemRowAdapter adapter = this;
+        final String cacheKey = mPendingCacheKey;
         apiClient.getValue().GetNextUpEpisodesAsync(query, new Response<ItemsResult>() {
             @Override
             public void onResponse(final ItemsResult response) {
+                onRetrieved(cacheKey, response);
                 if (response.getItems() != null && response.getItems().length > 0) {
-                    if (adapter.size() > 0) {
-                        adapter.clear();
-                    }
+                    List<BaseRowItem> rowItems = new ArrayList<>(response.getItems().length);
                     int i = 0;
                     for (BaseItemDto item : response.getItems()) {
-                        adapter.add(new BaseRowItem(i++, item));
+                        rowItems.add(new BaseRowItem(i++, item));
                     }
+                    adapter.setItems(rowItems, ROW_ITEM_DIFF);
                     totalItems = response.getTotalRecordCount();
                     setItemsLoaded(itemsLoaded + i);
                     if (i == 0) {
@@ -1239,7 +1635,7 @@ public class ItemRowAdapter extends ArrayObjectAdapter {
             @Override
             public void onError(Exception exception) {
                 Timber.e(exception, "Error retrieving next up items");
-                removeRow();
+                if (!isShowingResult(cacheKey)) removeRow();
                 notifyRetrieveFinished(exception);
             }
         });
@@ -1247,10 +1643,16 @@ public class ItemRowAdapter extends ArrayObjectAdapter {
     }
 
     private void retrieve(final LiveTvChannelQuery query) {
+        retrieve(query, null);
+    }
+
+    private void retrieve(final LiveTvChannelQuery query, @Nullable final ItemRowPager.Page page) {
         final ItemRowAdapter adapter = this;
         apiClient.getValue().GetLiveTvChannelsAsync(query, new Response<ChannelInfoDtoResult>() {
             @Override
             public void onResponse(ChannelInfoDtoResult response) {
+                if (page != null && !mPager.deliver(page, () -> onResponse(response))) return;
+                mPager.setTotal(response.getTotalRecordCount());
                 if (response.getItems() != null && response.getItems().length > 0) {
                     int i = itemsLoaded;
                     if (i == 0 && adapter.size() > 0) {
@@ -1265,7 +1667,7 @@ public class ItemRowAdapter extends ArrayObjectAdapter {
                     if (i == 0) {
                         removeRow();
                     }
-                } else {
+                } else if (page == null) {
                     // no results - don't show us
                     removeRow();
                 }
@@ -1276,7 +1678,8 @@ public class ItemRowAdapter extends ArrayObjectAdapter {
             @Override
             public void onError(Exception exception) {
                 Timber.e(exception, "Error retrieving live tv channels");
-                removeRow();
+                if (page != null) mPager.fail(page);
+                else removeRow();
                 notifyRetrieveFinished(exception);
             }
         });
@@ -1633,10 +2036,16 @@ public class ItemRowAdapter extends ArrayObjectAdapter {
     }
 
     private void retrieve(final PersonsQuery query) {
+        retrieve(query, null);
+    }
+
+    private void retrieve(final PersonsQuery query, @Nullable final ItemRowPager.Page page) {
         final ItemRowAdapter adapter = this;
         apiClient.getValue().GetPeopleAsync(query, new Response<ItemsResult>() {
             @Override
             public void onResponse(ItemsResult response) {
+                if (page != null && !mPager.deliver(page, () -> onResponse(response))) return;
+                mPager.setTotal(response.getTotalRecordCount());
                 if (response.getItems() != null && response.getItems().length > 0) {
                     int i = itemsLoaded;
                     if (i == 0 && adapter.size() > 0) {
@@ -1650,7 +2059,7 @@ public class ItemRowAdapter extends ArrayObjectAdapter {
                     if (i == 0) {
                         removeRow();
                     }
-                } else {
+                } else if (page == null) {
                     // no results - don't show us
                     removeRow();
                 }
@@ -1661,7 +2070,8 @@ public class ItemRowAdapter extends ArrayObjectAdapter {
             @Override
             public void onError(Exception exception) {
                 Timber.e(exception, "Error retrieving people");
-                removeRow();
+                if (page != null) mPager.fail(page);
+                else removeRow();
                 notifyRetrieveFinished(exception);
             }
         });
@@ -0,0 +1,169 @@
+package org.jellyfin.androidtv.ui.itemhandling
+
+import android.os.Handler
+import android.os.Looper
+import android.os.SystemClock
+import java.util.TreeMap
+import kotlin.math.max
+
+/**
+ * Schedules the paged loading of an [ItemRowAdapter].
+ *
+ * Focus changes are sampled to estimate the scroll velocity, so enough pages are requested ahead
+ * to cover the items scrolled past while pages load. Up to [maxInFlight] pages load concurrently,
+ * each page is only requested once, results are applied in request order and results of a
+ * previous retrieve are dropped.
+ */
+class ItemRowPager @JvmOverloads constructor(
+	private val maxInFlight: Int = MAX_IN_FLIGHT,
+	private val clock: () -> Long = SystemClock::elapsedRealtime,
+	private val post: (Runnable) -> Unit = { Handler(Looper.getMainLooper()).post(it) },
+) {
+	companion object {
+		const val MAX_IN_FLIGHT = 3
+		const val MIN_LOOKAHEAD = 20
+		const val DEFAULT_LATENCY_MS = 500L
+		private const val VELOCITY_WEIGHT = 0.3 // weight of the newest velocity sample
+		private const val LATENCY_WEIGHT = 0.2 // weight of the newest latency sample
+		private const val MAX_SAMPLE_GAP_MS = 2000L // focus pauses longer than this reset the velocity
+	}
+
+	class Page internal constructor(
+		internal val generation: Int,
+		internal val sequence: Int,
+		val startIndex: Int,
+		internal val requestTime: Long,
+	) {
+		internal var responseTime = -1L
+	}
+
+	private var generation = 0
+	private var chunkSize = 0
+	private var totalItems = -1
+	private var nextStartIndex = 0
+	private var nextSequence = 0
+	private var nextApplySequence = 0
+	private val inFlight = mutableListOf<Page>()
+	private val deferred = TreeMap<Int, Runnable>()
+
+	private var lastPosition = -1L
+	private var lastPositionTime = 0L
+	private var velocity = 0.0 // items per ms
+
+	var lastLatencyMs = -1L
+		private set
+	var averageLatencyMs = -1L
+		private set
+	var pagesLoaded = 0
+		private set
+
+	val inFlightCount @Synchronized get() = inFlight.size
+
+	/**
+	 * Start over after a full retrieve which loaded the first [chunkSize] items.
+	 */
+	@Synchronized
+	fun reset(chunkSize: Int) {
+		generation++
+		this.chunkSize = chunkSize
+		totalItems = -1
+		nextStartIndex = chunkSize
+		nextSequence = 0
+		nextApplySequence = 0
+		inFlight.clear()
+		deferred.clear()
+	}
+
+	/**
+	 * Set the total number of items reported by the server.
+	 */
+	@Synchronized
+	fun setTotal(total: Int) {
+		totalItems = total
+	}
+
+	/**
+	 * Record a focus change to [position].
+	 * @return number of items that should be loaded ahead of the position
+	 */
+	@Synchronized
+	fun onPosition(position: Long): Int {
+		val now = clock()
+		val elapsed = now - lastPositionTime
+		if (lastPosition >= 0 && elapsed in 1..MAX_SAMPLE_GAP_MS) {
+			// only forward scrolling needs more pages
+			val sample = max(0.0, (position - lastPosition).toDouble() / elapsed)
+			velocity = velocity * (1 - VELOCITY_WEIGHT) + sample * VELOCITY_WEIGHT
+		} else if (elapsed > MAX_SAMPLE_GAP_MS) {
+			velocity = 0.0
+		}
+		lastPosition = position
+		lastPositionTime = now
+
+		val latency = if (averageLatencyMs > 0) averageLatencyMs else DEFAULT_LATENCY_MS
+		// items passed while two pages load, on top of the static threshold
+		return (velocity * latency * 2).toInt() + max((chunkSize / 1.7).toInt(), MIN_LOOKAHEAD)
+	}
+
+	/**
+	 * Get the next page to request, null if [position] plus [lookahead] is covered by the
+	 * [loadedItems] and the pages in flight.
+	 */
+	@Synchronized
+	fun nextPage(position: Long, lookahead: Int, loadedItems: Int): Page? {
+		if (chunkSize <= 0 || inFlight.size >= maxInFlight) return null
+		if (totalItems < 0 || nextStartIndex >= totalItems) return null
+		if (position + lookahead < loadedItems + inFlight.size * chunkSize) return null
+
+		val page = Page(generation, nextSequence++, nextStartIndex, clock())
+		nextStartIndex += chunkSize
+		inFlight.add(page)
+		return page
+	}
+
+	/**
+	 * Check if the result of [page] can be applied now. A result arriving before the result of an
+	 * earlier page is deferred, [apply] is posted once it is its turn.
+	 */
+	@Synchronized
+	fun deliver(page: Page, apply: Runnable): Boolean {
+		if (page.generation != generation) return false
+
+		if (page.responseTime < 0) {
+			page.responseTime = clock()
+			recordLatency(page.responseTime - page.requestTime)
+		}
+
+		if (page.sequence != nextApplySequence) {
+			deferred[page.sequence] = apply
+			return false
+		}
+
+		inFlight.remove(page)
+		nextApplySequence++
+		pagesLoaded++
+		deferred.remove(nextApplySequence)?.let(post)
+		return true
+	}
+
+	/**
+	 * Drop [page] and all pages after it, loading resumes from the earliest dropped page.
+	 */
+	@Synchronized
+	fun fail(page: Page) {
+		if (page.generation != generation) return
+
+		generation++
+		nextStartIndex = inFlight.minOfOrNull { it.startIndex } ?: page.startIndex
+		nextSequence = 0
+		nextApplySequence = 0
+		inFlight.clear()
+		deferred.clear()
+	}
+
+	private fun recordLatency(latency: Long) {
+		lastLatencyMs = latency
+		averageLatencyMs = if (averageLatencyMs < 0) latency
+		else (averageLatencyMs * (1 - LATENCY_WEIGHT) + latency * LATENCY_WEIGHT).toLong()
+	}
+}
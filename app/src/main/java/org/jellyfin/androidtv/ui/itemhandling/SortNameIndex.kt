@@ -0,0 +1,105 @@
+package org.jellyfin.androidtv.ui.itemhandling
+
+import android.os.SystemClock
+import java.text.Normalizer
+import java.util.concurrent.TimeUnit
+
+/**
+ * Maps the first letter of the sort names of a library sorted by name to the position of the
+ * first item at or after that letter, so a grid can jump to a letter by position instead of
+ * querying by name.
+ */
+class SortNameIndex private constructor(
+	// start of every run of items sharing a key, in position order
+	private val keys: CharArray,
+	private val positions: IntArray,
+	val totalCount: Int,
+) {
+	companion object {
+		const val OTHER = '#'
+
+		/**
+		 * Build the index from the sort names in the order the server returned them.
+		 */
+		@JvmStatic
+		fun build(sortNames: List<String?>): SortNameIndex {
+			val keys = CharArray(sortNames.size)
+			val positions = IntArray(sortNames.size)
+			var runs = 0
+			sortNames.forEachIndexed { position, name ->
+				val key = keyOf(name)
+				if (runs == 0 || keys[runs - 1] != key) {
+					keys[runs] = key
+					positions[runs] = position
+					runs++
+				}
+			}
+			return SortNameIndex(keys.copyOf(runs), positions.copyOf(runs), sortNames.size)
+		}
+
+		/**
+		 * Get the jump letter of [name], accents are dropped and everything besides A-Z is [OTHER].
+		 */
+		@JvmStatic
+		fun keyOf(name: String?): Char {
+			val first = name?.trimStart()?.firstOrNull() ?: return OTHER
+			val base = Normalizer.normalize(first.toString(), Normalizer.Form.NFD)[0].uppercaseChar()
+			return if (base in 'A'..'Z') base else OTHER
+		}
+	}
+
+	/**
+	 * Get the position of the first item starting with [letter] or a later letter, like the
+	 * NameStartsWithOrGreater filter. Returns [totalCount] if all items come before the letter.
+	 */
+	fun positionOf(letter: String): Int {
+		val key = keyOf(letter)
+		if (key == OTHER) return 0
+
+		for (i in keys.indices) {
+			if (keys[i] != OTHER && keys[i] >= key) return positions[i]
+		}
+		return totalCount
+	}
+}
+
+/**
+ * Keeps the [SortNameIndex] of the last viewed libraries, keyed by the fingerprint of their query.
+ */
+class SortNameIndexCache @JvmOverloads constructor(
+	private val maxEntries: Int = MAX_ENTRIES,
+	private val maxAge: Long = MAX_AGE,
+	private val clock: () -> Long = SystemClock::elapsedRealtime,
+) {
+	companion object {
+		const val MAX_ENTRIES = 8
+		val MAX_AGE = TimeUnit.MINUTES.toMillis(10)
+	}
+
+	private class Entry(
+		val index: SortNameIndex,
+		val timestamp: Long,
+	)
+
+	// access ordered, the least recently used library is dropped first
+	private val entries = object : LinkedHashMap<String, Entry>(maxEntries, 0.75f, true) {
+		override fun removeEldestEntry(eldest: MutableMap.MutableEntry<String, Entry>?) = size > maxEntries
+	}
+
+	@Synchronized
+	operator fun get(key: String): SortNameIndex? {
+		val entry = entries[key] ?: return null
+		if (clock() - entry.timestamp <= maxAge) return entry.index
+
+		entries.remove(key)
+		return null
+	}
+
+	@Synchronized
+	operator fun set(key: String, index: SortNameIndex) {
+		entries[key] = Entry(index, clock())
+	}
+
+	@Synchronized
+	fun clear() = entries.clear()
+}
@@ -0,0 +1,274 @@
+package org.jellyfin.androidtv.ui.livetv;
+
+import android.app.Activity;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+import android.widget.LinearLayout;
+
+import org.jellyfin.androidtv.ui.GuideChannelHeader;
+import org.jellyfin.androidtv.ui.ProgramGridCell;
+import org.jellyfin.apiclient.model.dto.BaseItemDto;
+import org.jellyfin.apiclient.model.livetv.ChannelInfoDto;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binds the visible part of the live tv guide grid.
+ *
+ * Every channel gets a fixed size row container, but only rows within the viewport plus a prefetch
+ * margin are filled with recycled {@link GuideChannelHeader} and {@link ProgramGridCell} views.
+ * Cells are culled horizontally as well, the row start padding stands in for the cells left of
+ * the bound window. Cells inside the window are kept while scrolling, so focus is never lost.
+ */
+public class GuideGridBinder {
+    public static class Cell {
+        private final BaseItemDto program;
+        private final int left;
+        private final int width;
+        private final boolean first;
+        private final boolean last;
+
+        public Cell(BaseItemDto program, int left, int width, boolean first, boolean last) {
+            this.program = program;
+            this.left = left;
+            this.width = width;
+            this.first = first;
+            this.last = last;
+        }
+
+        public BaseItemDto getProgram() { return program; }
+        public int getLeft() { return left; }
+        public int getRight() { return left + width; }
+    }
+
+    public static class Row {
+        private final ChannelInfoDto channel;
+        private final List<Cell> cells;
+
+        public Row(ChannelInfoDto channel, List<Cell> cells) {
+            this.channel = channel;
+            this.cells = cells;
+        }
+
+        public ChannelInfoDto getChannel() { return channel; }
+    }
+
+    private static class BoundRow {
+        GuideChannelHeader header;
+        final ArrayList<ProgramGridCell> cells = new ArrayList<>();
+        int from = 0; // index of the first bound cell
+        int to = -1; // index of the last bound cell
+    }
+
+    private final Activity mActivity;
+    private final LiveTvGuide mGuide;
+    private final LinearLayout mChannels;
+    private final LinearLayout mProgramRows;
+    private final int mRowHeight;
+
+    private final ArrayDeque<ProgramGridCell> mCellPool = new ArrayDeque<>();
+    private final ArrayDeque<GuideChannelHeader> mHeaderPool = new ArrayDeque<>();
+
+    private List<Row> mRows = new ArrayList<>();
+    private BoundRow[] mBound = new BoundRow[0];
+    private int mChildOffset;
+    private int mRowWidth;
+    private int mWindowLeft = Integer.MIN_VALUE;
+    private int mWindowRight = Integer.MIN_VALUE;
+
+    public GuideGridBinder(Activity activity, LiveTvGuide guide, LinearLayout channels, LinearLayout programRows, int rowHeight) {
+        mActivity = activity;
+        mGuide = guide;
+        mChannels = channels;
+        mProgramRows = programRows;
+        mRowHeight = rowHeight;
+    }
+
+    /**
+     * Add empty containers for [rows] to the guide, views are only created by {@link #bind}.
+     */
+    public void setRows(List<Row> rows, int rowWidth) {
+        clear();
+        mRows = rows;
+        mBound = new BoundRow[rows.size()];
+        mRowWidth = rowWidth;
+        mChildOffset = mProgramRows.getChildCount();
+
+        for (int i = 0; i < rows.size(); i++) {
+            FrameLayout headerContainer = new FrameLayout(mActivity);
+            headerContainer.setLayoutParams(new LinearLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, mRowHeight));
+            mChannels.addView(headerContainer);
+
+            LinearLayout row = new LinearLayout(mActivity);
+            row.setLayoutParams(new LinearLayout.LayoutParams(rowWidth, mRowHeight));
+            mProgramRows.addView(row);
+        }
+    }
+
+    public int getRowCount() { return mRows.size(); }
+
+    public int getRowWidth() { return mRowWidth; }
+
+    public int getRowIndex(String channelId) {
+        for (int i = 0; i < mRows.size(); i++) {
+            if (mRows.get(i).channel.getId().equals(channelId)) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Get the top of row [index] within the program rows, including leading paging rows.
+     */
+    public int getRowTop(int index) { return (mChildOffset + index) * mRowHeight; }
+
+    public LinearLayout getRowView(int index) { return (LinearLayout) mProgramRows.getChildAt(mChildOffset + index); }
+
+    /**
+     * Bind all rows and cells within the viewport at [scrollX], [scrollY] plus a margin of one
+     * viewport in each direction, and recycle everything outside of it.
+     */
+    public void bind(int scrollX, int scrollY, int viewportWidth, int viewportHeight) {
+        if (mRows.isEmpty()) return;
+        viewportWidth = Math.max(viewportWidth, mActivity.getResources().getDisplayMetrics().widthPixels);
+        viewportHeight = Math.max(viewportHeight, mActivity.getResources().getDisplayMetrics().heightPixels);
+
+        // quantize the horizontal window, so small scroll steps don't rebind anything
+        int step = viewportWidth / 2;
+        int windowLeft = Math.floorDiv(scrollX - viewportWidth, step) * step;
+        int windowRight = windowLeft + 3 * viewportWidth + step;
+
+        int firstRow = Math.max(0, (scrollY - viewportHeight - getRowTop(0)) / mRowHeight);
+        int lastRow = Math.min(mRows.size() - 1, (scrollY + 2 * viewportHeight - getRowTop(0)) / mRowHeight);
+        boolean windowChanged = windowLeft != mWindowLeft || windowRight != mWindowRight;
+        mWindowLeft = windowLeft;
+        mWindowRight = windowRight;
+
+        boolean changed = false;
+        for (int i = 0; i < mRows.size(); i++) {
+            if (i < firstRow || i > lastRow) {
+                if (mBound[i] != null) {
+                    unbindRow(i);
+                    changed = true;
+                }
+            } else if (mBound[i] == null || windowChanged) {
+                changed |= bindRow(i);
+            }
+        }
+
+        // this makes focus movements more predictable for the grid view
+        if (changed) {
+            for (int i = Math.max(firstRow, 1); i <= lastRow; i++) {
+                if (mBound[i] == null || mBound[i - 1] == null) continue;
+                TvManager.setFocusParms(getRowView(i), getRowView(i - 1), true);
+                TvManager.setFocusParms(getRowView(i - 1), getRowView(i), false);
+            }
+        }
+    }
+
+    private boolean bindRow(int index) {
+        Row row = mRows.get(index);
+        LinearLayout rowView = getRowView(index);
+        BoundRow bound = mBound[index];
+        if (bound == null) {
+            bound = new BoundRow();
+            mBound[index] = bound;
+
+            GuideChannelHeader header = mHeaderPool.poll();
+            if (header == null) header = new GuideChannelHeader(mActivity, mGuide, row.channel);
+            else header.setChannel(row.channel);
+            header.loadImage();
+            bound.header = header;
+            ((FrameLayout) mChannels.getChildAt(mChildOffset + index)).addView(header);
+        }
+        if (row.cells.isEmpty()) return false;
+
+        // find the cells intersecting the window
+        int from = 0;
+        while (from < row.cells.size() - 1 && row.cells.get(from).getRight() <= mWindowLeft) from++;
+        int to = from;
+        while (to < row.cells.size() - 1 && row.cells.get(to + 1).getLeft() < mWindowRight) to++;
+        if (from == bound.from && to == bound.to) return false;
+
+        // drop cells outside the new window, keep the rest in place
+        while (!bound.cells.isEmpty() && (bound.from < from || bound.from > to)) {
+            recycleCell(rowView, bound.cells.remove(0));
+            bound.from++;
+        }
+        while (!bound.cells.isEmpty() && (bound.to > to || bound.to < from)) {
+            recycleCell(rowView, bound.cells.remove(bound.cells.size() - 1));
+            bound.to--;
+        }
+        if (bound.cells.isEmpty()) {
+            bound.from = from;
+            bound.to = from - 1;
+        }
+
+        while (bound.from > from) {
+            bound.from--;
+            ProgramGridCell cell = obtainCell(row.cells.get(bound.from));
+            bound.cells.add(0, cell);
+            rowView.addView(cell, 0);
+        }
+        while (bound.to < to) {
+            bound.to++;
+            ProgramGridCell cell = obtainCell(row.cells.get(bound.to));
+            bound.cells.add(cell);
+            rowView.addView(cell);
+        }
+
+        rowView.setPadding(row.cells.get(from).getLeft(), 0, 0, 0);
+        return true;
+    }
+
+    private ProgramGridCell obtainCell(Cell cell) {
+        ProgramGridCell view = mCellPool.poll();
+        if (view == null) view = new ProgramGridCell(mActivity, mGuide, cell.program, false);
+        else view.setProgram(cell.program);
+
+        // new ids, so focus parameters of recycled cells never point to the wrong cell
+        view.setId(View.generateViewId());
+        view.setLayoutParams(new ViewGroup.LayoutParams(cell.width, mRowHeight));
+        if (cell.first) view.setFirst();
+        if (cell.last) view.setLast();
+        return view;
+    }
+
+    private void recycleCell(LinearLayout rowView, ProgramGridCell cell) {
+        rowView.removeView(cell);
+        cell.setNextFocusUpId(View.NO_ID);
+        cell.setNextFocusDownId(View.NO_ID);
+        mCellPool.push(cell);
+    }
+
+    private void unbindRow(int index) {
+        BoundRow bound = mBound[index];
+        mBound[index] = null;
+        LinearLayout rowView = getRowView(index);
+        for (ProgramGridCell cell : bound.cells) recycleCell(rowView, cell);
+
+        ((FrameLayout) mChannels.getChildAt(mChildOffset + index)).removeView(bound.header);
+        mHeaderPool.push(bound.header);
+    }
+
+    /**
+     * Recycle all bound views, the containers stay in place until the guide removes them.
+     */
+    public void clear() {
+        for (int i = 0; i < mBound.length; i++) {
+            if (mBound[i] != null && mChildOffset + i < mProgramRows.getChildCount()) unbindRow(i);
+        }
+        mBound = new BoundRow[0];
+        mRows = new ArrayList<>();
+        mWindowLeft = Integer.MIN_VALUE;
+        mWindowRight = Integer.MIN_VALUE;
+    }
+
+    public void refreshFavorite(String channelId) {
+        for (BoundRow bound : mBound) {
+            if (bound != null && bound.header.getChannel().getId().equals(channelId)) bound.header.refreshFavorite();
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package org.jellyfin.androidtv.ui.livetv
+
+import org.jellyfin.androidtv.util.TimeUtils
+import org.jellyfin.apiclient.model.dto.BaseItemDto
+import java.util.TreeSet
+import java.util.concurrent.TimeUnit
+
+/**
+ * Time indexed store of guide programs, keyed by channel.
+ *
+ * Programs are loaded in channel × time tiles. Loaded windows are merged into a start sorted list
+ * per channel, so paging channels or hours only needs to fetch the tiles that are still missing.
+ * All times are local guide times in ms, as used by the guide views.
+ */
+class GuideProgramStore(
+	private val tileDuration: Long = TILE_DURATION,
+) {
+	companion object {
+		val TILE_DURATION = TimeUnit.MINUTES.toMillis(30)
+	}
+
+	/**
+	 * Programs still missing for a window, [channelIds] need loading from [start] to [end].
+	 */
+	data class Delta(
+		val channelIds: List<String>,
+		val start: Long,
+		val end: Long,
+	) {
+		/**
+		 * Check if loading this delta also loads all of [other].
+		 */
+		fun contains(other: Delta) = start <= other.start && end >= other.end && channelIds.containsAll(other.channelIds)
+	}
+
+	private class Entry(
+		val start: Long,
+		val end: Long,
+		val program: BaseItemDto,
+	)
+
+	private class ChannelPrograms {
+		// sorted by start
+		val entries = ArrayList<Entry>()
+		val loadedTiles = TreeSet<Long>()
+	}
+
+	private val channels = HashMap<String, ChannelPrograms>()
+
+	private fun tileOf(time: Long) = Math.floorDiv(time, tileDuration)
+
+	/**
+	 * Get the tiles of [channelIds] between [start] and [end] which are not loaded yet, null if
+	 * everything is available. The delta covers all channels missing any tile, so it is a single request.
+	 */
+	@Synchronized
+	fun getMissing(channelIds: List<String>, start: Long, end: Long): Delta? {
+		if (end <= start) return null
+		val firstTile = tileOf(start)
+		val lastTile = tileOf(end - 1)
+
+		var missingFirst = Long.MAX_VALUE
+		var missingLast = Long.MIN_VALUE
+		val missingChannels = channelIds.filter { id ->
+			val loadedTiles = channels[id]?.loadedTiles
+			var missing = false
+			for (tile in firstTile..lastTile) {
+				if (loadedTiles != null && loadedTiles.contains(tile)) continue
+				missing = true
+				missingFirst = minOf(missingFirst, tile)
+				missingLast = maxOf(missingLast, tile)
+			}
+			missing
+		}
+
+		if (missingChannels.isEmpty()) return null
+		return Delta(missingChannels, missingFirst * tileDuration, (missingLast + 1) * tileDuration)
+	}
+
+	/**
+	 * Merge the [programs] loaded for [delta], channels of the delta without programs are marked as loaded too.
+	 */
+	fun merge(delta: Delta, programs: Array<BaseItemDto>?) = merge(delta, programs.orEmpty().map { program ->
+		Entry(
+			start = program.startDate?.let { TimeUtils.convertToLocalDate(it).time } ?: delta.start,
+			end = program.endDate?.let { TimeUtils.convertToLocalDate(it).time } ?: delta.end,
+			program = program,
+		)
+	})
+
+	@Synchronized
+	private fun merge(delta: Delta, entries: List<Entry>) {
+		for (entry in entries) {
+			val channelId = entry.program.channelId ?: continue
+			channels.getOrPut(channelId) { ChannelPrograms() }.insert(entry)
+		}
+
+		val firstTile = tileOf(delta.start)
+		val lastTile = tileOf(delta.end - 1)
+		for (channelId in delta.channelIds) {
+			val loadedTiles = channels.getOrPut(channelId) { ChannelPrograms() }.loadedTiles
+			for (tile in firstTile..lastTile) loadedTiles.add(tile)
+		}
+	}
+
+	private fun ChannelPrograms.insert(entry: Entry) {
+		var index = lowerBound(entry.start)
+		// programs overlapping two windows are returned by both requests
+		while (index < entries.size && entries[index].start == entry.start) {
+			if (entries[index].program.id == entry.program.id) {
+				entries[index] = entry
+				return
+			}
+			index++
+		}
+		entries.add(index, entry)
+	}
+
+	// index of the first entry starting at or after [time]
+	private fun ChannelPrograms.lowerBound(time: Long): Int {
+		var low = 0
+		var high = entries.size
+		while (low < high) {
+			val mid = (low + high) ushr 1
+			if (entries[mid].start < time) low = mid + 1
+			else high = mid
+		}
+		return low
+	}
+
+	/**
+	 * Get the programs of [channelId] overlapping [start] to [end], ordered by start time.
+	 */
+	@Synchronized
+	fun getPrograms(channelId: String, start: Long, end: Long): List<BaseItemDto> {
+		val channel = channels[channelId] ?: return emptyList()
+		val entries = channel.entries
+
+		var index = channel.lowerBound(start)
+		// include programs which started before but are still running
+		while (index > 0 && entries[index - 1].end > start) index--
+
+		val result = ArrayList<BaseItemDto>()
+		while (index < entries.size && entries[index].start < end) {
+			if (entries[index].end > start) result.add(entries[index].program)
+			index++
+		}
+		return result
+	}
+
+	/**
+	 * Drop all tiles and programs which ended before the tile containing [time].
+	 */
+	@Synchronized
+	fun evictBefore(time: Long) {
+		val boundaryTile = tileOf(time)
+		val boundary = boundaryTile * tileDuration
+		val iterator = channels.values.iterator()
+		while (iterator.hasNext()) {
+			val channel = iterator.next()
+			channel.loadedTiles.headSet(boundaryTile).clear()
+			channel.entries.removeAll { it.end <= boundary }
+			if (channel.loadedTiles.isEmpty() && channel.entries.isEmpty()) iterator.remove()
+		}
+	}
+
+	/**
+	 * Number of programs in the store, used to bound prefetching.
+	 */
+	@Synchronized
+	fun getProgramCount() = channels.values.sumOf { it.entries.size }
+
+	@Synchronized
+	fun clear() = channels.clear()
+}
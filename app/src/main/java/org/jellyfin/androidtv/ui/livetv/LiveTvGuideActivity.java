@@ -12,7 +12,6 @@ import android.os.Bundle;
 import android.os.Handler;
 import android.view.KeyEvent;
 import android.view.View;
-import android.view.ViewGroup;
 import android.widget.FrameLayout;
 import android.widget.HorizontalScrollView;
 import android.widget.ImageView;
@@ -54,6 +53,7 @@ import org.jellyfin.apiclient.model.dto.UserItemDataDto;
 import org.jellyfin.apiclient.model.livetv.ChannelInfoDto;
 import org.koin.java.KoinJavaComponent;
 
+import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.List;
@@ -81,6 +81,9 @@ public class LiveTvGuideActivity extends BaseActivity implements LiveTvGuide {
     private LinearLayout mTimeline;
     private LinearLayout mProgramRows;
     private ObservableScrollView mChannelScroller;
+    private ObservableScrollView mProgramVScroller;
+    private ObservableHorizontalScrollView mProgramHScroller;
+    private GuideGridBinder mGridBinder;
     private HorizontalScrollView mTimelineScroller;
     private View mSpinner;
     private View mResetButton;
@@ -169,18 +172,20 @@ public class LiveTvGuideActivity extends BaseActivity implements LiveTvGuide {
         });
 
         mProgramRows.setFocusable(false);
+        mGridBinder = new GuideGridBinder(this, this, mChannels, mProgramRows, guideRowHeightPx);
         mChannelScroller = findViewById(R.id.channelScroller);
-        ObservableScrollView programVScroller = findViewById(R.id.programVScroller);
-        programVScroller.setScrollViewListener(new ScrollViewListener() {
+        mProgramVScroller = findViewById(R.id.programVScroller);
+        mProgramVScroller.setScrollViewListener(new ScrollViewListener() {
             @Override
             public void onScrollChanged(ObservableScrollView scrollView, int x, int y, int oldx, int oldy) {
                 mChannelScroller.scrollTo(x, y);
+                bindVisibleGrid();
             }
         });
         mChannelScroller.setScrollViewListener(new ScrollViewListener() {
             @Override
             public void onScrollChanged(ObservableScrollView scrollView, int x, int y, int oldx, int oldy) {
-                programVScroller.scrollTo(x, y);
+                mProgramVScroller.scrollTo(x, y);
             }
         });
 
@@ -191,16 +196,17 @@ public class LiveTvGuideActivity extends BaseActivity implements LiveTvGuide {
         mTimeline.setFocusableInTouchMode(false);
         mChannelScroller.setFocusable(false);
         mChannelScroller.setFocusableInTouchMode(false);
-        ObservableHorizontalScrollView programHScroller = findViewById(R.id.programHScroller);
-        programHScroller.setScrollViewListener(new HorizontalScrollViewListener() {
+        mProgramHScroller = findViewById(R.id.programHScroller);
+        mProgramHScroller.setScrollViewListener(new HorizontalScrollViewListener() {
             @Override
             public void onScrollChanged(ObservableHorizontalScrollView scrollView, int x, int y, int oldx, int oldy) {
                 mTimelineScroller.scrollTo(x, y);
+                bindVisibleGrid();
             }
         });
 
-        programHScroller.setFocusable(false);
-        programHScroller.setFocusableInTouchMode(false);
+        mProgramHScroller.setFocusable(false);
+        mProgramHScroller.setFocusableInTouchMode(false);
 
         mChannels.setFocusable(false);
         mChannelScroller.setFocusable(false);
@@ -241,11 +247,7 @@ public class LiveTvGuideActivity extends BaseActivity implements LiveTvGuide {
     }
 
     public void refreshFavorite(String channelId){
-        for (int i = 0; i < mChannels.getChildCount(); i++) {
-            GuideChannelHeader gch = (GuideChannelHeader)mChannels.getChildAt(i);
-            if (gch.getChannel().getId().equals(channelId))
-                gch.refreshFavorite();
-        }
+        mGridBinder.refreshFavorite(channelId);
     }
 
     @Override
@@ -271,6 +273,7 @@ public class LiveTvGuideActivity extends BaseActivity implements LiveTvGuide {
         if (mDisplayProgramsTask != null) {
             mDisplayProgramsTask.cancel(true);
         }
+        TvManager.cancelPrefetch();
         if (mDetailPopup != null) {
             mDetailPopup.dismiss();
         }
@@ -421,7 +424,6 @@ public class LiveTvGuideActivity extends BaseActivity implements LiveTvGuide {
     private void pageGuideTo(long startTime) {
         if (startTime < System.currentTimeMillis()) startTime = System.currentTimeMillis(); // don't allow the past
         Timber.i("page to %s", (new Date(startTime)).toString());
-        TvManager.forceReload(); // don't allow cache
         if (mSelectedProgram != null) {
             mFirstFocusChannelId = mSelectedProgram.getChannelId();
         }
@@ -487,6 +489,8 @@ public class LiveTvGuideActivity extends BaseActivity implements LiveTvGuide {
     }
 
     private void loadProgramData() {
+        TvManager.cancelPrefetch();
+        mGridBinder.clear();
         mProgramRows.removeAllViews();
         mChannels.removeAllViews();
         mChannelStatus.setText("");
@@ -503,14 +507,12 @@ public class LiveTvGuideActivity extends BaseActivity implements LiveTvGuide {
     }
 
     DisplayProgramsTask mDisplayProgramsTask;
-    class DisplayProgramsTask extends AsyncTask<Integer, Integer, Void> {
-
-        View firstFocusView;
-        int displayedChannels = 0;
+    class DisplayProgramsTask extends AsyncTask<Integer, Integer, List<GuideGridBinder.Row>> {
 
         @Override
         protected void onPreExecute() {
             Timber.d("*** Display programs pre-execute");
+            mGridBinder.clear();
             mChannels.removeAllViews();
             mProgramRows.removeAllViews();
 
@@ -524,65 +526,37 @@ public class LiveTvGuideActivity extends BaseActivity implements LiveTvGuide {
                 TextView placeHolder = new TextView(mActivity);
                 placeHolder.setHeight(guideRowHeightPx);
                 mChannels.addView(placeHolder);
-                displayedChannels = 0;
 
                 mProgramRows.addView(new GuidePagingButton(mActivity, mActivity, pageUpStart, getString(R.string.lbl_load_channels)+mAllChannels.get(pageUpStart).getNumber() + " - "+mAllChannels.get(mCurrentDisplayChannelStartNdx-1).getNumber()));
             }
         }
 
         @Override
-        protected Void doInBackground(Integer... params) {
+        protected List<GuideGridBinder.Row> doInBackground(Integer... params) {
             int start = params[0];
             int end = params[1];
-            boolean first = true;
+            List<GuideGridBinder.Row> rows = new ArrayList<>();
 
+            // only the cell layout is computed here, views are bound for the visible area
             Timber.d("*** About to iterate programs");
-            LinearLayout prevRow = null;
             for (int i = start; i <= end; i++) {
                 if (isCancelled()) return null;
-                final ChannelInfoDto channel = TvManager.getChannel(i);
-                List<BaseItemDto> programs = TvManager.getProgramsForChannel(channel.getId(), mFilters);
-                final LinearLayout row = getProgramRow(programs, channel.getId());
-                if (row == null) continue; // no row to show
-
-                if (first) {
-                    first = false;
-                    firstFocusView = row;
-                }
-
-                // set focus parameters if we are not on first row
-                // this makes focus movements more predictable for the grid view
-                if (prevRow != null) {
-                    TvManager.setFocusParms(row, prevRow, true);
-                    TvManager.setFocusParms(prevRow, row, false);
-                }
-                prevRow = row;
-
-                runOnUiThread(new Runnable() {
-                    @Override
-                    public void run() {
-                        GuideChannelHeader header = getChannelHeader(mActivity, channel);
-                        mChannels.addView(header);
-                        header.loadImage();
-                        mProgramRows.addView(row);
-                        // put focus on the last tuned channel
-                        if (channel.getId().equals(mFirstFocusChannelId)) {
-                            firstFocusView = focusAtEnd ? row.getChildAt(row.getChildCount()-1) : row;
-                            focusAtEnd = false;
-                            mFirstFocusChannelId = null;
-                        }
-
-                    }
-                });
+                ChannelInfoDto channel = TvManager.getChannel(i);
+                List<BaseItemDto> programs = TvManager.getProgramsForChannel(channel.getId(), mCurrentLocalGuideStart, mCurrentLocalGuideEnd, mFilters);
+                List<GuideGridBinder.Cell> cells = getProgramCells(programs, channel.getId());
+                if (cells == null) continue; // no row to show
 
-                displayedChannels++;
+                rows.add(new GuideGridBinder.Row(channel, cells));
             }
-            return null;
+            return rows;
         }
 
         @Override
-        protected void onPostExecute(Void aVoid) {
+        protected void onPostExecute(List<GuideGridBinder.Row> rows) {
             Timber.d("*** Display programs post execute");
+            int rowWidth = ((Long)((mCurrentLocalGuideEnd - mCurrentLocalGuideStart) / 60000)).intValue() * guideRowWidthPerMinPx;
+            mGridBinder.setRows(rows, rowWidth);
+
             if (mCurrentDisplayChannelEndNdx < mAllChannels.size()-1 && !mFilters.any()) {
                 // Show a paging row for channels below
                 int pageDnEnd = mCurrentDisplayChannelEndNdx + PAGE_SIZE;
@@ -595,28 +569,74 @@ public class LiveTvGuideActivity extends BaseActivity implements LiveTvGuide {
                 mProgramRows.addView(new GuidePagingButton(mActivity, mActivity, mCurrentDisplayChannelEndNdx + 1, getString(R.string.lbl_load_channels)+mAllChannels.get(mCurrentDisplayChannelEndNdx+1).getNumber() + " - "+mAllChannels.get(pageDnEnd).getNumber()));
             }
 
-            mChannelStatus.setText(displayedChannels+" of "+mAllChannels.size()+" channels");
+            mChannelStatus.setText(rows.size()+" of "+mAllChannels.size()+" channels");
             mFilterStatus.setText(mFilters.toString() + " for "+getGuideHours()+" hours");
             mFilterStatus.setTextColor(mFilters.any() ? Color.WHITE : Color.GRAY);
 
             mResetButton.setVisibility(mCurrentLocalGuideStart > System.currentTimeMillis() ? View.VISIBLE : View.GONE); // show reset button if paged ahead
 
             mSpinner.setVisibility(View.GONE);
-            if (firstFocusView != null) {
-                firstFocusView.requestFocus();
-            }
+            focusFirstRow();
+            prefetchAdjacentPages();
+        }
+    }
+
+    // load the pages around the displayed one, so paging can show them without waiting
+    private void prefetchAdjacentPages() {
+        List<TvManager.GuidePage> pages = new ArrayList<>();
+        long pageLength = mCurrentLocalGuideEnd - mCurrentLocalGuideStart;
+        pages.add(new TvManager.GuidePage(mCurrentDisplayChannelStartNdx, mCurrentDisplayChannelEndNdx, mCurrentLocalGuideEnd, mCurrentLocalGuideEnd + pageLength));
+        if (mCurrentLocalGuideStart > System.currentTimeMillis()) {
+            // paging back never goes into the past
+            long previousStart = Math.max(mCurrentLocalGuideStart - pageLength, System.currentTimeMillis());
+            pages.add(new TvManager.GuidePage(mCurrentDisplayChannelStartNdx, mCurrentDisplayChannelEndNdx, previousStart, previousStart + pageLength));
+        }
+        if (!mFilters.any() && mCurrentDisplayChannelEndNdx < mAllChannels.size()-1) {
+            int nextEnd = Math.min(mCurrentDisplayChannelEndNdx + PAGE_SIZE, mAllChannels.size()-1);
+            pages.add(new TvManager.GuidePage(mCurrentDisplayChannelEndNdx + 1, nextEnd, mCurrentLocalGuideStart, mCurrentLocalGuideEnd));
         }
+        TvManager.prefetchPrograms(pages);
     }
 
-    private int currentCellId = 0;
+    private void bindVisibleGrid() {
+        mGridBinder.bind(mProgramHScroller.getScrollX(), mProgramVScroller.getScrollY(), mProgramVScroller.getWidth(), mProgramVScroller.getHeight());
+    }
+
+    private void focusFirstRow() {
+        if (mGridBinder.getRowCount() == 0) return;
+
+        // put focus on the last tuned channel
+        int index = mFirstFocusChannelId != null ? mGridBinder.getRowIndex(mFirstFocusChannelId) : -1;
+        boolean atEnd = false;
+        if (index >= 0) {
+            atEnd = focusAtEnd;
+            focusAtEnd = false;
+            mFirstFocusChannelId = null;
+        } else {
+            index = 0;
+        }
 
-    private GuideChannelHeader getChannelHeader(Context context, ChannelInfoDto channel){
-        return new GuideChannelHeader(context, this, channel);
+        // bind around the focus target, the scrollers follow the focus once laid out
+        int viewportHeight = mProgramVScroller.getHeight();
+        mGridBinder.bind(atEnd ? mGridBinder.getRowWidth() : 0, mGridBinder.getRowTop(index) - viewportHeight / 2, mProgramVScroller.getWidth(), viewportHeight);
+        LinearLayout row = mGridBinder.getRowView(index);
+        View focusView = atEnd && row.getChildCount() > 0 ? row.getChildAt(row.getChildCount()-1) : row;
+        focusView.requestFocus();
     }
 
-    private LinearLayout getProgramRow(List<BaseItemDto> programs, String channelId) {
+    private BaseItemDto getEmptyProgram(String channelId, long start, long end) {
+        BaseItemDto empty = new BaseItemDto();
+        empty.setId(UUID.randomUUID().toString());
+        empty.setBaseItemType(BaseItemType.Folder);
+        empty.setName(getString(R.string.no_program_data));
+        empty.setChannelId(channelId);
+        empty.setStartDate(TimeUtils.convertToUtcDate(new Date(start)));
+        empty.setEndDate(TimeUtils.convertToUtcDate(new Date(end)));
+        return empty;
+    }
 
-        LinearLayout programRow = new LinearLayout(this);
+    private List<GuideGridBinder.Cell> getProgramCells(List<BaseItemDto> programs, String channelId) {
+        List<GuideGridBinder.Cell> cells = new ArrayList<>();
 
         if (programs.size() == 0) {
             if (mFilters.any()) return null; // don't show rows with no program data
@@ -624,27 +644,15 @@ public class LiveTvGuideActivity extends BaseActivity implements LiveTvGuide {
             int minutes = ((Long)((mCurrentLocalGuideEnd - mCurrentLocalGuideStart) / 60000)).intValue();
             int slot = 0;
             do {
-                BaseItemDto empty = new BaseItemDto();
-                empty.setId(UUID.randomUUID().toString());
-                empty.setBaseItemType(BaseItemType.Folder);
-                empty.setName(getString(R.string.no_program_data));
-                empty.setChannelId(channelId);
-                empty.setStartDate(TimeUtils.convertToUtcDate(new Date(mCurrentLocalGuideStart + ((30*slot) * 60000))));
-                empty.setEndDate(TimeUtils.convertToUtcDate(new Date(mCurrentLocalGuideStart + ((30*(slot+1)) * 60000))));
-                ProgramGridCell cell = new ProgramGridCell(this, this, empty, false);
-                cell.setId(currentCellId++);
-                cell.setLayoutParams(new ViewGroup.LayoutParams(30 * guideRowWidthPerMinPx, guideRowHeightPx));
-                programRow.addView(cell);
-                if (slot == 0)
-                    cell.setFirst();
-                if (slot == (minutes / 30) - 1)
-                    cell.setLast();
+                BaseItemDto empty = getEmptyProgram(channelId, mCurrentLocalGuideStart + ((30*slot) * 60000), mCurrentLocalGuideStart + ((30*(slot+1)) * 60000));
+                cells.add(new GuideGridBinder.Cell(empty, 30 * slot * guideRowWidthPerMinPx, 30 * guideRowWidthPerMinPx, slot == 0, slot == (minutes / 30) - 1));
                 slot++;
             } while((30*slot) < minutes);
-            return programRow;
+            return cells;
         }
 
         long prevEnd = getCurrentLocalStartDate();
+        int left = 0;
         for (BaseItemDto item : programs) {
             long start = item.getStartDate() != null ? TimeUtils.convertToLocalDate(item.getStartDate()).getTime() : getCurrentLocalStartDate();
             if (start < getCurrentLocalStartDate()) {
@@ -656,59 +664,28 @@ public class LiveTvGuideActivity extends BaseActivity implements LiveTvGuide {
 
             if (start > prevEnd) {
                 // fill empty time slot
-                BaseItemDto empty = new BaseItemDto();
-                empty.setId(UUID.randomUUID().toString());
-                empty.setBaseItemType(BaseItemType.Folder);
-                empty.setName(getString(R.string.no_program_data));
-                empty.setChannelId(channelId);
-                empty.setStartDate(TimeUtils.convertToUtcDate(new Date(prevEnd)));
-                Long duration = (start - prevEnd);
-                empty.setEndDate(TimeUtils.convertToUtcDate(new Date(prevEnd+duration)));
-                ProgramGridCell cell = new ProgramGridCell(this, this, empty, false);
-                cell.setId(currentCellId++);
-                cell.setLayoutParams(new ViewGroup.LayoutParams(((Long)(duration / 60000)).intValue() * guideRowWidthPerMinPx, guideRowHeightPx));
-                if (prevEnd == mCurrentLocalGuideStart) {
-                    cell.setFirst();
-                }
-                programRow.addView(cell);
+                int width = ((Long)((start - prevEnd) / 60000)).intValue() * guideRowWidthPerMinPx;
+                cells.add(new GuideGridBinder.Cell(getEmptyProgram(channelId, prevEnd, start), left, width, prevEnd == mCurrentLocalGuideStart, false));
+                left += width;
             }
             long end = item.getEndDate() != null ? TimeUtils.convertToLocalDate(item.getEndDate()).getTime() : getCurrentLocalEndDate();
             if (end > getCurrentLocalEndDate()) end = getCurrentLocalEndDate();
             prevEnd = end;
             Long duration = (end - start) / 60000;
             if (duration > 0) {
-                ProgramGridCell program = new ProgramGridCell(this, this, item, false);
-                program.setId(currentCellId++);
-                program.setLayoutParams(new ViewGroup.LayoutParams(duration.intValue() * guideRowWidthPerMinPx, guideRowHeightPx));
-                if (start == mCurrentLocalGuideStart) {
-                    program.setFirst();
-                }
-                if (end == mCurrentLocalGuideEnd) {
-                    program.setLast();
-                }
-
-                programRow.addView(program);
+                int width = duration.intValue() * guideRowWidthPerMinPx;
+                cells.add(new GuideGridBinder.Cell(item, left, width, start == mCurrentLocalGuideStart, end == mCurrentLocalGuideEnd));
+                left += width;
             }
         }
 
         //If not at end of time period - fill in the rest
         if (prevEnd < mCurrentLocalGuideEnd) {
-            // fill empty time slot
-            BaseItemDto empty = new BaseItemDto();
-            empty.setId(UUID.randomUUID().toString());
-            empty.setBaseItemType(BaseItemType.Folder);
-            empty.setName(getString(R.string.no_program_data));
-            empty.setChannelId(channelId);
-            empty.setStartDate(TimeUtils.convertToUtcDate(new Date(prevEnd)));
-            Long duration = (mCurrentLocalGuideEnd - prevEnd);
-            empty.setEndDate(TimeUtils.convertToUtcDate(new Date(prevEnd+duration)));
-            ProgramGridCell cell = new ProgramGridCell(this, this, empty, false);
-            cell.setId(currentCellId++);
-            cell.setLayoutParams(new ViewGroup.LayoutParams(((Long)(duration / 60000)).intValue() * guideRowWidthPerMinPx, guideRowHeightPx));
-            programRow.addView(cell);
+            int width = ((Long)((mCurrentLocalGuideEnd - prevEnd) / 60000)).intValue() * guideRowWidthPerMinPx;
+            cells.add(new GuideGridBinder.Cell(getEmptyProgram(channelId, prevEnd, mCurrentLocalGuideEnd), left, width, false, false));
         }
 
-        return programRow;
+        return cells;
     }
 
     private void fillTimeLine(long start, int hours) {
@@ -798,7 +775,7 @@ public class LiveTvGuideActivity extends BaseActivity implements LiveTvGuide {
             mHandler.postDelayed(detailUpdateTask, 500);
         } else if (mSelectedProgramView instanceof GuideChannelHeader) {
             for (int i = 0; i < mChannels.getChildCount(); i++) {
-                if (mSelectedProgramView == mChannels.getChildAt(i)) {
+                if (mSelectedProgramView.getParent() == mChannels.getChildAt(i)) {
                     LinearLayout programRow = (LinearLayout)mProgramRows.getChildAt(i);
                     if (programRow == null)
                         return;
@@ -41,14 +41,15 @@ import org.jellyfin.apiclient.model.results.TimerInfoDtoResult;
 import org.jellyfin.sdk.model.constant.ItemSortBy;
 import org.koin.java.KoinJavaComponent;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Collections;
 import java.util.Date;
 import java.util.GregorianCalendar;
-import java.util.HashMap;
 import java.util.List;
+import java.util.Queue;
 import java.util.TimeZone;
 
 import timber.log.Timber;
@@ -56,8 +57,14 @@ import timber.log.Timber;
 public class TvManager {
     private static List<ChannelInfoDto> allChannels;
     private static String[] channelIds;
-    private static HashMap<String, ArrayList<BaseItemDto>> mProgramsDict = new HashMap<>();
-    private static Calendar needLoadTime;
+    private static final GuideProgramStore mProgramStore = new GuideProgramStore();
+    // programs kept in the store before prefetching stops, roughly 2 days of a 500 channel lineup
+    private static final int PREFETCH_PROGRAM_BUDGET = 25000;
+    private static final Queue<GuidePage> prefetchQueue = new ArrayDeque<>();
+    private static final List<EmptyResponse> prefetchWaiters = new ArrayList<>();
+    private static GuideProgramStore.Delta prefetchDelta;
+    // changed when the store is cleared, requests of an older generation are not merged
+    private static int storeGeneration;
     private static Calendar programNeedLoadTime;
     private static boolean forceReload;
 
@@ -153,58 +160,144 @@ public class TvManager {
     }
 
     public static void getProgramsAsync(int startNdx, int endNdx, final Calendar start, Calendar endTime, final EmptyResponse outerResponse) {
-        start.set(Calendar.MINUTE, start.get(Calendar.MINUTE) >= 30 ? 30 : 0);
-        start.set(Calendar.SECOND, 1);
-        if (forceReload || needLoadTime == null || start.after(needLoadTime) || !mProgramsDict.containsKey(channelIds[startNdx]) || !mProgramsDict.containsKey(channelIds[endNdx])) {
+        if (forceReload) {
             forceReload = false;
-            ProgramQuery query = new ProgramQuery();
-            query.setUserId(KoinJavaComponent.<UserRepository>get(UserRepository.class).getCurrentUser().getValue().getId().toString());
-            endNdx = endNdx > channelIds.length ? channelIds.length : endNdx+1; //array copy range final ndx is exclusive
-            query.setChannelIds(Arrays.copyOfRange(channelIds, startNdx, endNdx));
-            query.setEnableImages(false);
-            query.setSortBy(new String[] {ItemSortBy.StartDate});
-            Calendar end = (Calendar) endTime.clone();
-            end.setTimeZone(TimeZone.getTimeZone("Z"));
-            end.add(Calendar.SECOND, -1);
-            query.setMaxStartDate(end.getTime());
-            query.setMinEndDate(start.getTime());
-
-            Timber.d("*** About to get programs");
-
-            KoinJavaComponent.<ApiClient>get(ApiClient.class).GetLiveTvProgramsAsync(query, new Response<ItemsResult>() {
-                @Override
-                public void onResponse(ItemsResult response) {
-                    Timber.d("*** About to build dictionary");
-                    buildProgramsDict(response.getItems(), start);
-                    Timber.d("*** Programs retrieval finished");
+            // programs of requests still running were loaded before the reload
+            storeGeneration++;
+            prefetchQueue.clear();
+            prefetchWaiters.clear();
+            prefetchDelta = null;
+            mProgramStore.clear();
+        }
+        // past programs are never shown again
+        mProgramStore.evictBefore(Math.min(start.getTimeInMillis(), System.currentTimeMillis()));
+
+        final GuideProgramStore.Delta delta = mProgramStore.getMissing(getChannelIds(startNdx, endNdx), start.getTimeInMillis(), endTime.getTimeInMillis());
+        if (delta == null) {
+            outerResponse.onResponse();
+            return;
+        }
+
+        // wait for a running prefetch of the same page instead of loading it twice
+        if (prefetchDelta != null && prefetchDelta.contains(delta)) {
+            Timber.d("*** Waiting for guide prefetch");
+            prefetchWaiters.add(outerResponse);
+            return;
+        }
+
+        requestPrograms(delta, outerResponse);
+    }
+
+    private static List<String> getChannelIds(int startNdx, int endNdx) {
+        return Arrays.asList(channelIds).subList(Math.max(startNdx, 0), Math.min(endNdx + 1, channelIds.length));
+    }
 
-                    outerResponse.onResponse();
+    private static void requestPrograms(final GuideProgramStore.Delta delta, final EmptyResponse outerResponse) {
+        ProgramQuery query = new ProgramQuery();
+        query.setUserId(KoinJavaComponent.<UserRepository>get(UserRepository.class).getCurrentUser().getValue().getId().toString());
+        query.setChannelIds(delta.getChannelIds().toArray(new String[0]));
+        query.setEnableImages(false);
+        query.setSortBy(new String[] {ItemSortBy.StartDate});
+        query.setMaxStartDate(new Date(delta.getEnd() - 1000));
+        query.setMinEndDate(new Date(delta.getStart() + 1000));
+
+        Timber.d("*** About to get programs for %d channels", delta.getChannelIds().size());
+
+        final int generation = storeGeneration;
+        KoinJavaComponent.<ApiClient>get(ApiClient.class).GetLiveTvProgramsAsync(query, new Response<ItemsResult>() {
+            @Override
+            public void onResponse(ItemsResult response) {
+                if (generation == storeGeneration) mProgramStore.merge(delta, response.getItems());
+                else Timber.d("Dropping guide programs loaded before a reload");
+                Timber.d("*** Programs retrieval finished");
+
+                outerResponse.onResponse();
+            }
+
+            @Override
+            public void onError(Exception exception) {
+                outerResponse.onError(exception);
+            }
+        });
+    }
+
+    /**
+     * A guide page to prefetch, channel indexes are inclusive and times are local guide times.
+     */
+    public static class GuidePage {
+        private final int startNdx;
+        private final int endNdx;
+        private final long start;
+        private final long end;
+
+        public GuidePage(int startNdx, int endNdx, long start, long end) {
+            this.startNdx = startNdx;
+            this.endNdx = endNdx;
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    /**
+     * Load the programs of [pages] in the background, one request at a time.
+     * Replaces any pages still queued from an earlier call.
+     */
+    public static void prefetchPrograms(List<GuidePage> pages) {
+        prefetchQueue.clear();
+        prefetchQueue.addAll(pages);
+        if (prefetchDelta == null) prefetchNext();
+    }
+
+    /**
+     * Drop all queued prefetches and the loads waiting for the running one, that request still
+     * completes into the store.
+     */
+    public static void cancelPrefetch() {
+        prefetchQueue.clear();
+        prefetchWaiters.clear();
+    }
+
+    private static void prefetchNext() {
+        while (!prefetchQueue.isEmpty()) {
+            if (mProgramStore.getProgramCount() >= PREFETCH_PROGRAM_BUDGET) {
+                Timber.d("Guide prefetch budget of %d programs reached", PREFETCH_PROGRAM_BUDGET);
+                prefetchQueue.clear();
+                return;
+            }
+
+            GuidePage page = prefetchQueue.poll();
+            GuideProgramStore.Delta delta = mProgramStore.getMissing(getChannelIds(page.startNdx, page.endNdx), page.start, page.end);
+            if (delta == null) continue;
+
+            prefetchDelta = delta;
+            final int generation = storeGeneration;
+            requestPrograms(delta, new EmptyResponse() {
+                @Override
+                public void onResponse() {
+                    if (generation == storeGeneration) finishPrefetch(null);
                 }
 
                 @Override
                 public void onError(Exception exception) {
-                    outerResponse.onError(exception);
+                    Timber.w(exception, "Unable to prefetch guide programs");
+                    if (generation == storeGeneration) finishPrefetch(exception);
                 }
             });
-
-        } else {
-            outerResponse.onResponse();
+            return;
         }
     }
 
-    private static void buildProgramsDict(BaseItemDto[] programs, Calendar startTime) {
-        mProgramsDict = new HashMap<>();
-        long start = startTime.getTimeInMillis();
-        for (BaseItemDto program : programs) {
-            String id = program.getChannelId();
-            if (!mProgramsDict.containsKey(id)) mProgramsDict.put(id, new ArrayList<BaseItemDto>());
-            if (TimeUtils.convertToLocalDate(program.getEndDate()).getTime() > start)
-                mProgramsDict.get(id).add(program);
+    private static void finishPrefetch(Exception exception) {
+        prefetchDelta = null;
+        List<EmptyResponse> waiters = new ArrayList<>(prefetchWaiters);
+        prefetchWaiters.clear();
+        for (EmptyResponse waiter : waiters) {
+            if (exception == null) waiter.onResponse();
+            else waiter.onError(exception);
         }
-        needLoadTime = (Calendar) startTime.clone();
-        needLoadTime.setTimeZone(TimeZone.getTimeZone("Z"));
-        needLoadTime.add(Calendar.MINUTE, 29);
 
+        if (exception == null) prefetchNext();
+        else prefetchQueue.clear();
     }
 
     public static Calendar updateProgramsNeedsLoadTime() {
@@ -216,10 +309,8 @@ public class TvManager {
 
     public static boolean programsNeedLoad(Calendar now) { return programNeedLoadTime == null || now.after(programNeedLoadTime); }
 
-    public static List<BaseItemDto> getProgramsForChannel(String channelId, GuideFilters filters) {
-        if (!mProgramsDict.containsKey(channelId)) return new ArrayList<>();
-
-        List<BaseItemDto> results = mProgramsDict.get(channelId);
+    public static List<BaseItemDto> getProgramsForChannel(String channelId, long start, long end, GuideFilters filters) {
+        List<BaseItemDto> results = mProgramStore.getPrograms(channelId, start, end);
         boolean passes = filters == null || !filters.any();
         if (passes) return results;
 
@@ -231,9 +322,8 @@ public class TvManager {
         return passes ? results : new ArrayList<BaseItemDto>();
     }
 
-    public static List<BaseItemDto> getProgramsForChannel(String channelId) {
-        return !mProgramsDict.containsKey(channelId) ? new ArrayList<BaseItemDto>() : mProgramsDict.get(channelId);
-
+    public static List<BaseItemDto> getProgramsForChannel(String channelId, long start, long end) {
+        return mProgramStore.getPrograms(channelId, start, end);
     }
 
     public static void setTimelineRow(Activity activity, LinearLayout timelineRow, BaseItemDto program) {
@@ -79,8 +79,6 @@ import org.jellyfin.apiclient.model.dto.ChapterInfoDto;
 import org.jellyfin.apiclient.model.dto.UserItemDataDto;
 import org.jellyfin.apiclient.model.livetv.ChannelInfoDto;
 import org.jellyfin.apiclient.model.livetv.SeriesTimerInfoDto;
-import org.jellyfin.apiclient.model.mediainfo.SubtitleTrackEvent;
-import org.jellyfin.apiclient.model.mediainfo.SubtitleTrackInfo;
 import org.koin.java.KoinJavaComponent;
 
 import java.util.ArrayList;
@@ -139,8 +137,9 @@ public class CustomPlaybackOverlayFragment extends Fragment implements LiveTvGui
     // Subtitle fields
     private static final int SUBTITLE_PADDING = 8;
     private static final long SUBTITLE_RENDER_INTERVAL_MS = 50;
-    private SubtitleTrackInfo subtitleTrackInfo;
+    private SubtitleTimeline subtitleTimeline;
     private int currentSubtitleIndex = 0;
+    private int currentSubtitleRevision = 0;
     private int subtitlesSize = KoinJavaComponent.<UserPreferences>get(UserPreferences.class).get(UserPreferences.Companion.getDefaultSubtitlesSize());
     private long lastSubtitlePositionMs = 0;
     private boolean subtitlesBackgroundEnabled = KoinJavaComponent.<UserPreferences>get(UserPreferences.class).get(UserPreferences.Companion.getSubtitlesBackgroundEnabled());
@@ -831,7 +830,7 @@ public class CustomPlaybackOverlayFragment extends Fragment implements LiveTvGui
             for (int i = start; i <= end; i++) {
                 if (isCancelled()) return null;
                 final ChannelInfoDto channel = TvManager.getChannel(i);
-                List<BaseItemDto> programs = TvManager.getProgramsForChannel(channel.getId());
+                List<BaseItemDto> programs = TvManager.getProgramsForChannel(channel.getId(), mCurrentLocalGuideStart, mCurrentLocalGuideEnd);
                 final LinearLayout row = getProgramRow(programs, channel.getId());
                 if (first) {
                     first = false;
@@ -1354,9 +1353,10 @@ public class CustomPlaybackOverlayFragment extends Fragment implements LiveTvGui
         finish();
     }
 
-    public void addManualSubtitles(@Nullable SubtitleTrackInfo info) {
-        subtitleTrackInfo = info;
+    public void addManualSubtitles(@Nullable SubtitleTimeline timeline) {
+        subtitleTimeline = timeline;
         currentSubtitleIndex = -1;
+        currentSubtitleRevision = timeline != null ? timeline.getRevision() : 0;
         lastSubtitlePositionMs = 0;
         clearSubtitles();
     }
@@ -1370,81 +1370,34 @@ public class CustomPlaybackOverlayFragment extends Fragment implements LiveTvGui
     }
 
     public void updateSubtitles(long positionMs) {
-        int iterCount = 1;
-        final long positionTicks = positionMs * 10000;
-        final long lastPositionTicks = lastSubtitlePositionMs * 10000;
-
-        if (subtitleTrackInfo == null
-                || subtitleTrackInfo.getTrackEvents() == null
-                || subtitleTrackInfo.getTrackEvents().size() < 1
-                || currentSubtitleIndex >= subtitleTrackInfo.getTrackEvents().size()) {
+        if (subtitleTimeline == null || subtitleTimeline.getSize() < 1) {
             return;
         }
 
-        if (positionTicks < subtitleTrackInfo.getTrackEvents().get(0).getStartPositionTicks())
-            return;
-
         // Skip rendering if the interval ms have not passed since last render
         if (lastSubtitlePositionMs > 0
                 && Math.abs(lastSubtitlePositionMs - positionMs) < SUBTITLE_RENDER_INTERVAL_MS) {
             return;
         }
+        lastSubtitlePositionMs = positionMs;
 
-        // If the user has skipped back, reset the subtitle index
-        if (lastSubtitlePositionMs > positionMs) {
-            currentSubtitleIndex = -1;
-            clearSubtitles();
+        // binary search, so seeking in either direction costs the same
+        int subtitleIndex = subtitleTimeline.indexAt(positionMs * 10000);
+        // cues inserted out of order shift the indices, render again
+        int revision = subtitleTimeline.getRevision();
+        if (subtitleIndex == currentSubtitleIndex && revision == currentSubtitleRevision) {
+            return;
         }
+        currentSubtitleRevision = revision;
 
-        if (currentSubtitleIndex == -1)
-            Timber.d("subtitle track events size %s", subtitleTrackInfo.getTrackEvents().size());
-
-        // Find the next subtitle event that should be rendered
-        for (int tmpSubtitleIndex = currentSubtitleIndex == -1 ? 0 : currentSubtitleIndex; tmpSubtitleIndex < subtitleTrackInfo.getTrackEvents().size(); tmpSubtitleIndex++) {
-            SubtitleTrackEvent trackEvent = subtitleTrackInfo.getTrackEvents().get(tmpSubtitleIndex);
-
-            if (positionTicks >= trackEvent.getStartPositionTicks()
-                    && positionTicks < trackEvent.getEndPositionTicks()) {
-                // This subtitle event should be displayed now
-                // use lastPositionTicks to ensure it is only rendered once
-
-                if (lastPositionTicks < trackEvent.getStartPositionTicks() || lastPositionTicks >= trackEvent.getEndPositionTicks()) {
-                    Timber.d("rendering subtitle event: %s (pos %s start %s end %s)", tmpSubtitleIndex, positionMs, trackEvent.getStartPositionTicks() / 10000, trackEvent.getEndPositionTicks() / 10000);
-                    renderSubtitles(trackEvent.getText());
-                }
-
-                currentSubtitleIndex = tmpSubtitleIndex;
-                lastSubtitlePositionMs = positionMs;
-                // rendering should happen on the 2nd iteration
-                if (iterCount > 2)
-                    Timber.d("subtitles handled in %s iterations", iterCount);
-                return;
-            } else if (tmpSubtitleIndex < subtitleTrackInfo.getTrackEvents().size() - 1) {
-                SubtitleTrackEvent nextTrackEvent = subtitleTrackInfo.getTrackEvents().get(tmpSubtitleIndex + 1);
-
-                if (positionTicks >= trackEvent.getEndPositionTicks() && positionTicks < nextTrackEvent.getStartPositionTicks()) {
-                    // clear the subtitles if between events
-                    // use lastPositionTicks to ensure it is only cleared once
-
-                    if (currentSubtitleIndex > -1 && !(lastPositionTicks >= trackEvent.getEndPositionTicks() && lastPositionTicks < nextTrackEvent.getStartPositionTicks())) {
-                        Timber.d("clearing subtitle event: %s (pos %s - event end %s)", tmpSubtitleIndex, positionMs, trackEvent.getEndPositionTicks() / 10000);
-                        clearSubtitles();
-                    }
-
-                    // set currentSubtitleIndex in case it was -1
-                    currentSubtitleIndex = tmpSubtitleIndex;
-                    lastSubtitlePositionMs = positionMs;
-                    if (iterCount > 1)
-                        Timber.d("subtitles handled in %s iterations", iterCount);
-                    return;
-                }
-            }
-            iterCount++;
+        if (subtitleIndex >= 0) {
+            Timber.d("rendering subtitle event: %s (pos %s start %s end %s)", subtitleIndex, positionMs, subtitleTimeline.getStartTicks(subtitleIndex) / 10000, subtitleTimeline.getEndTicks(subtitleIndex) / 10000);
+            renderSubtitles(subtitleTimeline.getText(subtitleIndex));
+        } else {
+            Timber.d("clearing subtitle event: %s (pos %s)", currentSubtitleIndex, positionMs);
+            clearSubtitles();
         }
-        // handles clearing the last event
-        if (iterCount > 1)
-            Timber.d("subtitles handled in %s iterations", iterCount);
-        clearSubtitles();
+        currentSubtitleIndex = subtitleIndex;
     }
 
     private void clearSubtitles() {
@@ -54,12 +54,12 @@ import org.jellyfin.apiclient.model.dlna.EncodingContext;
 import org.jellyfin.apiclient.model.dto.BaseItemDto;
 import org.jellyfin.apiclient.model.dto.BaseItemType;
 import org.jellyfin.apiclient.model.dto.MediaSourceInfo;
-import org.jellyfin.apiclient.model.dto.UserItemDataDto;
 import org.jellyfin.apiclient.model.session.PlayMethod;
 import org.jellyfin.sdk.model.api.ImageFormat;
 import org.jellyfin.sdk.model.api.ImageType;
 import org.koin.java.KoinJavaComponent;
 
+import java.io.File;
 import java.util.List;
 import java.util.Locale;
 import java.util.Objects;
@@ -67,6 +67,7 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import kotlin.Lazy;
+import kotlinx.coroutines.Job;
 import timber.log.Timber;
 
 public class ExternalPlayerActivity extends FragmentActivity {
@@ -98,6 +99,9 @@ public class ExternalPlayerActivity extends FragmentActivity {
 
     ZidooTask mZidooTask;
     TmdbTask mTmdbTask;
+    ZidooPlaybackTracker mZidooTracker;
+    ZidooPlaybackState mZidooState;
+    Job mZidooStateJob;
 
     final Lazy<ApiClient> apiClient = inject(ApiClient.class);
     final Lazy<UserPreferences> userPreferences = inject(UserPreferences.class);
@@ -106,6 +110,8 @@ public class ExternalPlayerActivity extends FragmentActivity {
     final Lazy<org.jellyfin.sdk.api.client.ApiClient> api = inject(org.jellyfin.sdk.api.client.ApiClient.class);
     final Lazy<PlaybackControllerContainer> playbackControllerContainer = inject(PlaybackControllerContainer.class);
     final Lazy<PreferencesRepository> preferencesRepository = inject(PreferencesRepository.class);
+    final Lazy<ZidooMountService> zidooMountService = inject(ZidooMountService.class);
+    final Lazy<TmdbLanguageCache> tmdbLanguageCache = inject(TmdbLanguageCache.class);
 
     // https://sites.google.com/site/mxvpen/api
     static final String API_MX_TITLE = "title";
@@ -261,6 +267,9 @@ public class ExternalPlayerActivity extends FragmentActivity {
 
         Long runtime = mZidooTask.mStreamInfo.getRunTimeTicks() != null ? mZidooTask.mStreamInfo.getRunTimeTicks() : mCurrentItem.getOriginalRunTimeTicks();
         Integer pos = mZidooTask.mPlayPos;
+        if (pos == null && mZidooState != null && mZidooTask.mStreamInfo.getPlayMethod() != PlayMethod.Transcode) {
+            pos = mZidooState.getPosition(); // last state seen by the tracker
+        }
         if (runtime == null || runtime <= 0 || pos == null || pos <= 0) {
             Timber.w("Could not get valid runtime, pos skipping playNext logic.");
             mItemsToPlay.remove(0);
@@ -395,7 +404,13 @@ public class ExternalPlayerActivity extends FragmentActivity {
         if (mZidooTask != null) {
             mZidooTask.finishTask(true);
         }
+        if (mZidooStateJob != null) {
+            mZidooStateJob.cancel(null);
+        }
         mZidooTask = null;
+        mZidooTracker = null;
+        mZidooState = null;
+        mZidooStateJob = null;
         mCurrentItem = null;
         mCurrentStreamInfo = null;
         mCurrentMediaSource = null;
@@ -482,7 +497,7 @@ public class ExternalPlayerActivity extends FragmentActivity {
     }
 
     protected void markPlayed(String itemId) {
-        apiClient.getValue().MarkPlayedAsync(itemId, KoinJavaComponent.<UserRepository>get(UserRepository.class).getCurrentUser().getValue().getId().toString(), null, new Response<UserItemDataDto>());
+        ReportingHelper.markPlayed(itemId);
     }
 
     protected void playNext() {
@@ -577,14 +592,11 @@ public class ExternalPlayerActivity extends FragmentActivity {
             }
         }
 
-        String orgLang = null;
         // try get org_language, only if needed
         int numLang = AudioSubtitleHelper.getNumAudioLang(mCurrentMediaSource.getMediaStreams());
         if (mPrefs.mAudioLangSetting == LanguagesAudio.ORIGINAL && numLang > 1) {
-            if (mTmdbTask != null) { // check if we already have a good result (case: series playlist)
-                orgLang = mTmdbTask.getOriginalLanguage(mCurrentItem.getId(), mCurrentItem.getSeriesId());
-            }
-            if (mTmdbTask == null || orgLang == null) {
+            // check if we already have a cached result (case: series playlist)
+            if (tmdbLanguageCache.getValue().getCached(mCurrentItem) == null) {
                 mTmdbTask = new TmdbTask(this, mCurrentItem, this::launchExternalPlayer);
                 return; // TmdbTask will call launchExternalPlayer
             }
@@ -593,6 +605,36 @@ public class ExternalPlayerActivity extends FragmentActivity {
         launchExternalPlayer();
     }
 
+    @Nullable
+    private String getOriginalLanguage() {
+        TmdbLanguageCache.CachedLanguage cached = tmdbLanguageCache.getValue().getCached(mCurrentItem);
+        if (cached != null) {
+            return cached.getLanguage();
+        }
+        return mTmdbTask != null ? mTmdbTask.getOriginalLanguage(mCurrentItem.getId(), mCurrentItem.getSeriesId()) : null;
+    }
+
+    // warm the language cache for the next item, so it can start without waiting on TMDB
+    private void prefetchNextOriginalLanguage() {
+        if (mPrefs.mAudioLangSetting != LanguagesAudio.ORIGINAL || mItemsToPlay == null || mItemsToPlay.size() < 2) {
+            return;
+        }
+        BaseItemDto nextItem = mItemsToPlay.get(1);
+        TmdbLanguageCache languageCache = tmdbLanguageCache.getValue();
+        if (languageCache.canResolve(nextItem)) {
+            languageCache.prefetch(nextItem);
+        } else if (nextItem.getBaseItemType() == BaseItemType.Episode && isNonEmptyTrim(nextItem.getSeriesId())) {
+            apiClient.getValue().GetItemAsync(nextItem.getSeriesId(), KoinJavaComponent.<UserRepository>get(UserRepository.class).getCurrentUser().getValue().getId().toString(), new Response<BaseItemDto>() {
+                @Override
+                public void onResponse(BaseItemDto response) {
+                    if (response != null) {
+                        languageCache.prefetch(response);
+                    }
+                }
+            });
+        }
+    }
+
     @NonNull
     private StreamInfo buildStreamInfoSendPath() {
         StreamInfo info = new StreamInfo();
@@ -642,6 +684,7 @@ public class ExternalPlayerActivity extends FragmentActivity {
 
     protected void launchExternalPlayer() {
         isLiveTv = mCurrentItem.getBaseItemType() == BaseItemType.TvChannel;
+        prefetchNextOriginalLanguage();
         if (!isLiveTv && mUseSendPath && !mAllowTranscoding) {
             // build fake streamInfo so report logic can work
             mCurrentStreamInfo = buildStreamInfoSendPath();
@@ -653,7 +696,7 @@ public class ExternalPlayerActivity extends FragmentActivity {
                 startExternalZidooZDMCActivity(uri);
             }
         } else {
-            String orgLang = mTmdbTask != null ? mTmdbTask.getOriginalLanguage(mCurrentItem.getId(), mCurrentItem.getSeriesId()) : null;
+            String orgLang = getOriginalLanguage();
             Pair<Integer, Integer> audioSubIdx = getAbsoluteAudioSubIdxSafe(getBestAudioSubtitleIdx(mCurrentMediaSource.getMediaStreams(), mPrefs, orgLang));
             // Get playback info and then decide on which activity to start
             KoinJavaComponent.<PlaybackManager>get(PlaybackManager.class).getVideoStreamInfo(api.getValue().getDeviceInfo(), buildZidooPlayerOptions(audioSubIdx.first, audioSubIdx.second), mSeekPosition * RUNTIME_TICKS_TO_MS, apiClient.getValue(), new Response<StreamInfo>() {
@@ -814,6 +857,24 @@ public class ExternalPlayerActivity extends FragmentActivity {
 //        }
 //    }
 
+    private void startZidooTasks() {
+        mZidooTracker = new ZidooPlaybackTracker();
+        mZidooStateJob = mZidooTracker.observe(this, this::onZidooStateChanged);
+        mZidooTask = new ZidooStartupTask(this, mZidooTracker, mPrefs, mCurrentItem, mSeekPosition, mCurrentStreamInfo, 2000, ()-> {
+            mZidooTask = new ZidooReportTask(mZidooTask, mSeekPosition, 5000); // HACK delay more to make subtitle selection stick at Zidoo "Auto" settings
+            mZidooTask.SetTmdbLang(getOriginalLanguage());
+        });
+    }
+
+    private void onZidooStateChanged(@NonNull ZidooPlaybackState state) {
+        if (mZidooState == null || mZidooState.getStatus() != state.getStatus()
+                || !Objects.equals(mZidooState.getAudioIndex(), state.getAudioIndex())
+                || !Objects.equals(mZidooState.getSubtitleIndex(), state.getSubtitleIndex())) {
+            Timber.d("Zidoo state Status: <%s> Position: <%s> audioIdx: <%s> subIdx: <%s>", state.getStatus(), getMillisecondsFormated(state.getPosition()), state.getAudioIndex(), state.getSubtitleIndex());
+        }
+        mZidooState = state;
+    }
+
     private void startExternalZidooZDMCActivity(@NonNull Uri pathUri) {
         if (!"smb".equals(pathUri.getScheme()) && !"nfs".equals(pathUri.getScheme())) {
             Utils.showToast(ExternalPlayerActivity.this, "Error: Unsupported mount path Uri-Scheme!");
@@ -859,10 +920,7 @@ public class ExternalPlayerActivity extends FragmentActivity {
         zidooIntent.setDataAndType(pathUri, "video/" + container);
         try {
             mLastPlayerStart = System.currentTimeMillis();
-            mZidooTask = new ZidooStartupTask(this, mPrefs, mCurrentItem, mSeekPosition, mCurrentStreamInfo, 2000, ()-> {
-                mZidooTask = new ZidooReportTask(mZidooTask, mSeekPosition, 5000); // HACK delay more to make subtitle selection stick at Zidoo "Auto" settings
-                mZidooTask.SetTmdbLang(mTmdbTask);
-            });
+            startZidooTasks();
             startActivityForResult(zidooIntent, API_ZIDOO_REQUEST_CODE); // NOTE: ZDMCActivity is just a wrapper for MovieActivity and will finish() directly, while not sending any results!
         } catch (ActivityNotFoundException e) {
             noPlayerError = true;
@@ -879,31 +937,25 @@ public class ExternalPlayerActivity extends FragmentActivity {
             return;
         }
 
-        if ("nfs".equals(pathUri.getScheme())) {
-            pathUri = Uri.parse(pathUri.toString().replace("/:", "")).normalizeScheme(); // fix Uri
-        }
-        startExternalZidooMovieActivity(pathUri);
-
-//        new MountTask(this, pathUri, new Response<>() {
-//            @Override
-//            public void onResponse(String response) {
-//                if (response != null) {
-//                    Timber.i("MountTask successfully with Path <%s>", response);
-//                    try {
-//                        Uri uri = Uri.fromFile(new File(response));
-//                        startExternalZidooMovieActivity(uri);
-//                    } catch (Exception e) {
-//                        Timber.e("Error could not get Uri.fromFile <%s>", response);
-//                        e.printStackTrace();
-//                        finish();
-//                    }
-//                } else {
-//                    Timber.e("Error could not mount Path <%s>", pathUri.toString());
-//                    Utils.showToast(ExternalPlayerActivity.this, "Error: Could not mount path!");
-//                    finish();
-//                }
-//            }
-//        });
+        // skip the mount round-trip, if the share is already mounted this session
+        zidooMountService.getValue().getMountedFilePath(pathUri, new Response<String>() {
+            @Override
+            public void onResponse(String mountedPath) {
+                if (isFinishing()) return;
+                if (mountedPath != null) {
+                    Timber.i("Using mounted share Path <%s>", mountedPath);
+                    startExternalZidooMovieActivity(Uri.fromFile(new File(mountedPath)));
+                    return;
+                }
+                zidooMountService.getValue().prefetchMount(pathUri); // next items on this share can use the mount
+
+                Uri playUri = pathUri;
+                if ("nfs".equals(playUri.getScheme())) {
+                    playUri = Uri.parse(playUri.toString().replace("/:", "")).normalizeScheme(); // fix Uri
+                }
+                startExternalZidooMovieActivity(playUri);
+            }
+        });
     }
 
     private void startExternalZidooMovieActivity(@NonNull Uri pathUri) {
@@ -934,7 +986,7 @@ public class ExternalPlayerActivity extends FragmentActivity {
             zidooIntent.putExtra(API_ZIDOO_FROM_START, true);
         }
         if (mPrefs.mAudioLangSetting != LanguagesAudio.DEVICE) {
-            String orgLang = mTmdbTask != null ? mTmdbTask.getOriginalLanguage(mCurrentItem.getId(), mCurrentItem.getSeriesId()) : null;
+            String orgLang = getOriginalLanguage();
             Pair<Integer, Integer> audioSubIdx = ZidooTask.convertToZidooIndex(getBestAudioSubtitleIdx(mCurrentStreamInfo.getMediaSource().getMediaStreams(), mPrefs, orgLang));
             if (mCurrentStreamInfo.getPlayMethod() == PlayMethod.Transcode) {
                 int subIdx = audioSubIdx.second > 0 ? 1 : 0; // we have only one sub here
@@ -955,10 +1007,7 @@ public class ExternalPlayerActivity extends FragmentActivity {
 
         try {
             mLastPlayerStart = System.currentTimeMillis();
-            mZidooTask = new ZidooStartupTask(this, mPrefs, mCurrentItem, mSeekPosition, mCurrentStreamInfo, 2000, ()-> {
-                mZidooTask = new ZidooReportTask(mZidooTask, mSeekPosition, 5000); // HACK delay more to make subtitle selection stick at Zidoo "Auto" settings
-                mZidooTask.SetTmdbLang(mTmdbTask);
-            });
+            startZidooTasks();
             startActivityForResult(zidooIntent, API_ZIDOO_REQUEST_CODE);
         } catch (ActivityNotFoundException e) {
             noPlayerError = true;
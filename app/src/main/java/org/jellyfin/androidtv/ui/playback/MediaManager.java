@@ -20,6 +20,7 @@ import com.google.android.exoplayer2.ExoPlayer;
 import com.google.android.exoplayer2.MediaItem;
 import com.google.android.exoplayer2.PlaybackException;
 import com.google.android.exoplayer2.Player;
+import com.google.android.exoplayer2.source.MediaSource;
 import com.google.android.exoplayer2.source.ProgressiveMediaSource;
 import com.google.android.exoplayer2.upstream.DataSource;
 import com.google.android.exoplayer2.upstream.DefaultDataSourceFactory;
@@ -30,6 +31,7 @@ import org.jellyfin.androidtv.constant.QueryType;
 import org.jellyfin.androidtv.data.compat.AudioOptions;
 import org.jellyfin.androidtv.data.compat.StreamInfo;
 import org.jellyfin.androidtv.data.model.DataRefreshService;
+import org.jellyfin.androidtv.data.model.LibraryChange;
 import org.jellyfin.androidtv.ui.itemhandling.AudioQueueItem;
 import org.jellyfin.androidtv.ui.itemhandling.BaseRowItem;
 import org.jellyfin.androidtv.ui.itemhandling.ItemRowAdapter;
@@ -55,10 +57,10 @@ import org.videolan.libvlc.LibVLC;
 import org.videolan.libvlc.Media;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Random;
+import java.util.Set;
 
 import timber.log.Timber;
 
@@ -73,12 +75,21 @@ public class MediaManager {
 
     private Presenter mManagedAudioQueuePresenter;
 
-    private List<Integer>  mUnShuffledAudioQueueIndexes;
+    private ShuffleOrder mShuffleOrder;
 
     private int mCurrentAudioQueuePosition = -1;
     private BaseItemDto mCurrentAudioItem;
     private StreamInfo mCurrentAudioStreamInfo;
     private long mCurrentAudioPosition;
+    private DeviceProfile mAudioProfile;
+
+    // queue entries to resolve stream info for ahead of playback
+    private static final int AUDIO_PREFETCH_COUNT = 3;
+
+    // next queue entry appended to the exoplayer playlist for gapless playback
+    private int mGaplessNextPosition = -1;
+    private BaseItemDto mGaplessNextItem;
+    private StreamInfo mGaplessNextStreamInfo;
 
     private LibVLC mLibVLC;
     private org.videolan.libvlc.MediaPlayer mVlcPlayer;
@@ -145,7 +156,11 @@ public class MediaManager {
 
     public BaseItemDto getCurrentAudioItem() { return mCurrentAudioItem != null ? mCurrentAudioItem : hasAudioQueueItems() ? ((BaseRowItem)mCurrentAudioQueue.get(0)).getBaseItem() : null; }
 
-    public boolean toggleRepeat() { mRepeat = !mRepeat; return mRepeat; }
+    public boolean toggleRepeat() {
+        mRepeat = !mRepeat;
+        queueGaplessNext();
+        return mRepeat;
+    }
     public boolean isRepeatMode() { return mRepeat; }
 
     public boolean getIsAudioPlayerInitialized() {
@@ -153,14 +168,11 @@ public class MediaManager {
     }
 
     public boolean isShuffleMode() {
-        if (mUnShuffledAudioQueueIndexes != null) {
-            return true;
-        }
-        return false;
+        return mShuffleOrder != null;
     }
 
     private void clearUnShuffledQueue() {
-        mUnShuffledAudioQueueIndexes = null;
+        mShuffleOrder = null;
     }
 
     public ItemRowAdapter getCurrentAudioQueue() { return mCurrentAudioQueue; }
@@ -290,6 +302,10 @@ public class MediaManager {
             mExoPlayer.release();
             mExoPlayer = null;
         }
+        mGaplessNextPosition = -1;
+        mGaplessNextItem = null;
+        mGaplessNextStreamInfo = null;
+        mAudioProfile = null;
     }
 
     private boolean createPlayer(Context context, int buffer) {
@@ -313,6 +329,10 @@ public class MediaManager {
                         }
                     }
                     @Override
+                    public void onMediaItemTransition(@Nullable MediaItem mediaItem, int reason) {
+                        if (reason == Player.MEDIA_ITEM_TRANSITION_REASON_AUTO) onGaplessTransition();
+                    }
+                    @Override
                     public void onPlayerError(PlaybackException error) {
                         Timber.d("player error!");
                         stopAudio(true);
@@ -463,8 +483,9 @@ public class MediaManager {
                     @Override
                     public void onClick(DialogInterface dialog, int which) {
                         final String text = name.getText().toString();
+                        final String userId = KoinJavaComponent.<UserRepository>get(UserRepository.class).getCurrentUser().getValue().getId().toString();
                         PlaylistCreationRequest request = new PlaylistCreationRequest();
-                        request.setUserId(KoinJavaComponent.<UserRepository>get(UserRepository.class).getCurrentUser().getValue().getId().toString());
+                        request.setUserId(userId);
                         request.setMediaType(type == TYPE_AUDIO ? MediaType.Audio : MediaType.Video);
                         request.setName(text);
                         request.setItemIdList(type == TYPE_AUDIO ? getCurrentAudioQueueItemIds() : getCurrentVideoQueueItemIds());
@@ -472,8 +493,7 @@ public class MediaManager {
                             @Override
                             public void onResponse(PlaylistCreationResult response) {
                                 Toast.makeText(context, context.getString(R.string.msg_queue_saved, text), Toast.LENGTH_LONG).show();
-                                DataRefreshService dataRefreshService = KoinJavaComponent.<DataRefreshService>get(DataRefreshService.class);
-                                dataRefreshService.setLastLibraryChange(System.currentTimeMillis());
+                                addPlaylistLibraryChange(response.getId(), userId);
                             }
 
                             @Override
@@ -487,6 +507,34 @@ public class MediaManager {
 
     }
 
+    // Let rows showing the parent folder of the new playlist pick it up
+    private void addPlaylistLibraryChange(final String playlistId, String userId) {
+        if (playlistId == null) return;
+        KoinJavaComponent.<ApiClient>get(ApiClient.class).GetItemAsync(playlistId, userId, new Response<BaseItemDto>() {
+            @Override
+            public void onResponse(BaseItemDto response) {
+                addLibraryChange(response.getParentId());
+            }
+
+            @Override
+            public void onError(Exception exception) {
+                Timber.w(exception, "Unable to get the parent of playlist %s", playlistId);
+                addLibraryChange(null);
+            }
+
+            private void addLibraryChange(@Nullable String parentId) {
+                Set<String> folders = parentId != null ? Set.of(LibraryChange.normalizeId(parentId)) : Set.of();
+                KoinJavaComponent.<DataRefreshService>get(DataRefreshService.class).addLibraryChange(new LibraryChange(
+                        System.currentTimeMillis(),
+                        Set.of(LibraryChange.normalizeId(playlistId)),
+                        Set.of(),
+                        Set.of(),
+                        folders
+                ));
+            }
+        });
+    }
+
     private ArrayList<String> getCurrentAudioQueueItemIds() {
         ArrayList<String> result = new ArrayList<>();
 
@@ -519,6 +567,7 @@ public class MediaManager {
         }
         pushToUnShuffledQueue(item);
         mCurrentAudioQueue.add(new AudioQueueItem(mCurrentAudioQueue.size(), item));
+        queueGaplessNext();
         fireQueueStatusChange();
         return mCurrentAudioQueue.size()-1;
     }
@@ -571,6 +620,7 @@ public class MediaManager {
                 if (mManagedAudioQueue != null) mManagedAudioQueue.add(queueItem);
                 pushToUnShuffledQueue(item);
             }
+            queueGaplessNext();
             fireQueueStatusChange();
         }
 
@@ -602,6 +652,7 @@ public class MediaManager {
             //just remove it
             mCurrentAudioQueue.removeItems(ndx, 1);
             if (mCurrentAudioQueuePosition > ndx) mCurrentAudioQueuePosition--;
+            queueGaplessNext();
         }
 
         // now need to update indexes for subsequent items
@@ -712,39 +763,59 @@ public class MediaManager {
         return true;
     }
 
-    private void playInternal(final BaseItemDto item, final int pos) {
-        if (!ensureInitialized()) return;
-
-        ensureAudioFocus();
-        final ApiClient apiClient = KoinJavaComponent.<ApiClient>get(ApiClient.class);
+    private AudioOptions createAudioOptions(BaseItemDto item) {
         AudioOptions options = new AudioOptions();
         options.setItemId(item.getId());
         Integer maxBitrate = Utils.getMaxBitrate();
         if (maxBitrate != null) options.setMaxBitrate(maxBitrate);
         options.setMediaSources(item.getMediaSources());
-        DeviceProfile profile;
-        if (DeviceUtils.is60()) {
-            profile = new ExoPlayerProfile(context, false, false, false);
-        } else {
-            profile = new LibVlcProfile(context, false);
+        if (mAudioProfile == null) {
+            if (DeviceUtils.is60()) {
+                mAudioProfile = new ExoPlayerProfile(context, false, false, false);
+            } else {
+                mAudioProfile = new LibVlcProfile(context, false);
+            }
         }
-        options.setProfile(profile);
+        options.setProfile(mAudioProfile);
+        return options;
+    }
 
+    private void getAudioStreamInfo(BaseItemDto item, boolean prefetch, Response<StreamInfo> response) {
+        final ApiClient apiClient = KoinJavaComponent.<ApiClient>get(ApiClient.class);
         DeviceInfo deviceInfo = KoinJavaComponent.<org.jellyfin.sdk.api.client.ApiClient>get(org.jellyfin.sdk.api.client.ApiClient.class).getDeviceInfo();
-        KoinJavaComponent.<PlaybackManager>get(PlaybackManager.class).getAudioStreamInfo(deviceInfo, options, item.getResumePositionTicks(), apiClient, new Response<StreamInfo>() {
+        PlaybackManager playbackManager = KoinJavaComponent.<PlaybackManager>get(PlaybackManager.class);
+        if (prefetch) {
+            playbackManager.prefetchAudioStreamInfo(deviceInfo, createAudioOptions(item), item.getResumePositionTicks(), apiClient);
+        } else {
+            playbackManager.getCachedAudioStreamInfo(deviceInfo, createAudioOptions(item), item.getResumePositionTicks(), apiClient, response);
+        }
+    }
+
+    private MediaSource createAudioMediaSource(BaseItemDto item, StreamInfo streamInfo) {
+        ApiClient apiClient = KoinJavaComponent.<ApiClient>get(ApiClient.class);
+        DataSource.Factory dataSourceFactory = new DefaultDataSourceFactory(context, "ATV/ExoPlayer");
+        Uri mediaUri = Uri.parse(streamInfo.ToUrl(apiClient.getApiUrl(), apiClient.getAccessToken()));
+        MediaItem source = new MediaItem.Builder().setUri(mediaUri).setMediaId(item.getId()).build();
+        return new ProgressiveMediaSource.Factory(dataSourceFactory).createMediaSource(source);
+    }
+
+    private void playInternal(final BaseItemDto item, final int pos) {
+        if (!ensureInitialized()) return;
+
+        ensureAudioFocus();
+        getAudioStreamInfo(item, false, new Response<StreamInfo>() {
             @Override
             public void onResponse(StreamInfo response) {
                 mCurrentAudioItem = item;
                 mCurrentAudioStreamInfo = response;
                 mCurrentAudioQueuePosition = pos;
                 mCurrentAudioPosition = 0;
+                mGaplessNextPosition = -1;
+                mGaplessNextItem = null;
+                mGaplessNextStreamInfo = null;
                 if (nativeMode) {
-                    DataSource.Factory dataSourceFactory = new DefaultDataSourceFactory(context, "ATV/ExoPlayer");
-
                     mExoPlayer.setPlayWhenReady(true);
-                    Uri mediaUri = Uri.parse(response.ToUrl(apiClient.getApiUrl(), apiClient.getAccessToken()));
-                    MediaItem source = new MediaItem.Builder().setUri(mediaUri).build();
-                    mExoPlayer.setMediaSource(new ProgressiveMediaSource.Factory(dataSourceFactory).createMediaSource(source));
+                    mExoPlayer.setMediaSource(createAudioMediaSource(item, response));
                     mExoPlayer.prepare();
                 } else {
                     Timber.i("Playback attempt via VLC of %s", response.getMediaUrl());
@@ -756,40 +827,148 @@ public class MediaManager {
                     mVlcPlayer.play();
 
                 }
-                if (mCurrentAudioQueuePosition == 0) {
-                    //we just started or repeated - re-create managed queue
-                    createManagedAudioQueue();
-                }
+                onAudioItemStarted();
+            }
+
+            @Override
+            public void onError(Exception exception) {
+                Utils.showToast(context, context.getString(R.string.audio_error, exception.getLocalizedMessage()));
+            }
+        });
+
+    }
+
+    private void onAudioItemStarted() {
+        if (mCurrentAudioQueuePosition == 0) {
+            //we just started or repeated - re-create managed queue
+            createManagedAudioQueue();
+        }
+
+        updateCurrentAudioItemPlaying(true);
+        DataRefreshService dataRefreshService = KoinJavaComponent.<DataRefreshService>get(DataRefreshService.class);
+        dataRefreshService.setLastMusicPlayback(System.currentTimeMillis());
+
+        ReportingHelper.reportStart(mCurrentAudioItem, mCurrentAudioPosition * 10000);
+
+        prefetchAudioStreams();
+    }
+
+    private int getAudioQueuePositionAhead(int offset) {
+        if (mCurrentAudioQueue == null || mCurrentAudioQueue.size() == 0 || mCurrentAudioQueuePosition < 0) return -1;
+
+        int ndx = mCurrentAudioQueuePosition + offset;
+        if (ndx >= mCurrentAudioQueue.size()) {
+            if (!mRepeat) return -1;
+            ndx %= mCurrentAudioQueue.size();
+        }
+        return ndx;
+    }
+
+    private void prefetchAudioStreams() {
+        // the next item is resolved by queueGaplessNext when the player can append it
+        for (int i = nativeMode ? 2 : 1; i <= AUDIO_PREFETCH_COUNT; i++) {
+            int ndx = getAudioQueuePositionAhead(i);
+            if (ndx < 0) break;
+            getAudioStreamInfo(((BaseRowItem) mCurrentAudioQueue.get(ndx)).getBaseItem(), true, null);
+        }
+
+        queueGaplessNext();
+    }
+
+    private void queueGaplessNext() {
+        if (!nativeMode || !getIsAudioPlayerInitialized() || mCurrentAudioItem == null) return;
+        if (mExoPlayer.getPlaybackState() == Player.STATE_IDLE) return;
+
+        final int ndx = getAudioQueuePositionAhead(1);
+        if (ndx < 0) {
+            clearGaplessNext();
+            return;
+        }
+
+        final BaseItemDto item = ((BaseRowItem) mCurrentAudioQueue.get(ndx)).getBaseItem();
+        if (item == mGaplessNextItem) {
+            // still the next item, only its position moved
+            mGaplessNextPosition = ndx;
+            return;
+        }
 
-                updateCurrentAudioItemPlaying(true);
-                DataRefreshService dataRefreshService = KoinJavaComponent.<DataRefreshService>get(DataRefreshService.class);
-                dataRefreshService.setLastMusicPlayback(System.currentTimeMillis());
+        clearGaplessNext();
+        mGaplessNextPosition = ndx;
+        mGaplessNextItem = item;
+        getAudioStreamInfo(item, false, new Response<StreamInfo>() {
+            @Override
+            public void onResponse(StreamInfo response) {
+                // the queue changed while resolving
+                if (mGaplessNextItem != item || mExoPlayer == null) return;
 
-                ReportingHelper.reportStart(item, mCurrentAudioPosition * 10000);
+                Timber.d("queueing %s for gapless playback", item.getName());
+                mGaplessNextStreamInfo = response;
+                mExoPlayer.addMediaSource(createAudioMediaSource(item, response));
             }
 
             @Override
             public void onError(Exception exception) {
-                Utils.showToast(context, context.getString(R.string.audio_error, exception.getLocalizedMessage()));
+                Timber.w(exception, "Unable to resolve next audio item");
+                // playback falls back to onComplete
+                if (mGaplessNextItem == item) {
+                    mGaplessNextPosition = -1;
+                    mGaplessNextItem = null;
+                }
             }
         });
+    }
+
+    private void clearGaplessNext() {
+        if (mGaplessNextStreamInfo != null && mExoPlayer != null) {
+            int next = mExoPlayer.getCurrentMediaItemIndex() + 1;
+            if (mExoPlayer.getMediaItemCount() > next) mExoPlayer.removeMediaItems(next, mExoPlayer.getMediaItemCount());
+        }
+
+        mGaplessNextPosition = -1;
+        mGaplessNextItem = null;
+        mGaplessNextStreamInfo = null;
+    }
+
+    private void onGaplessTransition() {
+        if (mGaplessNextStreamInfo == null) return;
+
+        Timber.d("gapless transition to queue pos %s", mGaplessNextPosition);
+        updateCurrentAudioItemPlaying(false);
+        ReportingHelper.reportStopped(mCurrentAudioItem, mCurrentAudioStreamInfo, mCurrentAudioPosition * 10000);
+        for (AudioEventListener listener : mAudioEventListeners) {
+            listener.onPlaybackStateChange(PlaybackController.PlaybackState.IDLE, mCurrentAudioItem);
+        }
+        if (mManagedAudioQueue != null && mManagedAudioQueue.size() > 1) {
+            //don't remove last item as it causes framework crashes
+            mManagedAudioQueue.removeItems(0, 1);
+        }
+
+        mCurrentAudioItem = mGaplessNextItem;
+        mCurrentAudioStreamInfo = mGaplessNextStreamInfo;
+        mCurrentAudioQueuePosition = mGaplessNextPosition;
+        mCurrentAudioPosition = 0;
+        mGaplessNextPosition = -1;
+        mGaplessNextItem = null;
+        mGaplessNextStreamInfo = null;
 
+        // drop the finished item, the player continues with the next one
+        mExoPlayer.removeMediaItems(0, mExoPlayer.getCurrentMediaItemIndex());
+
+        for (AudioEventListener listener : mAudioEventListeners) {
+            listener.onPlaybackStateChange(PlaybackController.PlaybackState.PLAYING, mCurrentAudioItem);
+        }
+        onAudioItemStarted();
     }
 
     private void pushToUnShuffledQueue(BaseItemDto newItem) {
         if (isShuffleMode()) {
-            mUnShuffledAudioQueueIndexes.add(mUnShuffledAudioQueueIndexes.size());
+            mShuffleOrder.add();
         }
     }
 
     private void removeFromUnShuffledQueue(int ndx) {
-        if (hasAudioQueueItems() && isShuffleMode() && ndx < mUnShuffledAudioQueueIndexes.size()) {
-            int OriginalNdx = mUnShuffledAudioQueueIndexes.get(ndx);
-            for(int i = 0; i < mUnShuffledAudioQueueIndexes.size(); i++) {
-                int oldNdx = mUnShuffledAudioQueueIndexes.get(i);
-                if (oldNdx > OriginalNdx) mUnShuffledAudioQueueIndexes.set(i, --oldNdx);
-            }
-            mUnShuffledAudioQueueIndexes.remove(ndx);
+        if (hasAudioQueueItems() && isShuffleMode() && ndx < mShuffleOrder.getSize()) {
+            mShuffleOrder.remove(ndx);
         }
     }
 
@@ -800,22 +979,20 @@ public class MediaManager {
             # Shuffle feature
 
             # Dependencies
-                * mUnShuffledAudioQueueIndexes - List<Integer> shuffled list of the original queue item indexes
+                * mShuffleOrder - ShuffleOrder mapping the shuffled queue positions to the original queue indexes
 
             # Methods
                 * isShuffleMode()                    - true/false for checking if shuffled
-                * clearUnShuffledQueue()             - set the saved queue to null
-                * pushToUnShuffledQueue()            - push a new items index to the shuffled queue of original indexes
-                * removeFromUnShuffledQueue(int ndx) - updates the original indexes to reflect the removal, and removes the item from the saved queue
+                * clearUnShuffledQueue()             - set the shuffle order to null
+                * pushToUnShuffledQueue()            - append a new item's index to the shuffle order
+                * removeFromUnShuffledQueue(int ndx) - updates the original indexes to reflect the removal, and removes the item from the shuffle order
 
             # Implementation
                 1) create a fixed size BaseItemDto[] of queue size to be populated with shuffled or unshuffled items
                 2)
                     A) if not shuffled
-                        1A) create new queue for saving the original queue state
-                        2A) push all but the currently playing item's indexes to the list
-                        3A) shuffle the list of indexes then insert the currently playing item's index at pos 0 in the list
-                        4A) loop through the shuffled list of indexes and insert the corresponding items into the array
+                        1A) create a shuffle order keeping the currently playing item at pos 0
+                        2A) loop through the shuffled positions and insert the corresponding items into the array
 
                     B) if shuffled
                         1B) inserts each queue item into the array using its original index
@@ -824,28 +1001,21 @@ public class MediaManager {
                 4) create a new queue from the list
 
          */
-        BaseItemDto[] items = new BaseItemDto[isShuffleMode() ? mUnShuffledAudioQueueIndexes.size() : mCurrentAudioQueue.size()];
+        BaseItemDto[] items = new BaseItemDto[isShuffleMode() ? mShuffleOrder.getSize() : mCurrentAudioQueue.size()];
 
         if (isShuffleMode()) {
             Timber.d("queue is already shuffled, restoring original order");
 
-            for(int i = 0; i < mUnShuffledAudioQueueIndexes.size(); i++) {
-                items[mUnShuffledAudioQueueIndexes.get(i)] = ((BaseRowItem) mCurrentAudioQueue.get(i)).getBaseItem();
+            for(int i = 0; i < mShuffleOrder.getSize(); i++) {
+                items[mShuffleOrder.get(i)] = ((BaseRowItem) mCurrentAudioQueue.get(i)).getBaseItem();
             }
-            mUnShuffledAudioQueueIndexes = null;
+            mShuffleOrder = null;
         } else {
             Timber.d("Queue is not shuffled, shuffling");
-            mUnShuffledAudioQueueIndexes = new ArrayList<>();
+            mShuffleOrder = ShuffleOrder.shuffle(mCurrentAudioQueue.size(), getCurrentAudioQueuePosition());
 
-            for(int i = 0; i < mCurrentAudioQueue.size(); i++) {
-                if (i != getCurrentAudioQueuePosition()) {
-                    mUnShuffledAudioQueueIndexes.add(i);
-                }
-            }
-            Collections.shuffle(mUnShuffledAudioQueueIndexes);
-            mUnShuffledAudioQueueIndexes.add(0, getCurrentAudioQueuePosition());
-            for(int i = 0; i < mUnShuffledAudioQueueIndexes.size(); i++) {
-                items[i] = ((BaseRowItem) mCurrentAudioQueue.get(mUnShuffledAudioQueueIndexes.get(i))).getBaseItem();
+            for(int i = 0; i < mShuffleOrder.getSize(); i++) {
+                items[i] = ((BaseRowItem) mCurrentAudioQueue.get(mShuffleOrder.get(i))).getBaseItem();
             }
         }
 
@@ -858,6 +1028,7 @@ public class MediaManager {
         }
         createAudioQueue(itemsList);
         updateCurrentAudioItemPlaying(isPlayingAudio());
+        queueGaplessNext();
         fireQueueReplaced();
     }
 
@@ -937,6 +1108,7 @@ public class MediaManager {
 
     private void stop() {
         if (!getIsAudioPlayerInitialized()) return ;
+        clearGaplessNext();
         if (nativeMode) mExoPlayer.stop();
         else mVlcPlayer.stop();
     }
@@ -1013,7 +1185,8 @@ public class MediaManager {
     }
 
     public BaseRowItem getMediaItem(int pos) {
-        return (pos >= 0 && mCurrentMediaAdapter != null && mCurrentMediaAdapter.size() > pos) ? (BaseRowItem) mCurrentMediaAdapter.get(pos) : null;
+        // positions of a grid that jumped ahead may not be loaded yet
+        return (pos >= 0 && mCurrentMediaAdapter != null && mCurrentMediaAdapter.size() > pos && mCurrentMediaAdapter.get(pos) instanceof BaseRowItem) ? (BaseRowItem) mCurrentMediaAdapter.get(pos) : null;
     }
 
     public BaseRowItem getCurrentMediaItem() { return getMediaItem(mCurrentMediaPosition); }
@@ -48,7 +48,6 @@ import org.jellyfin.apiclient.model.entities.MediaStream;
 import org.jellyfin.apiclient.model.entities.MediaStreamType;
 import org.jellyfin.apiclient.model.library.PlayAccess;
 import org.jellyfin.apiclient.model.livetv.ChannelInfoDto;
-import org.jellyfin.apiclient.model.mediainfo.SubtitleTrackInfo;
 import org.jellyfin.apiclient.model.session.PlayMethod;
 import org.koin.java.KoinJavaComponent;
 
@@ -80,6 +79,7 @@ public class PlaybackController implements PlaybackControllerNotifiable {
 
     private StreamInfo mCurrentStreamInfo;
     private List<SubtitleStreamInfo> mSubtitleStreams;
+    private final SubtitleTimelineLoader subtitleLoader = new SubtitleTimelineLoader();
 
     @Nullable
     private CustomPlaybackOverlayFragment mFragment;
@@ -301,6 +301,9 @@ public class PlaybackController implements PlaybackControllerNotifiable {
     public void playerErrorEncountered() {
         if (isNativeMode()) exoErrorEncountered = true;
         else vlcErrorEncountered = true;
+        // don't retry with a remembered negotiation
+        BaseItemDto item = getCurrentlyPlayingItem();
+        if (item != null) playbackManager.getValue().invalidateVideoStreamInfo(item.getId());
 
         // reset the retry count if it's been more than 30s since previous error
         if (playbackRetries > 0 && System.currentTimeMillis() - lastPlaybackError > 30000) {
@@ -684,89 +687,123 @@ public class PlaybackController implements PlaybackControllerNotifiable {
 
             }
         } else {
-            // Get playback info for each player and then decide on which one to use
-            playbackManager.getValue().getVideoStreamInfo(api.getValue().getDeviceInfo(), vlcOptions, position * 10000, apiClient.getValue(), new Response<StreamInfo>() {
-                @Override
-                public void onResponse(final StreamInfo vlcResponse) {
-                    Timber.i("VLC would %s", vlcResponse.getPlayMethod().equals(PlayMethod.Transcode) ? "transcode" : "direct stream");
-                    playbackManager.getValue().getVideoStreamInfo(api.getValue().getDeviceInfo(), internalOptions, position * 10000, apiClient.getValue(), new Response<StreamInfo>() {
-                        @Override
-                        public void onResponse(StreamInfo internalResponse) {
-                            Timber.i("Internal player would %s", internalResponse.getPlayMethod().equals(PlayMethod.Transcode) ? "transcode" : "direct stream");
-                            boolean useDeinterlacing = vlcResponse.getMediaSource().getVideoStream() != null &&
-                                    vlcResponse.getMediaSource().getVideoStream().getIsInterlaced() &&
-                                    (vlcResponse.getMediaSource().getVideoStream().getWidth() == null ||
-                                            vlcResponse.getMediaSource().getVideoStream().getWidth() > 1200);
-                            Timber.i(useDeinterlacing ? "Explicit deinterlacing will be used" : "Explicit deinterlacing will NOT be used");
-
-                            PreferredVideoPlayer preferredVideoPlayer = userPreferences.getValue().get(UserPreferences.Companion.getVideoPlayer());
-
-                            Timber.i("User preferred player is: %s", preferredVideoPlayer);
-
-                            if (preferredVideoPlayer == PreferredVideoPlayer.VLC) {
-                                // Force VLC
-                                useVlc = true;
-                            } else if (preferredVideoPlayer == PreferredVideoPlayer.EXOPLAYER) {
-                                // Make sure to not use VLC
-                                useVlc = false;
-                            } else if (preferredVideoPlayer == PreferredVideoPlayer.AUTO) {
-                                // TODO: Clean up this logic
-                                // Now look at both responses and choose the one that direct plays or bitstreams - favor VLC
-                                useVlc = !vlcErrorEncountered &&
-                                        !vlcResponse.getPlayMethod().equals(PlayMethod.Transcode) &&
-                                        (DeviceUtils.is60() ||
-                                                !userPreferences.getValue().get(UserPreferences.Companion.getAc3Enabled()) ||
-                                                vlcResponse.getMediaSource() == null ||
-                                                vlcResponse.getMediaSource().getDefaultAudioStream() == null ||
-                                                (!"ac3".equals(vlcResponse.getMediaSource().getDefaultAudioStream().getCodec()) &&
-                                                        !"truehd".equals(vlcResponse.getMediaSource().getDefaultAudioStream().getCodec()))) &&
-                                        (Utils.downMixAudio(mFragment.getContext()) ||
-                                                !DeviceUtils.is60() ||
-                                                internalResponse.getPlayMethod().equals(PlayMethod.Transcode) ||
-                                                !userPreferences.getValue().get(UserPreferences.Companion.getDtsEnabled()) ||
-                                                internalResponse.getMediaSource() == null ||
-                                                internalResponse.getMediaSource().getDefaultAudioStream() == null ||
-                                                (vlcResponse.getMediaSource().getVideoStream() != null && vlcResponse.getMediaSource().getVideoStream().getWidth() < 1000));
-                            } else if (preferredVideoPlayer == PreferredVideoPlayer.CHOOSE) {
-                                PreferredVideoPlayer preferredVideoPlayerByPlayWith = systemPreferences.getValue().get(SystemPreferences.Companion.getChosenPlayer());
-
-                                useVlc = preferredVideoPlayerByPlayWith == PreferredVideoPlayer.VLC;
-
-                                Timber.i("PREFERRED PLAYER %s", preferredVideoPlayerByPlayWith.name());
-                            }
+            // Get playback info for both players at once and then decide on which one to use
+            final StreamInfo[] responses = new StreamInfo[2];
+            final Exception[] errors = new Exception[2];
+            final int[] remaining = {2};
+            final Runnable onBothResponses = () -> {
+                if (errors[0] != null) {
+                    handlePlaybackInfoError(errors[0]);
+                } else if (errors[1] != null) {
+                    onStreamInfoFallback(item, position, vlcOptions, responses[0], errors[1]);
+                } else {
+                    onStreamInfos(item, position, vlcOptions, internalOptions, responses[0], responses[1]);
+                }
+            };
+            final VideoOptions[] options = {vlcOptions, internalOptions};
+            for (int i = 0; i < options.length; i++) {
+                final int player = i;
+                playbackManager.getValue().getCachedVideoStreamInfo(api.getValue().getDeviceInfo(), options[player], position * 10000, apiClient.getValue(), new Response<StreamInfo>() {
+                    @Override
+                    public void onResponse(StreamInfo response) {
+                        responses[player] = response;
+                        if (--remaining[0] == 0) onBothResponses.run();
+                    }
 
-                            Timber.i(useVlc ? "Preferring VLC" : "Will use internal player");
-                            if (mVideoManager == null)
-                                return;
-                            mVideoManager.init(getBufferAmount(), useDeinterlacing);
-                            mCurrentOptions = useVlc ? vlcOptions : internalOptions;
-                            startItem(item, position, useVlc ? vlcResponse : internalResponse);
-                        }
+                    @Override
+                    public void onError(Exception exception) {
+                        errors[player] = exception;
+                        if (--remaining[0] == 0) onBothResponses.run();
+                    }
+                });
+            }
+        }
+    }
 
-                        @Override
-                        public void onError(Exception exception) {
-                            Timber.e(exception, "Unable to get stream info for internal player - falling back to libVLC");
-                            if (mVideoManager == null)
-                                return;
+    private void onStreamInfos(BaseItemDto item, Long position, VideoOptions vlcOptions, VideoOptions internalOptions, StreamInfo vlcResponse, StreamInfo internalResponse) {
+        Timber.i("VLC would %s", vlcResponse.getPlayMethod().equals(PlayMethod.Transcode) ? "transcode" : "direct stream");
+        Timber.i("Internal player would %s", internalResponse.getPlayMethod().equals(PlayMethod.Transcode) ? "transcode" : "direct stream");
+        boolean useDeinterlacing = vlcResponse.getMediaSource().getVideoStream() != null &&
+                vlcResponse.getMediaSource().getVideoStream().getIsInterlaced() &&
+                (vlcResponse.getMediaSource().getVideoStream().getWidth() == null ||
+                        vlcResponse.getMediaSource().getVideoStream().getWidth() > 1200);
+        Timber.i(useDeinterlacing ? "Explicit deinterlacing will be used" : "Explicit deinterlacing will NOT be used");
+
+        PreferredVideoPlayer preferredVideoPlayer = userPreferences.getValue().get(UserPreferences.Companion.getVideoPlayer());
+
+        Timber.i("User preferred player is: %s", preferredVideoPlayer);
+
+        if (preferredVideoPlayer == PreferredVideoPlayer.VLC) {
+            // Force VLC
+            useVlc = true;
+        } else if (preferredVideoPlayer == PreferredVideoPlayer.EXOPLAYER) {
+            // Make sure to not use VLC
+            useVlc = false;
+        } else if (preferredVideoPlayer == PreferredVideoPlayer.AUTO) {
+            // TODO: Clean up this logic
+            // Now look at both responses and choose the one that direct plays or bitstreams - favor VLC
+            useVlc = !vlcErrorEncountered &&
+                    !vlcResponse.getPlayMethod().equals(PlayMethod.Transcode) &&
+                    (DeviceUtils.is60() ||
+                            !userPreferences.getValue().get(UserPreferences.Companion.getAc3Enabled()) ||
+                            vlcResponse.getMediaSource() == null ||
+                            vlcResponse.getMediaSource().getDefaultAudioStream() == null ||
+                            (!"ac3".equals(vlcResponse.getMediaSource().getDefaultAudioStream().getCodec()) &&
+                                    !"truehd".equals(vlcResponse.getMediaSource().getDefaultAudioStream().getCodec()))) &&
+                    (Utils.downMixAudio(mFragment.getContext()) ||
+                            !DeviceUtils.is60() ||
+                            internalResponse.getPlayMethod().equals(PlayMethod.Transcode) ||
+                            !userPreferences.getValue().get(UserPreferences.Companion.getDtsEnabled()) ||
+                            internalResponse.getMediaSource() == null ||
+                            internalResponse.getMediaSource().getDefaultAudioStream() == null ||
+                            (vlcResponse.getMediaSource().getVideoStream() != null && vlcResponse.getMediaSource().getVideoStream().getWidth() < 1000));
+        } else if (preferredVideoPlayer == PreferredVideoPlayer.CHOOSE) {
+            PreferredVideoPlayer preferredVideoPlayerByPlayWith = systemPreferences.getValue().get(SystemPreferences.Companion.getChosenPlayer());
+
+            useVlc = preferredVideoPlayerByPlayWith == PreferredVideoPlayer.VLC;
+
+            Timber.i("PREFERRED PLAYER %s", preferredVideoPlayerByPlayWith.name());
+        }
 
-                            boolean useDeinterlacing = vlcResponse.getMediaSource().getVideoStream() != null &&
-                                    vlcResponse.getMediaSource().getVideoStream().getIsInterlaced() &&
-                                    (vlcResponse.getMediaSource().getVideoStream().getWidth() == null ||
-                                            vlcResponse.getMediaSource().getVideoStream().getWidth() > 1200);
+        Timber.i(useVlc ? "Preferring VLC" : "Will use internal player");
+        if (mVideoManager == null)
+            return;
+        mVideoManager.init(getBufferAmount(), useDeinterlacing);
+        mCurrentOptions = useVlc ? vlcOptions : internalOptions;
+        startItem(item, position, useVlc ? vlcResponse : internalResponse);
+        prefetchNextStreamInfo();
+    }
 
-                            mVideoManager.init(getBufferAmount(), useDeinterlacing);
-                            mCurrentOptions = vlcOptions;
-                            startItem(item, position, vlcResponse);
-                        }
-                    });
+    private void onStreamInfoFallback(BaseItemDto item, Long position, VideoOptions vlcOptions, StreamInfo vlcResponse, Exception exception) {
+        Timber.e(exception, "Unable to get stream info for internal player - falling back to libVLC");
+        if (mVideoManager == null)
+            return;
 
-                }
+        boolean useDeinterlacing = vlcResponse.getMediaSource().getVideoStream() != null &&
+                vlcResponse.getMediaSource().getVideoStream().getIsInterlaced() &&
+                (vlcResponse.getMediaSource().getVideoStream().getWidth() == null ||
+                        vlcResponse.getMediaSource().getVideoStream().getWidth() > 1200);
 
-                @Override
-                public void onError(Exception exception) {
-                    handlePlaybackInfoError(exception);
-                }
-            });
+        mVideoManager.init(getBufferAmount(), useDeinterlacing);
+        mCurrentOptions = vlcOptions;
+        startItem(item, position, vlcResponse);
+    }
+
+    /**
+     * Negotiate the playback info of the next queued item, so it starts without waiting for the server.
+     */
+    private void prefetchNextStreamInfo() {
+        BaseItemDto nextItem = getNextItem();
+        if (nextItem == null || mFragment == null
+                || nextItem.getBaseItemType() == BaseItemType.TvChannel
+                || nextItem.getLocationType() == LocationType.Virtual
+                || nextItem.getPlayAccess() != PlayAccess.Full) {
+            return;
+        }
+
+        int maxBitrate = Utils.getMaxBitrate();
+        for (VideoOptions options : new VideoOptions[]{buildVLCOptions(null, nextItem, maxBitrate, null), buildExoPlayerOptions(null, nextItem, maxBitrate, null)}) {
+            playbackManager.getValue().prefetchVideoStreamInfo(api.getValue().getDeviceInfo(), options, 0L, apiClient.getValue());
         }
     }
 
@@ -998,6 +1035,7 @@ public class PlaybackController implements PlaybackControllerNotifiable {
         Timber.d("Setting subtitle index to: %d", index);
 
         // clear subtitles first
+        subtitleLoader.cancel();
         if (mFragment != null) mFragment.addManualSubtitles(null);
         mVideoManager.disableSubs();
         // clear the default in case there's an error loading the subtitles
@@ -1068,34 +1106,35 @@ public class PlaybackController implements PlaybackControllerNotifiable {
                                 String.valueOf(stream.getIndex())
                         )
                 );
-                apiClient.getValue().getSubtitles(stream.getDeliveryUrl(), new Response<SubtitleTrackInfo>() {
+                subtitleLoader.load(stream.getDeliveryUrl(), apiClient.getValue().getAccessToken(), new SubtitleTimelineLoader.Listener() {
+                    @Override
+                    public void onCuesAvailable(@NonNull SubtitleTimeline timeline) {
+                        Timber.d("Adding json subtitle track to player");
+                        if (mFragment != null) mFragment.addManualSubtitles(timeline);
+                        mCurrentOptions.setSubtitleStreamIndex(index);
+                        mDefaultSubIndex = index;
+                    }
 
                     @Override
-                    public void onResponse(final SubtitleTrackInfo info) {
-
-                        if (info != null) {
-                            Timber.d("Adding json subtitle track to player");
-                            if (mFragment != null) mFragment.addManualSubtitles(info);
-                            mCurrentOptions.setSubtitleStreamIndex(index);
-                            mDefaultSubIndex = index;
-                        } else {
-                            Timber.e("Empty subtitle result");
+                    public void onComplete(@NonNull SubtitleTimeline timeline) {
+                        // nothing was handed to the fragment, only drop the previous track
+                        if (timeline.getSize() == 0) {
+                            Timber.w("Empty subtitle result");
                             if (mFragment != null) {
-                                Utils.showToast(mFragment.getContext(), mFragment.getString(R.string.msg_unable_load_subs));
+                                mFragment.addManualSubtitles(null);
                                 mFragment.showSubLoadingMsg(false);
                             }
                         }
                     }
 
                     @Override
-                    public void onError(Exception ex) {
+                    public void onError(@NonNull Exception ex) {
                         Timber.e(ex, "Error downloading subtitles");
                         if (mFragment != null) {
                             Utils.showToast(mFragment.getContext(), mFragment.getString(R.string.msg_unable_load_subs));
                             mFragment.showSubLoadingMsg(false);
                         }
                     }
-
                 });
                 break;
             case Hls:
@@ -1162,6 +1201,7 @@ public class PlaybackController implements PlaybackControllerNotifiable {
     public void endPlayback(Boolean closeActivity) {
         if (closeActivity) mFragment.getActivity().finish();
         stop();
+        subtitleLoader.cancel();
         if (mVideoManager != null)
             mVideoManager.destroy();
         mFragment = null;
@@ -5,15 +5,11 @@ import org.jellyfin.androidtv.data.compat.PlaybackException;
 import org.jellyfin.androidtv.data.compat.StreamInfo;
 import org.jellyfin.androidtv.data.compat.VideoOptions;
 import org.jellyfin.apiclient.interaction.ApiClient;
-import org.jellyfin.apiclient.interaction.EmptyResponse;
 import org.jellyfin.apiclient.interaction.Response;
+import org.jellyfin.apiclient.model.apiclient.ServerInfo;
 import org.jellyfin.apiclient.model.dlna.PlaybackErrorCode;
-import org.jellyfin.apiclient.model.dto.MediaSourceInfo;
 import org.jellyfin.apiclient.model.entities.MediaStream;
 import org.jellyfin.apiclient.model.mediainfo.PlaybackInfoRequest;
-import org.jellyfin.apiclient.model.session.PlaybackProgressInfo;
-import org.jellyfin.apiclient.model.session.PlaybackStartInfo;
-import org.jellyfin.apiclient.model.session.PlaybackStopInfo;
 import org.jellyfin.sdk.model.DeviceInfo;
 
 import java.util.ArrayList;
@@ -26,9 +22,11 @@ import java.util.ArrayList;
 @Deprecated
 public class PlaybackManager {
     private final org.jellyfin.sdk.api.client.ApiClient api;
+    private final StreamInfoCache streamInfoCache;
 
-    public PlaybackManager(org.jellyfin.sdk.api.client.ApiClient api) {
+    public PlaybackManager(org.jellyfin.sdk.api.client.ApiClient api, StreamInfoCache streamInfoCache) {
         this.api = api;
+        this.streamInfoCache = streamInfoCache;
     }
 
     public ArrayList<MediaStream> getInPlaybackSelectableAudioStreams(StreamInfo info) {
@@ -63,6 +61,19 @@ public class PlaybackManager {
         apiClient.GetPlaybackInfoWithPost(request, new GetPlaybackInfoResponse(this, deviceInfo, apiClient, options, response, false, startPositionTicks));
     }
 
+    /**
+     * Same as {@link #getAudioStreamInfo} but reuses results of earlier or prefetched negotiations.
+     */
+    public void getCachedAudioStreamInfo(DeviceInfo deviceInfo, AudioOptions options, Long startPositionTicks, ApiClient apiClient, Response<StreamInfo> response) {
+        streamInfoCache.get(fingerprint(options, apiClient), startPositionTicks,
+                loaderResponse -> getAudioStreamInfo(deviceInfo, options, startPositionTicks, apiClient, loaderResponse), response);
+    }
+
+    public void prefetchAudioStreamInfo(DeviceInfo deviceInfo, AudioOptions options, Long startPositionTicks, ApiClient apiClient) {
+        streamInfoCache.prefetch(fingerprint(options, apiClient), startPositionTicks,
+                loaderResponse -> getAudioStreamInfo(deviceInfo, options, startPositionTicks, apiClient, loaderResponse));
+    }
+
     public void getVideoStreamInfo(DeviceInfo deviceInfo, final VideoOptions options, Long startPositionTicks, ApiClient apiClient, final Response<StreamInfo> response) {
         PlaybackInfoRequest request = new PlaybackInfoRequest();
         request.setId(options.getItemId());
@@ -91,37 +102,32 @@ public class PlaybackManager {
 
     }
 
-    public void changeVideoStream(final StreamInfo currentStreamInfo, DeviceInfo deviceInfo, final VideoOptions options, Long startPositionTicks, ApiClient apiClient, final Response<StreamInfo> response) {
-        String playSessionId = currentStreamInfo.getPlaySessionId();
-
-        apiClient.StopTranscodingProcesses(api.getDeviceInfo().getId(), playSessionId, new StopTranscodingResponse(this, deviceInfo, options, startPositionTicks, apiClient, response));
+    /**
+     * Same as {@link #getVideoStreamInfo} but reuses results of earlier or prefetched negotiations.
+     */
+    public void getCachedVideoStreamInfo(DeviceInfo deviceInfo, final VideoOptions options, Long startPositionTicks, ApiClient apiClient, final Response<StreamInfo> response) {
+        streamInfoCache.get(fingerprint(options, apiClient), startPositionTicks,
+                loaderResponse -> getVideoStreamInfo(deviceInfo, options, startPositionTicks, apiClient, loaderResponse), response);
     }
 
-    public void reportPlaybackStart(PlaybackStartInfo info, ApiClient apiClient, EmptyResponse response) {
-        apiClient.ReportPlaybackStartAsync(info, response);
+    public void prefetchVideoStreamInfo(DeviceInfo deviceInfo, final VideoOptions options, Long startPositionTicks, ApiClient apiClient) {
+        streamInfoCache.prefetch(fingerprint(options, apiClient), startPositionTicks,
+                loaderResponse -> getVideoStreamInfo(deviceInfo, options, startPositionTicks, apiClient, loaderResponse));
     }
 
-    public void reportPlaybackProgress(PlaybackProgressInfo info, final StreamInfo streamInfo, ApiClient apiClient, EmptyResponse response) {
-        MediaSourceInfo mediaSource = streamInfo.getMediaSource();
-
-        if (mediaSource != null) {
-            info.setLiveStreamId(mediaSource.getLiveStreamId());
-        }
-
-        info.setPlaySessionId(streamInfo.getPlaySessionId());
-
-        apiClient.ReportPlaybackProgressAsync(info, response);
+    private String fingerprint(AudioOptions options, ApiClient apiClient) {
+        ServerInfo serverInfo = apiClient.getServerInfo();
+        String serverId = serverInfo != null && serverInfo.getId() != null ? serverInfo.getId() : apiClient.getServerAddress();
+        return streamInfoCache.fingerprint(options, apiClient.getCurrentUserId(), serverId);
     }
 
-    public void reportPlaybackStopped(PlaybackStopInfo info, final StreamInfo streamInfo, final ApiClient apiClient, final EmptyResponse response) {
-        MediaSourceInfo mediaSource = streamInfo.getMediaSource();
-
-        if (mediaSource != null) {
-            info.setLiveStreamId(mediaSource.getLiveStreamId());
-        }
+    public void invalidateVideoStreamInfo(String itemId) {
+        streamInfoCache.invalidate(itemId);
+    }
 
-        info.setPlaySessionId(streamInfo.getPlaySessionId());
+    public void changeVideoStream(final StreamInfo currentStreamInfo, DeviceInfo deviceInfo, final VideoOptions options, Long startPositionTicks, ApiClient apiClient, final Response<StreamInfo> response) {
+        String playSessionId = currentStreamInfo.getPlaySessionId();
 
-        apiClient.ReportPlaybackStoppedAsync(info, response);
+        apiClient.StopTranscodingProcesses(api.getDeviceInfo().getId(), playSessionId, new StopTranscodingResponse(this, deviceInfo, options, startPositionTicks, apiClient, response));
     }
 }
@@ -4,11 +4,6 @@ import static org.jellyfin.androidtv.ui.playback.PlayerApiHelpers.API_ZIDOO_HTTP
 import static org.jellyfin.androidtv.ui.playback.PlayerApiHelpers.API_ZIDOO_HTTP_API_VIDEOPLAY_STATUS_PAUSE;
 import static org.jellyfin.androidtv.ui.playback.PlayerApiHelpers.API_ZIDOO_HTTP_API_VIDEOPLAY_STATUS_PLAYING;
 import static org.jellyfin.androidtv.ui.playback.PlayerApiHelpers.SUBTITLE_DISABLED;
-import static org.jellyfin.androidtv.ui.playback.PlayerApiHelpers.getFromTmdbHttp_API;
-import static org.jellyfin.androidtv.ui.playback.PlayerApiHelpers.getZidooPlayStatusEx;
-import static org.jellyfin.androidtv.ui.playback.PlayerApiHelpers.setZidooAudioTrack;
-import static org.jellyfin.androidtv.ui.playback.PlayerApiHelpers.setZidooSeekPosition;
-import static org.jellyfin.androidtv.ui.playback.PlayerApiHelpers.setZidooSubtitleTrack;
 import static org.jellyfin.androidtv.util.AudioSubtitleHelper.getBestAudioSubtitleIdx;
 import static org.jellyfin.androidtv.util.Utils.RUNTIME_TICKS_TO_MS;
 import static org.jellyfin.androidtv.util.Utils.getMillisecondsFormated;
@@ -35,13 +30,8 @@ import org.jellyfin.apiclient.model.dto.BaseItemDto;
 import org.jellyfin.apiclient.model.dto.BaseItemType;
 import org.jellyfin.apiclient.model.entities.MediaStream;
 import org.jellyfin.apiclient.model.session.PlayMethod;
-import org.json.JSONArray;
-import org.json.JSONException;
-import org.json.JSONObject;
 import org.koin.java.KoinJavaComponent;
 
-import java.util.Map;
-
 import kotlin.Lazy;
 import timber.log.Timber;
 
@@ -100,107 +90,6 @@ abstract class PlayerTask implements Runnable {
     }
 }
 
-//class MountTask extends PlayerTask {
-//    final Response<String> mCallback;
-//    final String mInputPath;
-//    String mShareName;
-//    String mServerHostName;
-//    String mUserName;
-//    String mPassword;
-//    String mMountPath;
-//    String mRelativePath;
-//    boolean isNfs;
-//
-//    public MountTask(@NonNull final Activity activity, @NonNull Uri pathUri, @NonNull final Response<String> callback) {
-//        super(activity);
-//        mCallback = callback;
-//        mMountPath = null;
-//        mShareName = null;
-//        mServerHostName = null;
-//        mUserName = null;
-//        mPassword = null;
-//        mRelativePath = null;
-//
-//        mInputPath = pathUri.getPath();
-//        if (isNonEmptyTrim(pathUri.getHost())) {
-//            mServerHostName = pathUri.getHost();
-//        }
-//        Timber.d("MountTask with host <%s> path <%s>", mServerHostName, mInputPath);
-//        if ("smb".equals(pathUri.getScheme()) && isNonEmptyTrim(mInputPath)) {
-//            if (isNonEmpty(pathUri.getPathSegments())) {
-//                mShareName = pathUri.getPathSegments().get(0);
-//            }
-//            mRelativePath = mInputPath.replaceFirst("/" + mShareName,""); // FIXME needs tobe the first / anchor?
-//            Pair<String, String> smbUserPass = getSmbUserPass(pathUri);
-//            mUserName = smbUserPass.first;
-//            mPassword = smbUserPass.second;
-//            Timber.d("MountTask using SMB username <%s>", mUserName);
-//            if (mPassword != null) {
-//                Timber.d("MountTask using SMB password <*******>");
-//            }
-//        } else if ("nfs".equals(pathUri.getScheme()) && isNonEmptyTrim(mInputPath)) {
-//            isNfs = true;
-//            Pair<String, String> nfsRootShare = getNfsRoot(pathUri);
-//            mShareName = nfsRootShare.second;
-//            mRelativePath = mInputPath.replace("/:", ""); // remove old NFS marker
-//            mRelativePath = mRelativePath.replaceFirst("/" + nfsRootShare.second,""); // FIXME needs tobe the first / anchor?
-//        }
-//        if (mServerHostName == null || mShareName == null) {
-//            Timber.e("MountTask invalid HostName/ShareName, ending!");
-//            finishTask(false);
-//        } else {
-//            post(this, 0);
-//        }
-//    }
-//
-//    private void handleCallback() {
-//        if (isNonEmptyTrim(mMountPath)) {
-//            Timber.d("Using mountPath <%s> rPath <%s>", mMountPath, mRelativePath);
-//            mCallback.onResponse(mMountPath + mRelativePath);
-//        } else {
-//            mCallback.onResponse(null);
-//        }
-//    }
-//
-//    @Override
-//    protected void finishTask(boolean isReset) {
-//        if (!mIsFinished) {
-//            super.finishTask(isReset);
-//            if (!isReset) {
-//                mActivity.runOnUiThread(this::handleCallback); // run in Ui thread!
-//            }
-//        }
-//    }
-//
-//    @Override
-//    public void run() {
-//        String ip = mServerHostName;
-//        try {
-//            // NOTE: new API has no hostname support
-//            Address addr = jcifs.context.SingletonContext.getInstance().getNameServiceClient().getByName(mServerHostName);
-//            ip = addr.getHostAddress();
-//        } catch (Exception ignored) {
-//        } finally {
-//            try {
-//                jcifs.context.SingletonContext.getInstance().close();
-//            } catch (CIFSException ignored) {
-//            }
-//        }
-//
-//        ZEMountManage mZEMountManage = new ZEMountManage(mActivity);
-//        if (isNfs) {
-//            Timber.i("MountTask NFS using Host-IP <%s> Share <%s>", ip, mShareName);
-//            mMountPath = mZEMountManage.mountNfs(mShareName, ip);
-//        } else {
-//            Timber.i("MountTask SMB using Host-IP <%s> Share <%s> User <%s>", ip, mShareName, mUserName);
-//            mMountPath = mZEMountManage.mountSmb(mShareName, ip, mUserName, mPassword);
-//        }
-//        //callback mount  AbsolutePath
-//        //  as: /data/system/smb/192.168.11.106#zidoo
-//        finishTask(false);
-//    }
-//}
-
 class TmdbTask extends PlayerTask {
     static final long MAX_TMDB_TASK_TIME_MS = 10000;
     final public long mActivityStartTime;
@@ -208,6 +97,7 @@ class TmdbTask extends PlayerTask {
     final public BaseItemDto mItem;
     private String mOriginalLanguageTmdb;
     private final Runnable mCallback;
+    private final Lazy<TmdbLanguageCache> tmdbLanguageCache = inject(TmdbLanguageCache.class);
 
     public TmdbTask(@NonNull final Activity activity, @NonNull BaseItemDto item, @NonNull final Runnable callback) {
         super(activity);
@@ -248,16 +138,21 @@ class TmdbTask extends PlayerTask {
         if (mParentItem != null) {
             checkItem = mParentItem;
         }
-        if (checkItem.getBaseItemType() == BaseItemType.Episode && isNonEmptyTrim(checkItem.getSeriesId())) {
+        TmdbLanguageCache languageCache = tmdbLanguageCache.getValue();
+        if (languageCache.canResolve(checkItem)) {
+            // served from cache if warm
+            mOriginalLanguageTmdb = languageCache.get(checkItem);
+            finishTask(false);
+        } else if (checkItem.getBaseItemType() == BaseItemType.Episode && isNonEmptyTrim(checkItem.getSeriesId())) {
             apiClient.getValue().GetItemAsync(checkItem.getSeriesId(), KoinJavaComponent.<UserRepository>get(UserRepository.class).getCurrentUser().getValue().getId().toString(), new Response<BaseItemDto>() {
                 // NOTE: this runs in mainThread!
                 @Override
                 public void onResponse(BaseItemDto response) {
-                    if (response.getBaseItemType() == BaseItemType.Series && response.getProviderIds() != null) {
-                        if (response.getProviderIds().containsKey("Tmdb") || response.getProviderIds().containsKey("Tvdb")) {
-                            mParentItem = response;
-                            post(TmdbTask.this, 0);
-                        }
+                    if (response.getBaseItemType() == BaseItemType.Series && languageCache.canResolve(response)) {
+                        mParentItem = response;
+                        post(TmdbTask.this, 0);
+                    } else {
+                        finishTask(false);
                     }
                 }
                 @Override
@@ -265,34 +160,6 @@ class TmdbTask extends PlayerTask {
                     finishTask(false);
                 }
             });
-        } else if (checkItem.getBaseItemType() == BaseItemType.Movie && checkItem.getProviderIds() != null && checkItem.getProviderIds().containsKey("Tmdb")) {
-            JSONObject tmdb_obj = getFromTmdbHttp_API("movie", checkItem.getProviderIds().get("Tmdb"), null, null);
-            if (tmdb_obj != null && tmdb_obj.has("original_language")) {
-                mOriginalLanguageTmdb = tmdb_obj.optString("original_language");
-            }
-            finishTask(false);
-        } else if (checkItem.getBaseItemType() == BaseItemType.Series && checkItem.getProviderIds() != null) {
-            if (checkItem.getProviderIds().containsKey("Tmdb")) {
-                JSONObject tmdb_obj = getFromTmdbHttp_API("tv", checkItem.getProviderIds().get("Tmdb"), null, null);
-                if (tmdb_obj != null && tmdb_obj.has("original_language")) {
-                    mOriginalLanguageTmdb = tmdb_obj.optString("original_language");
-                }
-            } else if (checkItem.getProviderIds().containsKey("Tvdb")) {
-                JSONObject tmdb_find_obj = getFromTmdbHttp_API("find", checkItem.getProviderIds().get("Tvdb"), "external_source=tvdb_id", null);
-                if (tmdb_find_obj != null && tmdb_find_obj.has("tv_results")) {
-                    try {
-                        JSONArray tv_results = tmdb_find_obj.getJSONArray("tv_results");
-                        if (tv_results.length() > 0 && tv_results.getJSONObject(0) != null) {
-                            JSONObject tv_results_entry = tv_results.getJSONObject(0);
-                            if (tv_results_entry != null && tv_results_entry.has("original_language")) {
-                                mOriginalLanguageTmdb = tv_results_entry.optString("original_language");
-                            }
-                        }
-                    } catch (JSONException ignored) {
-                    }
-                }
-            }
-            finishTask(false);
         } else {
             finishTask(false);
         }
@@ -330,9 +197,14 @@ abstract class ZidooTask extends PlayerTask {
     protected PlayMethod mPlayMethod;
     protected int mPlayStatus;
     protected String mTmdbOrgLang;
+    protected int mNextPollDelay;
+    final protected ZidooPlaybackTracker mTracker;
+    final protected Lazy<ZidooApiClient> zidooApiClient = inject(ZidooApiClient.class);
 
-    public ZidooTask(@NonNull final Activity activity, @NonNull AudioSubtitleHelper.AudioSubPref prefs, @NonNull BaseItemDto item, @NonNull StreamInfo streamInfo, int taskDelay) {
+    public ZidooTask(@NonNull final Activity activity, @NonNull ZidooPlaybackTracker tracker, @NonNull AudioSubtitleHelper.AudioSubPref prefs, @NonNull BaseItemDto item, @NonNull StreamInfo streamInfo, int taskDelay) {
         super(activity);
+        mTracker = tracker;
+        mNextPollDelay = ZidooPlaybackTracker.FAST_POLL_INTERVAL;
         mPrefs = prefs;
         mItem = item;
         mCurrentAudioIdx = null;
@@ -347,36 +219,32 @@ abstract class ZidooTask extends PlayerTask {
         post(this, taskDelay); // startup
     }
 
-    public void SetTmdbLang(@Nullable TmdbTask tmdbTask) {
-        if (tmdbTask != null) {
-            mTmdbOrgLang = tmdbTask.getOriginalLanguage(mItem.getId(), mItem.getSeriesId());
-        }
+    public void SetTmdbLang(@Nullable String orgLang) {
+        mTmdbOrgLang = orgLang;
     }
 
     protected boolean updatePlayStatus() {
-        mPlayStatus = API_ZIDOO_HTTP_API_VIDEOPLAY_STATUS_ERROR;
-        Map<String, Integer> statusMap = getZidooPlayStatusEx();
-        Integer status = statusMap.getOrDefault("status", API_ZIDOO_HTTP_API_VIDEOPLAY_STATUS_ERROR);
-        if (status != null) {
-            mPlayStatus = status;
-        }
-        if (mPlayStatus >= API_ZIDOO_HTTP_API_VIDEOPLAY_STATUS_PAUSE) {
-            // keep old values?
+        mNextPollDelay = mTracker.update(zidooApiClient.getValue().getPlayStatus(), System.currentTimeMillis());
+        ZidooPlaybackState state = mTracker.getState().getValue();
+        mPlayStatus = state.getStatus();
+        if (state.isActive()) {
+            // tracker keeps old values, if not reported
             if (mPlayMethod != PlayMethod.Transcode) {
-                mPlayPos = statusMap.getOrDefault("currentPosition", mPlayPos);
+                mPlayPos = state.getPosition();
             }
-            mCurrentAudioIdx = statusMap.getOrDefault("audio_index", mCurrentAudioIdx);
-            mCurrentSubIdx = statusMap.getOrDefault("subtitle_index", mCurrentSubIdx);
-            mZidooIdentifierHash = statusMap.getOrDefault("id_hash", mZidooIdentifierHash);
+            mCurrentAudioIdx = state.getAudioIndex();
+            mCurrentSubIdx = state.getSubtitleIndex();
+            mZidooIdentifierHash = state.getIdHash();
         }
-        return (mPlayStatus >= API_ZIDOO_HTTP_API_VIDEOPLAY_STATUS_PAUSE);
+        return state.isActive();
     }
 
     protected void setSeekPos(int seekPos) {
         if (seekPos > 0 && mPlayPos != null) { // TODO handle 0 startPos for old API?
             int delta = Math.abs(mPlayPos - seekPos);
             if (delta > API_ZIDOO_SEEKPOS_DELTA) {
-                if (setZidooSeekPosition(seekPos)) {
+                if (zidooApiClient.getValue().seekTo(seekPos)) {
+                    mNextPollDelay = Math.min(mNextPollDelay, mTracker.expectChange());
                     Timber.d("setSeekPos success <%s>", getMillisecondsFormated(seekPos));
                 } else {
                     Timber.e("setSeekPos failed!");
@@ -402,14 +270,16 @@ abstract class ZidooTask extends PlayerTask {
         if (bestAudioSubIdxZidoo != null) {
             // handle audio/sub tracks
             if (bestAudioSubIdxZidoo.first != null && mCurrentAudioIdx != null && !bestAudioSubIdxZidoo.first.equals(mCurrentAudioIdx)) {
-                if (setZidooAudioTrack(this.bestAudioSubIdxZidoo.first)) {
+                if (zidooApiClient.getValue().setAudioTrack(bestAudioSubIdxZidoo.first)) {
+                    mNextPollDelay = Math.min(mNextPollDelay, mTracker.expectChange());
                     Timber.d("setZidooAudioTrack success <%s>", bestAudioSubIdxZidoo.first);
                 } else {
                     Timber.e("setZidooAudioTrack failed!");
                 }
             }
             if (this.bestAudioSubIdxZidoo.second != null && mCurrentSubIdx != null && !bestAudioSubIdxZidoo.second.equals(mCurrentSubIdx)) {
-                if (setZidooSubtitleTrack(bestAudioSubIdxZidoo.second)) {
+                if (zidooApiClient.getValue().setSubtitleTrack(bestAudioSubIdxZidoo.second)) {
+                    mNextPollDelay = Math.min(mNextPollDelay, mTracker.expectChange());
                     Timber.d("setZidooSubtitleTrack success <%s>", bestAudioSubIdxZidoo.second);
                 } else {
                     Timber.e("setZidooSubtitleTrack failed!");
@@ -478,8 +348,8 @@ class ZidooStartupTask extends ZidooTask {
     public boolean mZidooStartupOK;
     final private Runnable mCallback;
 
-    public ZidooStartupTask(@NonNull final Activity activity, @NonNull final AudioSubtitleHelper.AudioSubPref prefs, @NonNull BaseItemDto item, int seekPos, @NonNull StreamInfo streamInfo, int taskDelay, @NonNull final Runnable callback) {
-        super(activity, prefs, item, streamInfo, taskDelay);
+    public ZidooStartupTask(@NonNull final Activity activity, @NonNull ZidooPlaybackTracker tracker, @NonNull final AudioSubtitleHelper.AudioSubPref prefs, @NonNull BaseItemDto item, int seekPos, @NonNull StreamInfo streamInfo, int taskDelay, @NonNull final Runnable callback) {
+        super(activity, tracker, prefs, item, streamInfo, taskDelay);
         mSeekPos = seekPos;
         mZidooStartupOK = false;
         mCallback = callback;
@@ -530,15 +400,17 @@ class ZidooReportTask extends ZidooTask {
     public Pair<Integer, Integer> mInitialAudioSubIdx;
     public Pair<Integer, Integer> mFinishedAudioSubIdx;
     private boolean started;
+    private long mLastReportTime;
     final public int mSeekPos;
 
     public ZidooReportTask(@NonNull ZidooTask startupTask, int seekPos, int taskDelay) {
-        super(startupTask.mActivity, startupTask.mPrefs, startupTask.mItem, startupTask.mStreamInfo, taskDelay);
+        super(startupTask.mActivity, startupTask.mTracker, startupTask.mPrefs, startupTask.mItem, startupTask.mStreamInfo, taskDelay);
         mZidooIdentifierHashStartup = startupTask.mZidooIdentifierHashStartup;
         mZidooReportTaskErrorCount = 0;
         mInitialAudioSubIdx = null;
         mFinishedAudioSubIdx = null;
         started = false;
+        mLastReportTime = 0;
         mSeekPos = seekPos;
     }
 
@@ -556,15 +428,17 @@ class ZidooReportTask extends ZidooTask {
             }
         }
         if (started) {
-            if (mPlayStatus == API_ZIDOO_HTTP_API_VIDEOPLAY_STATUS_PLAYING) {
-                if (mInitialAudioSubIdx == null) {
-                    mInitialAudioSubIdx = new Pair<>(mCurrentAudioIdx, mCurrentSubIdx); // first set after API_ZIDOO_HTTP_API_REPORT_LOOP_INTERVAL ??
-                    Timber.d("ZidooReportTask Initial audioIdx: <%s> subTitleIdx: <%s>", mCurrentAudioIdx, mCurrentSubIdx);
-                }
-                if (mPlayMethod != PlayMethod.Transcode && mPlayPos != null && mPlayPos > 0) {
-                    ReportingHelper.reportProgress(null, mItem, mStreamInfo, (long) mPlayPos * RUNTIME_TICKS_TO_MS, false);
-                    Timber.d("ZidooReportTask reportProgress Status: <%s> Position: <%s> audioIdx: <%s> subIdx: <%s>", mPlayStatus, getMillisecondsFormated(mPlayPos), mCurrentAudioIdx, mCurrentSubIdx);
-                }
+            if (mPlayStatus == API_ZIDOO_HTTP_API_VIDEOPLAY_STATUS_PLAYING && mInitialAudioSubIdx == null) {
+                mInitialAudioSubIdx = new Pair<>(mCurrentAudioIdx, mCurrentSubIdx);
+                Timber.d("ZidooReportTask Initial audioIdx: <%s> subTitleIdx: <%s>", mCurrentAudioIdx, mCurrentSubIdx);
+            }
+            // report on state changes (seek, pause, track switch) and at least every report interval
+            long now = System.currentTimeMillis();
+            boolean reportDue = mTracker.getLastUpdateChanged() || now - mLastReportTime >= API_ZIDOO_HTTP_API_REPORT_LOOP_INTERVAL;
+            if (reportDue && mPlayStatus >= API_ZIDOO_HTTP_API_VIDEOPLAY_STATUS_PAUSE && mPlayMethod != PlayMethod.Transcode && mPlayPos != null && mPlayPos > 0) {
+                mLastReportTime = now;
+                ReportingHelper.reportProgress(null, mItem, mStreamInfo, (long) mPlayPos * RUNTIME_TICKS_TO_MS, mPlayStatus != API_ZIDOO_HTTP_API_VIDEOPLAY_STATUS_PLAYING);
+                Timber.d("ZidooReportTask reportProgress Status: <%s> Position: <%s> audioIdx: <%s> subIdx: <%s>", mPlayStatus, getMillisecondsFormated(mPlayPos), mCurrentAudioIdx, mCurrentSubIdx);
             }
         } else {
             if (mPlayStatus >= API_ZIDOO_HTTP_API_VIDEOPLAY_STATUS_PAUSE) {
@@ -578,12 +452,13 @@ class ZidooReportTask extends ZidooTask {
                     ReportingHelper.reportStart(mItem, (long) mPlayPos * RUNTIME_TICKS_TO_MS);
                     Timber.d("ZidooReportTask reportStart Status: <%s> Position: <%s>", mPlayStatus, getMillisecondsFormated(mPlayPos));
                 }
+                mLastReportTime = System.currentTimeMillis();
                 // NOTE: We need to report the stream at least so the server see's the transcode infos!
                 if (mPlayMethod == PlayMethod.Transcode) {
                     ReportingHelper.reportProgress(null, mItem, mStreamInfo, (long) mSeekPos * RUNTIME_TICKS_TO_MS, false);
                 }
-                // NOTE: quick first report, so streams get set correctly and we get initial Audio/Sub index
-                post(this, 4000);
+                // NOTE: tracker polls fast after start, so streams get set correctly and we get initial Audio/Sub index
+                post(this, mNextPollDelay);
                 return;
             }
         }
@@ -594,11 +469,11 @@ class ZidooReportTask extends ZidooTask {
                 this.finishTask(false);
                 mActivity.finish();
             } else {
-                post(this, 1000); // try again in a second
-                Timber.d("ZidooReportTask detected Zidoo player http-api status error, trying again in 1000 ms.");
+                post(this, mNextPollDelay); // try again soon
+                Timber.d("ZidooReportTask detected Zidoo player http-api status error, trying again in %s ms.", mNextPollDelay);
             }
         } else {
-            post(this, API_ZIDOO_HTTP_API_REPORT_LOOP_INTERVAL);
+            post(this, mNextPollDelay);
             mZidooReportTaskErrorCount = 0; // reset
         }
     }
@@ -0,0 +1,69 @@
+package org.jellyfin.androidtv.ui.playback
+
+import kotlin.random.Random
+
+/**
+ * Maps the positions of a shuffled queue to the positions in the original queue order, kept in a
+ * primitive array.
+ */
+class ShuffleOrder private constructor(
+	private var indexes: IntArray,
+	size: Int,
+) {
+	companion object {
+		/**
+		 * Shuffle a queue of [size] items, keeping the item at [current] at the first position.
+		 */
+		@JvmStatic
+		@JvmOverloads
+		fun shuffle(size: Int, current: Int, random: Random = Random.Default): ShuffleOrder {
+			val indexes = IntArray(maxOf(size, 1)) { it }
+			if (current in 0 until size) {
+				indexes[current] = 0
+				indexes[0] = current
+			}
+
+			// Fisher-Yates over everything after the current item
+			for (i in size - 1 downTo 2) {
+				val j = 1 + random.nextInt(i)
+				val swap = indexes[i]
+				indexes[i] = indexes[j]
+				indexes[j] = swap
+			}
+
+			return ShuffleOrder(indexes, size)
+		}
+	}
+
+	var size = size
+		private set
+
+	/**
+	 * Get the original position of the item at shuffled [position].
+	 */
+	operator fun get(position: Int): Int {
+		if (position !in 0 until size) throw IndexOutOfBoundsException("$position out of $size")
+		return indexes[position]
+	}
+
+	/**
+	 * Append an item added to the end of both the shuffled and the original queue.
+	 */
+	fun add() {
+		if (size == indexes.size) indexes = indexes.copyOf(size * 2)
+		indexes[size] = size
+		size++
+	}
+
+	/**
+	 * Remove the item at shuffled [position] and close the gap it left in the original order.
+	 */
+	fun remove(position: Int) {
+		val original = get(position)
+		System.arraycopy(indexes, position + 1, indexes, position, size - position - 1)
+		size--
+		for (i in 0 until size) {
+			if (indexes[i] > original) indexes[i]--
+		}
+	}
+}
@@ -0,0 +1,161 @@
+package org.jellyfin.androidtv.ui.playback
+
+import org.jellyfin.androidtv.data.compat.AudioOptions
+import org.jellyfin.androidtv.data.compat.StreamInfo
+import org.jellyfin.androidtv.data.compat.VideoOptions
+import org.jellyfin.apiclient.interaction.Response
+import org.jellyfin.apiclient.model.session.PlayMethod
+import org.jellyfin.apiclient.serialization.GsonJsonSerializer
+import java.security.MessageDigest
+import java.util.UUID
+import java.util.concurrent.TimeUnit
+
+/**
+ * Memoizes playback info negotiations for the user session, keyed by a fingerprint of the item,
+ * media source, [AudioOptions] or [VideoOptions], user and server.
+ *
+ * Direct play and direct stream results do not depend on the start position and are reused until
+ * they expire. Transcode urls contain the start position, so only prefetched transcode results are
+ * kept, until they are used once at the same position. Concurrent requests for the same
+ * fingerprint and position share one negotiation.
+ *
+ * Every playback gets its own copy of the result, reused direct play and direct stream results
+ * get a new play session.
+ */
+class StreamInfoCache(
+	private val serializer: GsonJsonSerializer,
+	private val maxEntries: Int = DEFAULT_MAX_ENTRIES,
+	private val maxAge: Long = MAX_AGE,
+	private val clock: () -> Long = System::currentTimeMillis,
+) {
+	companion object {
+		const val DEFAULT_MAX_ENTRIES = 10
+		val MAX_AGE = TimeUnit.MINUTES.toMillis(10)
+	}
+
+	fun interface Loader {
+		fun load(response: Response<StreamInfo>)
+	}
+
+	private class Entry(
+		val info: StreamInfo,
+		val timestamp: Long,
+	)
+
+	// access ordered for LRU eviction
+	private val entries = object : LinkedHashMap<String, Entry>(16, 0.75f, true) {
+		override fun removeEldestEntry(eldest: MutableMap.MutableEntry<String, Entry>?) = size > maxEntries
+	}
+	// null responses are prefetches
+	private val pending = mutableMapOf<String, MutableList<Response<StreamInfo>?>>()
+
+	var hits = 0
+		@Synchronized get
+		private set
+	var misses = 0
+		@Synchronized get
+		private set
+
+	/**
+	 * Get the fingerprint of the playback info request made for [options] by [userId] on the
+	 * server of [serverId].
+	 */
+	fun fingerprint(options: AudioOptions, userId: String?, serverId: String?): String {
+		val profile = options.profile?.let { serializer.SerializeToString(it) }.orEmpty()
+		val profileHash = MessageDigest.getInstance("SHA-256")
+			.digest(profile.toByteArray(Charsets.UTF_8))
+			.joinToString("") { "%02x".format(it) }
+
+		return listOf(
+			options.itemId,
+			options.mediaSourceId,
+			options.maxBitrate,
+			options.maxAudioChannels,
+			options.enableDirectPlay,
+			options.enableDirectStream,
+			(options as? VideoOptions)?.audioStreamIndex,
+			(options as? VideoOptions)?.subtitleStreamIndex,
+			options.context,
+			if (options is VideoOptions) "video" else "audio",
+			profileHash,
+			userId,
+			serverId,
+		).joinToString("|")
+	}
+
+	private fun positionKey(key: String, startPositionTicks: Long) = "$key@$startPositionTicks"
+
+	/**
+	 * Negotiate the stream info for [key] at [startPositionTicks] ahead of playback.
+	 */
+	fun prefetch(key: String, startPositionTicks: Long, loader: Loader) = get(key, startPositionTicks, loader, null)
+
+	/**
+	 * Get the stream info for [key] at [startPositionTicks], using [loader] when not cached.
+	 */
+	fun get(key: String, startPositionTicks: Long, loader: Loader, response: Response<StreamInfo>?) {
+		val positionKey = positionKey(key, startPositionTicks)
+		val cached = synchronized(this) {
+			// prefetched transcodes are used once
+			val transcode = if (response != null) entries.remove(positionKey) else entries[positionKey]
+			val entry = (entries[key] ?: transcode)?.takeIf { clock() - it.timestamp <= maxAge }
+			if (entry != null) {
+				if (response != null) hits++
+			} else {
+				if (response != null) misses++
+				val waiting = pending[positionKey]
+				pending[positionKey] = (waiting ?: mutableListOf()).apply { add(response) }
+				// a negotiation is running already
+				if (waiting != null) return
+			}
+			entry?.info
+		}
+
+		if (cached != null) {
+			if (response == null) return
+			response.onResponse(forPlayback(cached, startPositionTicks))
+			return
+		}
+
+		loader.load(object : Response<StreamInfo>() {
+			override fun onResponse(info: StreamInfo?) {
+				val waiting = synchronized(this@StreamInfoCache) {
+					val waiting = pending.remove(positionKey).orEmpty()
+					if (info != null && info.mediaSource?.requiresOpening != true) {
+						if (info.playMethod != PlayMethod.Transcode) entries[key] = Entry(info.copy(), clock())
+						else if (waiting.all { it == null }) entries[positionKey] = Entry(info.copy(), clock())
+					}
+					waiting.filterNotNull()
+				}
+				waiting.forEachIndexed { index, it ->
+					it.onResponse(if (index == 0 || info == null) info else forPlayback(info, startPositionTicks))
+				}
+			}
+
+			override fun onError(exception: Exception?) {
+				val waiting = synchronized(this@StreamInfoCache) { pending.remove(positionKey).orEmpty() }
+				waiting.forEach { it?.onError(exception) }
+			}
+		})
+	}
+
+	private fun forPlayback(info: StreamInfo, startPositionTicks: Long) = info.copy().apply {
+		this.startPositionTicks = startPositionTicks
+		// The play session of a transcode is part of its url
+		if (playMethod != PlayMethod.Transcode) playSessionId = UUID.randomUUID().toString().replace("-", "")
+	}
+
+	/**
+	 * Forget the results for the item of [itemId], e.g. after playback failed.
+	 */
+	@Synchronized
+	fun invalidate(itemId: String) {
+		entries.keys.removeAll { it.startsWith("$itemId|") }
+	}
+
+	/**
+	 * Forget all results, e.g. after the user changed.
+	 */
+	@Synchronized
+	fun clear() = entries.clear()
+}
@@ -0,0 +1,111 @@
+package org.jellyfin.androidtv.ui.playback
+
+/**
+ * Cues of a client rendered subtitle track, kept in primitive arrays sorted by start position and
+ * looked up by binary search. The running maximum of the end positions finds earlier, longer cues
+ * that overlap later ones.
+ *
+ * Cues may be added while the track is shown, [isComplete] is set once the whole track was read.
+ */
+class SubtitleTimeline {
+	companion object {
+		private const val INITIAL_CAPACITY = 256
+	}
+
+	private var starts = LongArray(INITIAL_CAPACITY)
+	private var ends = LongArray(INITIAL_CAPACITY)
+	// maximum end position of the cues up to each index
+	private var maxEnds = LongArray(INITIAL_CAPACITY)
+	private var texts = arrayOfNulls<String>(INITIAL_CAPACITY)
+
+	var size = 0
+		@Synchronized get
+		private set
+
+	/**
+	 * Changed when a cue was inserted before others, shifting the indices of the cues after it.
+	 */
+	var revision = 0
+		@Synchronized get
+		private set
+
+	@Volatile
+	var isComplete = false
+		private set
+
+	/**
+	 * Add a cue, cues are expected in order of their start position.
+	 */
+	@Synchronized
+	fun add(startTicks: Long, endTicks: Long, text: String) {
+		if (size == starts.size) {
+			val capacity = size * 2
+			starts = starts.copyOf(capacity)
+			ends = ends.copyOf(capacity)
+			maxEnds = maxEnds.copyOf(capacity)
+			texts = texts.copyOf(capacity)
+		}
+
+		// insert after all cues starting at or before this one, appending in the common case
+		var index = size
+		while (index > 0 && starts[index - 1] > startTicks) index--
+		if (index < size) {
+			System.arraycopy(starts, index, starts, index + 1, size - index)
+			System.arraycopy(ends, index, ends, index + 1, size - index)
+			System.arraycopy(texts, index, texts, index + 1, size - index)
+			revision++
+		}
+
+		starts[index] = startTicks
+		ends[index] = endTicks
+		texts[index] = text
+		size++
+
+		for (i in index until size) {
+			maxEnds[i] = if (i == 0) ends[i] else maxOf(maxEnds[i - 1], ends[i])
+		}
+	}
+
+	fun complete() {
+		isComplete = true
+	}
+
+	/**
+	 * Get the index of the cue shown at [positionTicks], -1 if no cue is shown. Of overlapping cues
+	 * the one starting first is shown.
+	 */
+	@Synchronized
+	fun indexAt(positionTicks: Long): Int {
+		// last cue starting at or before the position
+		var low = 0
+		var high = size - 1
+		var found = -1
+		while (low <= high) {
+			val middle = (low + high) ushr 1
+			if (starts[middle] <= positionTicks) {
+				found = middle
+				low = middle + 1
+			} else {
+				high = middle - 1
+			}
+		}
+
+		// earlier cues may still be shown, until all before them ended
+		var shown = -1
+		var index = found
+		while (index >= 0 && maxEnds[index] > positionTicks) {
+			if (ends[index] > positionTicks) shown = index
+			index--
+		}
+		return shown
+	}
+
+	@Synchronized
+	fun getStartTicks(index: Int) = starts[index]
+
+	@Synchronized
+	fun getEndTicks(index: Int) = ends[index]
+
+	@Synchronized
+	fun getText(index: Int) = texts[index]!!
+}
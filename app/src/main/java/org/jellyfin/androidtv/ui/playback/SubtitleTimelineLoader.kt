@@ -0,0 +1,153 @@
+package org.jellyfin.androidtv.ui.playback
+
+import androidx.annotation.MainThread
+import com.google.gson.stream.JsonReader
+import com.google.gson.stream.JsonToken
+import kotlinx.coroutines.CancellationException
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.Job
+import kotlinx.coroutines.SupervisorJob
+import kotlinx.coroutines.ensureActive
+import kotlinx.coroutines.launch
+import kotlinx.coroutines.withContext
+import timber.log.Timber
+import java.io.IOException
+import java.io.InputStreamReader
+import java.net.HttpURLConnection
+import java.net.URL
+
+/**
+ * Streams a `Stream.JSON` subtitle track into a [SubtitleTimeline].
+ *
+ * The track is parsed while it downloads, the listener receives the timeline as soon as the first
+ * cues were read and the remaining cues are added in the background.
+ */
+class SubtitleTimelineLoader(
+	private val timeout: Int = DEFAULT_TIMEOUT_MS,
+) {
+	companion object {
+		const val DEFAULT_TIMEOUT_MS = 15000
+		const val FIRST_CUES = 20
+
+		/**
+		 * Read the track events of [reader] into [timeline], [onFirstCues] is called once after
+		 * [FIRST_CUES] cues or at the end of a shorter track, but not for a track without cues.
+		 * [onCue] is called after each cue and may throw to stop reading.
+		 */
+		fun read(reader: JsonReader, timeline: SubtitleTimeline, onCue: () -> Unit = {}, onFirstCues: () -> Unit = {}) {
+			var notified = false
+			reader.beginObject()
+			while (reader.hasNext()) {
+				if (!reader.nextName().equals("TrackEvents", ignoreCase = true) || reader.peek() != JsonToken.BEGIN_ARRAY) {
+					reader.skipValue()
+					continue
+				}
+
+				reader.beginArray()
+				while (reader.hasNext()) {
+					reader.readEvent(timeline)
+					onCue()
+					if (!notified && timeline.size >= FIRST_CUES) {
+						notified = true
+						onFirstCues()
+					}
+				}
+				reader.endArray()
+			}
+			reader.endObject()
+
+			timeline.complete()
+			if (!notified && timeline.size > 0) onFirstCues()
+		}
+
+		private fun JsonReader.readEvent(timeline: SubtitleTimeline) {
+			if (peek() != JsonToken.BEGIN_OBJECT) {
+				skipValue()
+				return
+			}
+
+			var text: String? = null
+			var start: Long? = null
+			var end: Long? = null
+			beginObject()
+			while (hasNext()) {
+				val name = nextName()
+				when {
+					peek() == JsonToken.NULL -> skipValue()
+					name.equals("Text", ignoreCase = true) -> text = nextString()
+					name.equals("StartPositionTicks", ignoreCase = true) -> start = nextLong()
+					name.equals("EndPositionTicks", ignoreCase = true) -> end = nextLong()
+					else -> skipValue()
+				}
+			}
+			endObject()
+
+			if (text != null && start != null && end != null) timeline.add(start, end, text)
+		}
+	}
+
+	interface Listener {
+		/**
+		 * The first cues of [timeline] are available, more cues may follow.
+		 */
+		fun onCuesAvailable(timeline: SubtitleTimeline)
+
+		fun onComplete(timeline: SubtitleTimeline)
+
+		fun onError(error: Exception)
+	}
+
+	private val scope = CoroutineScope(SupervisorJob() + Dispatchers.IO)
+	private var job: Job? = null
+
+	/**
+	 * Load the track at [url], cancelling the previous load. The [listener] is called on the main
+	 * thread.
+	 */
+	@MainThread
+	fun load(url: String, accessToken: String?, listener: Listener) {
+		cancel()
+		job = scope.launch {
+			val timeline = SubtitleTimeline()
+			val connection = URL(url).openConnection() as HttpURLConnection
+			try {
+				connection.requestMethod = "GET"
+				connection.connectTimeout = timeout
+				connection.readTimeout = timeout
+				if (accessToken != null) connection.setRequestProperty("X-Emby-Token", accessToken)
+
+				if (connection.responseCode != HttpURLConnection.HTTP_OK)
+					throw IOException("Subtitle status error <${connection.responseCode}>")
+
+				connection.inputStream.use { input ->
+					JsonReader(InputStreamReader(input, Charsets.UTF_8)).use { reader ->
+						read(reader, timeline, onCue = { ensureActive() }) {
+							launch(Dispatchers.Main) { listener.onCuesAvailable(timeline) }
+						}
+					}
+				}
+				ensureActive()
+
+				Timber.d("Loaded %d subtitle cues", timeline.size)
+				withContext(Dispatchers.Main) { listener.onComplete(timeline) }
+			} catch (e: CancellationException) {
+				throw e
+			} catch (e: IOException) {
+				withContext(Dispatchers.Main) { listener.onError(e) }
+			} catch (e: IllegalStateException) {
+				withContext(Dispatchers.Main) { listener.onError(IOException("Invalid subtitle track", e)) }
+			} catch (e: NumberFormatException) {
+				withContext(Dispatchers.Main) { listener.onError(IOException("Invalid subtitle track", e)) }
+			} finally {
+				connection.disconnect()
+			}
+		}
+	}
+
+	@MainThread
+	fun cancel() {
+		job?.cancel()
+		job = null
+	}
+}
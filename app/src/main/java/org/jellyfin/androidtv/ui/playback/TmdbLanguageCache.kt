@@ -0,0 +1,354 @@
+package org.jellyfin.androidtv.ui.playback
+
+import android.content.Context
+import androidx.annotation.WorkerThread
+import com.google.gson.stream.JsonReader
+import com.google.gson.stream.JsonToken
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.SupervisorJob
+import kotlinx.coroutines.launch
+import kotlinx.serialization.SerialName
+import kotlinx.serialization.Serializable
+import kotlinx.serialization.SerializationException
+import kotlinx.serialization.decodeFromString
+import kotlinx.serialization.encodeToString
+import kotlinx.serialization.json.Json
+import org.jellyfin.apiclient.model.dto.BaseItemDto
+import org.jellyfin.apiclient.model.dto.BaseItemType
+import timber.log.Timber
+import java.io.File
+import java.io.IOException
+import java.io.InputStreamReader
+import java.net.HttpURLConnection
+import java.net.URL
+import java.util.concurrent.TimeUnit
+
+/**
+ * Identifies a TMDB lookup, [type] is one of [TYPE_MOVIE], [TYPE_TV] or [TYPE_TVDB].
+ */
+data class TmdbLanguageKey(val type: String, val id: String) {
+	override fun toString() = "$type/$id"
+
+	companion object {
+		const val TYPE_MOVIE = "movie"
+		const val TYPE_TV = "tv"
+		const val TYPE_TVDB = "tvdb"
+
+		fun parse(value: String): TmdbLanguageKey? = value.split('/', limit = 2)
+			.takeIf { it.size == 2 }
+			?.let { TmdbLanguageKey(it[0], it[1]) }
+	}
+}
+
+/**
+ * Source of original languages, throws [IOException] if TMDB could not be reached.
+ */
+fun interface TmdbLanguageSource {
+	@WorkerThread
+	fun fetchOriginalLanguage(key: TmdbLanguageKey): String?
+}
+
+/**
+ * Looks up the original language using the TMDB v3 api.
+ * A missing entry or language returns null, network and server errors throw.
+ */
+class TmdbApiLanguageSource(
+	private val baseUrl: String = "https://${PlayerApiHelpers.API_TMDB_HTTP_API_V3_BASE_URL}",
+	private val timeout: Int = DEFAULT_TIMEOUT_MS,
+) : TmdbLanguageSource {
+	companion object {
+		const val DEFAULT_TIMEOUT_MS = 3000
+	}
+
+	// https://api.themoviedb.org/3/tv/{tv_id}?api_key=<<api_key>>&language=en-US
+	override fun fetchOriginalLanguage(key: TmdbLanguageKey): String? {
+		val target = when (key.type) {
+			TmdbLanguageKey.TYPE_TVDB -> "find/${key.id}"
+			else -> "${key.type}/${key.id}"
+		}
+		var urlString = "$baseUrl/$target?api_key=${PlayerApiHelpers.API_TMDB_HTTP_API_KEY}&language=en-US"
+		if (key.type == TmdbLanguageKey.TYPE_TVDB) urlString += "&external_source=tvdb_id"
+
+		val connection = URL(urlString).openConnection() as HttpURLConnection
+		try {
+			connection.requestMethod = "GET"
+			connection.connectTimeout = timeout
+			connection.readTimeout = timeout
+
+			when (connection.responseCode) {
+				HttpURLConnection.HTTP_OK -> Unit
+				HttpURLConnection.HTTP_NOT_FOUND -> return null
+				else -> throw IOException("TMDB status error <${connection.responseCode}>")
+			}
+
+			return try {
+				connection.inputStream.use { input ->
+					JsonReader(InputStreamReader(input, Charsets.UTF_8)).use { reader ->
+						if (key.type == TmdbLanguageKey.TYPE_TVDB) reader.readFirstResultLanguage("tv_results")
+						else reader.readOriginalLanguage()
+					}
+				}
+			} catch (e: IllegalStateException) {
+				throw IOException("TMDB invalid response", e)
+			}
+		} finally {
+			connection.disconnect()
+		}
+	}
+
+	private fun JsonReader.readOriginalLanguage(): String? {
+		var language: String? = null
+		beginObject()
+		while (hasNext()) {
+			if (nextName() == "original_language" && peek() == JsonToken.STRING) language = nextString()
+			else skipValue()
+		}
+		endObject()
+		return language?.takeIf { it.isNotBlank() }
+	}
+
+	private fun JsonReader.readFirstResultLanguage(arrayName: String): String? {
+		var language: String? = null
+		beginObject()
+		while (hasNext()) {
+			if (nextName() == arrayName && peek() == JsonToken.BEGIN_ARRAY) {
+				beginArray()
+				if (hasNext() && peek() == JsonToken.BEGIN_OBJECT) language = readOriginalLanguage()
+				while (hasNext()) skipValue()
+				endArray()
+			} else {
+				skipValue()
+			}
+		}
+		endObject()
+		return language
+	}
+}
+
+/**
+ * Persistent cache of TMDB id to original language, used for the "original" audio language setting.
+ *
+ * Warm entries are served synchronously from memory. The store is read in the background, until
+ * it is loaded lookups without network access miss. Missing languages are cached for a shorter
+ * time, network errors are not cached. Series are also remembered by their item id, so episodes
+ * of a known series resolve without fetching the series item first.
+ */
+class TmdbLanguageCache(
+	private val storePath: File,
+	private val source: TmdbLanguageSource = TmdbApiLanguageSource(),
+	private val maxEntries: Int = DEFAULT_MAX_ENTRIES,
+	private val clock: () -> Long = System::currentTimeMillis,
+	private val scope: CoroutineScope = CoroutineScope(SupervisorJob() + Dispatchers.IO),
+) {
+	constructor(context: Context) : this(context.cacheDir.resolve("tmdb_language_cache.json"))
+
+	companion object {
+		const val DEFAULT_MAX_ENTRIES = 500
+		val LANGUAGE_TTL = TimeUnit.DAYS.toMillis(30)
+		val NEGATIVE_TTL = TimeUnit.DAYS.toMillis(1)
+		private const val STORE_VERSION = 1
+	}
+
+	/**
+	 * Result of a cache lookup, [language] is null for cached negative results.
+	 */
+	data class CachedLanguage(val language: String?)
+
+	@Serializable
+	private data class Entry(
+		val language: String? = null,
+		val timestamp: Long,
+	)
+
+	@Serializable
+	private data class Store(
+		val version: Int = STORE_VERSION,
+		val entries: Map<String, Entry> = emptyMap(),
+		@SerialName("series_keys") val seriesKeys: Map<String, String> = emptyMap(),
+	)
+
+	private val json = Json {
+		encodeDefaults = true
+		ignoreUnknownKeys = true
+	}
+
+	// access ordered for LRU eviction
+	private val entries = LinkedHashMap<String, Entry>(16, 0.75f, true)
+	private val seriesKeys = LinkedHashMap<String, String>(16, 0.75f, true)
+
+	// file access happens under these locks, never under the lock of the maps
+	private val loadLock = Any()
+	private val saveLock = Any()
+	@Volatile private var loaded = false
+
+	init {
+		// read the store early, so lookups at play start are served from memory
+		scope.launch { ensureLoaded() }
+	}
+
+	@WorkerThread
+	private fun ensureLoaded() {
+		if (loaded) return
+		synchronized(loadLock) {
+			if (loaded) return
+			val store = readStore()
+
+			synchronized(this) {
+				if (store != null) {
+					// entries added while loading are newer than the stored ones
+					val added = entries.toMap()
+					entries.clear()
+					entries.putAll(store.entries)
+					entries.putAll(added)
+
+					val addedSeries = seriesKeys.toMap()
+					seriesKeys.clear()
+					seriesKeys.putAll(store.seriesKeys)
+					seriesKeys.putAll(addedSeries)
+					trim()
+				}
+				loaded = true
+			}
+		}
+	}
+
+	private fun readStore(): Store? {
+		if (!storePath.exists()) return null
+
+		return try {
+			json.decodeFromString<Store>(storePath.readText()).takeIf { it.version == STORE_VERSION }
+		} catch (e: SerializationException) {
+			Timber.e(e, "Unable to read TMDB language cache")
+			null
+		} catch (e: IOException) {
+			Timber.e(e, "Unable to read TMDB language cache")
+			null
+		} catch (e: IllegalArgumentException) {
+			Timber.e(e, "Unable to read TMDB language cache")
+			null
+		}
+	}
+
+	@WorkerThread
+	private fun save() {
+		// load first, so the stored entries are not overwritten
+		ensureLoaded()
+		synchronized(saveLock) {
+			val store = synchronized(this) { Store(STORE_VERSION, entries.toMap(), seriesKeys.toMap()) }
+			try {
+				storePath.writeText(json.encodeToString(store))
+			} catch (e: IOException) {
+				Timber.e(e, "Unable to write TMDB language cache")
+			}
+		}
+	}
+
+	private fun trim() {
+		val entryIterator = entries.iterator()
+		while (entries.size > maxEntries && entryIterator.hasNext()) {
+			entryIterator.next()
+			entryIterator.remove()
+		}
+		val seriesIterator = seriesKeys.iterator()
+		while (seriesKeys.size > maxEntries && seriesIterator.hasNext()) {
+			seriesIterator.next()
+			seriesIterator.remove()
+		}
+	}
+
+	private fun Entry.isExpired() = clock() - timestamp > if (language != null) LANGUAGE_TTL else NEGATIVE_TTL
+
+	/**
+	 * Get the cached language for [key] without any network access, null on a cache miss or
+	 * while the store is still loading.
+	 */
+	@Synchronized
+	fun getCached(key: TmdbLanguageKey): CachedLanguage? {
+		if (!loaded) return null
+		val entry = entries[key.toString()] ?: return null
+		if (entry.isExpired()) return null
+		return CachedLanguage(entry.language)
+	}
+
+	/**
+	 * Get the cached language for [item] without any network access, null on a cache miss.
+	 */
+	fun getCached(item: BaseItemDto): CachedLanguage? = keyFor(item)?.let { getCached(it) }
+
+	/**
+	 * Get the language for [key], fetching it from TMDB if it's not cached.
+	 */
+	@WorkerThread
+	fun get(key: TmdbLanguageKey): String? {
+		ensureLoaded()
+		getCached(key)?.let { return it.language }
+
+		val language = try {
+			source.fetchOriginalLanguage(key)
+		} catch (e: IOException) {
+			// don't cache, TMDB could just be unreachable right now
+			Timber.d(e, "TMDB lookup for <%s> failed", key)
+			return null
+		}
+
+		synchronized(this) {
+			entries[key.toString()] = Entry(language, clock())
+			trim()
+		}
+		save()
+		return language
+	}
+
+	/**
+	 * Get the language for [item], fetching it from TMDB if it's not cached.
+	 * Episodes only resolve if their series was looked up before.
+	 */
+	@WorkerThread
+	fun get(item: BaseItemDto): String? {
+		// episodes need the stored series keys
+		ensureLoaded()
+		return keyFor(item)?.let { get(it) }
+	}
+
+	/**
+	 * Warm the cache for [item] in the background.
+	 */
+	fun prefetch(item: BaseItemDto) {
+		val key = keyFor(item) ?: return
+		if (getCached(key) != null) return
+		scope.launch { get(key) }
+	}
+
+	/**
+	 * Check if [item] can be resolved without fetching another item first.
+	 */
+	fun canResolve(item: BaseItemDto) = keyFor(item) != null
+
+	private fun keyFor(item: BaseItemDto): TmdbLanguageKey? {
+		val providerIds = item.providerIds
+		return when (item.baseItemType) {
+			BaseItemType.Movie -> providerIds?.get("Tmdb")?.let { TmdbLanguageKey(TmdbLanguageKey.TYPE_MOVIE, it) }
+			BaseItemType.Series -> {
+				val key = providerIds?.get("Tmdb")?.let { TmdbLanguageKey(TmdbLanguageKey.TYPE_TV, it) }
+					?: providerIds?.get("Tvdb")?.let { TmdbLanguageKey(TmdbLanguageKey.TYPE_TVDB, it) }
+				// remember the series, so its episodes can resolve directly
+				if (key != null && item.id != null) rememberSeries(item.id, key)
+				key
+			}
+			BaseItemType.Episode -> item.seriesId
+				?.let { synchronized(this) { seriesKeys[it] } }
+				?.let { TmdbLanguageKey.parse(it) }
+			else -> null
+		}
+	}
+
+	private fun rememberSeries(id: String, key: TmdbLanguageKey) {
+		val changed = synchronized(this) {
+			val changed = seriesKeys.put(id, key.toString()) != key.toString()
+			if (changed) trim()
+			changed
+		}
+		if (changed) scope.launch { save() }
+	}
+}
@@ -0,0 +1,209 @@
+package org.jellyfin.androidtv.ui.playback
+
+import com.google.gson.stream.JsonReader
+import com.google.gson.stream.JsonToken
+import timber.log.Timber
+import java.io.IOException
+import java.io.InputStream
+import java.io.InputStreamReader
+import java.net.HttpURLConnection
+import java.net.URL
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * Typed result of `ZidooVideoPlay/getPlayStatus`.
+ * Fields are only set when the player reported them, [status] falls back to
+ * [PlayerApiHelpers.API_ZIDOO_HTTP_API_VIDEOPLAY_STATUS_ERROR].
+ */
+data class ZidooPlayStatus(
+	val status: Int = PlayerApiHelpers.API_ZIDOO_HTTP_API_VIDEOPLAY_STATUS_ERROR,
+	val position: Int? = null,
+	val idHash: Int? = null,
+	val audioIndex: Int? = null,
+	val subtitleIndex: Int? = null,
+) {
+	val isActive get() = status >= PlayerApiHelpers.API_ZIDOO_HTTP_API_VIDEOPLAY_STATUS_PAUSE
+
+	companion object {
+		@JvmField
+		val ERROR = ZidooPlayStatus()
+	}
+}
+
+/**
+ * Client for the local Zidoo http-api.
+ *
+ * All requests are serialized and the response body is always fully consumed and never
+ * disconnected, so the underlying keep-alive connection stays pooled between polls.
+ * Responses are streamed directly into typed results without building intermediate strings.
+ */
+class ZidooApiClient(
+	private val baseUrl: String = "http://${PlayerApiHelpers.API_ZIDOO_HTTP_API_IP}",
+	private val timeout: Int = DEFAULT_TIMEOUT_MS,
+) {
+	companion object {
+		const val DEFAULT_TIMEOUT_MS = 2000
+	}
+
+	private val drainBuffer = ByteArray(512)
+	private val requestCount = AtomicInteger()
+	private val totalLatencyNs = AtomicLong()
+
+	/**
+	 * Latency of the last request in ms, -1 if no request was made yet.
+	 */
+	@Volatile
+	var lastLatencyMs = -1L
+		private set
+
+	val averageLatencyMs: Long
+		get() = requestCount.get().let { count ->
+			if (count > 0) TimeUnit.NANOSECONDS.toMillis(totalLatencyNs.get() / count) else -1L
+		}
+
+	//GET/ZidooVideoPlay/getPlayStatus
+	fun getPlayStatus(): ZidooPlayStatus =
+		request("getPlayStatus", null) { it.readPlayStatus() } ?: ZidooPlayStatus.ERROR
+
+	//GET/ZidooVideoPlay/setAudio?index=0        NOTE: Audio index start at 0
+	fun setAudioTrack(idx: Int): Boolean = request("setAudio", "index=$idx") { it.readApiStatus() } == true
+
+	//GET/ZidooVideoPlay/setSubtitle?index=1     NOTE: index=0 turns off, so Subtitle index start at 1 !!!
+	fun setSubtitleTrack(idx: Int): Boolean = request("setSubtitle", "index=$idx") { it.readApiStatus() } == true
+
+	//GET/ZidooVideoPlay/seekTo?positon=300000
+	fun seekTo(position: Int): Boolean = request("seekTo", "positon=$position") { it.readApiStatus() } == true
+
+	@Synchronized
+	private fun <T : Any> request(cmd: String, parameter: String?, parse: (JsonReader) -> T?): T? {
+		var urlString = "$baseUrl/${PlayerApiHelpers.API_ZIDOO_HTTP_API_TARGET_VIDEOPLAY}/$cmd"
+		if (!parameter.isNullOrBlank()) urlString += "?$parameter"
+
+		val start = System.nanoTime()
+		return try {
+			val connection = URL(urlString).openConnection() as HttpURLConnection
+			connection.requestMethod = "GET"
+			connection.connectTimeout = timeout
+			connection.readTimeout = timeout
+			connection.useCaches = false
+			connection.setRequestProperty("Connection", "keep-alive")
+
+			if (connection.responseCode == HttpURLConnection.HTTP_OK) {
+				connection.inputStream.use { input ->
+					val result = parse(JsonReader(InputStreamReader(input, Charsets.UTF_8)))
+					input.drain()
+					result
+				}
+			} else {
+				Timber.d("ZidooApiClient <%s> http status error <%s>", cmd, connection.responseCode)
+				connection.errorStream?.use { it.drain() }
+				null
+			}
+		} catch (e: IOException) {
+			Timber.d("ZidooApiClient <%s> failed, could not reach target.", cmd)
+			null
+		} catch (e: IllegalStateException) {
+			Timber.d("ZidooApiClient <%s> failed, invalid response.", cmd)
+			null
+		} finally {
+			val latencyNs = System.nanoTime() - start
+			lastLatencyMs = TimeUnit.NANOSECONDS.toMillis(latencyNs)
+			totalLatencyNs.addAndGet(latencyNs)
+			requestCount.incrementAndGet()
+			Timber.v("ZidooApiClient <%s> took <%s> ms", cmd, lastLatencyMs)
+		}
+	}
+
+	// Read the rest of the body, otherwise the connection can't be reused
+	private fun InputStream.drain() {
+		do {
+			val read = read(drainBuffer)
+		} while (read >= 0)
+	}
+
+	private fun JsonReader.readApiStatus(): Boolean {
+		var apiStatus = -1
+		beginObject()
+		while (hasNext()) {
+			if (nextName() == PlayerApiHelpers.API_ZIDOO_HTTP_API_JSON_STATUS) apiStatus = nextIntOrNull() ?: -1
+			else skipValue()
+		}
+		endObject()
+		return apiStatus == PlayerApiHelpers.API_ZIDOO_HTTP_API_SUCCESS
+	}
+
+	private fun JsonReader.readPlayStatus(): ZidooPlayStatus? {
+		var apiStatus = -1
+		var status: Int? = null
+		var position: Int? = null
+		var duration: Int? = null
+		var width: Int? = null
+		var path: String? = null
+		var title: String? = null
+		var audioIndex: Int? = null
+		var subtitleIndex: Int? = null
+
+		beginObject()
+		while (hasNext()) {
+			when (nextName()) {
+				PlayerApiHelpers.API_ZIDOO_HTTP_API_JSON_STATUS -> apiStatus = nextIntOrNull() ?: -1
+				"video" -> readObject { name ->
+					when (name) {
+						"status" -> status = nextIntOrNull() ?: PlayerApiHelpers.API_ZIDOO_HTTP_API_VIDEOPLAY_STATUS_ERROR
+						"currentPosition" -> position = nextIntOrNull()
+						"duration" -> duration = nextIntOrNull()
+						"width" -> width = nextIntOrNull()
+						"path" -> path = nextStringOrNull()
+						"title" -> title = nextStringOrNull()
+						else -> skipValue()
+					}
+				}
+				"audio" -> readObject { name ->
+					if (name == "index") audioIndex = nextIntOrNull() ?: PlayerApiHelpers.INVALID_TRACK_NR
+					else skipValue()
+				}
+				"subtitle" -> readObject { name ->
+					if (name == "index") subtitleIndex = nextIntOrNull() ?: PlayerApiHelpers.INVALID_TRACK_NR
+					else skipValue()
+				}
+				else -> skipValue()
+			}
+		}
+		endObject()
+
+		if (apiStatus != PlayerApiHelpers.API_ZIDOO_HTTP_API_SUCCESS) return null
+		// sanity check if we have valid data
+		if ((width ?: -1) <= 0) return ZidooPlayStatus.ERROR
+
+		val hashId = path?.takeIf { it.isNotBlank() } ?: title?.takeIf { it.isNotBlank() }
+		return ZidooPlayStatus(
+			status = status ?: PlayerApiHelpers.API_ZIDOO_HTTP_API_VIDEOPLAY_STATUS_ERROR,
+			// carefully, don't send pos for "broken" HLS streams!
+			position = position?.takeIf { it >= 0 && (duration ?: -1) > 0 },
+			idHash = hashId?.hashCode(),
+			audioIndex = audioIndex,
+			subtitleIndex = subtitleIndex,
+		)
+	}
+
+	private inline fun JsonReader.readObject(onField: JsonReader.(name: String) -> Unit) {
+		if (peek() != JsonToken.BEGIN_OBJECT) return skipValue()
+		beginObject()
+		while (hasNext()) onField(nextName())
+		endObject()
+	}
+
+	private fun JsonReader.nextIntOrNull(): Int? = when (peek()) {
+		JsonToken.NUMBER, JsonToken.STRING -> nextString().toDoubleOrNull()?.toInt()
+		JsonToken.NULL -> nextNull().let { null }
+		else -> skipValue().let { null }
+	}
+
+	private fun JsonReader.nextStringOrNull(): String? = when (peek()) {
+		JsonToken.STRING, JsonToken.NUMBER -> nextString()
+		JsonToken.NULL -> nextNull().let { null }
+		else -> skipValue().let { null }
+	}
+}
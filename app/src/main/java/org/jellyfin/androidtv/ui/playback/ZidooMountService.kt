@@ -0,0 +1,226 @@
+package org.jellyfin.androidtv.ui.playback
+
+import android.content.BroadcastReceiver
+import android.content.Context
+import android.content.Intent
+import android.content.IntentFilter
+import android.net.Uri
+import android.os.SystemClock
+import androidx.core.content.ContextCompat
+import kotlinx.coroutines.CompletableDeferred
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.Deferred
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.SupervisorJob
+import kotlinx.coroutines.async
+import kotlinx.coroutines.launch
+import kotlinx.coroutines.withContext
+import kotlinx.coroutines.withTimeoutOrNull
+import org.jellyfin.apiclient.interaction.Response
+import timber.log.Timber
+import java.io.File
+import java.net.InetAddress
+import java.net.UnknownHostException
+import java.util.UUID
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.TimeUnit
+
+/**
+ * Mounts SMB/NFS shares using the Zidoo mount broadcast api.
+ *
+ * Replies are correlated by the `tag` extra, so mounts of different shares run concurrently and
+ * wait without blocking a thread. Mounted share paths are kept for the app session, so items on
+ * an already mounted share skip the mount round-trip.
+ *
+ * The request carries the SMB credentials, so it is only sent to the Zidoo player package. The
+ * reply can't be restricted to a sender, only replies with the random tag of a pending request
+ * are accepted.
+ */
+class ZidooMountService(
+	context: Context,
+	private val clock: () -> Long = SystemClock::elapsedRealtime,
+) {
+	companion object {
+		const val ACTION_MOUNT = "com.ze.mount.action"
+		const val ACTION_MOUNT_RESULT = "com.ze.mount.result.action"
+		const val MOUNT_TIMEOUT_MS = 4000L
+		const val MOUNT_CHECK_TIMEOUT_MS = 1000L
+		val FAILED_MOUNT_RETRY_MS = TimeUnit.MINUTES.toMillis(5)
+		private const val MOUNT_TYPE_SMB = 0
+		private const val MOUNT_TYPE_NFS = 1
+	}
+
+	/**
+	 * Identifies a mounted share for the session.
+	 */
+	data class MountKey(
+		val host: String,
+		val share: String,
+		val user: String?,
+		val isNfs: Boolean,
+	)
+
+	private data class MountTarget(
+		val key: MountKey,
+		val password: String?,
+		val relativePath: String,
+	)
+
+	private val context = context.applicationContext
+	private val scope = CoroutineScope(SupervisorJob() + Dispatchers.IO)
+	private val pendingReplies = ConcurrentHashMap<String, CompletableDeferred<String?>>()
+	private val mountedShares = ConcurrentHashMap<MountKey, String>()
+	// time of the last failed mount, so unreachable shares are not mounted on every play
+	private val failedMounts = ConcurrentHashMap<MountKey, Long>()
+	private val mountsInFlight = mutableMapOf<MountKey, Deferred<String?>>()
+	private var receiverRegistered = false
+
+	private val mountResultReceiver = object : BroadcastReceiver() {
+		override fun onReceive(context: Context, intent: Intent) {
+			val path = intent.getStringExtra("path")
+			val tag = intent.getStringExtra("tag")
+			// anyone can send this broadcast, only the receiver of a request knows its tag
+			val reply = tag?.let { pendingReplies.remove(it) }
+			if (reply == null) {
+				Timber.w("ZidooMountService ignoring unexpected mount result <%s>", tag)
+				return
+			}
+			reply.complete(path?.takeIf { it.startsWith("/") })
+		}
+	}
+
+	/**
+	 * Get the local file path for [pathUri] if its share is already mounted, without any mount
+	 * round-trip. The [callback] is called on the main thread, with null if the share is not mounted.
+	 */
+	fun getMountedFilePath(pathUri: Uri, callback: Response<String?>) {
+		val target = pathUri.toMountTarget()
+		val mountPath = target?.let { mountedShares[it.key] }
+		if (target == null || mountPath == null) {
+			callback.onResponse(null)
+			return
+		}
+
+		scope.launch {
+			// drop stale mounts, e.g. after the player box unmounted the share
+			// a stale SMB mount can block file access, so give up on it after a while
+			val check = async { File(mountPath).isDirectory }
+			val isMounted = withTimeoutOrNull(MOUNT_CHECK_TIMEOUT_MS) { check.await() } ?: false
+			if (!isMounted) {
+				Timber.w("ZidooMountService dropping stale mount <%s>", mountPath)
+				mountedShares.remove(target.key, mountPath)
+			}
+
+			withContext(Dispatchers.Main) {
+				callback.onResponse(if (isMounted) mountPath + target.relativePath else null)
+			}
+		}
+	}
+
+	/**
+	 * Mount the share of [pathUri] in the background, so later plays can use [getMountedFilePath].
+	 */
+	fun prefetchMount(pathUri: Uri) {
+		val target = pathUri.toMountTarget() ?: return
+		if (mountedShares.containsKey(target.key)) return
+		val failedAt = failedMounts[target.key]
+		if (failedAt != null && clock() - failedAt < FAILED_MOUNT_RETRY_MS) return
+		scope.launch { mount(target) }
+	}
+
+	/**
+	 * Mount the share of [pathUri] and return the local file path or null on failure/timeout.
+	 */
+	suspend fun mountFilePath(pathUri: Uri): String? {
+		val target = pathUri.toMountTarget() ?: return null
+		return mount(target)?.let { it + target.relativePath }
+	}
+
+	suspend fun mountSmb(share: String, host: String, user: String?, password: String?): String? =
+		mount(MountTarget(MountKey(host, share, user, false), password, ""))
+
+	suspend fun mountNfs(share: String, host: String): String? =
+		mount(MountTarget(MountKey(host, share, null, true), null, ""))
+
+	// Coalesce concurrent mounts of the same share
+	private suspend fun mount(target: MountTarget): String? {
+		mountedShares[target.key]?.let { return it }
+
+		val deferred = synchronized(mountsInFlight) {
+			mountsInFlight.getOrPut(target.key) {
+				scope.async { sendMount(target) }.also { job ->
+					job.invokeOnCompletion { synchronized(mountsInFlight) { mountsInFlight.remove(target.key) } }
+				}
+			}
+		}
+		return deferred.await()
+	}
+
+	private suspend fun sendMount(target: MountTarget): String? {
+		val ip = try {
+			InetAddress.getByName(target.key.host).hostAddress
+		} catch (e: UnknownHostException) {
+			target.key.host
+		}
+		val tag = UUID.randomUUID().toString()
+		val reply = CompletableDeferred<String?>()
+		pendingReplies[tag] = reply
+		ensureReceiver()
+
+		try {
+			val intent = Intent(ACTION_MOUNT).apply {
+				// never broadcast the credentials to any installed app
+				setPackage(ExternalPlayerActivity.API_ZIDOO_PACKAGE)
+				putExtra("type", if (target.key.isNfs) MOUNT_TYPE_NFS else MOUNT_TYPE_SMB)
+				putExtra("tag", tag)
+				putExtra("share", target.key.share)
+				putExtra("ip", ip)
+				if (!target.key.isNfs) {
+					putExtra("user", target.key.user)
+					putExtra("pwd", target.password)
+				}
+			}
+			Timber.i("ZidooMountService mounting <%s> share <%s> via ip <%s>", if (target.key.isNfs) "NFS" else "SMB", target.key.share, ip)
+			context.sendBroadcast(intent)
+
+			val path = withTimeoutOrNull(MOUNT_TIMEOUT_MS) { reply.await() }
+			if (path.isNullOrBlank()) {
+				Timber.w("ZidooMountService mount of share <%s> failed or timed out", target.key.share)
+				failedMounts[target.key] = clock()
+				return null
+			}
+			//  as: /data/system/smb/192.168.11.106#zidoo
+			failedMounts.remove(target.key)
+			mountedShares[target.key] = path
+			return path
+		} finally {
+			pendingReplies.remove(tag)
+		}
+	}
+
+	@Synchronized
+	private fun ensureReceiver() {
+		if (receiverRegistered) return
+		ContextCompat.registerReceiver(context, mountResultReceiver, IntentFilter(ACTION_MOUNT_RESULT), ContextCompat.RECEIVER_EXPORTED)
+		receiverRegistered = true
+	}
+
+	private fun Uri.toMountTarget(): MountTarget? {
+		val host = host?.takeIf { it.isNotBlank() } ?: return null
+		val inputPath = path?.takeIf { it.isNotBlank() } ?: return null
+
+		return when (scheme) {
+			"smb" -> {
+				val share = pathSegments.firstOrNull() ?: return null
+				val userPass = PlayerApiHelpers.getSmbUserPass(this)
+				MountTarget(MountKey(host, share, userPass.first, false), userPass.second, inputPath.removePrefix("/$share"))
+			}
+			"nfs" -> {
+				val share = PlayerApiHelpers.getNfsRoot(this).second ?: return null
+				// remove old NFS marker
+				MountTarget(MountKey(host, share, null, true), null, inputPath.replace("/:", "").removePrefix("/$share"))
+			}
+			else -> null
+		}
+	}
+}
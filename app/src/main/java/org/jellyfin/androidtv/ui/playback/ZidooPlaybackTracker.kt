@@ -0,0 +1,130 @@
+package org.jellyfin.androidtv.ui.playback
+
+import androidx.lifecycle.LifecycleOwner
+import androidx.lifecycle.lifecycleScope
+import kotlinx.coroutines.Job
+import kotlinx.coroutines.flow.MutableStateFlow
+import kotlinx.coroutines.flow.StateFlow
+import kotlinx.coroutines.flow.asStateFlow
+import kotlinx.coroutines.launch
+import kotlin.math.abs
+
+/**
+ * Last known playback state of the Zidoo player.
+ */
+data class ZidooPlaybackState(
+	val status: Int = PlayerApiHelpers.API_ZIDOO_HTTP_API_VIDEOPLAY_STATUS_ERROR,
+	val position: Int? = null,
+	val audioIndex: Int? = null,
+	val subtitleIndex: Int? = null,
+	val idHash: Int? = null,
+) {
+	val isActive get() = status >= PlayerApiHelpers.API_ZIDOO_HTTP_API_VIDEOPLAY_STATUS_PAUSE
+	val isPlaying get() = status == PlayerApiHelpers.API_ZIDOO_HTTP_API_VIDEOPLAY_STATUS_PLAYING
+}
+
+/**
+ * State machine tracking the Zidoo player from polled [ZidooPlayStatus] results.
+ *
+ * The player is polled at the report interval while it is steady playing or paused, like before
+ * tracking. Polling is only faster while the status, tracks or position change unexpectedly
+ * (start, seek, track switch), until a poll confirms the player is steady again.
+ */
+class ZidooPlaybackTracker {
+	enum class Phase {
+		STARTING,
+		TRANSITION,
+		STEADY,
+		ERROR,
+	}
+
+	companion object {
+		const val FAST_POLL_INTERVAL = 1000 // interval while the player state is changing
+		const val STEADY_POLL_INTERVAL = ZidooTask.API_ZIDOO_HTTP_API_REPORT_LOOP_INTERVAL // interval while steady playing or paused
+		const val ERROR_POLL_INTERVAL = 1000 // retry interval after http-api errors
+		const val POSITION_TOLERANCE = 3000 // allowed drift vs the expected position before we assume a seek
+	}
+
+	private val _state = MutableStateFlow(ZidooPlaybackState())
+	val state: StateFlow<ZidooPlaybackState> = _state.asStateFlow()
+
+	var phase = Phase.STARTING
+		private set
+
+	/**
+	 * True if the last [update] detected a status, track or position change.
+	 */
+	var lastUpdateChanged = false
+		private set
+
+	private var lastUpdateTime = 0L
+
+	/**
+	 * Merge [status] into the current state.
+	 * @return delay in ms until the next poll
+	 */
+	@Synchronized
+	fun update(status: ZidooPlayStatus, now: Long = System.currentTimeMillis()): Int {
+		val previous = _state.value
+		val elapsed = now - lastUpdateTime
+		lastUpdateTime = now
+
+		if (!status.isActive) {
+			lastUpdateChanged = previous.isActive
+			phase = Phase.ERROR
+			_state.value = previous.copy(status = status.status)
+			return ERROR_POLL_INTERVAL
+		}
+
+		// keep old values if the player didn't report them
+		val current = ZidooPlaybackState(
+			status = status.status,
+			position = status.position ?: previous.position,
+			audioIndex = status.audioIndex ?: previous.audioIndex,
+			subtitleIndex = status.subtitleIndex ?: previous.subtitleIndex,
+			idHash = status.idHash ?: previous.idHash,
+		)
+		_state.value = current
+
+		lastUpdateChanged = phase == Phase.STARTING || phase == Phase.ERROR || hasChanged(previous, current, elapsed)
+		if (lastUpdateChanged) {
+			phase = Phase.TRANSITION
+			return FAST_POLL_INTERVAL
+		}
+
+		phase = Phase.STEADY
+		return STEADY_POLL_INTERVAL
+	}
+
+	/**
+	 * Force fast polling, e.g. after sending a seek or track command.
+	 * @return delay in ms until the next poll
+	 */
+	@Synchronized
+	fun expectChange(): Int {
+		phase = Phase.TRANSITION
+		return FAST_POLL_INTERVAL
+	}
+
+	private fun hasChanged(previous: ZidooPlaybackState, current: ZidooPlaybackState, elapsed: Long): Boolean {
+		if (previous.status != current.status) return true
+		if (previous.audioIndex != current.audioIndex || previous.subtitleIndex != current.subtitleIndex) return true
+		if (previous.idHash != current.idHash) return true
+
+		val previousPos = previous.position ?: return current.position != null
+		val currentPos = current.position ?: return false
+		val expectedPos = if (previous.isPlaying) previousPos + elapsed else previousPos.toLong()
+		return abs(currentPos - expectedPos) > POSITION_TOLERANCE
+	}
+
+	/**
+	 * Observe [state] while [owner] is alive, [listener] is called on the main thread.
+	 */
+	fun observe(owner: LifecycleOwner, listener: Listener): Job = owner.lifecycleScope.launch {
+		state.collect { listener.onStateChanged(it) }
+	}
+
+	fun interface Listener {
+		fun onStateChanged(state: ZidooPlaybackState)
+	}
+}
@@ -7,6 +7,7 @@ import org.jellyfin.androidtv.preference.constant.AppTheme
 import org.jellyfin.androidtv.preference.constant.ClockBehavior
 import org.jellyfin.androidtv.preference.constant.RatingType
 import org.jellyfin.androidtv.preference.constant.WatchedIndicatorBehavior
+import org.jellyfin.androidtv.ui.preference.custom.DurationSeekBarPreference
 import org.jellyfin.androidtv.ui.preference.dsl.*
 import org.koin.android.ext.android.inject
 
@@ -139,6 +140,22 @@ class CustomizationPreferencesScreen : OptionsFragment() {
 				depends { userPreferences[UserPreferences.focusBorderSize] != FocusBorderSize.NONE }
 			}
 
+			@Suppress("MagicNumber")
+			seekbar {
+				setTitle(R.string.pref_detail_prefetch_delay)
+				setContent(R.string.pref_detail_prefetch_delay_summary)
+				min = 0 // value of 0 disables prefetching
+				max = 2_000
+				increment = 100
+				valueFormatter = object : DurationSeekBarPreference.ValueFormatter() {
+					override fun display(value: Int): String = when (value) {
+						0 -> getString(R.string.pref_detail_prefetch_delay_disabled)
+						else -> "${value}ms"
+					}
+				}
+				bind(userPreferences, UserPreferences.detailPrefetchDelay)
+			}
+
 			enum<FocusIconSize> {
 				setTitle(R.string.pref_card_focus_icon_size)
 				bind(userPreferences, UserPreferences.focusIconSize)
@@ -0,0 +1,182 @@
+package org.jellyfin.androidtv.ui.presentation
+
+import android.content.Context
+import android.graphics.drawable.Drawable
+import android.util.Size
+import androidx.annotation.MainThread
+import androidx.core.view.doOnLayout
+import androidx.leanback.widget.ObjectAdapter
+import com.bumptech.glide.Priority
+import com.bumptech.glide.RequestManager
+import com.bumptech.glide.load.DataSource
+import com.bumptech.glide.load.engine.GlideException
+import com.bumptech.glide.request.RequestListener
+import com.bumptech.glide.request.target.Target
+import org.jellyfin.androidtv.ui.AsyncImageView
+import org.jellyfin.androidtv.ui.itemhandling.BaseRowItem
+import org.jellyfin.androidtv.util.ImagePreloadRegistry
+import timber.log.Timber
+
+/**
+ * Warms the card images ahead of the focused card, so moving the focus into a new region shows
+ * images instead of blurhash placeholders.
+ *
+ * Images are requested at low priority with the request of [AsyncImageView.load], using the
+ * options and laid out size of the last bound card image with the same aspect ratio, so the
+ * prefetched images end up in the memory cache the cards read from. Images of an aspect ratio no
+ * card was laid out with yet are skipped. Pending requests are cancelled when the focus changes
+ * direction or moves to another row.
+ */
+class CardImagePrefetcher @JvmOverloads constructor(
+	private val context: Context,
+	private val requestManager: RequestManager,
+	private val presenter: CardPresenter,
+	private val lookahead: Int = DEFAULT_LOOKAHEAD,
+) {
+	companion object {
+		const val DEFAULT_LOOKAHEAD = 6
+	}
+
+	data class Request(
+		val url: String,
+		val aspect: Double,
+	)
+
+	// urls bound to a card or prefetched
+	private val warm = ImagePreloadRegistry()
+	// null until the request was started
+	private val inFlight = LinkedHashMap<String, Target<Drawable>?>()
+
+	// options and sizes of the bound card images
+	private var scaleType = AsyncImageView.ScaleTypeGlide.DEFAULT
+	private var cropType = AsyncImageView.CropTypeGlide.NONE
+	private val boundSizes = HashMap<Double, Size>()
+
+	private var adapter: ObjectAdapter? = null
+	private var lastPosition = -1
+	private var direction = 1
+
+	var requested = 0
+		private set
+	var loaded = 0
+		private set
+	var cancelled = 0
+		private set
+
+	/** Bound cards with a prefetched image */
+	var hits = 0
+		private set
+
+	/** Bound cards with a prefetch that did not finish yet */
+	var lateHits = 0
+		private set
+
+	/** Bound cards without a prefetch */
+	var misses = 0
+		private set
+
+	val hitRate: Float
+		get() = (hits + lateHits + misses).let { total -> if (total == 0) 0f else hits.toFloat() / total }
+
+	/**
+	 * Prefetch the images after the card at [position] of [adapter] in the focus direction.
+	 * [visibleCount] is the number of laid out cards, these are bound and skipped.
+	 */
+	@MainThread
+	fun onSelected(adapter: ObjectAdapter, position: Int, visibleCount: Int) {
+		if (position < 0) return
+
+		val newDirection = when {
+			adapter !== this.adapter -> 1
+			position > lastPosition -> 1
+			position < lastPosition -> -1
+			else -> direction
+		}
+		if (adapter !== this.adapter || newDirection != direction) cancel()
+		this.adapter = adapter
+		lastPosition = position
+		direction = newDirection
+
+		var remaining = lookahead
+		for (step in 1..visibleCount + lookahead) {
+			val index = position + step * direction
+			if (remaining == 0 || index < 0 || index >= adapter.size()) break
+
+			val item = adapter.get(index) as? BaseRowItem ?: continue
+			if (prefetch(item)) remaining--
+		}
+	}
+
+	private fun prefetch(item: BaseRowItem): Boolean {
+		val request = presenter.getImageRequest(context, item) ?: return false
+		// a request of another size would not match the memory cache key of the card
+		val size = boundSizes[request.aspect] ?: return false
+		val url = request.url
+		if (!warm.tryStart(url)) return false
+
+		requested++
+		inFlight[url] = null
+		val target = AsyncImageView.createRequest(requestManager, url, scaleType, cropType)
+			.priority(Priority.LOW)
+			.listener(object : RequestListener<Drawable> {
+				override fun onLoadFailed(e: GlideException?, model: Any?, target: Target<Drawable>, isFirstResource: Boolean): Boolean {
+					inFlight.remove(url)
+					warm.onFailed(url)
+					return false
+				}
+
+				override fun onResourceReady(resource: Drawable, model: Any, target: Target<Drawable>?, dataSource: DataSource, isFirstResource: Boolean): Boolean {
+					inFlight.remove(url)
+					warm.onLoaded(url)
+					loaded++
+					return false
+				}
+			})
+			.preload(size.width, size.height)
+		// the listener is called synchronously for images in the memory cache
+		if (inFlight.containsKey(url)) inFlight[url] = target
+		return true
+	}
+
+	/**
+	 * Record the image of a bound card for the hit counters and remember the options and size of
+	 * its [imageView] for the images of cards with the same [aspect].
+	 */
+	@MainThread
+	fun onBind(url: String, imageView: AsyncImageView, aspect: Double) {
+		scaleType = imageView.scaleTypeGlide
+		cropType = imageView.cropTypeGlide
+		imageView.doOnLayout {
+			if (imageView.requestWidth > 0 && imageView.requestHeight > 0)
+				boundSizes[aspect] = Size(imageView.requestWidth, imageView.requestHeight)
+		}
+
+		when {
+			inFlight.containsKey(url) -> {
+				// keep loading, the card is waiting for it
+				inFlight.remove(url)
+				lateHits++
+			}
+			warm.isLoaded(url) -> hits++
+			else -> misses++
+		}
+
+		if (warm.tryStart(url)) warm.onLoaded(url)
+	}
+
+	/**
+	 * Cancel all pending prefetches.
+	 */
+	@MainThread
+	fun cancel() {
+		if (inFlight.isEmpty()) return
+
+		for ((url, target) in inFlight) {
+			target?.let { requestManager.clear(it) }
+			warm.onFailed(url)
+		}
+		cancelled += inFlight.size
+		inFlight.clear()
+		Timber.d("Image prefetch: requested=%d loaded=%d cancelled=%d hitRate=%.2f", requested, loaded, cancelled, hitRate)
+	}
+}
@@ -88,6 +88,9 @@ public class CardPresenter extends Presenter {
     public boolean mPreferSeriesForEpisodes = false;
     public boolean mPreferSeasonForEpisodes = false; // if set takes priority over Series
 
+    @Nullable
+    private CardImagePrefetcher mImagePrefetcher = null;
+
     private final Lazy<ImageHelper> imageHelper = inject(ImageHelper.class);
 
     public CardPresenter() {
@@ -267,12 +270,32 @@ public class CardPresenter extends Presenter {
                 Timber.d("Could not get valid blurHash from <%s>", imageUrlAndType.first);
 
             holder.updateCardViewImage(imageUrlAndType.first, blurHash, imageTypeAndAspect.second);
+            if (mImagePrefetcher != null)
+                mImagePrefetcher.onBind(imageUrlAndType.first, holder.mCardView.getMainImageView(), imageTypeAndAspect.second);
         } else {
             holder.updateCardViewImage(null, null, imageTypeAndAspect.second);
 //            Timber.d("Could not get valid ImageUrl <%s>", rowItem.getFullName(context));
         }
     }
 
+    /**
+     * Get the image url and aspect ratio a card binds for {@code rowItem}, used to prefetch card images.
+     */
+    @Nullable
+    public CardImagePrefetcher.Request getImageRequest(@NonNull Context context, @NonNull BaseRowItem rowItem) {
+        if (!rowItem.isValid()) return null;
+
+        Pair<ImageType, Double> imageTypeAndAspect = getImageTypeAndAspect(rowItem);
+        Pair<String, org.jellyfin.apiclient.model.entities.ImageType> imageUrlAndType = getImageUrl(context, rowItem, imageTypeAndAspect.first, null);
+        if (imageUrlAndType == null || Utils.isEmpty(imageUrlAndType.first)) return null;
+
+        return new CardImagePrefetcher.Request(imageUrlAndType.first, imageTypeAndAspect.second);
+    }
+
+    public void setImagePrefetcher(@Nullable CardImagePrefetcher prefetcher) {
+        mImagePrefetcher = prefetcher;
+    }
+
     public Pair<Integer, Integer> getCardHeightWidth() {
         return getCardHeightWidth(null, null, null);
     }
@@ -0,0 +1,149 @@
+package org.jellyfin.androidtv.ui.search
+
+import androidx.annotation.StringRes
+import kotlinx.coroutines.coroutineScope
+import kotlinx.coroutines.delay
+import kotlinx.coroutines.launch
+import org.jellyfin.androidtv.R
+import org.jellyfin.sdk.api.client.exception.ApiClientException
+import org.jellyfin.sdk.model.api.BaseItemKind
+import timber.log.Timber
+import java.util.concurrent.TimeUnit
+import kotlin.time.Duration
+
+/**
+ * Result rows shown by the search screens.
+ */
+enum class SearchGroup(
+	@StringRes val title: Int,
+	val kinds: Set<BaseItemKind>,
+) {
+	MOVIES(R.string.lbl_movies, setOf(BaseItemKind.MOVIE, BaseItemKind.BOX_SET)),
+	SERIES(R.string.lbl_series, setOf(BaseItemKind.SERIES)),
+	EPISODES(R.string.lbl_episodes, setOf(BaseItemKind.EPISODE)),
+	PEOPLE(R.string.lbl_people, setOf(BaseItemKind.PERSON)),
+	VIDEOS(R.string.lbl_videos, setOf(BaseItemKind.VIDEO)),
+	RECORDINGS(R.string.lbl_recordings, setOf(BaseItemKind.RECORDING)),
+	PROGRAMS(R.string.lbl_programs, setOf(BaseItemKind.PROGRAM)),
+	ARTISTS(R.string.lbl_artists, setOf(BaseItemKind.MUSIC_ARTIST)),
+	ALBUMS(R.string.lbl_albums, setOf(BaseItemKind.MUSIC_ALBUM)),
+	SONGS(R.string.lbl_songs, setOf(BaseItemKind.AUDIO)),
+}
+
+/**
+ * Searches all [SearchGroup]s of a term as one unit of work and caches the results per user, group
+ * and term.
+ *
+ * When the complete result of a shorter prefix is cached, the results for a longer term are
+ * filtered from it with [matcher] instead of asking the server.
+ */
+class SearchEngine<T : Any>(
+	private val fetcher: suspend (term: String, kinds: Set<BaseItemKind>, limit: Int) -> Page<T>,
+	private val matcher: (item: T, term: String) -> Boolean,
+	private val currentUserId: () -> String?,
+	private val maxEntries: Int = DEFAULT_MAX_ENTRIES,
+	private val maxAge: Long = MAX_AGE,
+	private val clock: () -> Long = System::currentTimeMillis,
+) {
+	companion object {
+		const val LIMIT = 50
+		const val DEFAULT_MAX_ENTRIES = 200
+		val MAX_AGE = TimeUnit.MINUTES.toMillis(5)
+	}
+
+	class Page<T>(
+		val items: List<T>,
+		val totalRecordCount: Int,
+	) {
+		// All matches of the term are included
+		val isComplete get() = items.size >= totalRecordCount
+	}
+
+	private class Entry<T>(
+		val page: Page<T>,
+		val timestamp: Long,
+	)
+
+	// access ordered for LRU eviction
+	private val entries = object : LinkedHashMap<String, Entry<T>>(16, 0.75f, true) {
+		override fun removeEldestEntry(eldest: MutableMap.MutableEntry<String, Entry<T>>?) = size > maxEntries
+	}
+
+	var requests = 0
+		@Synchronized get
+		private set
+
+	private fun normalize(term: String) = term.trim().lowercase()
+	private fun key(userId: String?, group: SearchGroup, term: String) = "$userId|${group.name}|$term"
+
+	/**
+	 * Get the results of [group] for [term] without asking the server, null if not cached.
+	 */
+	@Synchronized
+	fun getCached(group: SearchGroup, term: String): List<T>? {
+		val userId = currentUserId()
+		val normalized = normalize(term)
+		for (length in normalized.length downTo 1) {
+			val entry = entries[key(userId, group, normalized.substring(0, length))] ?: continue
+			if (clock() - entry.timestamp > maxAge) continue
+			if (length == normalized.length) return entry.page.items
+			if (!entry.page.isComplete) continue
+
+			val items = entry.page.items.filter { matcher(it, normalized) }
+			entries[key(userId, group, normalized)] = Entry(Page(items, items.size), entry.timestamp)
+			return items
+		}
+
+		return null
+	}
+
+	/**
+	 * Get the results of [group] for [term], asking the server when not cached.
+	 */
+	suspend fun get(group: SearchGroup, term: String): List<T> {
+		getCached(group, term)?.let { return it }
+
+		// The user may change while the request is running
+		val userId = currentUserId()
+		val page = fetcher(term.trim(), group.kinds, LIMIT)
+		synchronized(this) {
+			requests++
+			entries[key(userId, group, normalize(term))] = Entry(page, clock())
+		}
+		return page.items
+	}
+
+	/**
+	 * Search all groups concurrently, [onResult] receives the results of each group as soon as they
+	 * are available. Groups that are not cached wait for [debounce] before asking the server.
+	 * Cancelling the calling coroutine cancels all requests of the search.
+	 */
+	suspend fun search(
+		term: String,
+		debounce: Duration = Duration.ZERO,
+		onResult: (group: SearchGroup, items: List<T>) -> Unit,
+	) = coroutineScope {
+		for (group in SearchGroup.values()) launch {
+			val cached = getCached(group, term)
+			if (cached != null) {
+				onResult(group, cached)
+				return@launch
+			}
+
+			delay(debounce)
+			val items = try {
+				get(group, term)
+			} catch (err: ApiClientException) {
+				Timber.e(err, "Unable to search %s for %s", group, term)
+				emptyList()
+			}
+			onResult(group, items)
+		}
+	}
+
+	/**
+	 * Forget all results, e.g. after the user changed.
+	 */
+	@Synchronized
+	fun clear() = entries.clear()
+}
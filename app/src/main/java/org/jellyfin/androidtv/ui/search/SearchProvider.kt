@@ -3,26 +3,36 @@ package org.jellyfin.androidtv.ui.search
 import android.content.Context
 import androidx.leanback.app.SearchSupportFragment
 import androidx.leanback.widget.ArrayObjectAdapter
+import androidx.leanback.widget.HeaderItem
+import androidx.leanback.widget.ListRow
 import androidx.leanback.widget.ObjectAdapter
 import androidx.lifecycle.Lifecycle
 import androidx.lifecycle.coroutineScope
 import kotlinx.coroutines.Job
-import kotlinx.coroutines.delay
 import kotlinx.coroutines.launch
+import org.jellyfin.androidtv.ui.itemhandling.ItemRowAdapter
+import org.jellyfin.androidtv.ui.presentation.CardPresenter
 import org.jellyfin.androidtv.ui.presentation.CustomListRowPresenter
+import org.jellyfin.apiclient.model.search.SearchQuery
+import org.jellyfin.sdk.model.api.SearchHint
+import org.koin.core.component.KoinComponent
+import org.koin.core.component.inject
+import java.util.EnumMap
+import kotlin.time.Duration
 import kotlin.time.Duration.Companion.milliseconds
 
 class SearchProvider(
-	context: Context,
+	private val context: Context,
 	private val lifecycle: Lifecycle,
-) : SearchSupportFragment.SearchResultProvider {
+) : SearchSupportFragment.SearchResultProvider, KoinComponent {
 	companion object {
 		private val SEARCH_DELAY = 600.milliseconds
 	}
 
+	private val searchEngine by inject<SearchEngine<SearchHint>>()
 	private val rowsAdapter = ArrayObjectAdapter(CustomListRowPresenter())
+	private val rows = EnumMap<SearchGroup, ListRow>(SearchGroup::class.java)
 	private var previousQuery: String? = null
-	private val searchRunnable = SearchRunnable(context, rowsAdapter)
 	private var searchJob: Job? = null
 
 	override fun getResultsAdapter(): ObjectAdapter = rowsAdapter
@@ -32,7 +42,10 @@ class SearchProvider(
 
 	private fun search(query: String, delayed: Boolean): Boolean {
 		if (query.isBlank()) {
+			searchJob?.cancel()
+			previousQuery = null
 			rowsAdapter.clear()
+			rows.clear()
 			return true
 		}
 
@@ -40,12 +53,37 @@ class SearchProvider(
 		if (query == previousQuery) return false
 		previousQuery = query
 
+		// Cancels all requests of the previous query
 		searchJob?.cancel()
 		searchJob = lifecycle.coroutineScope.launch {
-			if (delayed) delay(SEARCH_DELAY)
-			searchRunnable.run(query)
+			searchEngine.search(query, if (delayed) SEARCH_DELAY else Duration.ZERO, ::showResults)
 		}
 
 		return true
 	}
+
+	private fun showResults(group: SearchGroup, items: List<SearchHint>) {
+		val row = rows[group]
+		if (items.isEmpty()) {
+			if (row != null) rowsAdapter.remove(row)
+			rows.remove(group)
+			return
+		}
+
+		if (row != null) {
+			(row.adapter as ItemRowAdapter).setSearchHints(items)
+			return
+		}
+
+		val adapter = ItemRowAdapter(context, SearchQuery().apply {
+			includeItemTypes = group.kinds.map { it.serialName }.toTypedArray()
+		}, CardPresenter(), rowsAdapter)
+		adapter.setSearchHints(items)
+		val newRow = ListRow(HeaderItem(context.getString(group.title)), adapter)
+		adapter.setRow(newRow)
+
+		// Keep the rows in the order of the groups
+		rows[group] = newRow
+		rowsAdapter.add(rows.keys.indexOf(group), newRow)
+	}
 }
@@ -26,8 +26,9 @@ import java.util.HashSet;
 import java.util.Locale;
 import java.util.Map;
 import java.util.MissingResourceException;
+import java.util.Objects;
 import java.util.Set;
-import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 import kotlin.Lazy;
 import timber.log.Timber;
@@ -43,39 +44,135 @@ public class AudioSubtitleHelper {
         final public boolean mPreferSdhSubs;
         final public String mForcedAudioCodec;
 
+        // merit tables, built once instead of for every evaluation
+        final Map<String, Integer> mAudioCodecMerits;
+        final Map<String, Integer> mAudioProfileMerits;
+        final TitleFilters mAudioFilters;
+        final TitleFilters mSubtitleFilters;
+
+        // last selections per media source, see getBestAudioSubtitleIdx
+        private final ArrayList<CachedSelection> mSelections = new ArrayList<>(MAX_CACHED_SELECTIONS);
+
         public AudioSubPref(@NonNull final Lazy<UserPreferences> userPreferences) {
-            mHasDtsDecoder = userPreferences.getValue().get(UserPreferences.Companion.getDtsCapableDevice());
-            mAudioLangSetting = userPreferences.getValue().get(UserPreferences.Companion.getAudioLanguage());
-            mSubtitleLangSetting = userPreferences.getValue().get(UserPreferences.Companion.getSubtitleLanguage());
-            mNoForcedSubs = userPreferences.getValue().get(UserPreferences.Companion.getNoForcedSubtitles());
-            mAllowSameLanguageSubs = userPreferences.getValue().get(UserPreferences.Companion.getAllowSameLanguageSubs());
-            mPreferSdhSubs = userPreferences.getValue().get(UserPreferences.Companion.getUseSdhSubtitles());
-            mForcedAudioCodec = userPreferences.getValue().get(UserPreferences.Companion.getForcedAudioCodec()).getCodecName();
+            this(userPreferences.getValue().get(UserPreferences.Companion.getAudioLanguage()),
+                    userPreferences.getValue().get(UserPreferences.Companion.getSubtitleLanguage()),
+                    userPreferences.getValue().get(UserPreferences.Companion.getDtsCapableDevice()),
+                    userPreferences.getValue().get(UserPreferences.Companion.getNoForcedSubtitles()),
+                    userPreferences.getValue().get(UserPreferences.Companion.getAllowSameLanguageSubs()),
+                    userPreferences.getValue().get(UserPreferences.Companion.getUseSdhSubtitles()),
+                    userPreferences.getValue().get(UserPreferences.Companion.getForcedAudioCodec()).getCodecName());
+        }
+
+        public AudioSubPref(@NonNull LanguagesAudio audioLangSetting, @NonNull LanguagesSubtitle subtitleLangSetting, boolean hasDtsDecoder, boolean noForcedSubs, boolean allowSameLanguageSubs, boolean preferSdhSubs, @NonNull String forcedAudioCodec) {
+            mAudioLangSetting = audioLangSetting;
+            mSubtitleLangSetting = subtitleLangSetting;
+            mHasDtsDecoder = hasDtsDecoder;
+            mNoForcedSubs = noForcedSubs;
+            mAllowSameLanguageSubs = allowSameLanguageSubs;
+            mPreferSdhSubs = preferSdhSubs;
+            mForcedAudioCodec = forcedAudioCodec;
+
+            mAudioCodecMerits = new HashMap<>(AUDIO_CODECS);
+            Map<String, Integer> audioFilters = new HashMap<>(AUDIO_FILTERS);
+            if (mHasDtsDecoder) {
+                mAudioProfileMerits = AUDIO_PROFILES;
+                mAudioCodecMerits.put(Codec.Audio.DTS, AUDIO_CODECS.get(Codec.Audio.AC3) - 1); // match eac3 with MA
+                audioFilters.put("dts:x", 2); // match atmos
+            } else {
+                mAudioProfileMerits = Map.of();
+            }
+            if (!mForcedAudioCodec.equals("none")) {
+                mAudioCodecMerits.put(mForcedAudioCodec, 15); // favor forced codec's, surround should still win
+            }
+            mAudioFilters = new TitleFilters(audioFilters);
+
+            Map<String, Integer> subtitleFilters = new HashMap<>(SUBTITLE_FILTERS);
+            if (mPreferSdhSubs) {
+                subtitleFilters.put("sdh", 50);
+                subtitleFilters.put("caption", 40);
+                subtitleFilters.put("hearing impaired", 30);
+            }
+            mSubtitleFilters = new TitleFilters(subtitleFilters);
+        }
+
+        @Nullable
+        synchronized CachedSelection getCachedSelection(@NonNull ArrayList<MediaStream> mediaStreams, @Nullable String originalLangCode) {
+            for (CachedSelection selection : mSelections) {
+                if (selection.matches(mediaStreams, mAudioLangSetting, originalLangCode)) {
+                    return selection;
+                }
+            }
+            return null;
+        }
+
+        synchronized void putCachedSelection(@NonNull CachedSelection selection) {
+            if (mSelections.size() >= MAX_CACHED_SELECTIONS) {
+                mSelections.remove(0);
+            }
+            mSelections.add(selection);
         }
     }
 
+    final static int MAX_CACHED_SELECTIONS = 4;
+
+    // A selection made for a stream list, the list is compared by identity so a media source is
+    // only evaluated once per playback
+    static class CachedSelection {
+        final ArrayList<MediaStream> mMediaStreams;
+        final int mNumStreams;
+        final LanguagesAudio mAudioLangSetting;
+        @Nullable
+        final String mOriginalLangCode;
+        @Nullable
+        final Pair<Pair<MediaStream, Integer>, Pair<MediaStream, Integer>> mResult;
+
+        CachedSelection(@NonNull ArrayList<MediaStream> mediaStreams, @NonNull LanguagesAudio audioLangSetting, @Nullable String originalLangCode, @Nullable Pair<Pair<MediaStream, Integer>, Pair<MediaStream, Integer>> result) {
+            mMediaStreams = mediaStreams;
+            mNumStreams = mediaStreams.size();
+            mAudioLangSetting = audioLangSetting;
+            mOriginalLangCode = originalLangCode;
+            mResult = result;
+        }
+
+        boolean matches(@NonNull ArrayList<MediaStream> mediaStreams, @NonNull LanguagesAudio audioLangSetting, @Nullable String originalLangCode) {
+            return mMediaStreams == mediaStreams && mNumStreams == mediaStreams.size()
+                    && mAudioLangSetting == audioLangSetting && Objects.equals(mOriginalLangCode, originalLangCode);
+        }
+    }
+
+    // resolved language codes, an empty string marks codes without ISO3 code
+    private final static Map<String, String> ISO3_CODES = new ConcurrentHashMap<>();
+    private final static int MAX_ISO3_CODES = 256;
+
     // handle terminology_code vs bibliographic_code
     // gets the language code from a IETF BCP 47 or 639-1 or 639-2 code
     @Nullable
     public static String getISO3LanguageCode(@Nullable String langCode) {
-        if (isNonEmptyTrim(langCode)) {
+        if (!isNonEmptyTrim(langCode)) {
+            return null;
+        }
+        String outISO3 = ISO3_CODES.get(langCode);
+        if (outISO3 == null) {
+            outISO3 = "";
             try {
                 String bcp_47 = Util.normalizeLanguageCode(langCode);
                 Locale locale = Locale.forLanguageTag(bcp_47);
-                String outISO3 = locale.getISO3Language();
-                if (isNonEmpty(outISO3)) {
-                    return outISO3;
-                }
+                outISO3 = getSafeValue(locale.getISO3Language(), "");
             } catch (MissingResourceException ignored) {
             }
+            if (ISO3_CODES.size() >= MAX_ISO3_CODES) {
+                ISO3_CODES.clear(); // only ever hit with broken metadata
+            }
+            ISO3_CODES.put(langCode, outISO3);
         }
-        return null;
+        return isNonEmpty(outISO3) ? outISO3 : null;
     }
 
     final static int DEFAULT_AUDIO_FLAG_MERIT = 1; // should this override even best picks?
     final static int DEFAULT_SUBTITLE_FLAG_MERIT = 1;
     final static int AUDIO_SURROUND_MERIT = 5; // we favor >2ch, surround sound
     final static int AUDIO_SURROUND_6CH_MERIT = 15;
+    final static int ORIGINAL_AUDIO_MERIT = 20;
     // setup our filter merits
     final static Map<String, Integer> SUBTITLE_FILTERS = Map.of(
             "dialog", 10,
@@ -178,213 +275,177 @@ public class AudioSubtitleHelper {
         return merit;
     }
 
-    @NonNull
-    public static TreeMap<Integer, Pair<MediaStream, Integer>> evaluateMediaStreams(@NonNull ArrayList<MediaStream> mediaStreams, @NonNull AudioSubPref prefs, MediaStreamType mediaType, @Nullable String langCodeFilter, boolean ignoreForced, boolean ignoreFilters) {
-        if (!(mediaType == MediaStreamType.Audio || mediaType == MediaStreamType.Subtitle)) {
-            Timber.w("Unsupported media type <%s>", mediaType);
-            return new TreeMap<>();
-        }
-        if (isNonEmptyTrim(langCodeFilter) && langCodeFilter.length() != 3) {
-            Timber.e("langCodeFilter is not a 3 letter code <%s>", langCodeFilter);
-            return new TreeMap<>();
-        }
-        // setup our merit maps
-        Map<String, Integer> merit_codec = null;
-        Map<String, Integer> merit_filter = null;
-        Map<String, Integer> merit_profile = null;
-
-        if (mediaType == MediaStreamType.Audio) {
-            merit_codec = new HashMap<>(AUDIO_CODECS);
-            merit_filter = new HashMap<>(AUDIO_FILTERS);
-            if (prefs.mHasDtsDecoder) {
-                merit_profile = new HashMap<>(AUDIO_PROFILES);
-                merit_codec.put(Codec.Audio.DTS, AUDIO_CODECS.get(Codec.Audio.AC3) - 1); // match eac3 with MA
-                merit_filter.put("dts:x", 2); // match atmos
-            } else {
-                merit_profile = new HashMap<>();
-            }
-            if (!prefs.mForcedAudioCodec.equals("none")) {
-                merit_codec.put(prefs.mForcedAudioCodec, 15); // favor forced codec's, surround should still win
-            }
-            if (prefs.mAudioLangSetting == LanguagesAudio.ORIGINAL) {
-                merit_filter.put("original", 20);
-            }
-        } else if (mediaType == MediaStreamType.Subtitle) {
-            merit_codec = new HashMap<>(SUBTITLE_CODECS);
-            merit_filter = new HashMap<>(SUBTITLE_FILTERS);
-            merit_profile = new HashMap<>();
-            if (prefs.mPreferSdhSubs) {
-                merit_filter.put("sdh", 50);
-                merit_filter.put("caption", 40);
-                merit_filter.put("hearing impaired", 30);
+    // title filters as plain arrays, so matching a title does not allocate
+    static class TitleFilters {
+        final String[] mFilters;
+        final int[] mMerits;
+
+        TitleFilters(@NonNull Map<String, Integer> filters) {
+            mFilters = new String[filters.size()];
+            mMerits = new int[filters.size()];
+            int i = 0;
+            for (Map.Entry<String, Integer> entry : filters.entrySet()) {
+                mFilters[i] = entry.getKey().trim().toLowerCase(Locale.US);
+                mMerits[i] = entry.getValue();
+                i++;
             }
         }
-        TreeMap<Integer, Pair<MediaStream, Integer>> outMeritMap = new TreeMap<>();
-        // NOTE: We need the natural per type index, not absolute.
-        int naturalIdx = 0;
-        // calculate merits for all streams
-        for (MediaStream stream : mediaStreams) {
-            int merit = 0;
-            if (stream.getType() != mediaType) {
-                continue;
-            }
-            if (stream.getIsExternal()) {
-                //                naturalIdx++; // ??? test this
-                continue;
-            }
-            if (ignoreForced && isForcedTrack(stream)) {
-                naturalIdx++;
-                continue;
-            }
-            if (isNonEmptyTrim(langCodeFilter)) {
-                String langCode = getISO3LanguageCode(getSafeValue(stream.getLanguage(), null));
-                if (isEmpty(langCode) || !langCode.equals(langCodeFilter)) {
-                    naturalIdx++;
-                    continue;
-                }
-            }
-            String codec = getSafeValue(stream.getCodec(), "").trim().toLowerCase(Locale.US);
-            String profile = getSafeValue(stream.getProfile(), "").trim().toLowerCase(Locale.US);
-            String title = getSafeValue(stream.getTitle(), "").trim().toLowerCase(Locale.US);
 
-            merit += getSafeValue(merit_codec.get(codec), 0);
-            merit += getSafeValue(merit_profile.get(profile), 0);
-            if (!ignoreFilters) {
-                for (Map.Entry<String, Integer> entry : merit_filter.entrySet()) {
-                    String filter = getSafeValue(entry.getKey(), "").trim().toLowerCase(Locale.US);
-                    if (!filter.isEmpty() && !title.isEmpty() && title.contains(filter)) {
-                        merit += getSafeValue(entry.getValue(), 0);
+        int getMerit(@NonNull String title) {
+            int merit = 0;
+            if (!title.isEmpty()) {
+                for (int i = 0; i < mFilters.length; i++) {
+                    if (title.contains(mFilters[i])) {
+                        merit += mMerits[i];
                     }
                 }
             }
-            if (stream.getType() == MediaStreamType.Audio) {
-                merit += calcMeritAudio(stream); // rate channels bitDepth sampleRate (we miss more audioProfiles)
-                if (isDefaultTrack(stream)) {
-                    merit += DEFAULT_AUDIO_FLAG_MERIT; // boost audio more?
-                }
-            } else if (isDefaultTrack(stream)) {
-                merit += DEFAULT_SUBTITLE_FLAG_MERIT; // slightly boost default subs, if all is equal we favor defaults
-            }
-            // only use positive merits!
-            if (merit >= 0) {
-                outMeritMap.put(merit, new Pair<>(stream, naturalIdx));
-            }
-            naturalIdx++;
+            return merit;
         }
-        return outMeritMap;
     }
 
-    @NonNull
-    public static ArrayList<Pair<MediaStream, Integer>> getForcedStreams(@NonNull ArrayList<MediaStream> mediaStreams, MediaStreamType mediaType, @Nullable String langCodeFilter) {
-        ArrayList<Pair<MediaStream, Integer>> outmap = new ArrayList<>();
+    final static int TRACK_FORCED = 1;
+    final static int TRACK_DEFAULT = 1 << 1;
+    final static int TRACK_SDH = 1 << 2;
+    final static int TRACK_CAPTION = 1 << 3;
+
+    // Features of an embedded audio or subtitle stream, computed once per selection
+    static class Track {
+        final MediaStream mStream;
         // NOTE: We need the natural per type index, not absolute.
-        int naturalIdx = 0;
-        for (MediaStream stream : mediaStreams) {
-            if (stream.getType() != mediaType) {
-                continue;
-            }
-            if (stream.getIsExternal()) {
-                //                naturalIdx++; // ??? test this
-                continue;
-            }
-            if (isNonEmptyTrim(langCodeFilter)) {
-                String langCode = getISO3LanguageCode(getSafeValue(stream.getLanguage(), null));
-                if (isEmpty(langCode) || !langCode.equals(langCodeFilter)) {
-                    naturalIdx++;
-                    continue;
-                }
-            }
-            if (isForcedTrack(stream)) {
-                outmap.add(new Pair<>(stream, naturalIdx));
-            }
-            naturalIdx++;
+        final int mNaturalIdx;
+        @Nullable
+        final String mLanguage; // ISO3 code
+        final int mFlags;
+        final int mMerit; // codec, profile, channels and default flag
+        final int mFilterMerit; // title filters
+
+        Track(@NonNull MediaStream stream, int naturalIdx, @Nullable String language, int flags, int merit, int filterMerit) {
+            mStream = stream;
+            mNaturalIdx = naturalIdx;
+            mLanguage = language;
+            mFlags = flags;
+            mMerit = merit;
+            mFilterMerit = filterMerit;
+        }
+
+        boolean is(int flag) {
+            return (mFlags & flag) != 0;
+        }
+
+        boolean hasLanguage(@Nullable String iso3Code) {
+            return isEmpty(iso3Code) || iso3Code.equals(mLanguage);
+        }
+
+        int getMerit(boolean ignoreFilters) {
+            return ignoreFilters ? mMerit : mMerit + mFilterMerit;
+        }
+
+        @NonNull
+        Pair<MediaStream, Integer> toPair() {
+            return new Pair<>(mStream, mNaturalIdx);
         }
-        return outmap;
     }
 
+    static class Tracks {
+        final ArrayList<Track> mAudio = new ArrayList<>();
+        final ArrayList<Track> mSubtitles = new ArrayList<>();
+        // including external streams
+        int mNumAudio = 0;
+        int mNumSubtitles = 0;
+    }
+
+    // single pass over the streams, everything the selection looks at is resolved here
     @NonNull
-    public static ArrayList<Pair<MediaStream, Integer>> getSDHStreams(@NonNull ArrayList<MediaStream> mediaStreams, @Nullable String langCodeFilter) {
-        ArrayList<Pair<MediaStream, Integer>> outmap = new ArrayList<>();
-        // NOTE: We need the natural per type index, not absolute.
-        int naturalIdx = 0;
-        for (MediaStream stream : mediaStreams) {
-            if (stream.getType() != MediaStreamType.Subtitle) {
+    static Tracks getTracks(@NonNull ArrayList<MediaStream> mediaStreams, @NonNull AudioSubPref prefs) {
+        Tracks tracks = new Tracks();
+        for (int i = 0; i < mediaStreams.size(); i++) {
+            MediaStream stream = mediaStreams.get(i);
+            boolean isAudio = stream.getType() == MediaStreamType.Audio;
+            if (isAudio) {
+                tracks.mNumAudio++;
+            } else if (stream.getType() == MediaStreamType.Subtitle) {
+                tracks.mNumSubtitles++;
+            } else {
                 continue;
             }
             if (stream.getIsExternal()) {
-                //                naturalIdx++; // ??? test this
-                continue;
+                continue; // external streams have no natural index
             }
-            if (isNonEmptyTrim(langCodeFilter)) {
-                String langCode = getISO3LanguageCode(getSafeValue(stream.getLanguage(), null));
-                if (isEmpty(langCode) || !langCode.equals(langCodeFilter)) {
-                    naturalIdx++;
-                    continue;
+
+            String codec = getSafeValue(stream.getCodec(), "").trim().toLowerCase(Locale.US);
+            String profile = getSafeValue(stream.getProfile(), "").trim().toLowerCase(Locale.US);
+            String title = getSafeValue(stream.getTitle(), "").trim().toLowerCase(Locale.US);
+
+            // FIX for bad tagged stuff, no SDH flag support so check the title
+            int flags = 0;
+            if (stream.getIsForced() || title.contains("forced"))
+                flags |= TRACK_FORCED;
+            if (stream.getIsDefault() || title.contains("default"))
+                flags |= TRACK_DEFAULT;
+            if (title.contains("sdh"))
+                flags |= TRACK_SDH;
+            if (title.contains("caption"))
+                flags |= TRACK_CAPTION;
+
+            int merit;
+            int filterMerit;
+            ArrayList<Track> typeTracks;
+            if (isAudio) {
+                merit = getSafeValue(prefs.mAudioCodecMerits.get(codec), 0);
+                merit += getSafeValue(prefs.mAudioProfileMerits.get(profile), 0);
+                merit += calcMeritAudio(stream); // rate channels bitDepth sampleRate (we miss more audioProfiles)
+                if ((flags & TRACK_DEFAULT) != 0) {
+                    merit += DEFAULT_AUDIO_FLAG_MERIT; // boost audio more?
                 }
+                filterMerit = prefs.mAudioFilters.getMerit(title);
+                if (prefs.mAudioLangSetting == LanguagesAudio.ORIGINAL && title.contains("original")) {
+                    filterMerit += ORIGINAL_AUDIO_MERIT;
+                }
+                typeTracks = tracks.mAudio;
+            } else {
+                merit = getSafeValue(SUBTITLE_CODECS.get(codec), 0);
+                if ((flags & TRACK_DEFAULT) != 0) {
+                    merit += DEFAULT_SUBTITLE_FLAG_MERIT; // slightly boost default subs, if all is equal we favor defaults
+                }
+                filterMerit = prefs.mSubtitleFilters.getMerit(title);
+                typeTracks = tracks.mSubtitles;
             }
-            if (isSDHTrack(stream)) {
-                outmap.add(new Pair<>(stream, naturalIdx));
-            }
-            naturalIdx++;
+            typeTracks.add(new Track(stream, typeTracks.size(), getISO3LanguageCode(stream.getLanguage()), flags, merit, filterMerit));
         }
-        return outmap;
+        return tracks;
     }
 
-    @NonNull
-    public static ArrayList<Pair<MediaStream, Integer>> getCaptionStreams(@NonNull ArrayList<MediaStream> mediaStreams, @Nullable String langCodeFilter) {
-        ArrayList<Pair<MediaStream, Integer>> outmap = new ArrayList<>();
-        // NOTE: We need the natural per type index, not absolute.
-        int naturalIdx = 0;
-        for (MediaStream stream : mediaStreams) {
-            if (stream.getType() != MediaStreamType.Subtitle) {
-                continue;
-            }
-            if (stream.getIsExternal()) {
-                //                naturalIdx++; // ??? test this
-                continue;
-            }
-            if (isNonEmptyTrim(langCodeFilter)) {
-                String langCode = getISO3LanguageCode(getSafeValue(stream.getLanguage(), null));
-                if (isEmpty(langCode) || !langCode.equals(langCodeFilter)) {
-                    naturalIdx++;
-                    continue;
-                }
-            }
-            if (isCaptionTrack(stream)) {
-                outmap.add(new Pair<>(stream, naturalIdx));
+    // first track with the flag, in stream order
+    @Nullable
+    static Track findFirst(@NonNull ArrayList<Track> tracks, @Nullable String iso3Code, int flag) {
+        for (int i = 0; i < tracks.size(); i++) {
+            Track track = tracks.get(i);
+            if (track.is(flag) && track.hasLanguage(iso3Code)) {
+                return track;
             }
-            naturalIdx++;
         }
-        return outmap;
+        return null;
     }
 
-    @NonNull
-    public static ArrayList<Pair<MediaStream, Integer>> getDefaultStreams(@NonNull ArrayList<MediaStream> mediaStreams, MediaStreamType mediaType, @Nullable String langCodeFilter) {
-        ArrayList<Pair<MediaStream, Integer>> outmap = new ArrayList<>();
-        // NOTE: We need the natural per type index, not absolute.
-        int naturalIdx = 0;
-        for (MediaStream stream : mediaStreams) {
-            int merit = 0;
-            if (stream.getType() != mediaType) {
-                continue;
-            }
-            if (stream.getIsExternal()) {
-                //                naturalIdx++; // ??? test this
+    // track with the highest positive merit, equal merits keep the first track
+    @Nullable
+    static Track findBest(@NonNull ArrayList<Track> tracks, @Nullable String iso3Code, boolean ignoreForced, boolean ignoreFilters) {
+        Track best = null;
+        int bestMerit = -1;
+        for (int i = 0; i < tracks.size(); i++) {
+            Track track = tracks.get(i);
+            if ((ignoreForced && track.is(TRACK_FORCED)) || !track.hasLanguage(iso3Code)) {
                 continue;
             }
-            if (isNonEmptyTrim(langCodeFilter)) {
-                String langCode = getISO3LanguageCode(getSafeValue(stream.getLanguage(), null));
-                if (isEmpty(langCode) || !langCode.equals(langCodeFilter)) {
-                    naturalIdx++;
-                    continue;
-                }
-            }
-            if (isDefaultTrack(stream)) {
-                outmap.add(new Pair<>(stream, naturalIdx));
+            int merit = track.getMerit(ignoreFilters);
+            // only use positive merits!
+            if (merit > bestMerit) {
+                best = track;
+                bestMerit = merit;
             }
-            naturalIdx++;
         }
-        return outmap;
+        return best;
     }
 
     @NonNull
@@ -419,12 +480,26 @@ public class AudioSubtitleHelper {
         if (prefs.mAudioLangSetting == LanguagesAudio.DEVICE) {
             return null;
         }
-        Pair<Integer, Integer> numTracks = getNumAudioSubTracks(mediaStreams);
-        if (isEmpty(mediaStreams) || numTracks.first == 0) {
+        if (isEmpty(mediaStreams)) {
+            Timber.d("Empty or no audio stream detected, skipping!");
+            return null;
+        }
+        CachedSelection cached = prefs.getCachedSelection(mediaStreams, originalLangCode);
+        if (cached != null) {
+            return cached.mResult;
+        }
+        Pair<Pair<MediaStream, Integer>, Pair<MediaStream, Integer>> result = selectAudioSubtitle(getTracks(mediaStreams, prefs), prefs, originalLangCode);
+        prefs.putCachedSelection(new CachedSelection(mediaStreams, prefs.mAudioLangSetting, originalLangCode, result));
+        return result;
+    }
+
+    @Nullable
+    static Pair<Pair<MediaStream, Integer>, Pair<MediaStream, Integer>> selectAudioSubtitle(@NonNull Tracks tracks, @NonNull AudioSubPref prefs, @Nullable String originalLangCode) {
+        if (tracks.mNumAudio == 0) {
             Timber.d("Empty or no audio stream detected, skipping!");
             return null;
         }
-        if (numTracks.first == 1 && numTracks.second == 0) {
+        if (tracks.mNumAudio == 1 && tracks.mNumSubtitles == 0) {
             return null; // nothing to-do, let player handle things
         }
         // setup languages codes
@@ -444,151 +519,104 @@ public class AudioSubtitleHelper {
             return null;
         }
 
-        Pair<MediaStream, Integer> audIdx = null;
-        Pair<MediaStream, Integer> subIdx = null;
+        ArrayList<Track> audioTracks = tracks.mAudio;
+        ArrayList<Track> subtitleTracks = tracks.mSubtitles;
+        Track audio = null;
+        Track subtitle = null;
 
         // AUDIO logic
         // NOTE: Anime seem to use "kor" == "jpn" loosely!
         if (prefs.mAudioLangSetting == LanguagesAudio.ORIGINAL) {
-            ArrayList<Pair<MediaStream, Integer>> originalDefaultAudioTracks = getDefaultStreams(mediaStreams, MediaStreamType.Audio, audioCode);
-            if (originalDefaultAudioTracks.isEmpty() && "kor".equals(audioCode)) { // fallback
-                originalDefaultAudioTracks = getDefaultStreams(mediaStreams, MediaStreamType.Audio, "jpn"); // handle bad tagged anime
-            }
-            if (!originalDefaultAudioTracks.isEmpty()) {
-                audIdx = originalDefaultAudioTracks.get(0); // found original audio
+            audio = findFirst(audioTracks, audioCode, TRACK_DEFAULT); // found original audio
+            if (audio == null && "kor".equals(audioCode)) { // fallback
+                audio = findFirst(audioTracks, "jpn", TRACK_DEFAULT); // handle bad tagged anime
             }
-        }
-        if (audIdx == null && prefs.mAudioLangSetting == LanguagesAudio.ORIGINAL) {
             // try none default now
-            TreeMap<Integer, Pair<MediaStream, Integer>> originalAudioTracks = evaluateMediaStreams(mediaStreams, prefs, MediaStreamType.Audio, audioCode, true, false);
-            if (originalAudioTracks.isEmpty() && "kor".equals(audioCode)) { // fallback
-                originalAudioTracks = evaluateMediaStreams(mediaStreams, prefs, MediaStreamType.Audio, "jpn", true, false);
+            if (audio == null) {
+                audio = findBest(audioTracks, audioCode, true, false);
             }
-            if (!originalAudioTracks.isEmpty()) {
-                audIdx = originalAudioTracks.lastEntry().getValue(); // great found native audio!
+            if (audio == null && "kor".equals(audioCode)) { // fallback
+                audio = findBest(audioTracks, "jpn", true, false);
             }
         }
-        if (audIdx == null && prefs.mAudioLangSetting == LanguagesAudio.DEFAULT) {
-            ArrayList<Pair<MediaStream, Integer>> defaultAudioTracks = getDefaultStreams(mediaStreams, MediaStreamType.Audio, audioCode); // with langCode first
-            if (defaultAudioTracks.isEmpty()) {
-                defaultAudioTracks = getDefaultStreams(mediaStreams, MediaStreamType.Audio, null); // any language
-            }
-            if (!defaultAudioTracks.isEmpty()) {
-                audIdx = defaultAudioTracks.get(0); // found default audio
+        if (audio == null && prefs.mAudioLangSetting == LanguagesAudio.DEFAULT) {
+            audio = findFirst(audioTracks, audioCode, TRACK_DEFAULT); // with langCode first
+            if (audio == null) {
+                audio = findFirst(audioTracks, null, TRACK_DEFAULT); // any language
             }
         }
         // check if we can get a native audio stream
-        if (audIdx == null) {
-            TreeMap<Integer, Pair<MediaStream, Integer>> nativeAudioMerits = evaluateMediaStreams(mediaStreams, prefs, MediaStreamType.Audio, audioCode, true, false);
-            if (!nativeAudioMerits.isEmpty()) {
-                audIdx = nativeAudioMerits.lastEntry().getValue(); // great found native audio!
-            }
+        if (audio == null) {
+            audio = findBest(audioTracks, audioCode, true, false);
         }
-        // try to find any audio track
-        if (audIdx == null) {
-            // prefer ANY default audio track
-            ArrayList<Pair<MediaStream, Integer>> defaultAudioTracks = getDefaultStreams(mediaStreams, MediaStreamType.Audio, null);
-            if (!defaultAudioTracks.isEmpty()) {
-                audIdx = defaultAudioTracks.get(0); // found default audio
-            } else {
-                // now we can evaluate or just use track 0 ??
-                TreeMap<Integer, Pair<MediaStream, Integer>> audioTrackMerits = evaluateMediaStreams(mediaStreams, prefs, MediaStreamType.Audio, null, true, true);
-                if (!audioTrackMerits.isEmpty()) {
-                    audIdx = audioTrackMerits.lastEntry().getValue(); // found unfiltered none native audio
-                }
-            }
+        // try to find any audio track, prefer ANY default audio track
+        if (audio == null) {
+            audio = findFirst(audioTracks, null, TRACK_DEFAULT);
         }
-        if (audIdx == null) {
+        // now we can evaluate or just use track 0 ??
+        if (audio == null) {
+            audio = findBest(audioTracks, null, true, true); // found unfiltered none native audio
+        }
+        if (audio == null) {
             Timber.w("Could not find good audio track, skipping!");
             return null;
         }
 
-        if (numTracks.second > 0) { // only if we have subs
+        Pair<MediaStream, Integer> subIdx = null;
+        if (tracks.mNumSubtitles > 0) { // only if we have subs
             // SUBTITLE logic
-            if (isSameLanguage(audIdx.first, subtitleCode)) { // handle audio == sub lang
-                // try SDH/Caption first
-                if (prefs.mPreferSdhSubs) {
-                    ArrayList<Pair<MediaStream, Integer>> nativeSDHSubTracks = getSDHStreams(mediaStreams, subtitleCode);
-                    if (nativeSDHSubTracks.isEmpty()) {
-                        nativeSDHSubTracks = getCaptionStreams(mediaStreams, subtitleCode);
-                    }
-                    if (!nativeSDHSubTracks.isEmpty()) {
-                        subIdx = nativeSDHSubTracks.get(0); // found native sdh/caption subtitles
-                    }
+            // try SDH/Caption first
+            if (prefs.mPreferSdhSubs) {
+                subtitle = findFirst(subtitleTracks, subtitleCode, TRACK_SDH);
+                if (subtitle == null) {
+                    subtitle = findFirst(subtitleTracks, subtitleCode, TRACK_CAPTION);
                 }
+            }
+            if (subtitleCode.length() == 3 && subtitleCode.equals(audio.mLanguage)) { // handle audio == sub lang
                 // try forced next
-                if (subIdx == null && !prefs.mNoForcedSubs) {
-                    ArrayList<Pair<MediaStream, Integer>> nativeForcedSubTracks = getForcedStreams(mediaStreams, MediaStreamType.Subtitle, subtitleCode);
-                    if (!nativeForcedSubTracks.isEmpty()) {
-                        subIdx = nativeForcedSubTracks.get(0); // found native forced subtitles
-                    }
+                if (subtitle == null && !prefs.mNoForcedSubs) {
+                    subtitle = findFirst(subtitleTracks, subtitleCode, TRACK_FORCED);
                 }
                 // find good same language subtitles
-                if (subIdx == null && prefs.mAllowSameLanguageSubs) {
-                    TreeMap<Integer, Pair<MediaStream, Integer>> nativeSubtitleMerits = evaluateMediaStreams(mediaStreams, prefs, MediaStreamType.Subtitle, subtitleCode, true, false);
-                    if (!nativeSubtitleMerits.isEmpty()) {
-                        subIdx = nativeSubtitleMerits.lastEntry().getValue(); // found native filtered subtitle
-                    }
+                if (subtitle == null && prefs.mAllowSameLanguageSubs) {
+                    subtitle = findBest(subtitleTracks, subtitleCode, true, false);
                 }
                 // disable subs
-                if (subIdx == null) {
+                if (subtitle == null) {
                     subIdx = new Pair<>(null, SUBTITLE_DISABLED);
                 }
             } else { // handle audio != sub lang
-                // try SDH/Caption first
-                if (prefs.mPreferSdhSubs) {
-                    ArrayList<Pair<MediaStream, Integer>> nativeSDHSubTracks = getSDHStreams(mediaStreams, subtitleCode);
-                    if (nativeSDHSubTracks.isEmpty()) {
-                        nativeSDHSubTracks = getCaptionStreams(mediaStreams, subtitleCode);
-                    }
-                    if (!nativeSDHSubTracks.isEmpty()) {
-                        subIdx = nativeSDHSubTracks.get(0); // found native sdh/caption subtitles
-                    }
-                }
                 // try find any native subs
-                if (subIdx == null) {
-                    TreeMap<Integer, Pair<MediaStream, Integer>> nativeSubtitleMerits = evaluateMediaStreams(mediaStreams, prefs, MediaStreamType.Subtitle, subtitleCode, true, false);
-                    if (nativeSubtitleMerits.isEmpty()) { // try native low quality subs
-                        nativeSubtitleMerits = evaluateMediaStreams(mediaStreams, prefs, MediaStreamType.Subtitle, subtitleCode, true, true);
-                    }
-                    if (nativeSubtitleMerits.isEmpty()) { // try native forced (wrongly tagged forced subs)
-                        nativeSubtitleMerits = evaluateMediaStreams(mediaStreams, prefs, MediaStreamType.Subtitle, subtitleCode, false, true);
-                    }
-                    if (!nativeSubtitleMerits.isEmpty()) {
-                        subIdx = nativeSubtitleMerits.lastEntry().getValue(); // found native subtitle
-                    }
+                if (subtitle == null) {
+                    subtitle = findBest(subtitleTracks, subtitleCode, true, false);
+                }
+                if (subtitle == null) { // try native low quality subs
+                    subtitle = findBest(subtitleTracks, subtitleCode, true, true);
+                }
+                if (subtitle == null) { // try native forced (wrongly tagged forced subs)
+                    subtitle = findBest(subtitleTracks, subtitleCode, false, true);
                 }
                 // FALLBACK: assume bad language tagged subs first
-                if (subIdx == null) {
-                    TreeMap<Integer, Pair<MediaStream, Integer>> anySubtitleMerits = evaluateMediaStreams(mediaStreams, prefs, MediaStreamType.Subtitle, null, true, false);
-                    if (!anySubtitleMerits.isEmpty()) {
-                        subIdx = anySubtitleMerits.lastEntry().getValue(); // found ANY filtered subtitle track
-                    }
+                if (subtitle == null) {
+                    subtitle = findBest(subtitleTracks, null, true, false);
                 }
                 // FALLBACK: try ANY forced
-                if (subIdx == null && !prefs.mNoForcedSubs) {
-                    ArrayList<Pair<MediaStream, Integer>> anyForcedSubTracks = getForcedStreams(mediaStreams, MediaStreamType.Subtitle, null);
-                    if (!anyForcedSubTracks.isEmpty()) {
-                        subIdx = anyForcedSubTracks.get(0); // found ANY forced subtitle
-                    }
+                if (subtitle == null && !prefs.mNoForcedSubs) {
+                    subtitle = findFirst(subtitleTracks, null, TRACK_FORCED);
                 }
                 // now ANY unfiltered would be left?
-                if (subIdx == null) {
-                    TreeMap<Integer, Pair<MediaStream, Integer>> anySubtitleMerits = evaluateMediaStreams(mediaStreams, prefs, MediaStreamType.Subtitle, null, true, true);
-                    if (!anySubtitleMerits.isEmpty()) {
-                        subIdx = anySubtitleMerits.lastEntry().getValue(); // found ANY subtitle track
-                    }
+                if (subtitle == null) {
+                    subtitle = findBest(subtitleTracks, null, true, true);
                 }
             }
+            if (subtitle != null) {
+                subIdx = subtitle.toPair();
+            }
         }
 
-        String audioName = audIdx.first.getDisplayTitle();
-        String subName = null;
-        if (subIdx != null && subIdx.first != null) {
-            subName = subIdx.first.getDisplayTitle();
-        }
-        Timber.d("getBestAudioSubtitleIdx audio: <%s> subtitle: <%s> Tmdb: <%s>", audioName, subName, originalLangCode);
-        return new Pair<>(audIdx, subIdx);
+        String subName = subtitle != null ? subtitle.mStream.getDisplayTitle() : null;
+        Timber.d("getBestAudioSubtitleIdx audio: <%s> subtitle: <%s> Tmdb: <%s>", audio.mStream.getDisplayTitle(), subName, originalLangCode);
+        return new Pair<>(audio.toPair(), subIdx);
     }
 
     @NonNull
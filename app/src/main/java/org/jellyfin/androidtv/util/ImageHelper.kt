@@ -1,10 +1,14 @@
 package org.jellyfin.androidtv.util
 
 import android.content.Context
+import android.graphics.drawable.Drawable
 import com.bumptech.glide.Glide
 import com.bumptech.glide.Priority
+import com.bumptech.glide.load.DataSource
+import com.bumptech.glide.load.engine.GlideException
+import com.bumptech.glide.request.RequestListener
+import com.bumptech.glide.request.target.Target
 import com.bumptech.glide.request.target.Target.SIZE_ORIGINAL
-import me.carleslc.kotlinextensions.standard.letIfTrue
 import org.jellyfin.androidtv.JellyfinApplication
 import org.jellyfin.sdk.api.client.ApiClient
 import org.jellyfin.sdk.api.client.extensions.imageApi
@@ -17,7 +21,7 @@ import java.util.*
 class ImageHelper(private val api: ApiClient)
 {
 	companion object {
-		private val imageCache: MutableSet<Int> = HashSet(200)
+		private val preloads = ImagePreloadRegistry()
 
 		val MAX_IMAGE_HEIGHT get() = JellyfinApplication.appContext.resources.displayMetrics.heightPixels
 		val MAX_AUTO_IMAGE_HEIGHT get() = JellyfinApplication.appContext.resources.displayMetrics.heightPixels.div(2)
@@ -200,26 +204,26 @@ class ImageHelper(private val api: ApiClient)
 
 	// NOTE: we only want to make sure the data are loaded at least into diskcache
 	fun preCacheImages(context: Context, urls: Iterable<String>, height: Int = SIZE_ORIGINAL, width: Int = SIZE_ORIGINAL) {
-		val loadList = buildList {
-			urls.forEach {
-				checkImageUrl(it)?.let { checkedUrl ->
-					if (!imageCache.contains(checkedUrl.hashCode())) {
-						this.add(checkedUrl)
-						imageCache.add(checkedUrl.hashCode())
+		val loadList = urls.mapNotNull { checkImageUrl(it) }.distinct().filter { preloads.tryStart(it) }
+
+		loadList.forEach { url ->
+			Timber.d("Preload url: <%s>", url)
+			Glide.with(context)
+				.load(url)
+				.priority(Priority.LOW)
+				.centerCrop()
+				.listener(object : RequestListener<Drawable> {
+					override fun onLoadFailed(e: GlideException?, model: Any?, target: Target<Drawable>, isFirstResource: Boolean): Boolean {
+						preloads.onFailed(url)
+						return false
 					}
-				}
-			}
-		}
 
-		loadList.isNotEmpty().letIfTrue {
-			loadList.forEach {
-				Timber.d("Preload url: <%s>", it)
-				Glide.with(context)
-					.load(it)
-					.priority(Priority.LOW)
-					.centerCrop()
-					.preload(width, height)
-			}
+					override fun onResourceReady(resource: Drawable, model: Any, target: Target<Drawable>?, dataSource: DataSource, isFirstResource: Boolean): Boolean {
+						preloads.onLoaded(url)
+						return false
+					}
+				})
+				.preload(width, height)
 		}
 	}
 }
@@ -0,0 +1,90 @@
+package org.jellyfin.androidtv.util
+
+import java.util.concurrent.TimeUnit
+
+/**
+ * Bounded LRU of image preloads, used to skip urls that are loading or were loaded recently.
+ *
+ * Entries are keyed by a 64 bit hash of the url and keep the full url, so colliding urls are
+ * never skipped. Loaded entries expire after [loadedTtl], the next preload then lets Glide check
+ * its disk cache again and fetch the image if it was evicted. Failed preloads are forgotten.
+ * Loading entries expire after [loadingTtl], Glide drops requests without calling a listener when
+ * their request manager is cleared.
+ */
+class ImagePreloadRegistry(
+	private val maxEntries: Int = DEFAULT_MAX_ENTRIES,
+	private val loadedTtl: Long = LOADED_TTL,
+	private val loadingTtl: Long = LOADING_TTL,
+	private val clock: () -> Long = System::currentTimeMillis,
+) {
+	companion object {
+		const val DEFAULT_MAX_ENTRIES = 500
+		val LOADED_TTL = TimeUnit.MINUTES.toMillis(30)
+		val LOADING_TTL = TimeUnit.MINUTES.toMillis(1)
+
+		// 64 bit FNV-1a
+		fun keyOf(url: String): Long {
+			var hash = -0x340d631b7bdddcdbL
+			for (char in url) {
+				hash = hash xor char.code.toLong()
+				hash *= 0x100000001b3L
+			}
+			return hash
+		}
+	}
+
+	private class Entry(
+		val url: String,
+		var loaded: Boolean,
+		var timestamp: Long,
+	)
+
+	// access ordered for LRU eviction
+	private val entries = object : LinkedHashMap<Long, Entry>(64, 0.75f, true) {
+		override fun removeEldestEntry(eldest: MutableMap.MutableEntry<Long, Entry>?) = size > maxEntries
+	}
+
+	val size @Synchronized get() = entries.size
+
+	/**
+	 * Register a preload of [url].
+	 * @return false if the url is already loading or was loaded recently
+	 */
+	@Synchronized
+	fun tryStart(url: String): Boolean {
+		val key = keyOf(url)
+		val entry = entries[key]
+		if (entry != null && entry.url == url) {
+			val ttl = if (entry.loaded) loadedTtl else loadingTtl
+			if (clock() - entry.timestamp <= ttl) return false
+		}
+
+		entries[key] = Entry(url, false, clock())
+		return true
+	}
+
+	/**
+	 * @return true if [url] was loaded recently
+	 */
+	@Synchronized
+	fun isLoaded(url: String): Boolean {
+		val entry = entries[keyOf(url)]?.takeIf { it.url == url } ?: return false
+		return entry.loaded && clock() - entry.timestamp <= loadedTtl
+	}
+
+	@Synchronized
+	fun onLoaded(url: String) {
+		val entry = entries[keyOf(url)]?.takeIf { it.url == url } ?: return
+		entry.loaded = true
+		entry.timestamp = clock()
+	}
+
+	@Synchronized
+	fun onFailed(url: String) {
+		val key = keyOf(url)
+		if (entries[key]?.url == url) entries.remove(key)
+	}
+
+	@Synchronized
+	fun clear() = entries.clear()
+}
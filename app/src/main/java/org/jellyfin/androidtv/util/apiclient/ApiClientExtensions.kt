@@ -1,5 +1,6 @@
 package org.jellyfin.androidtv.util.apiclient
 
+import kotlinx.coroutines.suspendCancellableCoroutine
 import org.jellyfin.apiclient.interaction.EmptyResponse
 import org.jellyfin.apiclient.interaction.Response
 import kotlin.coroutines.suspendCoroutine
@@ -17,3 +18,25 @@ suspend fun callApiEmpty(init: (callback: EmptyResponse) -> Unit): Unit = suspen
 		override fun onError(exception: Exception) = continuation.resumeWith(Result.failure(exception))
 	})
 }
+
+/**
+ * Like [callApi], but the response is dropped when the calling coroutine is cancelled before it
+ * arrives.
+ */
+suspend fun <T : Any?> callApiCancellable(init: (callback: Response<T>) -> Unit): T = suspendCancellableCoroutine { continuation ->
+	init(object : Response<T>() {
+		override fun onResponse(response: T) = continuation.resumeWith(Result.success(response))
+		override fun onError(exception: Exception) = continuation.resumeWith(Result.failure(exception))
+	})
+}
+
+/**
+ * Like [callApiEmpty], but the response is dropped when the calling coroutine is cancelled before
+ * it arrives.
+ */
+suspend fun callApiEmptyCancellable(init: (callback: EmptyResponse) -> Unit): Unit = suspendCancellableCoroutine { continuation ->
+	init(object : EmptyResponse() {
+		override fun onResponse() = continuation.resumeWith(Result.success(Unit))
+		override fun onError(exception: Exception) = continuation.resumeWith(Result.failure(exception))
+	})
+}
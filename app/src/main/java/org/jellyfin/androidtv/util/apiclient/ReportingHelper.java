@@ -2,16 +2,17 @@ package org.jellyfin.androidtv.util.apiclient;
 
 import androidx.annotation.Nullable;
 
+import org.jellyfin.androidtv.auth.repository.UserRepository;
 import org.jellyfin.androidtv.data.compat.StreamInfo;
 import org.jellyfin.androidtv.data.model.DataRefreshService;
+import org.jellyfin.androidtv.data.service.PlaybackReporter;
 import org.jellyfin.androidtv.ui.playback.PlaybackController;
-import org.jellyfin.androidtv.ui.playback.PlaybackManager;
-import org.jellyfin.apiclient.interaction.ApiClient;
-import org.jellyfin.apiclient.interaction.EmptyResponse;
 import org.jellyfin.apiclient.model.dto.BaseItemDto;
+import org.jellyfin.apiclient.model.dto.MediaSourceInfo;
 import org.jellyfin.apiclient.model.session.PlaybackProgressInfo;
 import org.jellyfin.apiclient.model.session.PlaybackStartInfo;
 import org.jellyfin.apiclient.model.session.PlaybackStopInfo;
+import org.jellyfin.sdk.model.api.UserDto;
 import org.koin.java.KoinJavaComponent;
 
 import timber.log.Timber;
@@ -22,7 +23,15 @@ public class ReportingHelper {
             PlaybackStopInfo info = new PlaybackStopInfo();
             info.setItemId(item.getId());
             info.setPositionTicks(pos);
-            KoinJavaComponent.<PlaybackManager>get(PlaybackManager.class).reportPlaybackStopped(info, streamInfo, KoinJavaComponent.<ApiClient>get(ApiClient.class), new EmptyResponse());
+            MediaSourceInfo mediaSource = streamInfo.getMediaSource();
+            if (mediaSource != null) {
+                info.setLiveStreamId(mediaSource.getLiveStreamId());
+            }
+            info.setPlaySessionId(streamInfo.getPlaySessionId());
+            String userId = getUserId();
+            if (userId != null) {
+                KoinJavaComponent.<PlaybackReporter>get(PlaybackReporter.class).reportStopped(userId, info);
+            }
 
             DataRefreshService dataRefreshService = KoinJavaComponent.<DataRefreshService>get(DataRefreshService.class);
             dataRefreshService.setLastPlayback(System.currentTimeMillis());
@@ -41,7 +50,10 @@ public class ReportingHelper {
         PlaybackStartInfo startInfo = new PlaybackStartInfo();
         startInfo.setItemId(item.getId());
         startInfo.setPositionTicks(pos);
-        KoinJavaComponent.<PlaybackManager>get(PlaybackManager.class).reportPlaybackStart(startInfo, KoinJavaComponent.<ApiClient>get(ApiClient.class), new EmptyResponse());
+        String userId = getUserId();
+        if (userId != null) {
+            KoinJavaComponent.<PlaybackReporter>get(PlaybackReporter.class).reportStart(userId, startInfo);
+        }
         Timber.i("Playback of %s started.", item.getName());
     }
 
@@ -57,7 +69,28 @@ public class ReportingHelper {
                 info.setAudioStreamIndex(playbackController.getAudioStreamIndex());
                 info.setSubtitleStreamIndex(playbackController.getSubtitleStreamIndex());
             }
-            KoinJavaComponent.<PlaybackManager>get(PlaybackManager.class).reportPlaybackProgress(info, currentStreamInfo, KoinJavaComponent.<ApiClient>get(ApiClient.class), new EmptyResponse());
+            MediaSourceInfo mediaSource = currentStreamInfo.getMediaSource();
+            if (mediaSource != null) {
+                info.setLiveStreamId(mediaSource.getLiveStreamId());
+            }
+            info.setPlaySessionId(currentStreamInfo.getPlaySessionId());
+            String userId = getUserId();
+            if (userId != null) {
+                KoinJavaComponent.<PlaybackReporter>get(PlaybackReporter.class).reportProgress(userId, info);
+            }
         }
     }
+
+    public static void markPlayed(String itemId) {
+        String userId = getUserId();
+        if (userId != null) {
+            KoinJavaComponent.<PlaybackReporter>get(PlaybackReporter.class).markPlayed(userId, itemId);
+        }
+    }
+
+    @Nullable
+    private static String getUserId() {
+        UserDto user = KoinJavaComponent.<UserRepository>get(UserRepository.class).getCurrentUser().getValue();
+        return user != null ? user.getId().toString() : null;
+    }
 }
@@ -0,0 +1,41 @@
+package org.jellyfin.androidtv.data.model
+
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.matchers.shouldBe
+
+class DataRefreshServiceTests : FunSpec({
+	fun change(timestamp: Long, added: Set<String> = emptySet(), folders: Set<String> = emptySet()) = LibraryChange(
+		timestamp = timestamp,
+		itemsAdded = added,
+		itemsRemoved = emptySet(),
+		itemsUpdated = emptySet(),
+		folders = folders,
+	)
+
+	test("LibraryChange matches added items by parent folder") {
+		val change = change(1, added = setOf("a"), folders = setOf("0123456789abcdef0123456789abcdef"))
+
+		change.isAddedTo("01234567-89ab-cdef-0123-456789ABCDEF") shouldBe true
+		change.isAddedTo("fedcba9876543210fedcba9876543210") shouldBe false
+		change.isAddedTo(null) shouldBe true
+		change(1).isAddedTo(null) shouldBe false
+	}
+
+	test("DataRefreshService returns the library changes after a time") {
+		val service = DataRefreshService()
+		service.addLibraryChange(change(10))
+		service.addLibraryChange(change(20))
+
+		service.getLibraryChangesSince(10)?.map { it.timestamp } shouldBe listOf(20L)
+		service.getLibraryChangesSince(20) shouldBe emptyList()
+		service.lastLibraryChange shouldBe 20
+	}
+
+	test("DataRefreshService requires a reload after dropping library changes") {
+		val service = DataRefreshService()
+		for (timestamp in 1..DataRefreshService.MAX_LIBRARY_CHANGES + 1) service.addLibraryChange(change(timestamp.toLong()))
+
+		service.getLibraryChangesSince(0) shouldBe null
+		service.getLibraryChangesSince(1)?.size shouldBe DataRefreshService.MAX_LIBRARY_CHANGES
+	}
+})
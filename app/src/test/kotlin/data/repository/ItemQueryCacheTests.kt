@@ -0,0 +1,98 @@
+package org.jellyfin.androidtv.data.repository
+
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.matchers.shouldBe
+import io.kotest.matchers.shouldNotBe
+import org.jellyfin.apiclient.model.dto.BaseItemDto
+import org.jellyfin.apiclient.model.querying.ItemQuery
+import org.jellyfin.apiclient.model.querying.ItemsResult
+import org.jellyfin.apiclient.serialization.GsonJsonSerializer
+import java.io.File
+import java.nio.file.Files
+
+class ItemQueryCacheTests : FunSpec({
+	fun tempDirectory(): File = Files.createTempDirectory("item_query_cache").toFile()
+
+	fun query(parentId: String) = ItemQuery().apply {
+		userId = "user"
+		this.parentId = parentId
+		limit = 50
+	}
+
+	fun result(vararg ids: String) = ItemsResult().apply {
+		items = ids.map { id -> BaseItemDto().apply { this.id = id } }.toTypedArray()
+		totalRecordCount = ids.size
+	}
+
+	test("ItemQueryCache fingerprints equal queries equally") {
+		val cache = ItemQueryCache(tempDirectory(), GsonJsonSerializer())
+
+		cache.fingerprint("Items", "user", query("a")) shouldBe cache.fingerprint("Items", "user", query("a"))
+		cache.fingerprint("Items", "user", query("a")) shouldNotBe cache.fingerprint("Items", "user", query("b"))
+		cache.fingerprint("Items", "user", query("a")) shouldNotBe cache.fingerprint("Items", "other", query("a"))
+		cache.fingerprint("Items", "user", query("a")) shouldNotBe cache.fingerprint("LatestItems", "user", query("a"))
+	}
+
+	test("ItemQueryCache returns stored results") {
+		val directory = tempDirectory()
+		val key = ItemQueryCache(directory, GsonJsonSerializer()).run {
+			val key = fingerprint("Items", "user", query("a"))
+			get(key, ItemsResult::class.java) shouldBe null
+			put(key, result("1", "2"))
+			key
+		}
+
+		// survives an app restart
+		val cached = ItemQueryCache(directory, GsonJsonSerializer()).get(key, ItemsResult::class.java)
+		cached?.items?.map { it.id } shouldBe listOf("1", "2")
+		cached?.totalRecordCount shouldBe 2
+	}
+
+	test("ItemQueryCache replaces and removes single results") {
+		val cache = ItemQueryCache(tempDirectory(), GsonJsonSerializer())
+		val (first, second) = listOf("a", "b").map { cache.fingerprint("Items", "user", query(it)) }
+		cache.put(first, result("1", "2"))
+		cache.put(second, result("3"))
+
+		// a patched row is written back
+		cache.put(first, result("2"))
+		cache.get(first, ItemsResult::class.java)?.items?.map { it.id } shouldBe listOf("2")
+
+		cache.remove(first)
+		cache.get(first, ItemsResult::class.java) shouldBe null
+		cache.get(second, ItemsResult::class.java) shouldNotBe null
+	}
+
+	test("ItemQueryCache ignores expired results") {
+		var offset = 0L
+		val cache = ItemQueryCache(tempDirectory(), GsonJsonSerializer(), clock = { System.currentTimeMillis() + offset })
+		val key = cache.fingerprint("Items", "user", query("a"))
+		cache.put(key, result("1"))
+
+		offset = ItemQueryCache.MAX_AGE + 1000
+		cache.get(key, ItemsResult::class.java) shouldBe null
+	}
+
+	test("ItemQueryCache drops the oldest results above the limit") {
+		val directory = tempDirectory()
+		val cache = ItemQueryCache(directory, GsonJsonSerializer(), maxEntries = 2)
+		val keys = listOf("a", "b", "c").map { cache.fingerprint("Items", "user", query(it)) }
+		keys.forEachIndexed { index, key ->
+			cache.put(key, result("$index"))
+			directory.resolve("$key.json").setLastModified(System.currentTimeMillis() - (keys.size - index) * 1000L)
+		}
+
+		cache.get(keys[0], ItemsResult::class.java) shouldBe null
+		cache.get(keys[2], ItemsResult::class.java) shouldNotBe null
+	}
+
+	test("ItemQueryCache drops corrupt results") {
+		val directory = tempDirectory()
+		val cache = ItemQueryCache(directory, GsonJsonSerializer())
+		val key = cache.fingerprint("Items", "user", query("a"))
+		directory.resolve("$key.json").writeText("{not json")
+
+		cache.get(key, ItemsResult::class.java) shouldBe null
+		directory.resolve("$key.json").exists() shouldBe false
+	}
+})
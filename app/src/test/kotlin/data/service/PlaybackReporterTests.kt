@@ -0,0 +1,149 @@
+package org.jellyfin.androidtv.data.service
+
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.matchers.shouldBe
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.SupervisorJob
+import kotlinx.coroutines.cancel
+import kotlinx.coroutines.delay
+import org.jellyfin.apiclient.model.session.PlaybackProgressInfo
+import org.jellyfin.apiclient.model.session.PlaybackStartInfo
+import org.jellyfin.apiclient.model.session.PlaybackStopInfo
+import org.jellyfin.apiclient.serialization.GsonJsonSerializer
+import java.io.File
+import java.io.IOException
+import java.nio.file.Files
+
+class PlaybackReporterTests : FunSpec({
+	class RejectedException : Exception("rejected")
+
+	class FakeTransport(var online: Boolean = true) : PlaybackReporter.Transport {
+		val sent = mutableListOf<String>()
+		val offlineItems = mutableSetOf<String>()
+		val rejectedItems = mutableSetOf<String>()
+
+		private fun send(report: String) {
+			val itemId = report.split(" ")[1]
+			if (itemId in rejectedItems) throw RejectedException()
+			if (!online || itemId in offlineItems) throw IOException("offline")
+			synchronized(sent) { sent.add(report) }
+		}
+
+		override fun isPermanent(error: Exception) = error is RejectedException
+
+		override suspend fun start(info: PlaybackStartInfo) = send("start ${info.itemId}")
+		override suspend fun progress(info: PlaybackProgressInfo) = send("progress ${info.itemId} ${info.positionTicks}")
+		override suspend fun stop(info: PlaybackStopInfo) = send("stop ${info.itemId}")
+		override suspend fun markPlayed(userId: String, itemId: String) = send("played $itemId")
+	}
+
+	fun tempFile(): File = Files.createTempDirectory("playback_reports").toFile().resolve("reports.json")
+
+	fun reporter(transport: FakeTransport, file: File, scope: CoroutineScope) = PlaybackReporter(
+		transport = transport,
+		file = file,
+		serializer = GsonJsonSerializer(),
+		currentUserId = { "user" },
+		scope = scope,
+		progressInterval = 200,
+		initialBackoff = 20,
+	)
+
+	fun progress(itemId: String, position: Long) = PlaybackProgressInfo().apply {
+		this.itemId = itemId
+		playSessionId = "session"
+		isPaused = true
+		positionTicks = position
+	}
+
+	fun stop(itemId: String) = PlaybackStopInfo().apply {
+		this.itemId = itemId
+	}
+
+	test("PlaybackReporter coalesces progress within the interval") {
+		val transport = FakeTransport()
+		val reporter = reporter(transport, tempFile(), CoroutineScope(SupervisorJob() + Dispatchers.Unconfined))
+
+		reporter.reportProgress("user", progress("a", 0))
+		delay(50)
+		reporter.reportProgress("user", progress("a", 0))
+		reporter.reportProgress("user", progress("a", 0))
+		delay(50)
+		transport.sent shouldBe listOf("progress a 0")
+
+		delay(300)
+		transport.sent shouldBe listOf("progress a 0", "progress a 0")
+		reporter.coalesced shouldBe 1
+	}
+
+	test("PlaybackReporter sends progress with a state change right away") {
+		val transport = FakeTransport()
+		val reporter = reporter(transport, tempFile(), CoroutineScope(SupervisorJob() + Dispatchers.Unconfined))
+
+		reporter.reportProgress("user", progress("a", 0))
+		delay(50)
+		// seeked
+		reporter.reportProgress("user", progress("a", 600_000_000))
+		delay(50)
+
+		transport.sent shouldBe listOf("progress a 0", "progress a 600000000")
+	}
+
+	test("PlaybackReporter stores failed stop reports and sends them in order") {
+		val file = tempFile()
+		val offline = FakeTransport(online = false)
+		val scope = CoroutineScope(SupervisorJob() + Dispatchers.Unconfined)
+		val reporter = reporter(offline, file, scope)
+
+		reporter.reportStopped("user", stop("a"))
+		reporter.markPlayed("user", "b")
+		delay(100)
+		scope.cancel()
+		file.exists() shouldBe true
+
+		val online = FakeTransport()
+		reporter(online, file, CoroutineScope(SupervisorJob() + Dispatchers.Unconfined))
+		delay(100)
+
+		online.sent shouldBe listOf("stop a", "played b")
+		delay(50)
+		file.exists() shouldBe false
+	}
+
+	test("PlaybackReporter drops reports the server rejected") {
+		val file = tempFile()
+		val transport = FakeTransport().apply { rejectedItems.add("a") }
+		val reporter = reporter(transport, file, CoroutineScope(SupervisorJob() + Dispatchers.Unconfined))
+
+		reporter.reportStopped("user", stop("a"))
+		reporter.reportStopped("user", stop("b"))
+		delay(50)
+
+		transport.sent shouldBe listOf("stop b")
+		reporter.failed shouldBe 1
+		file.exists() shouldBe false
+	}
+
+	test("PlaybackReporter sends other items while a report waits for its retry") {
+		val transport = FakeTransport().apply { offlineItems.add("a") }
+		val reporter = PlaybackReporter(
+			transport = transport,
+			file = tempFile(),
+			serializer = GsonJsonSerializer(),
+			currentUserId = { "user" },
+			scope = CoroutineScope(SupervisorJob() + Dispatchers.Unconfined),
+			initialBackoff = 60_000,
+		)
+
+		reporter.reportStopped("user", stop("a"))
+		reporter.markPlayed("user", "a")
+		reporter.reportStopped("user", stop("b"))
+		reporter.markPlayed("user", "b")
+		delay(50)
+
+		// The mark played report of a keeps waiting behind its stop report
+		transport.sent shouldBe listOf("stop b", "played b")
+		reporter.failed shouldBe 1
+	}
+})
@@ -0,0 +1,51 @@
+package org.jellyfin.androidtv.ui
+
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.matchers.shouldBe
+
+class BlurHashCacheTests : FunSpec({
+	val hash = "LEHV6nWB2yk8pyo0adR*.7kCMdnj"
+
+	// Placeholders are fake pixel arrays of the decoded size
+	fun cache(maxSize: Int = Int.MAX_VALUE) = BlurHashCache(maxSize, { pixels: IntArray -> pixels.size * 4 }) { _, width, height ->
+		IntArray(width * height)
+	}
+
+	test("BlurHashCache decodes each hash and size once") {
+		val cache = cache()
+
+		val first = cache.getOrDecode(hash, 32, 2.0 / 3.0)
+		cache.getOrDecode(hash, 32, 2.0 / 3.0) shouldBe first
+		cache.get(hash, 32, 2.0 / 3.0) shouldBe first
+		cache.decodeCount shouldBe 1
+
+		cache.getOrDecode(hash, 32, 16.0 / 9.0)?.size shouldBe 57 * 32
+		cache.get(hash, 16, 2.0 / 3.0) shouldBe null
+		cache.decodeCount shouldBe 2
+	}
+
+	test("BlurHashCache evicts the least recently used placeholders") {
+		// fits two 32x32 placeholders
+		val cache = cache(maxSize = 2 * 32 * 32 * 4)
+		cache.getOrDecode("0$hash", 32, 1.0)
+		cache.getOrDecode("1$hash", 32, 1.0)
+		cache.get("0$hash", 32, 1.0)
+		cache.getOrDecode("2$hash", 32, 1.0)
+
+		cache.size shouldBe 2 * 32 * 32 * 4
+		cache.get("1$hash", 32, 1.0) shouldBe null
+		(cache.get("0$hash", 32, 1.0) != null) shouldBe true
+	}
+
+	test("BlurHashCache drops all placeholders when cleared") {
+		val cache = cache()
+		cache.getOrDecode(hash, 32, 1.0)
+
+		cache.clear()
+		cache.size shouldBe 0
+		cache.get(hash, 32, 1.0) shouldBe null
+
+		cache.getOrDecode(hash, 32, 1.0)
+		cache.decodeCount shouldBe 2
+	}
+})
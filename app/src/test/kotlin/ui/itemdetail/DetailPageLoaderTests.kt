@@ -0,0 +1,46 @@
+package org.jellyfin.androidtv.ui.itemdetail
+
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.matchers.shouldBe
+import io.mockk.mockk
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.SupervisorJob
+import kotlinx.coroutines.cancel
+
+class DetailPageLoaderTests : FunSpec({
+	fun loader(scope: CoroutineScope) = DetailPageLoader(scope, mockk(), "user", maxConcurrentRows = 2)
+
+	test("DetailPageLoader retrieves queued rows by priority") {
+		val loader = loader(CoroutineScope(SupervisorJob() + Dispatchers.Unconfined))
+		val started = mutableListOf<Int>()
+		val running = mutableMapOf<Int, Runnable>()
+		for (priority in listOf(3, 0, 2, 1)) loader.addRow(priority) { done ->
+			started.add(priority)
+			running[priority] = done
+		}
+
+		started shouldBe listOf(3, 0)
+		loader.runningRows shouldBe 2
+
+		running.getValue(3).run()
+		started shouldBe listOf(3, 0, 1)
+
+		running.getValue(0).run()
+		running.getValue(1).run()
+		started shouldBe listOf(3, 0, 1, 2)
+
+		running.getValue(2).run()
+		loader.runningRows shouldBe 0
+	}
+
+	test("DetailPageLoader drops queued rows when cancelled") {
+		val scope = CoroutineScope(SupervisorJob() + Dispatchers.Unconfined)
+		val loader = loader(scope)
+		val started = mutableListOf<Int>()
+		for (priority in 0..3) loader.addRow(priority) { started.add(priority) }
+
+		scope.cancel()
+		started shouldBe listOf(0, 1)
+	}
+})
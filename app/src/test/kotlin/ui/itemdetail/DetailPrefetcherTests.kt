@@ -0,0 +1,71 @@
+package org.jellyfin.androidtv.ui.itemdetail
+
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.matchers.shouldBe
+import kotlinx.coroutines.CompletableDeferred
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.SupervisorJob
+import kotlinx.coroutines.delay
+import org.jellyfin.apiclient.model.dto.BaseItemDto
+
+class DetailPrefetcherTests : FunSpec({
+	fun prefetcher(
+		fetched: MutableList<String>,
+		gate: CompletableDeferred<Unit>? = null,
+		maxConcurrent: Int = DetailPrefetcher.MAX_CONCURRENT,
+	) = DetailPrefetcher(
+		fetcher = { id ->
+			synchronized(fetched) { fetched.add(id) }
+			gate?.await()
+			DetailPrefetcher.Details(BaseItemDto().apply { this.id = id }, null)
+		},
+		dwell = { 10 },
+		scope = CoroutineScope(SupervisorJob() + Dispatchers.Unconfined),
+		maxConcurrent = maxConcurrent,
+	)
+
+	test("DetailPrefetcher prefetches after the dwell time and hands the result out once") {
+		val fetched = mutableListOf<String>()
+		val prefetcher = prefetcher(fetched)
+
+		prefetcher.onFocused("a")
+		delay(100)
+
+		fetched shouldBe listOf("a")
+		prefetcher.take("a")?.item?.id shouldBe "a"
+		prefetcher.take("a") shouldBe null
+	}
+
+	test("DetailPrefetcher cancels the dwell when the focus moves") {
+		val fetched = mutableListOf<String>()
+		val prefetcher = prefetcher(fetched)
+
+		prefetcher.onFocused("a")
+		prefetcher.onFocused("b")
+		prefetcher.onFocused(null)
+		delay(100)
+
+		fetched shouldBe emptyList()
+		prefetcher.take("b") shouldBe null
+	}
+
+	test("DetailPrefetcher drops queued prefetches when the focus moves") {
+		val fetched = mutableListOf<String>()
+		val gate = CompletableDeferred<Unit>()
+		val prefetcher = prefetcher(fetched, gate, maxConcurrent = 1)
+
+		prefetcher.onFocused("a")
+		delay(100)
+		prefetcher.onFocused("b")
+		delay(100)
+		prefetcher.onFocused("c")
+		delay(100)
+		fetched shouldBe listOf("a")
+
+		gate.complete(Unit)
+		delay(100)
+		fetched shouldBe listOf("a", "c")
+		prefetcher.take("a")?.item?.id shouldBe "a"
+	}
+})
@@ -0,0 +1,103 @@
+package org.jellyfin.androidtv.ui.itemhandling
+
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.matchers.collections.shouldContainExactly
+import io.kotest.matchers.shouldBe
+import io.kotest.matchers.shouldNotBe
+
+class ItemRowPagerTests : FunSpec({
+	fun pager(time: LongArray, posted: MutableList<Runnable>) = ItemRowPager(
+		clock = { time[0] },
+		post = { posted.add(it) },
+	).apply {
+		reset(50)
+		setTotal(1000)
+	}
+
+	test("ItemRowPager requests each page once") {
+		val pager = pager(longArrayOf(0), mutableListOf())
+
+		pager.nextPage(0, 20, 50) shouldBe null
+		val page = pager.nextPage(31, 20, 50)
+		page?.startIndex shouldBe 50
+		// focus changes while the page loads don't request it again
+		pager.nextPage(32, 20, 50) shouldBe null
+	}
+
+	test("ItemRowPager requests more pages ahead when scrolling fast") {
+		val time = longArrayOf(0)
+		val pager = pager(time, mutableListOf())
+
+		val slow = pager.onPosition(0)
+		var fast = slow
+		for (position in 1L..30L) {
+			time[0] += 50
+			fast = pager.onPosition(position * 5)
+		}
+		(fast > slow) shouldBe true
+
+		val pages = generateSequence { pager.nextPage(40, fast, 50) }.toList()
+		pages.map { it.startIndex } shouldContainExactly listOf(50, 100, 150)
+		pager.inFlightCount shouldBe ItemRowPager.MAX_IN_FLIGHT
+	}
+
+	test("ItemRowPager stops at the server total") {
+		val pager = pager(longArrayOf(0), mutableListOf())
+		pager.setTotal(120)
+
+		val pages = generateSequence { pager.nextPage(100, 200, 50) }.toList()
+		pages.map { it.startIndex } shouldContainExactly listOf(50, 100)
+	}
+
+	test("ItemRowPager applies pages in request order") {
+		val posted = mutableListOf<Runnable>()
+		val pager = pager(longArrayOf(0), posted)
+		val first = pager.nextPage(40, 100, 50)!!
+		val second = pager.nextPage(40, 100, 50)!!
+
+		val applied = mutableListOf<Int>()
+		fun deliver(page: ItemRowPager.Page) {
+			if (pager.deliver(page) { deliver(page) }) applied.add(page.startIndex)
+		}
+
+		deliver(second)
+		applied shouldBe emptyList()
+		deliver(first)
+		applied shouldContainExactly listOf(50)
+		posted.size shouldBe 1
+		posted.removeAt(0).run()
+		applied shouldContainExactly listOf(50, 100)
+		pager.pagesLoaded shouldBe 2
+	}
+
+	test("ItemRowPager drops pages of a previous retrieve") {
+		val pager = pager(longArrayOf(0), mutableListOf())
+		val page = pager.nextPage(40, 20, 50)!!
+
+		pager.reset(50)
+		pager.deliver(page) {} shouldBe false
+	}
+
+	test("ItemRowPager resumes from a failed page") {
+		val pager = pager(longArrayOf(0), mutableListOf())
+		val first = pager.nextPage(40, 100, 50)!!
+		val second = pager.nextPage(40, 100, 50)!!
+
+		pager.fail(second)
+		pager.deliver(first) {} shouldBe false
+		val retry = pager.nextPage(40, 100, 50)
+		retry shouldNotBe null
+		retry?.startIndex shouldBe 50
+	}
+
+	test("ItemRowPager measures page latency") {
+		val time = longArrayOf(0)
+		val pager = pager(time, mutableListOf())
+		val page = pager.nextPage(40, 20, 50)!!
+
+		time[0] = 300
+		pager.deliver(page) {} shouldBe true
+		pager.lastLatencyMs shouldBe 300
+		pager.averageLatencyMs shouldBe 300
+	}
+})
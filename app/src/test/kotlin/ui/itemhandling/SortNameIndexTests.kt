@@ -0,0 +1,53 @@
+package org.jellyfin.androidtv.ui.itemhandling
+
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.matchers.shouldBe
+
+class SortNameIndexTests : FunSpec({
+	val index = SortNameIndex.build(listOf(
+		"2001 a space odyssey",
+		"12 angry men",
+		"alien",
+		"aliens",
+		"être et avoir",
+		"matrix",
+		"memento",
+		null,
+		"zodiac",
+	))
+
+	test("SortNameIndex finds the first item of a letter") {
+		index.positionOf("A") shouldBe 2
+		index.positionOf("E") shouldBe 4
+		index.positionOf("M") shouldBe 5
+		index.positionOf("z") shouldBe 8
+	}
+
+	test("SortNameIndex finds the next letter with items") {
+		index.positionOf("B") shouldBe 4
+		index.positionOf("N") shouldBe 8
+	}
+
+	test("SortNameIndex jumps to the start for other characters") {
+		index.positionOf("#") shouldBe 0
+	}
+
+	test("SortNameIndex returns the total count after the last item") {
+		SortNameIndex.build(listOf("alien", "matrix")).positionOf("Z") shouldBe 2
+		SortNameIndex.build(emptyList()).positionOf("A") shouldBe 0
+	}
+
+	test("SortNameIndexCache drops old entries") {
+		val time = longArrayOf(0)
+		val cache = SortNameIndexCache(maxEntries = 2, maxAge = 100, clock = { time[0] })
+
+		cache["a"] = index
+		cache["b"] = index
+		cache["c"] = index
+		cache["a"] shouldBe null
+		cache["b"] shouldBe index
+
+		time[0] = 101
+		cache["b"] shouldBe null
+	}
+})
@@ -0,0 +1,72 @@
+package org.jellyfin.androidtv.ui.livetv
+
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.matchers.collections.shouldBeEmpty
+import io.kotest.matchers.shouldBe
+import org.jellyfin.apiclient.model.dto.BaseItemDto
+import java.util.Date
+import java.util.TimeZone
+
+private const val HOUR = 3600000L
+
+private fun program(id: String, channelId: String, start: Long, end: Long) = BaseItemDto().apply {
+	this.id = id
+	this.channelId = channelId
+	startDate = Date(start)
+	endDate = Date(end)
+}
+
+class GuideProgramStoreTests : FunSpec({
+	// guide times are local, keep them equal to the program dates
+	val defaultTimeZone = TimeZone.getDefault()
+	beforeSpec { TimeZone.setDefault(TimeZone.getTimeZone("UTC")) }
+	afterSpec { TimeZone.setDefault(defaultTimeZone) }
+
+	test("GuideProgramStore only reports missing tiles") {
+		val store = GuideProgramStore()
+		val channels = listOf("a", "b")
+
+		val delta = store.getMissing(channels, 0, 3 * HOUR)
+		delta shouldBe GuideProgramStore.Delta(channels, 0, 3 * HOUR)
+		store.merge(delta!!, arrayOf(program("1", "a", 0, HOUR)))
+		store.getMissing(channels, 0, 3 * HOUR) shouldBe null
+
+		// paging hours only needs the new window
+		store.getMissing(channels, HOUR, 4 * HOUR) shouldBe GuideProgramStore.Delta(channels, 3 * HOUR, 4 * HOUR)
+		// paging channels only needs the new channels
+		store.getMissing(listOf("b", "c"), 0, 3 * HOUR) shouldBe GuideProgramStore.Delta(listOf("c"), 0, 3 * HOUR)
+	}
+
+	test("GuideProgramStore merges windows and returns overlapping programs in order") {
+		val store = GuideProgramStore()
+		store.merge(GuideProgramStore.Delta(listOf("a"), HOUR, 3 * HOUR), arrayOf(
+			program("2", "a", HOUR, 2 * HOUR),
+			program("3", "a", 2 * HOUR, 4 * HOUR),
+		))
+		// program 3 is returned again by the next window
+		store.merge(GuideProgramStore.Delta(listOf("a"), 3 * HOUR, 5 * HOUR), arrayOf(
+			program("3", "a", 2 * HOUR, 4 * HOUR),
+			program("4", "a", 4 * HOUR, 5 * HOUR),
+		))
+		store.merge(GuideProgramStore.Delta(listOf("a"), 0, HOUR), arrayOf(program("1", "a", 0, HOUR)))
+
+		store.getPrograms("a", 0, 5 * HOUR).map { it.id } shouldBe listOf("1", "2", "3", "4")
+		store.getPrograms("a", 3 * HOUR, 5 * HOUR).map { it.id } shouldBe listOf("3", "4")
+		store.getPrograms("a", HOUR + HOUR / 2, 2 * HOUR).map { it.id } shouldBe listOf("2")
+		store.getPrograms("b", 0, 5 * HOUR).shouldBeEmpty()
+	}
+
+	test("GuideProgramStore evicts past windows") {
+		val store = GuideProgramStore()
+		store.merge(GuideProgramStore.Delta(listOf("a"), 0, 3 * HOUR), arrayOf(
+			program("1", "a", 0, HOUR),
+			program("2", "a", HOUR, 3 * HOUR),
+		))
+
+		store.evictBefore(2 * HOUR + 10 * 60000)
+
+		store.getPrograms("a", 0, 3 * HOUR).map { it.id } shouldBe listOf("2")
+		store.getMissing(listOf("a"), 2 * HOUR, 3 * HOUR) shouldBe null
+		store.getMissing(listOf("a"), HOUR, 3 * HOUR) shouldBe GuideProgramStore.Delta(listOf("a"), HOUR, 2 * HOUR)
+	}
+})
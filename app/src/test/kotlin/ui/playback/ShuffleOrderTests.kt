@@ -0,0 +1,37 @@
+package org.jellyfin.androidtv.ui.playback
+
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.matchers.shouldBe
+import kotlin.random.Random
+
+class ShuffleOrderTests : FunSpec({
+	fun ShuffleOrder.toList() = List(size) { get(it) }
+
+	test("ShuffleOrder keeps the current item first") {
+		val order = ShuffleOrder.shuffle(50, 17, Random(1))
+
+		order[0] shouldBe 17
+		order.toList().sorted() shouldBe (0 until 50).toList()
+	}
+
+	test("ShuffleOrder appends added items") {
+		val order = ShuffleOrder.shuffle(3, 0, Random(1))
+		order.add()
+		order.add()
+
+		order.size shouldBe 5
+		order[3] shouldBe 3
+		order[4] shouldBe 4
+	}
+
+	test("ShuffleOrder closes the gap of removed items") {
+		val order = ShuffleOrder.shuffle(10, 0, Random(1))
+		val expected = order.toList().toMutableList()
+		val removed = expected.removeAt(4)
+
+		order.remove(4)
+
+		order.toList() shouldBe expected.map { if (it > removed) it - 1 else it }
+		order.toList().sorted() shouldBe (0 until 9).toList()
+	}
+})
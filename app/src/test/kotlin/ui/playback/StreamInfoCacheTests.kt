@@ -0,0 +1,112 @@
+package org.jellyfin.androidtv.ui.playback
+
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.matchers.shouldBe
+import io.kotest.matchers.shouldNotBe
+import org.jellyfin.androidtv.data.compat.StreamInfo
+import org.jellyfin.androidtv.data.compat.VideoOptions
+import org.jellyfin.apiclient.interaction.Response
+import org.jellyfin.apiclient.model.session.PlayMethod
+import org.jellyfin.apiclient.serialization.GsonJsonSerializer
+
+class StreamInfoCacheTests : FunSpec({
+	fun options(itemId: String, maxBitrate: Int = 1000) = VideoOptions().apply {
+		this.itemId = itemId
+		this.maxBitrate = maxBitrate
+	}
+
+	fun streamInfo(playMethod: PlayMethod) = StreamInfo().apply { this.playMethod = playMethod }
+
+	class Collector : Response<StreamInfo>() {
+		val results = mutableListOf<StreamInfo?>()
+		override fun onResponse(response: StreamInfo?) {
+			results.add(response)
+		}
+	}
+
+	test("StreamInfoCache fingerprints the request options") {
+		val cache = StreamInfoCache(GsonJsonSerializer())
+
+		cache.fingerprint(options("a"), "user", "server") shouldBe cache.fingerprint(options("a"), "user", "server")
+		cache.fingerprint(options("a"), "user", "server") shouldNotBe cache.fingerprint(options("b"), "user", "server")
+		cache.fingerprint(options("a"), "user", "server") shouldNotBe cache.fingerprint(options("a", maxBitrate = 2000), "user", "server")
+		cache.fingerprint(options("a"), "user", "server") shouldNotBe cache.fingerprint(options("a"), "other", "server")
+		cache.fingerprint(options("a"), "user", "server") shouldNotBe cache.fingerprint(options("a"), "user", "other")
+	}
+
+	test("StreamInfoCache reuses direct play results at any position") {
+		val cache = StreamInfoCache(GsonJsonSerializer())
+		var loads = 0
+		val loader = StreamInfoCache.Loader { loads++; it.onResponse(streamInfo(PlayMethod.DirectPlay)) }
+		val collector = Collector()
+
+		cache.get("a", 0, loader, collector)
+		cache.get("a", 5000, loader, collector)
+
+		loads shouldBe 1
+		collector.results.size shouldBe 2
+		collector.results[1]?.startPositionTicks shouldBe 5000
+		cache.hits shouldBe 1
+	}
+
+	test("StreamInfoCache gives every playback its own copy and play session") {
+		val cache = StreamInfoCache(GsonJsonSerializer())
+		val loader = StreamInfoCache.Loader {
+			it.onResponse(streamInfo(PlayMethod.DirectPlay).apply { playSessionId = "session" })
+		}
+		val collector = Collector()
+
+		cache.get("a", 0, loader, collector)
+		cache.get("a", 5000, loader, collector)
+		cache.get("a", 0, loader, collector)
+
+		val (first, second, third) = collector.results
+		first?.startPositionTicks shouldBe 0
+		second?.startPositionTicks shouldBe 5000
+		third?.startPositionTicks shouldBe 0
+		first?.playSessionId shouldBe "session"
+		second?.playSessionId shouldNotBe "session"
+		third?.playSessionId shouldNotBe second?.playSessionId
+	}
+
+	test("StreamInfoCache shares running negotiations") {
+		val cache = StreamInfoCache(GsonJsonSerializer())
+		val running = mutableListOf<Response<StreamInfo>>()
+		val loader = StreamInfoCache.Loader { running.add(it) }
+		val collector = Collector()
+
+		cache.prefetch("a", 0, loader)
+		cache.get("a", 0, loader, collector)
+		running.size shouldBe 1
+
+		running.single().onResponse(streamInfo(PlayMethod.Transcode))
+		collector.results.size shouldBe 1
+	}
+
+	test("StreamInfoCache uses prefetched transcodes once") {
+		val cache = StreamInfoCache(GsonJsonSerializer())
+		var loads = 0
+		val loader = StreamInfoCache.Loader { loads++; it.onResponse(streamInfo(PlayMethod.Transcode)) }
+
+		cache.prefetch("a", 0, loader)
+		cache.get("a", 0, loader, Collector())
+		loads shouldBe 1
+
+		cache.get("a", 0, loader, Collector())
+		cache.get("a", 5000, loader, Collector())
+		loads shouldBe 3
+	}
+
+	test("StreamInfoCache forgets invalidated items") {
+		val cache = StreamInfoCache(GsonJsonSerializer())
+		var loads = 0
+		val loader = StreamInfoCache.Loader { loads++; it.onResponse(streamInfo(PlayMethod.DirectPlay)) }
+		val key = cache.fingerprint(options("a"), "user", "server")
+
+		cache.get(key, 0, loader, Collector())
+		cache.invalidate("a")
+		cache.get(key, 0, loader, Collector())
+
+		loads shouldBe 2
+	}
+})
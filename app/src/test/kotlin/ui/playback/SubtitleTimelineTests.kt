@@ -0,0 +1,92 @@
+package org.jellyfin.androidtv.ui.playback
+
+import com.google.gson.stream.JsonReader
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.matchers.shouldBe
+import java.io.StringReader
+
+class SubtitleTimelineTests : FunSpec({
+	test("SubtitleTimeline finds the cue shown at a position") {
+		val timeline = SubtitleTimeline()
+		timeline.add(100, 200, "a")
+		timeline.add(300, 400, "b")
+
+		timeline.indexAt(50) shouldBe -1
+		timeline.indexAt(100) shouldBe 0
+		timeline.indexAt(199) shouldBe 0
+		timeline.indexAt(200) shouldBe -1
+		timeline.indexAt(350) shouldBe 1
+		timeline.indexAt(1000) shouldBe -1
+		timeline.getText(1) shouldBe "b"
+	}
+
+	test("SubtitleTimeline keeps cues added out of order sorted") {
+		val timeline = SubtitleTimeline()
+		timeline.add(300, 400, "b")
+		timeline.add(100, 200, "a")
+
+		timeline.indexAt(150) shouldBe 0
+		timeline.getText(0) shouldBe "a"
+		timeline.indexAt(350) shouldBe 1
+	}
+
+	test("SubtitleTimeline keeps showing longer overlapping cues") {
+		val timeline = SubtitleTimeline()
+		timeline.add(100, 1000, "long")
+		timeline.add(200, 300, "short")
+		timeline.add(1100, 1200, "next")
+
+		timeline.indexAt(250) shouldBe 0
+		timeline.indexAt(500) shouldBe 0
+		timeline.indexAt(1000) shouldBe -1
+		timeline.indexAt(1150) shouldBe 2
+	}
+
+	test("SubtitleTimeline changes the revision when cues shift") {
+		val timeline = SubtitleTimeline()
+		timeline.add(100, 200, "a")
+		timeline.add(300, 400, "c")
+		timeline.revision shouldBe 0
+
+		timeline.add(200, 250, "b")
+		timeline.revision shouldBe 1
+		timeline.getText(timeline.indexAt(350)) shouldBe "c"
+	}
+
+	test("SubtitleTimeline seeks in large tracks") {
+		val timeline = SubtitleTimeline()
+		repeat(5000) { timeline.add(it * 1000L, it * 1000L + 500, "$it") }
+
+		timeline.size shouldBe 5000
+		timeline.getText(timeline.indexAt(4_200_100)) shouldBe "4200"
+		timeline.indexAt(4_200_600) shouldBe -1
+		timeline.getText(timeline.indexAt(100)) shouldBe "0"
+	}
+
+	test("SubtitleTimelineLoader reads the track events") {
+		val json = buildString {
+			append("""{"TrackEvents":[""")
+			append((0 until 30).joinToString(",") { """{"Id":"$it","Text":"line $it","StartPositionTicks":${it * 100},"EndPositionTicks":${it * 100 + 50}}""" })
+			append(""",{"Id":"x","Text":null,"StartPositionTicks":0,"EndPositionTicks":0}]}""")
+		}
+		val timeline = SubtitleTimeline()
+		var firstCues = -1
+
+		SubtitleTimelineLoader.read(JsonReader(StringReader(json)), timeline) { firstCues = timeline.size }
+
+		firstCues shouldBe SubtitleTimelineLoader.FIRST_CUES
+		timeline.size shouldBe 30
+		timeline.isComplete shouldBe true
+		timeline.getText(timeline.indexAt(2910)) shouldBe "line 29"
+	}
+
+	test("SubtitleTimelineLoader does not report tracks without cues") {
+		val timeline = SubtitleTimeline()
+		var notified = false
+
+		SubtitleTimelineLoader.read(JsonReader(StringReader("""{"TrackEvents":[]}""")), timeline) { notified = true }
+
+		notified shouldBe false
+		timeline.isComplete shouldBe true
+	}
+})
@@ -0,0 +1,109 @@
+package org.jellyfin.androidtv.ui.playback
+
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.matchers.shouldBe
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.Dispatchers
+import org.jellyfin.apiclient.model.dto.BaseItemDto
+import org.jellyfin.apiclient.serialization.GsonJsonSerializer
+import java.io.File
+import java.io.IOException
+import java.nio.file.Files
+
+private class FakeLanguageSource(
+	val languages: Map<String, String> = emptyMap(),
+) : TmdbLanguageSource {
+	val requests = mutableListOf<String>()
+	var failing = false
+
+	override fun fetchOriginalLanguage(key: TmdbLanguageKey): String? {
+		requests.add(key.toString())
+		if (failing) throw IOException("offline")
+		return languages[key.toString()]
+	}
+}
+
+class TmdbLanguageCacheTests : FunSpec({
+	fun tempStore(): File = Files.createTempDirectory("tmdb").toFile().resolve("cache.json")
+
+	// loads and saves run right away on the calling thread
+	val immediate = CoroutineScope(Dispatchers.Unconfined)
+
+	test("TmdbLanguageCache serves cached languages without fetching again") {
+		val source = FakeLanguageSource(mapOf("movie/603" to "en"))
+		val cache = TmdbLanguageCache(tempStore(), source)
+		val key = TmdbLanguageKey(TmdbLanguageKey.TYPE_MOVIE, "603")
+
+		cache.getCached(key) shouldBe null
+		cache.get(key) shouldBe "en"
+		cache.get(key) shouldBe "en"
+		cache.getCached(key) shouldBe TmdbLanguageCache.CachedLanguage("en")
+		source.requests shouldBe listOf("movie/603")
+	}
+
+	test("TmdbLanguageCache caches missing languages for a shorter time") {
+		var now = 0L
+		val source = FakeLanguageSource()
+		val cache = TmdbLanguageCache(tempStore(), source, clock = { now })
+		val key = TmdbLanguageKey(TmdbLanguageKey.TYPE_TV, "1")
+
+		cache.get(key) shouldBe null
+		cache.getCached(key) shouldBe TmdbLanguageCache.CachedLanguage(null)
+
+		now += TmdbLanguageCache.NEGATIVE_TTL + 1
+		cache.getCached(key) shouldBe null
+		cache.get(key) shouldBe null
+		source.requests shouldBe listOf("tv/1", "tv/1")
+	}
+
+	test("TmdbLanguageCache does not cache network errors") {
+		val source = FakeLanguageSource(mapOf("tv/2" to "ja"))
+		val cache = TmdbLanguageCache(tempStore(), source)
+		val key = TmdbLanguageKey(TmdbLanguageKey.TYPE_TV, "2")
+
+		source.failing = true
+		cache.get(key) shouldBe null
+		cache.getCached(key) shouldBe null
+
+		source.failing = false
+		cache.get(key) shouldBe "ja"
+	}
+
+	test("TmdbLanguageCache persists entries across instances") {
+		val store = tempStore()
+		val key = TmdbLanguageKey(TmdbLanguageKey.TYPE_TVDB, "81189")
+		TmdbLanguageCache(store, FakeLanguageSource(mapOf("tvdb/81189" to "en"))).get(key) shouldBe "en"
+
+		val source = FakeLanguageSource()
+		TmdbLanguageCache(store, source, scope = immediate).getCached(key) shouldBe TmdbLanguageCache.CachedLanguage("en")
+		source.requests shouldBe emptyList()
+	}
+
+	test("TmdbLanguageCache persists series keys when they are added") {
+		val store = tempStore()
+		val serializer = GsonJsonSerializer()
+		val series = serializer.DeserializeFromString("""{"Id":"series","Type":"Series","ProviderIds":{"Tmdb":"1399"}}""", BaseItemDto::class.java)
+		val episode = serializer.DeserializeFromString("""{"Id":"episode","Type":"Episode","SeriesId":"series"}""", BaseItemDto::class.java)
+
+		TmdbLanguageCache(store, FakeLanguageSource(), scope = immediate).canResolve(series) shouldBe true
+
+		val cache = TmdbLanguageCache(store, FakeLanguageSource(), scope = immediate)
+		cache.canResolve(episode) shouldBe true
+		cache.getCached(episode) shouldBe null
+	}
+
+	test("TmdbLanguageCache evicts the least recently used entries") {
+		val source = FakeLanguageSource(mapOf("movie/1" to "en", "movie/2" to "fr", "movie/3" to "de"))
+		val cache = TmdbLanguageCache(tempStore(), source, maxEntries = 2)
+		val (first, second, third) = (1..3).map { TmdbLanguageKey(TmdbLanguageKey.TYPE_MOVIE, it.toString()) }
+
+		cache.get(first)
+		cache.get(second)
+		cache.getCached(first)
+		cache.get(third)
+
+		cache.getCached(first) shouldBe TmdbLanguageCache.CachedLanguage("en")
+		cache.getCached(second) shouldBe null
+		cache.getCached(third) shouldBe TmdbLanguageCache.CachedLanguage("de")
+	}
+})
@@ -0,0 +1,143 @@
+package org.jellyfin.androidtv.ui.playback
+
+import com.sun.net.httpserver.HttpServer
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.matchers.collections.shouldContainExactly
+import io.kotest.matchers.collections.shouldHaveSize
+import io.kotest.matchers.longs.shouldBeGreaterThanOrEqual
+import io.kotest.matchers.shouldBe
+import java.net.InetSocketAddress
+
+/**
+ * Minimal stand-in for the Zidoo http-api, serving the `ZidooVideoPlay` endpoints.
+ */
+private class FakeZidooServer {
+	val server: HttpServer = HttpServer.create(InetSocketAddress("127.0.0.1", 0), 0)
+	val requests = mutableListOf<String>()
+	val remotePorts = mutableSetOf<Int>()
+	var playStatusJson = PLAY_STATUS_JSON
+
+	val baseUrl get() = "http://127.0.0.1:${server.address.port}"
+
+	init {
+		server.createContext("/ZidooVideoPlay/") { exchange ->
+			synchronized(this) {
+				requests.add(exchange.requestURI.toString())
+				remotePorts.add(exchange.remoteAddress.port)
+			}
+			val body = when (exchange.requestURI.path.substringAfterLast('/')) {
+				"getPlayStatus" -> playStatusJson
+				"setAudio", "setSubtitle", "seekTo" -> """{"status":200}"""
+				else -> """{"status":806}"""
+			}.toByteArray()
+			exchange.sendResponseHeaders(200, body.size.toLong())
+			exchange.responseBody.use { it.write(body) }
+		}
+		server.start()
+	}
+
+	fun stop() = server.stop(0)
+
+	companion object {
+		const val PLAY_STATUS_JSON = """{"status":200,
+			"video":{"status":1,"currentPosition":123456,"duration":5400000,"width":3840,"path":"/mnt/smb/movie.mkv","title":"movie"},
+			"audio":{"index":2,"title":"DTS"},
+			"subtitle":{"index":0,"list":[{"title":"off"}]}}"""
+	}
+}
+
+class ZidooApiClientTests : FunSpec({
+	test("ZidooApiClient.getPlayStatus() parses a playing status") {
+		val fake = FakeZidooServer()
+		try {
+			val status = ZidooApiClient(fake.baseUrl).getPlayStatus()
+
+			status.status shouldBe PlayerApiHelpers.API_ZIDOO_HTTP_API_VIDEOPLAY_STATUS_PLAYING
+			status.position shouldBe 123456
+			status.audioIndex shouldBe 2
+			status.subtitleIndex shouldBe 0
+			status.idHash shouldBe "/mnt/smb/movie.mkv".hashCode()
+			status.isActive shouldBe true
+		} finally {
+			fake.stop()
+		}
+	}
+
+	test("ZidooApiClient.getPlayStatus() ignores position without duration") {
+		val fake = FakeZidooServer()
+		fake.playStatusJson = """{"status":200,"video":{"status":0,"currentPosition":1000,"duration":0,"width":1920,"title":"stream"}}"""
+		try {
+			val status = ZidooApiClient(fake.baseUrl).getPlayStatus()
+
+			status.status shouldBe PlayerApiHelpers.API_ZIDOO_HTTP_API_VIDEOPLAY_STATUS_PAUSE
+			status.position shouldBe null
+			status.idHash shouldBe "stream".hashCode()
+		} finally {
+			fake.stop()
+		}
+	}
+
+	test("ZidooApiClient.getPlayStatus() returns error status for invalid responses") {
+		val fake = FakeZidooServer()
+		try {
+			val client = ZidooApiClient(fake.baseUrl)
+
+			fake.playStatusJson = """{"status":806}"""
+			client.getPlayStatus() shouldBe ZidooPlayStatus.ERROR
+
+			fake.playStatusJson = """{"status":200,"video":{"status":1,"width":0}}"""
+			client.getPlayStatus() shouldBe ZidooPlayStatus.ERROR
+
+			fake.playStatusJson = """not json"""
+			client.getPlayStatus() shouldBe ZidooPlayStatus.ERROR
+		} finally {
+			fake.stop()
+		}
+	}
+
+	test("ZidooApiClient commands use the expected endpoints") {
+		val fake = FakeZidooServer()
+		try {
+			val client = ZidooApiClient(fake.baseUrl)
+
+			client.setAudioTrack(1) shouldBe true
+			client.setSubtitleTrack(0) shouldBe true
+			client.seekTo(300000) shouldBe true
+
+			fake.requests shouldContainExactly listOf(
+				"/ZidooVideoPlay/setAudio?index=1",
+				"/ZidooVideoPlay/setSubtitle?index=0",
+				"/ZidooVideoPlay/seekTo?positon=300000",
+			)
+		} finally {
+			fake.stop()
+		}
+	}
+
+	test("ZidooApiClient reuses the keep-alive connection and tracks latency") {
+		val fake = FakeZidooServer()
+		try {
+			val client = ZidooApiClient(fake.baseUrl)
+			client.lastLatencyMs shouldBe -1L
+
+			repeat(10) { client.getPlayStatus() }
+
+			fake.requests shouldHaveSize 10
+			fake.remotePorts shouldHaveSize 1
+			client.lastLatencyMs shouldBeGreaterThanOrEqual 0L
+			client.averageLatencyMs shouldBeGreaterThanOrEqual 0L
+		} finally {
+			fake.stop()
+		}
+	}
+
+	test("ZidooApiClient fails fast when the player is not reachable") {
+		val fake = FakeZidooServer()
+		val baseUrl = fake.baseUrl
+		fake.stop()
+
+		val client = ZidooApiClient(baseUrl, timeout = 200)
+		client.getPlayStatus() shouldBe ZidooPlayStatus.ERROR
+		client.seekTo(1000) shouldBe false
+	}
+})
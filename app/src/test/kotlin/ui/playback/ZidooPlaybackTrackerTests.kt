@@ -0,0 +1,56 @@
+package org.jellyfin.androidtv.ui.playback
+
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.matchers.shouldBe
+
+class ZidooPlaybackTrackerTests : FunSpec({
+	val playing = PlayerApiHelpers.API_ZIDOO_HTTP_API_VIDEOPLAY_STATUS_PLAYING
+	val paused = PlayerApiHelpers.API_ZIDOO_HTTP_API_VIDEOPLAY_STATUS_PAUSE
+
+	test("ZidooPlaybackTracker polls fast on start and at the report interval while steady") {
+		val tracker = ZidooPlaybackTracker()
+
+		tracker.update(ZidooPlayStatus(playing, 0, 1, 0, 0), 0) shouldBe ZidooPlaybackTracker.FAST_POLL_INTERVAL
+		tracker.phase shouldBe ZidooPlaybackTracker.Phase.TRANSITION
+
+		tracker.update(ZidooPlayStatus(playing, 1000, 1, 0, 0), 1000) shouldBe ZidooPlaybackTracker.STEADY_POLL_INTERVAL
+		tracker.phase shouldBe ZidooPlaybackTracker.Phase.STEADY
+
+		// never polls more often than before while steady
+		tracker.update(ZidooPlayStatus(playing, 16000, 1, 0, 0), 16000) shouldBe ZidooPlaybackTracker.STEADY_POLL_INTERVAL
+		tracker.state.value.position shouldBe 16000
+	}
+
+	test("ZidooPlaybackTracker detects seeks, pauses and track switches") {
+		val tracker = ZidooPlaybackTracker()
+		tracker.update(ZidooPlayStatus(playing, 10000, 1, 0, 0), 0)
+		tracker.update(ZidooPlayStatus(playing, 12000, 1, 0, 0), 2000)
+		tracker.lastUpdateChanged shouldBe false
+
+		// seek
+		tracker.update(ZidooPlayStatus(playing, 600000, 1, 0, 0), 4000) shouldBe ZidooPlaybackTracker.FAST_POLL_INTERVAL
+		tracker.lastUpdateChanged shouldBe true
+
+		// pause
+		tracker.update(ZidooPlayStatus(paused, 601000, 1, 0, 0), 5000) shouldBe ZidooPlaybackTracker.FAST_POLL_INTERVAL
+		tracker.update(ZidooPlayStatus(paused, 601000, 1, 0, 0), 9000)
+		tracker.lastUpdateChanged shouldBe false
+
+		// subtitle switch
+		tracker.update(ZidooPlayStatus(paused, 601000, 1, 0, 2), 10000) shouldBe ZidooPlaybackTracker.FAST_POLL_INTERVAL
+		tracker.state.value.subtitleIndex shouldBe 2
+	}
+
+	test("ZidooPlaybackTracker keeps the last known values on errors") {
+		val tracker = ZidooPlaybackTracker()
+		tracker.update(ZidooPlayStatus(playing, 10000, 1, 3, 4), 0)
+
+		tracker.update(ZidooPlayStatus.ERROR, 1000) shouldBe ZidooPlaybackTracker.ERROR_POLL_INTERVAL
+		tracker.phase shouldBe ZidooPlaybackTracker.Phase.ERROR
+		tracker.state.value shouldBe ZidooPlaybackState(PlayerApiHelpers.API_ZIDOO_HTTP_API_VIDEOPLAY_STATUS_ERROR, 10000, 3, 4, 1)
+
+		// missing fields are kept after recovery
+		tracker.update(ZidooPlayStatus(playing), 2000) shouldBe ZidooPlaybackTracker.FAST_POLL_INTERVAL
+		tracker.state.value shouldBe ZidooPlaybackState(playing, 10000, 3, 4, 1)
+	}
+})
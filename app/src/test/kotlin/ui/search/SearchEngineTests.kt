@@ -0,0 +1,77 @@
+package org.jellyfin.androidtv.ui.search
+
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.matchers.shouldBe
+import org.jellyfin.sdk.model.api.BaseItemKind
+
+class SearchEngineTests : FunSpec({
+	val library = listOf("The Matrix", "Matrix Reloaded", "Mad Max", "Madagascar")
+
+	fun engine(
+		limit: Int = Int.MAX_VALUE,
+		fetched: MutableList<String> = mutableListOf(),
+		userId: () -> String? = { "user" },
+	) = SearchEngine(
+		fetcher = { term: String, _: Set<BaseItemKind>, _: Int ->
+			fetched.add(term)
+			val matches = library.filter { it.contains(term, ignoreCase = true) }
+			SearchEngine.Page(matches.take(limit), matches.size)
+		},
+		matcher = { item: String, term: String -> item.contains(term, ignoreCase = true) },
+		currentUserId = userId,
+	)
+
+	test("SearchEngine caches results per group and term") {
+		val fetched = mutableListOf<String>()
+		val engine = engine(fetched = fetched)
+
+		engine.get(SearchGroup.MOVIES, "mat") shouldBe listOf("The Matrix", "Matrix Reloaded")
+		engine.get(SearchGroup.MOVIES, "Mat ") shouldBe listOf("The Matrix", "Matrix Reloaded")
+		engine.get(SearchGroup.SERIES, "mat")
+
+		fetched shouldBe listOf("mat", "mat")
+	}
+
+	test("SearchEngine keeps the results of every user apart") {
+		var userId = "user"
+		val fetched = mutableListOf<String>()
+		val engine = engine(fetched = fetched, userId = { userId })
+
+		engine.get(SearchGroup.MOVIES, "mat")
+		userId = "other"
+		engine.getCached(SearchGroup.MOVIES, "mat") shouldBe null
+		engine.get(SearchGroup.MOVIES, "mat")
+
+		fetched shouldBe listOf("mat", "mat")
+	}
+
+	test("SearchEngine refines complete prefix results locally") {
+		val engine = engine()
+
+		engine.get(SearchGroup.MOVIES, "ma")
+		engine.getCached(SearchGroup.MOVIES, "mad") shouldBe listOf("Mad Max", "Madagascar")
+		engine.get(SearchGroup.MOVIES, "mada") shouldBe listOf("Madagascar")
+
+		engine.requests shouldBe 1
+	}
+
+	test("SearchEngine asks the server when the prefix results were truncated") {
+		val engine = engine(limit = 2)
+
+		engine.get(SearchGroup.MOVIES, "ma")
+		engine.getCached(SearchGroup.MOVIES, "mad") shouldBe null
+		engine.get(SearchGroup.MOVIES, "mad") shouldBe listOf("Mad Max", "Madagascar")
+
+		engine.requests shouldBe 2
+	}
+
+	test("SearchEngine searches all groups") {
+		val engine = engine()
+		val results = mutableMapOf<SearchGroup, List<String>>()
+
+		engine.search("max") { group, items -> results[group] = items }
+
+		results.keys shouldBe SearchGroup.values().toSet()
+		results[SearchGroup.SONGS] shouldBe listOf("Mad Max")
+	}
+})
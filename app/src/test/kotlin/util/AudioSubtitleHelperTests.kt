@@ -0,0 +1,153 @@
+package org.jellyfin.androidtv.util
+
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.matchers.shouldBe
+import io.kotest.matchers.types.shouldBeSameInstanceAs
+import org.jellyfin.androidtv.preference.constant.LanguagesAudio
+import org.jellyfin.androidtv.preference.constant.LanguagesSubtitle
+import org.jellyfin.androidtv.ui.playback.PlayerApiHelpers.SUBTITLE_DISABLED
+import org.jellyfin.apiclient.model.entities.MediaStream
+import org.jellyfin.apiclient.model.entities.MediaStreamType
+
+class AudioSubtitleHelperTests : FunSpec({
+	fun audio(
+		language: String,
+		codec: String,
+		channels: Int,
+		title: String? = null,
+		profile: String? = null,
+		default: Boolean = false,
+	) = MediaStream().apply {
+		type = MediaStreamType.Audio
+		this.language = language
+		this.codec = codec
+		this.channels = channels
+		this.title = title
+		this.profile = profile
+		isDefault = default
+	}
+
+	fun subtitle(
+		language: String,
+		codec: String,
+		title: String? = null,
+		default: Boolean = false,
+		forced: Boolean = false,
+		external: Boolean = false,
+	) = MediaStream().apply {
+		type = MediaStreamType.Subtitle
+		this.language = language
+		this.codec = codec
+		this.title = title
+		isDefault = default
+		isForced = forced
+		isExternal = external
+	}
+
+	fun prefs(
+		audio: LanguagesAudio,
+		subtitle: LanguagesSubtitle,
+		noForcedSubs: Boolean = false,
+		allowSameLanguageSubs: Boolean = false,
+		preferSdhSubs: Boolean = false,
+	) = AudioSubtitleHelper.AudioSubPref(audio, subtitle, false, noForcedSubs, allowSameLanguageSubs, preferSdhSubs, "none")
+
+	fun select(
+		streams: List<MediaStream>,
+		prefs: AudioSubtitleHelper.AudioSubPref,
+		originalLanguage: String? = null,
+	) = AudioSubtitleHelper.getRelativeAudioSubIdxSafe(
+		AudioSubtitleHelper.getBestAudioSubtitleIdx(ArrayList(streams), prefs, originalLanguage)
+	).let { it.first to it.second }
+
+	// Multi-language movie remux
+	val movie = listOf(
+		MediaStream().apply { type = MediaStreamType.Video; codec = "hevc" },
+		audio("eng", "truehd", 8, "TrueHD Atmos 7.1", default = true),
+		audio("eng", "ac3", 6, "AC3 5.1"),
+		audio("eng", "ac3", 2, "Director's Commentary"),
+		audio("ger", "dts", 6, "DTS-HD MA 5.1", profile = "DTS-HD MA"),
+		audio("fre", "ac3", 6, "AC3 5.1"),
+		subtitle("eng", "pgssub", "Forced", forced = true),
+		subtitle("eng", "pgssub", "English"),
+		subtitle("eng", "pgssub", "English SDH"),
+		subtitle("ger", "pgssub", "Deutsch"),
+		subtitle("ger", "pgssub", "Deutsch Forced", forced = true),
+		subtitle("fre", "pgssub", "Français"),
+	)
+
+	// Anime release with fansub style subtitles
+	val anime = listOf(
+		audio("jpn", "flac", 2, "Japanese", default = true),
+		audio("eng", "aac", 2, "English Dub"),
+		subtitle("eng", "ass", "Signs & Songs", forced = true),
+		subtitle("eng", "ass", "Full Subtitles", default = true),
+		subtitle("eng", "subrip", "Dialogue"),
+	)
+
+	test("AudioSubtitleHelper picks the best audio and forced subtitles of the same language") {
+		select(movie, prefs(LanguagesAudio.English, LanguagesSubtitle.English)) shouldBe (0 to 0)
+		select(movie, prefs(LanguagesAudio.German, LanguagesSubtitle.German)) shouldBe (3 to 4)
+	}
+
+	test("AudioSubtitleHelper disables subtitles of the audio language") {
+		select(movie, prefs(LanguagesAudio.English, LanguagesSubtitle.English, noForcedSubs = true)) shouldBe (0 to SUBTITLE_DISABLED)
+	}
+
+	test("AudioSubtitleHelper prefers SDH subtitles when enabled") {
+		select(movie, prefs(LanguagesAudio.English, LanguagesSubtitle.English, preferSdhSubs = true)) shouldBe (0 to 2)
+	}
+
+	test("AudioSubtitleHelper picks full subtitles for foreign audio") {
+		select(movie, prefs(LanguagesAudio.German, LanguagesSubtitle.English)) shouldBe (3 to 1)
+		select(movie, prefs(LanguagesAudio.French, LanguagesSubtitle.English)) shouldBe (4 to 1)
+		select(anime, prefs(LanguagesAudio.ORIGINAL, LanguagesSubtitle.English), "ja") shouldBe (0 to 1)
+	}
+
+	test("AudioSubtitleHelper falls back to japanese audio for korean original language") {
+		val streams = listOf(
+			audio("eng", "aac", 2, default = true),
+			audio("jpn", "flac", 2),
+		)
+
+		select(streams, prefs(LanguagesAudio.ORIGINAL, LanguagesSubtitle.English), "ko") shouldBe (1 to null)
+	}
+
+	test("AudioSubtitleHelper keeps the first track of equal merit") {
+		val streams = listOf(
+			audio("eng", "ac3", 6),
+			audio("eng", "ac3", 6),
+			subtitle("ger", "subrip", "Deutsch"),
+			subtitle("ger", "subrip", "Deutsch"),
+		)
+
+		select(streams, prefs(LanguagesAudio.English, LanguagesSubtitle.German)) shouldBe (0 to 0)
+	}
+
+	test("AudioSubtitleHelper skips external streams in the natural index") {
+		val streams = listOf(
+			audio("ger", "ac3", 2),
+			subtitle("eng", "srt", external = true),
+			subtitle("ger", "pgssub"),
+			subtitle("eng", "pgssub"),
+		)
+
+		select(streams, prefs(LanguagesAudio.German, LanguagesSubtitle.English)) shouldBe (0 to 1)
+	}
+
+	test("AudioSubtitleHelper leaves single track media to the player") {
+		select(listOf(audio("eng", "aac", 2)), prefs(LanguagesAudio.German, LanguagesSubtitle.German)) shouldBe (null to null)
+		select(movie, prefs(LanguagesAudio.DEVICE, LanguagesSubtitle.English)) shouldBe (null to null)
+	}
+
+	test("AudioSubtitleHelper caches the selection per stream list") {
+		val streams = ArrayList(movie)
+		val prefs = prefs(LanguagesAudio.English, LanguagesSubtitle.English)
+
+		val result = AudioSubtitleHelper.getBestAudioSubtitleIdx(streams, prefs, null)
+		AudioSubtitleHelper.getBestAudioSubtitleIdx(streams, prefs, null) shouldBeSameInstanceAs result
+
+		prefs.mAudioLangSetting = LanguagesAudio.German
+		AudioSubtitleHelper.getBestAudioSubtitleIdx(streams, prefs, null)?.first?.second shouldBe 3
+	}
+})
@@ -0,0 +1,69 @@
+package org.jellyfin.androidtv.util
+
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.matchers.shouldBe
+
+class ImagePreloadRegistryTests : FunSpec({
+	test("ImagePreloadRegistry skips urls that are loading or loaded") {
+		val registry = ImagePreloadRegistry()
+
+		registry.tryStart("a") shouldBe true
+		registry.tryStart("a") shouldBe false
+		registry.onLoaded("a")
+		registry.tryStart("a") shouldBe false
+		registry.tryStart("b") shouldBe true
+	}
+
+	test("ImagePreloadRegistry preloads again after the loaded entry expired") {
+		var now = 0L
+		val registry = ImagePreloadRegistry(clock = { now })
+		registry.tryStart("a")
+		registry.onLoaded("a")
+
+		now += ImagePreloadRegistry.LOADED_TTL + 1
+		registry.tryStart("a") shouldBe true
+	}
+
+	test("ImagePreloadRegistry preloads again when a load never finished") {
+		var now = 0L
+		val registry = ImagePreloadRegistry(clock = { now })
+		registry.tryStart("a")
+
+		now += ImagePreloadRegistry.LOADING_TTL
+		registry.tryStart("a") shouldBe false
+		now += 1
+		registry.tryStart("a") shouldBe true
+	}
+
+	test("ImagePreloadRegistry reports recently loaded urls") {
+		var now = 0L
+		val registry = ImagePreloadRegistry(clock = { now })
+		registry.tryStart("a")
+		registry.isLoaded("a") shouldBe false
+		registry.onLoaded("a")
+		registry.isLoaded("a") shouldBe true
+
+		now += ImagePreloadRegistry.LOADED_TTL + 1
+		registry.isLoaded("a") shouldBe false
+	}
+
+	test("ImagePreloadRegistry retries failed preloads") {
+		val registry = ImagePreloadRegistry()
+		registry.tryStart("a")
+		registry.onFailed("a")
+
+		registry.tryStart("a") shouldBe true
+	}
+
+	test("ImagePreloadRegistry evicts the least recently used urls") {
+		val registry = ImagePreloadRegistry(maxEntries = 2)
+		registry.tryStart("a")
+		registry.tryStart("b")
+		registry.tryStart("a")
+		registry.tryStart("c")
+
+		registry.size shouldBe 2
+		registry.tryStart("a") shouldBe false
+		registry.tryStart("b") shouldBe true
+	}
+})
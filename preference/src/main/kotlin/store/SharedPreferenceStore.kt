@@ -1,11 +1,18 @@
 package org.jellyfin.preference.store
 
 import android.content.SharedPreferences
+import kotlinx.coroutines.flow.Flow
+import kotlinx.coroutines.flow.MutableStateFlow
+import kotlinx.coroutines.flow.StateFlow
+import kotlinx.coroutines.flow.asStateFlow
+import kotlinx.coroutines.flow.distinctUntilChanged
+import kotlinx.coroutines.flow.map
 import org.jellyfin.preference.Preference
 import org.jellyfin.preference.PreferenceEnum
 import org.jellyfin.preference.intPreference
 import org.jellyfin.preference.migration.MigrationContext
 import timber.log.Timber
+import java.util.concurrent.ConcurrentHashMap
 
 /**
  * Implementation of the [PreferenceStore] using Android shared preferences.
@@ -25,6 +32,10 @@ import timber.log.Timber
  * 	setString("example", "new value")
  * }
  * ```
+ *
+ * Reads are served from an immutable snapshot of all values, replaced whenever the shared
+ * preferences change. Writes are visible in the snapshot immediately, writing a value that is
+ * already stored is skipped.
  */
 @Suppress("TooManyFunctions")
 abstract class SharedPreferenceStore(
@@ -33,39 +44,91 @@ abstract class SharedPreferenceStore(
 	 */
 	protected val sharedPreferences: SharedPreferences
 ) : PreferenceStore<SharedPreferences.Editor, SharedPreferences>() {
+	private val _snapshot = MutableStateFlow<Map<String, Any?>>(sharedPreferences.all)
+
+	/**
+	 * Immutable snapshot of all stored values.
+	 */
+	val snapshot: StateFlow<Map<String, Any?>> = _snapshot.asStateFlow()
+
+	// Shared preferences only keep a weak reference to listeners
+	private val changeListener = SharedPreferences.OnSharedPreferenceChangeListener { _, _ -> refresh() }
+
+	init {
+		sharedPreferences.registerOnSharedPreferenceChangeListener(changeListener)
+	}
+
 	// Internal helpers
 	private fun transaction(body: SharedPreferences.Editor.() -> Unit) {
 		val editor = sharedPreferences.edit()
 		editor.body()
 		editor.apply()
+		// The change listener is called on the main thread, update now for readers on this thread
+		refresh()
+	}
+
+	private fun refresh() = synchronized(_snapshot) {
+		_snapshot.value = sharedPreferences.all
+	}
+
+	private fun write(key: String, value: Any?) {
+		synchronized(_snapshot) {
+			val values = _snapshot.value
+			// Only keys that changed are written
+			if (values[key] == value) return
+
+			_snapshot.value = values.toMutableMap().apply {
+				if (value == null) remove(key)
+				else put(key, value)
+			}
+
+			// Applied right away, so the write is saved even if the process dies soon after
+			val editor = sharedPreferences.edit()
+			when (value) {
+				null -> editor.remove(key)
+				is Int -> editor.putInt(key, value)
+				is Long -> editor.putLong(key, value)
+				is Boolean -> editor.putBoolean(key, value)
+				is String -> editor.putString(key, value)
+			}
+			editor.apply()
+		}
 	}
 
+	/**
+	 * Observe the value of [preference], emitting the current value first.
+	 */
+	fun <T : Any> flow(preference: Preference<T>): Flow<T> = snapshot
+		.map { this[preference] }
+		.distinctUntilChanged()
+
+	@JvmName("enumFlow")
+	fun <T : Enum<T>> flow(preference: Preference<T>): Flow<T> = snapshot
+		.map { this[preference] }
+		.distinctUntilChanged()
+
 	override fun getInt(key: String, defaultValue: Int) =
-		sharedPreferences.getInt(key, defaultValue)
+		_snapshot.value[key] as? Int ?: defaultValue
 
 	override fun getLong(key: String, defaultValue: Long) =
-		sharedPreferences.getLong(key, defaultValue)
+		_snapshot.value[key] as? Long ?: defaultValue
 
 	override fun getBool(key: String, defaultValue: Boolean) =
-		sharedPreferences.getBoolean(key, defaultValue)
+		_snapshot.value[key] as? Boolean ?: defaultValue
 
 	override fun getString(key: String, defaultValue: String) =
-		sharedPreferences.getString(key, defaultValue) ?: defaultValue
-
-	override fun setInt(key: String, value: Int) = transaction { putInt(key, value) }
-	override fun setLong(key: String, value: Long) = transaction { putLong(key, value) }
-	override fun setBool(key: String, value: Boolean) =
-		transaction { putBoolean(key, value) }
+		_snapshot.value[key] as? String ?: defaultValue
 
-	override fun setString(key: String, value: String) =
-		transaction { putString(key, value) }
+	override fun setInt(key: String, value: Int) = write(key, value)
+	override fun setLong(key: String, value: Long) = write(key, value)
+	override fun setBool(key: String, value: Boolean) = write(key, value)
+	override fun setString(key: String, value: String) = write(key, value)
 
 	override fun <T : Enum<T>> getEnum(preference: Preference<T>): T {
 		val stringValue = getString(preference.key, "")
+		@Suppress("UNCHECKED_CAST")
 		return if (stringValue.isBlank()) preference.defaultValue
-		else preference.type.java.enumConstants?.find {
-			(it is PreferenceEnum && it.serializedName == stringValue) || it.name == stringValue
-		} ?: preference.defaultValue
+		else enumLookup(preference.type.java)[stringValue] as T? ?: preference.defaultValue
 	}
 
 	override fun <V : Enum<V>> setEnum(preference: Preference<*>, value: Enum<V>) =
@@ -75,9 +138,7 @@ abstract class SharedPreferenceStore(
 			})
 
 	// Additional mutations
-	override fun <T : Any> delete(preference: Preference<T>) = transaction {
-		remove(preference.key)
-	}
+	override fun <T : Any> delete(preference: Preference<T>) = write(preference.key, null)
 
 	// Migrations
 	override fun runMigrations(body: MigrationContext<SharedPreferences.Editor, SharedPreferences>.() -> Unit) {
@@ -97,5 +158,20 @@ abstract class SharedPreferenceStore(
 		 * Version of the preference store. Used for migration.
 		 */
 		val VERSION = intPreference("store_version", -1)
+
+		private val enumLookups = ConcurrentHashMap<Class<*>, Map<String, Enum<*>>>()
+
+		/**
+		 * Get the constants of [type] by serialized name and by name.
+		 */
+		private fun enumLookup(type: Class<*>) = enumLookups.getOrPut(type) {
+			buildMap {
+				type.enumConstants?.forEach {
+					it as Enum<*>
+					if (it is PreferenceEnum) getOrPut(it.serializedName) { it }
+					getOrPut(it.name) { it }
+				}
+			}
+		}
 	}
 }
@@ -0,0 +1,107 @@
+package org.jellyfin.preference
+
+import android.content.SharedPreferences
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.matchers.shouldBe
+import kotlinx.coroutines.flow.first
+import org.jellyfin.preference.store.SharedPreferenceStore
+
+class SharedPreferenceStoreTests : FunSpec({
+	test("Enums are read by serialized name and by name") {
+		val sharedPreferences = FakeSharedPreferences()
+		sharedPreferences.edit().putString("serialized", "set").putString("named", "NOT_SET").commit()
+		val store = TestStore(sharedPreferences)
+
+		store[enumPreference("serialized", TestEnum.NOT_SET)] shouldBe TestEnum.SET
+		store[enumPreference("named", TestEnum.SET)] shouldBe TestEnum.NOT_SET
+		store[enumPreference("missing", TestEnum.SET)] shouldBe TestEnum.SET
+	}
+
+	test("The snapshot follows external changes") {
+		val sharedPreferences = FakeSharedPreferences()
+		val store = TestStore(sharedPreferences)
+		val pref = intPreference("key", 0)
+
+		store[pref] shouldBe 0
+		sharedPreferences.edit().putInt("key", 5).apply()
+		store[pref] shouldBe 5
+	}
+
+	test("Writes are applied right away and unchanged values are skipped") {
+		val sharedPreferences = FakeSharedPreferences()
+		val store = TestStore(sharedPreferences)
+
+		store[intPreference("a", 0)] = 1
+		store[stringPreference("b", "")] = "b"
+		store[intPreference("a", 0)] = 1
+		store[intPreference("a", 0)] shouldBe 1
+
+		sharedPreferences.applyCount shouldBe 2
+		sharedPreferences.all shouldBe mapOf("a" to 1, "b" to "b")
+	}
+
+	test("Flows emit the current value") {
+		val store = TestStore(FakeSharedPreferences())
+		val pref = enumPreference("key", TestEnum.NOT_SET)
+
+		store.flow(pref).first() shouldBe TestEnum.NOT_SET
+		store[pref] = TestEnum.SET
+		store.flow(pref).first() shouldBe TestEnum.SET
+	}
+})
+
+private class TestStore(sharedPreferences: SharedPreferences) : SharedPreferenceStore(sharedPreferences)
+
+private enum class TestEnum(override val serializedName: String) : PreferenceEnum {
+	NOT_SET("not_set"),
+	SET("set"),
+}
+
+private class FakeSharedPreferences : SharedPreferences {
+	private val values = mutableMapOf<String, Any?>()
+	private val listeners = mutableSetOf<SharedPreferences.OnSharedPreferenceChangeListener>()
+	var applyCount = 0
+
+	override fun getAll(): Map<String, *> = values.toMap()
+	override fun getString(key: String, defValue: String?) = values[key] as String? ?: defValue
+	@Suppress("UNCHECKED_CAST")
+	override fun getStringSet(key: String, defValues: Set<String>?) = values[key] as Set<String>? ?: defValues
+	override fun getInt(key: String, defValue: Int) = values[key] as Int? ?: defValue
+	override fun getLong(key: String, defValue: Long) = values[key] as Long? ?: defValue
+	override fun getFloat(key: String, defValue: Float) = values[key] as Float? ?: defValue
+	override fun getBoolean(key: String, defValue: Boolean) = values[key] as Boolean? ?: defValue
+	override fun contains(key: String) = values.containsKey(key)
+
+	override fun registerOnSharedPreferenceChangeListener(listener: SharedPreferences.OnSharedPreferenceChangeListener) {
+		listeners.add(listener)
+	}
+
+	override fun unregisterOnSharedPreferenceChangeListener(listener: SharedPreferences.OnSharedPreferenceChangeListener) {
+		listeners.remove(listener)
+	}
+
+	override fun edit(): SharedPreferences.Editor = object : SharedPreferences.Editor {
+		private val changes = mutableMapOf<String, Any?>()
+
+		private fun put(key: String, value: Any?) = apply { changes[key] = value }
+
+		override fun putString(key: String, value: String?) = put(key, value)
+		override fun putStringSet(key: String, values: Set<String>?) = put(key, values)
+		override fun putInt(key: String, value: Int) = put(key, value)
+		override fun putLong(key: String, value: Long) = put(key, value)
+		override fun putFloat(key: String, value: Float) = put(key, value)
+		override fun putBoolean(key: String, value: Boolean) = put(key, value)
+		override fun remove(key: String) = put(key, null)
+		override fun clear() = apply { values.keys.forEach { changes[it] = null } }
+		override fun commit(): Boolean {
+			apply()
+			return true
+		}
+
+		override fun apply() {
+			applyCount++
+			changes.forEach { (key, value) -> if (value == null) values.remove(key) else values[key] = value }
+			changes.keys.forEach { key -> listeners.forEach { it.onSharedPreferenceChanged(this@FakeSharedPreferences, key) } }
+		}
+	}
+}